@@ -0,0 +1,81 @@
+package quickml.benchmarks;
+
+import com.google.common.collect.Lists;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import quickml.data.AttributesMap;
+import quickml.data.PredictionMap;
+import quickml.data.instances.ClassifierInstance;
+import quickml.supervised.crossValidation.PredictionMapResult;
+import quickml.supervised.crossValidation.PredictionMapResults;
+import quickml.supervised.crossValidation.lossfunctions.classifierLossFunctions.WeightedAUCCrossValLossFunction;
+import quickml.supervised.ensembles.randomForest.randomDecisionForest.RandomDecisionForest;
+import quickml.supervised.ensembles.randomForest.randomDecisionForest.RandomDecisionForestBuilder;
+import quickml.supervised.tree.decisionTree.DecisionTreeBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scoring throughput of a trained forest over a held out batch of numRows rows, and of the AUC loss over their
+ * predictions.  Each operation scores the whole batch.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InferenceBenchmark {
+    private static final int MAX_DEPTH = 12;
+
+    @Param({"10000"})
+    public int numRows;
+
+    @Param({"10"})
+    public int numNumericAttributes;
+
+    @Param({"5"})
+    public int numCategoricalAttributes;
+
+    @Param({"100"})
+    public int cardinality;
+
+    @Param({"16"})
+    public int numTrees;
+
+    private RandomDecisionForest forest;
+    private List<AttributesMap> attributesList;
+    private PredictionMapResults predictionMapResults;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        forest = new RandomDecisionForestBuilder<>(new DecisionTreeBuilder<ClassifierInstance>().maxDepth(MAX_DEPTH))
+                .numTrees(numTrees).buildPredictiveModel(new SyntheticData(numRows, numNumericAttributes, numCategoricalAttributes, cardinality, 1L).classifierInstances());
+        List<ClassifierInstance> instances = new SyntheticData(numRows, numNumericAttributes, numCategoricalAttributes, cardinality, 2L).classifierInstances();
+        attributesList = Lists.newArrayListWithCapacity(numRows);
+        List<PredictionMapResult> results = Lists.newArrayListWithCapacity(numRows);
+        for (ClassifierInstance instance : instances) {
+            attributesList.add(instance.getAttributes());
+            results.add(new PredictionMapResult(forest.predict(instance.getAttributes()), instance.getLabel(), instance.getWeight()));
+        }
+        predictionMapResults = new PredictionMapResults(results);
+    }
+
+    @Benchmark
+    public void randomDecisionForestPredict(Blackhole blackhole) {
+        for (AttributesMap attributes : attributesList) {
+            blackhole.consume(forest.predict(attributes));
+        }
+    }
+
+    @Benchmark
+    public List<PredictionMap> randomDecisionForestPredictBatch() {
+        return forest.predictBatch(attributesList);
+    }
+
+    @Benchmark
+    public double weightedAUCLoss() {
+        return new WeightedAUCCrossValLossFunction(1.0).getLoss(predictionMapResults);
+    }
+}
@@ -0,0 +1,86 @@
+package quickml.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import quickml.data.instances.ClassifierInstance;
+import quickml.data.instances.ClassifierInstanceFactory;
+import quickml.data.instances.SparseRegressionInstance;
+import quickml.supervised.classifier.logisticRegression.SparseClassifierInstance;
+import quickml.supervised.classifier.logisticRegression.SparseSGD;
+import quickml.supervised.dataProcessing.AttributeCharacteristics;
+import quickml.supervised.dataProcessing.BasicTrainingDataSurveyor;
+import quickml.supervised.dataProcessing.instanceTranformer.OneHotEncoder;
+import quickml.supervised.parametricModels.ParallelizedLogisticDerivative;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the logistic regression training path: one hot encoding, a gradient evaluation over the whole training
+ * set, and a few epochs of SparseSGD.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LogisticRegressionBenchmark {
+    private static final int SGD_EPOCHS = 3;
+
+    @Param({"10000", "100000"})
+    public int numRows;
+
+    @Param({"10"})
+    public int numNumericAttributes;
+
+    @Param({"5"})
+    public int numCategoricalAttributes;
+
+    @Param({"10", "1000"})
+    public int cardinality;
+
+    private List<ClassifierInstance> classifierInstances;
+    private Map<String, AttributeCharacteristics> attributeCharacteristics;
+    private List<SparseClassifierInstance> sparseClassifierInstances;
+    private List<SparseRegressionInstance> sparseRegressionInstances;
+    private int numSparseFeatures;
+    private ParallelizedLogisticDerivative logisticDerivative;
+    private double[] weights;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticData data = new SyntheticData(numRows, numNumericAttributes, numCategoricalAttributes, cardinality, 1L);
+        classifierInstances = data.classifierInstances();
+        attributeCharacteristics = new BasicTrainingDataSurveyor<ClassifierInstance>(false).getMapOfAttributesToAttributeCharacteristics(classifierInstances);
+        sparseClassifierInstances = data.sparseClassifierInstances();
+        sparseRegressionInstances = data.sparseRegressionInstances();
+        numSparseFeatures = data.getNumSparseFeatures();
+        logisticDerivative = new ParallelizedLogisticDerivative();
+        weights = new double[numSparseFeatures];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        logisticDerivative.shutdown();
+    }
+
+    @Benchmark
+    public List<ClassifierInstance> oneHotEncoderTransformAll() {
+        return new OneHotEncoder<Serializable, ClassifierInstance, ClassifierInstance>(attributeCharacteristics, new ClassifierInstanceFactory())
+                .transformAll(classifierInstances);
+    }
+
+    @Benchmark
+    public double[] parallelizedLogisticDerivative() {
+        double[] gradient = new double[numSparseFeatures];
+        logisticDerivative.updateGradient(sparseRegressionInstances, weights, gradient);
+        return gradient;
+    }
+
+    @Benchmark
+    public double[] sparseSGD() {
+        return new SparseSGD().minEpochs(SGD_EPOCHS).maxEpochs(SGD_EPOCHS).minimize(sparseClassifierInstances, numSparseFeatures);
+    }
+}
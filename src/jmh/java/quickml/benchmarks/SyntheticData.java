@@ -0,0 +1,141 @@
+package quickml.benchmarks;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import quickml.MathUtils;
+import quickml.data.AttributesMap;
+import quickml.data.instances.ClassifierInstance;
+import quickml.data.instances.RegressionInstance;
+import quickml.data.instances.SparseRegressionInstance;
+import quickml.supervised.classifier.logisticRegression.SparseClassifierInstance;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates reproducible training sets for the benchmarks, scaled by number of rows, number of numeric and categorical
+ * attributes, and the cardinality of the categorical attributes.  Numeric attributes n0, n1... are uniform on [0, 1),
+ * categorical attributes c0, c1... take the values v0...v(cardinality - 1).  Labels depend on n0, n1 and c0 plus noise,
+ * so the trees have real structure to find.
+ */
+public class SyntheticData {
+    private final int numRows;
+    private final int numNumericAttributes;
+    private final int numCategoricalAttributes;
+    private final int cardinality;
+    private final long seed;
+
+    public SyntheticData(int numRows, int numNumericAttributes, int numCategoricalAttributes, int cardinality, long seed) {
+        this.numRows = numRows;
+        this.numNumericAttributes = numNumericAttributes;
+        this.numCategoricalAttributes = numCategoricalAttributes;
+        this.cardinality = cardinality;
+        this.seed = seed;
+    }
+
+    /**
+     * @return instances with binary labels 1.0 and 0.0.
+     */
+    public List<ClassifierInstance> classifierInstances() {
+        Random random = new Random(seed);
+        List<ClassifierInstance> instances = Lists.newArrayListWithCapacity(numRows);
+        for (int row = 0; row < numRows; row++) {
+            AttributesMap attributes = attributes(random);
+            double label = random.nextDouble() < MathUtils.sigmoid(4 * score(attributes)) ? 1.0 : 0.0;
+            instances.add(new ClassifierInstance(attributes, label));
+        }
+        return instances;
+    }
+
+    public List<RegressionInstance> regressionInstances() {
+        Random random = new Random(seed);
+        List<RegressionInstance> instances = Lists.newArrayListWithCapacity(numRows);
+        for (int row = 0; row < numRows; row++) {
+            AttributesMap attributes = attributes(random);
+            instances.add(new RegressionInstance(attributes, score(attributes) + 0.1 * random.nextGaussian()));
+        }
+        return instances;
+    }
+
+    /**
+     * @return the classifier instances one hot encoded: numeric attributes keep their names, and each categorical value
+     * becomes an attribute named attribute=value with the value 1.0.
+     */
+    public List<SparseClassifierInstance> sparseClassifierInstances() {
+        Map<String, Integer> nameToIndexMap = getNameToIndexMap();
+        List<SparseClassifierInstance> instances = Lists.newArrayListWithCapacity(numRows);
+        for (ClassifierInstance instance : classifierInstances()) {
+            instances.add(new SparseClassifierInstance(oneHotEncode(instance.getAttributes()), instance.getLabel(), nameToIndexMap));
+        }
+        return instances;
+    }
+
+    public List<SparseRegressionInstance> sparseRegressionInstances() {
+        Map<String, Integer> nameToIndexMap = getNameToIndexMap();
+        List<SparseRegressionInstance> instances = Lists.newArrayListWithCapacity(numRows);
+        for (ClassifierInstance instance : classifierInstances()) {
+            instances.add(new SparseRegressionInstance(oneHotEncode(instance.getAttributes()), (Double) instance.getLabel(), nameToIndexMap));
+        }
+        return instances;
+    }
+
+    /**
+     * @return the index of each one hot encoded attribute.  Index 0 is the bias term.
+     */
+    public Map<String, Integer> getNameToIndexMap() {
+        Map<String, Integer> nameToIndexMap = Maps.newHashMap();
+        int index = 1;
+        for (int i = 0; i < numNumericAttributes; i++) {
+            nameToIndexMap.put("n" + i, index++);
+        }
+        for (int i = 0; i < numCategoricalAttributes; i++) {
+            for (int value = 0; value < cardinality; value++) {
+                nameToIndexMap.put("c" + i + "=v" + value, index++);
+            }
+        }
+        return nameToIndexMap;
+    }
+
+    public int getNumSparseFeatures() {
+        return 1 + numNumericAttributes + numCategoricalAttributes * cardinality;
+    }
+
+    private AttributesMap attributes(Random random) {
+        AttributesMap attributes = AttributesMap.newHashMap();
+        for (int i = 0; i < numNumericAttributes; i++) {
+            attributes.put("n" + i, random.nextDouble());
+        }
+        for (int i = 0; i < numCategoricalAttributes; i++) {
+            attributes.put("c" + i, "v" + random.nextInt(cardinality));
+        }
+        return attributes;
+    }
+
+    private static double score(AttributesMap attributes) {
+        double score = 0;
+        if (attributes.containsKey("n0")) {
+            score += (Double) attributes.get("n0") - 0.5;
+        }
+        if (attributes.containsKey("n1")) {
+            score += (Double) attributes.get("n1") - 0.5;
+        }
+        if (attributes.containsKey("c0")) {
+            score += attributes.get("c0").hashCode() % 2 == 0 ? 0.5 : -0.5;
+        }
+        return score;
+    }
+
+    private static AttributesMap oneHotEncode(AttributesMap attributes) {
+        AttributesMap encoded = AttributesMap.newHashMap();
+        for (Map.Entry<String, Serializable> entry : attributes.entrySet()) {
+            if (entry.getValue() instanceof Double) {
+                encoded.put(entry.getKey(), entry.getValue());
+            } else {
+                encoded.put(entry.getKey() + "=" + entry.getValue(), 1.0);
+            }
+        }
+        return encoded;
+    }
+}
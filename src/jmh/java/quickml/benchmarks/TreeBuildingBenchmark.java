@@ -0,0 +1,73 @@
+package quickml.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import quickml.data.instances.ClassifierInstance;
+import quickml.data.instances.RegressionInstance;
+import quickml.supervised.PredictiveModelsFromPreviousVersionsToBenchMarkAgainst.OldTree;
+import quickml.supervised.PredictiveModelsFromPreviousVersionsToBenchMarkAgainst.OldTreeBuilder;
+import quickml.supervised.ensembles.randomForest.randomDecisionForest.RandomDecisionForest;
+import quickml.supervised.ensembles.randomForest.randomDecisionForest.RandomDecisionForestBuilder;
+import quickml.supervised.tree.decisionTree.DecisionTree;
+import quickml.supervised.tree.decisionTree.DecisionTreeBuilder;
+import quickml.supervised.tree.regressionTree.RegressionTree;
+import quickml.supervised.tree.regressionTree.RegressionTreeBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Training throughput of the tree builders, with OldTreeBuilder as the baseline the current builders are measured against.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TreeBuildingBenchmark {
+    private static final int MAX_DEPTH = 12;
+    private static final int NUM_TREES = 8;
+
+    @Param({"10000", "100000"})
+    public int numRows;
+
+    @Param({"10"})
+    public int numNumericAttributes;
+
+    @Param({"5"})
+    public int numCategoricalAttributes;
+
+    @Param({"10", "1000"})
+    public int cardinality;
+
+    private List<ClassifierInstance> classifierInstances;
+    private List<RegressionInstance> regressionInstances;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticData data = new SyntheticData(numRows, numNumericAttributes, numCategoricalAttributes, cardinality, 1L);
+        classifierInstances = data.classifierInstances();
+        regressionInstances = data.regressionInstances();
+    }
+
+    @Benchmark
+    public DecisionTree decisionTreeBuilder() {
+        return new DecisionTreeBuilder<ClassifierInstance>().maxDepth(MAX_DEPTH).buildPredictiveModel(classifierInstances);
+    }
+
+    @Benchmark
+    public OldTree oldTreeBuilder() {
+        return new OldTreeBuilder<ClassifierInstance>().maxDepth(MAX_DEPTH).buildPredictiveModel(classifierInstances);
+    }
+
+    @Benchmark
+    public RegressionTree regressionTreeBuilder() {
+        return new RegressionTreeBuilder<RegressionInstance>().maxDepth(MAX_DEPTH).buildPredictiveModel(regressionInstances);
+    }
+
+    @Benchmark
+    public RandomDecisionForest randomDecisionForestBuilder() {
+        return new RandomDecisionForestBuilder<>(new DecisionTreeBuilder<ClassifierInstance>().maxDepth(MAX_DEPTH))
+                .numTrees(NUM_TREES).buildPredictiveModel(classifierInstances);
+    }
+}
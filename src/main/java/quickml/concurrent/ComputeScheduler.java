@@ -0,0 +1,144 @@
+package quickml.concurrent;
+
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the parallel work of model builders and predictors on one work-stealing ForkJoinPool, so that nested parallel
+ * code (e.g. an optimizer that cross validates forests whose trees fork subtasks) shares a fixed number of threads
+ * instead of each layer starting its own pool.  Tasks that are started from a thread of the scheduler run as forked
+ * subtasks of the calling task, and a thread that waits on a subtask helps run queued tasks instead of blocking.
+ * <p/>
+ * The workers are daemon threads that exit when idle, so a scheduler never needs to be shut down.
+ */
+public class ComputeScheduler {
+    private static volatile ComputeScheduler shared;
+
+    private final ForkJoinPool pool;
+    private final AtomicLong tasksSubmitted = new AtomicLong();
+    private final AtomicLong tasksCompleted = new AtomicLong();
+
+    public ComputeScheduler(int parallelism) {
+        Preconditions.checkArgument(parallelism > 0, "parallelism must be positive");
+        this.pool = new ForkJoinPool(parallelism, new NamedWorkerThreadFactory(), null, false);
+    }
+
+    /**
+     * @return the scheduler that is used unless a builder is given another one, with a thread per available processor.
+     */
+    public static ComputeScheduler getShared() {
+        ComputeScheduler current = shared;
+        if (current == null) {
+            synchronized (ComputeScheduler.class) {
+                current = shared;
+                if (current == null) {
+                    current = new ComputeScheduler(Runtime.getRuntime().availableProcessors());
+                    shared = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Replaces the shared scheduler, e.g. to bound all of quickml to fewer threads than there are processors.  Work that
+     * already started keeps running on the previous one.
+     */
+    public static void setShared(ComputeScheduler scheduler) {
+        shared = Preconditions.checkNotNull(scheduler);
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * @return whether the current thread is one of this scheduler's workers.
+     */
+    public boolean inScheduler() {
+        return ForkJoinTask.getPool() == pool;
+    }
+
+    /**
+     * Starts task without waiting for it.  The returned task's get and join methods rethrow task's exceptions.
+     */
+    public <T> ForkJoinTask<T> submit(Callable<T> task) {
+        ForkJoinTask<T> forkJoinTask = ForkJoinTask.adapt(counted(task));
+        if (inScheduler()) {
+            return forkJoinTask.fork();
+        }
+        return pool.submit(forkJoinTask);
+    }
+
+    /**
+     * Runs task on this scheduler and waits for its result.  From one of the scheduler's threads, task runs directly on it.
+     */
+    public <T> T invoke(Callable<T> task) {
+        return invoke(ForkJoinTask.adapt(counted(task)));
+    }
+
+    /**
+     * Runs tasks in parallel and waits for all of them.
+     *
+     * @return the results of tasks, in the same order.
+     */
+    public <T> List<T> invokeAll(final List<? extends Callable<T>> tasks) {
+        return invoke(ForkJoinTask.adapt(new Callable<List<T>>() {
+            @Override
+            public List<T> call() throws Exception {
+                List<ForkJoinTask<T>> forkJoinTasks = new ArrayList<>(tasks.size());
+                for (Callable<T> task : tasks) {
+                    forkJoinTasks.add(ForkJoinTask.adapt(counted(task)));
+                }
+                ForkJoinTask.invokeAll(forkJoinTasks);
+                List<T> results = new ArrayList<>(tasks.size());
+                for (ForkJoinTask<T> forkJoinTask : forkJoinTasks) {
+                    results.add(forkJoinTask.join());
+                }
+                return results;
+            }
+        }));
+    }
+
+    private <T> T invoke(ForkJoinTask<T> forkJoinTask) {
+        if (inScheduler()) {
+            return forkJoinTask.invoke();
+        }
+        return pool.invoke(forkJoinTask);
+    }
+
+    public SchedulerMetrics getMetrics() {
+        return new SchedulerMetrics(pool.getParallelism(), pool.getPoolSize(), pool.getActiveThreadCount(), pool.getRunningThreadCount(),
+                pool.getQueuedTaskCount(), pool.getQueuedSubmissionCount(), pool.getStealCount(), tasksSubmitted.get(), tasksCompleted.get());
+    }
+
+    private <T> Callable<T> counted(final Callable<T> task) {
+        tasksSubmitted.incrementAndGet();
+        return new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                try {
+                    return task.call();
+                } finally {
+                    tasksCompleted.incrementAndGet();
+                }
+            }
+        };
+    }
+
+    private static class NamedWorkerThreadFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+        @Override
+        public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("quickml-compute-" + thread.getPoolIndex());
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package quickml.concurrent;
+
+/**
+ * A snapshot of the load on a ComputeScheduler.  The thread and queue counts are estimates read from the pool without
+ * locking, and only tasks that were passed to the scheduler are counted as submitted or completed (subtasks that those
+ * tasks fork themselves are not).
+ */
+public class SchedulerMetrics {
+    private final int parallelism;
+    private final int poolSize;
+    private final int activeThreadCount;
+    private final int runningThreadCount;
+    private final long queuedTaskCount;
+    private final int queuedSubmissionCount;
+    private final long stealCount;
+    private final long tasksSubmitted;
+    private final long tasksCompleted;
+
+    public SchedulerMetrics(int parallelism, int poolSize, int activeThreadCount, int runningThreadCount, long queuedTaskCount,
+                            int queuedSubmissionCount, long stealCount, long tasksSubmitted, long tasksCompleted) {
+        this.parallelism = parallelism;
+        this.poolSize = poolSize;
+        this.activeThreadCount = activeThreadCount;
+        this.runningThreadCount = runningThreadCount;
+        this.queuedTaskCount = queuedTaskCount;
+        this.queuedSubmissionCount = queuedSubmissionCount;
+        this.stealCount = stealCount;
+        this.tasksSubmitted = tasksSubmitted;
+        this.tasksCompleted = tasksCompleted;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    //the number of worker threads that exist, which can briefly exceed the parallelism while threads block in joins
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    //the number of threads that are running or stealing tasks
+    public int getActiveThreadCount() {
+        return activeThreadCount;
+    }
+
+    //the number of threads that are not blocked waiting on other tasks
+    public int getRunningThreadCount() {
+        return runningThreadCount;
+    }
+
+    //the number of forked tasks that wait in the queues of workers
+    public long getQueuedTaskCount() {
+        return queuedTaskCount;
+    }
+
+    //the number of tasks from outside the scheduler that no worker has started yet
+    public int getQueuedSubmissionCount() {
+        return queuedSubmissionCount;
+    }
+
+    public long getStealCount() {
+        return stealCount;
+    }
+
+    public long getTasksSubmitted() {
+        return tasksSubmitted;
+    }
+
+    public long getTasksCompleted() {
+        return tasksCompleted;
+    }
+
+    /**
+     * @return the fraction of the parallelism that is busy.
+     */
+    public double getUtilization() {
+        return Math.min(1.0, (double) activeThreadCount / parallelism);
+    }
+
+    @Override
+    public String toString() {
+        return "SchedulerMetrics{" +
+                "parallelism=" + parallelism +
+                ", poolSize=" + poolSize +
+                ", activeThreadCount=" + activeThreadCount +
+                ", runningThreadCount=" + runningThreadCount +
+                ", queuedTaskCount=" + queuedTaskCount +
+                ", queuedSubmissionCount=" + queuedSubmissionCount +
+                ", stealCount=" + stealCount +
+                ", tasksSubmitted=" + tasksSubmitted +
+                ", tasksCompleted=" + tasksCompleted +
+                '}';
+    }
+}
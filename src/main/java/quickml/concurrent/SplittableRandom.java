@@ -0,0 +1,63 @@
+package quickml.concurrent;
+
+import java.util.Random;
+
+/**
+ * A random number generator owned by a single task, which derives the generators of its subtasks with split: a forest
+ * splits one per tree, and a tree one per node.  A build from a given seed therefore draws the same numbers whichever
+ * threads run its tasks, and in whichever order.  Unlike java.util.Random a draw needs no compare and swap, so a generator
+ * must not be drawn from by several threads at once (split may be called concurrently).  The generator is SplitMix64.
+ */
+public class SplittableRandom extends Random {
+    private static final long serialVersionUID = 4387409528513349137L;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final double DOUBLE_UNIT = 1.0 / (1L << 53);
+
+    private final long seed;
+    private long state;
+
+    public SplittableRandom(long seed) {
+        super(seed);
+        this.seed = seed;
+        this.state = seed;
+    }
+
+    /**
+     * @return a generator that only depends on the seed of this one and on key (e.g. a tree index).  Nothing is drawn from
+     * this generator, so splits can be made from several threads, and in any order.
+     */
+    public SplittableRandom split(long key) {
+        return new SplittableRandom(mix64(seed ^ mix64(key + GOLDEN_GAMMA)));
+    }
+
+    /**
+     * Restarts the sequence of this generator.  Its splits still depend on the seed it was created with.
+     */
+    @Override
+    public void setSeed(long seed) {
+        //also called by Random's constructor, before the fields of this class are assigned
+        this.state = seed;
+    }
+
+    @Override
+    protected int next(int bits) {
+        return (int) (nextLong() >>> (64 - bits));
+    }
+
+    @Override
+    public long nextLong() {
+        state += GOLDEN_GAMMA;
+        return mix64(state);
+    }
+
+    @Override
+    public double nextDouble() {
+        return (nextLong() >>> 11) * DOUBLE_UNIT;
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -1,92 +1,387 @@
 package quickml.data;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 
 /**
  * Created by alexanderhawk on 8/26/14.
+ *
+ * A map from attribute names to values that keeps its keys in a shared, interned AttributesSchema and only its values in
+ * an array of its own, so a training set's maps with the same attributes cost a reference per value rather than a hash
+ * map entry.  Lookups are a schema lookup and an array access.  Keys iterate in the order they were added; a key that is
+ * added or removed gives the map a new schema.  Copying a map, or adding several keys with putAll, looks the schema up
+ * once rather than once per key, which matters for sparse rows whose key sets rarely repeat.
  */
 public class AttributesMap implements Map<String, Serializable>, Serializable {
+    private static final long serialVersionUID = 4716280394628450731L;
 
-    private final Map<String, Serializable> map;
+    private AttributesSchema schema;
+    //indexed by the schema's indices; may be longer than the schema, with nulls after it
+    private Serializable[] values;
+    private transient int modCount;
 
     public AttributesMap(Map<String, Serializable> map) {
-        this.map = new HashMap<String, Serializable>();
-        this.map.putAll(map);
+        if (map instanceof AttributesMap) {
+            AttributesMap attributesMap = (AttributesMap) map;
+            this.schema = attributesMap.schema;
+            this.values = Arrays.copyOf(attributesMap.values, schema.size());
+        } else {
+            //one schema lookup for all the keys, rather than one per key as put would do
+            String[] keys = new String[map.size()];
+            this.values = new Serializable[keys.length];
+            int index = 0;
+            for (Entry<String, Serializable> entry : map.entrySet()) {
+                keys[index] = entry.getKey();
+                values[index] = entry.getValue();
+                index++;
+            }
+            this.schema = AttributesSchema.intern(keys);
+        }
     }
 
     public AttributesMap() {
-        this.map = new HashMap<>();
+        this.schema = AttributesSchema.EMPTY;
+        this.values = new Serializable[0];
     }
 
+    public AttributesMap(AttributesSchema schema, Serializable[] values) {
+        if (values.length < schema.size()) {
+            throw new IllegalArgumentException("expected " + schema.size() + " values, got " + values.length);
+        }
+        this.schema = schema;
+        this.values = values;
+    }
 
     public static AttributesMap newHashMap() {
-        return new AttributesMap(new HashMap<String, Serializable>());
+        return new AttributesMap();
+    }
+
+    public AttributesSchema getSchema() {
+        return schema;
     }
 
     @Override
     public int size() {
-        return map.size();
+        return schema.size();
     }
 
     @Override
     public boolean isEmpty() {
-        return map.isEmpty();
+        return schema.size() == 0;
     }
 
     @Override
     public boolean containsKey(Object key) {
-        return map.containsKey(key);
+        return schema.indexOf(key) >= 0;
     }
 
     @Override
     public boolean containsValue(Object value) {
-        return map.containsValue(value);
+        for (int i = 0; i < schema.size(); i++) {
+            if (value == null ? values[i] == null : value.equals(values[i])) {
+                return true;
+            }
+        }
+        return false;
     }
 
     @Override
     public Serializable get(Object key) {
-        return map.get(key);
+        int index = schema.indexOf(key);
+        return index >= 0 ? values[index] : null;
     }
 
     @Override
     public Serializable put(String key, Serializable value) {
-        return map.put(key, value);
+        int index = schema.indexOf(key);
+        if (index >= 0) {
+            Serializable previous = values[index];
+            values[index] = value;
+            return previous;
+        }
+        index = schema.size();
+        if (index == values.length) {
+            values = Arrays.copyOf(values, Math.max(4, 2 * index));
+        }
+        schema = schema.with(key);
+        values[index] = value;
+        modCount++;
+        return null;
     }
 
     @Override
     public Serializable remove(Object key) {
-        return map.remove(key);
+        int index = schema.indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        return removeIndex(index);
+    }
+
+    private Serializable removeIndex(int index) {
+        Serializable removed = values[index];
+        System.arraycopy(values, index + 1, values, index, schema.size() - index - 1);
+        schema = schema.without(index);
+        values[schema.size()] = null;
+        modCount++;
+        return removed;
     }
 
     @Override
     public void putAll(Map<? extends String, ? extends Serializable> m) {
-        map.putAll(m);
+        int size = schema.size();
+        if (size + m.size() > values.length) {
+            values = Arrays.copyOf(values, size + m.size());
+        }
+        //keys that aren't in the map yet are added to the schema together, with a single lookup
+        String[] newKeys = new String[m.size()];
+        int numNewKeys = 0;
+        for (Entry<? extends String, ? extends Serializable> entry : m.entrySet()) {
+            int index = schema.indexOf(entry.getKey());
+            if (index >= 0) {
+                values[index] = entry.getValue();
+            } else {
+                newKeys[numNewKeys] = entry.getKey();
+                values[size + numNewKeys] = entry.getValue();
+                numNewKeys++;
+            }
+        }
+        if (numNewKeys > 0) {
+            schema = schema.withAll(Arrays.copyOf(newKeys, numNewKeys));
+            modCount++;
+        }
     }
 
     @Override
     public void clear() {
-        map.clear();
+        schema = AttributesSchema.EMPTY;
+        Arrays.fill(values, null);
+        modCount++;
     }
 
     @Override
     public Set<String> keySet() {
-        return map.keySet();
+        return new AbstractSet<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                return new IndexIterator<String>() {
+                    @Override
+                    String get(int index) {
+                        return schema.getKey(index);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return AttributesMap.this.size();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+
+            @Override
+            public boolean remove(Object o) {
+                int index = schema.indexOf(o);
+                if (index < 0) {
+                    return false;
+                }
+                removeIndex(index);
+                return true;
+            }
+
+            @Override
+            public void clear() {
+                AttributesMap.this.clear();
+            }
+        };
     }
 
     @Override
     public Collection<Serializable> values() {
-        Collection<Serializable> values = map.values();
-        return values;
+        return new AbstractCollection<Serializable>() {
+            @Override
+            public Iterator<Serializable> iterator() {
+                return new IndexIterator<Serializable>() {
+                    @Override
+                    Serializable get(int index) {
+                        return values[index];
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return AttributesMap.this.size();
+            }
+
+            @Override
+            public void clear() {
+                AttributesMap.this.clear();
+            }
+        };
     }
 
     @Override
     public Set<Entry<String, Serializable>> entrySet() {
-        return map.entrySet();
+        return new AbstractSet<Entry<String, Serializable>>() {
+            @Override
+            public Iterator<Entry<String, Serializable>> iterator() {
+                return new IndexIterator<Entry<String, Serializable>>() {
+                    @Override
+                    Entry<String, Serializable> get(int index) {
+                        return new MapEntry(index);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return AttributesMap.this.size();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                if (!(o instanceof Entry)) {
+                    return false;
+                }
+                Entry<?, ?> entry = (Entry<?, ?>) o;
+                int index = schema.indexOf(entry.getKey());
+                return index >= 0 && (entry.getValue() == null ? values[index] == null : entry.getValue().equals(values[index]));
+            }
+
+            @Override
+            public boolean remove(Object o) {
+                if (!contains(o)) {
+                    return false;
+                }
+                removeIndex(schema.indexOf(((Entry<?, ?>) o).getKey()));
+                return true;
+            }
+
+            @Override
+            public void clear() {
+                AttributesMap.this.clear();
+            }
+        };
+    }
+
+    /**
+     * Iterates over the indices of the schema.  Removing an element moves the later ones up by one.
+     */
+    private abstract class IndexIterator<T> implements Iterator<T> {
+        private int next;
+        private int last = -1;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return next < schema.size();
+        }
+
+        @Override
+        public T next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = next++;
+            return get(last);
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            removeIndex(last);
+            next = last;
+            last = -1;
+            expectedModCount = modCount;
+        }
+
+        abstract T get(int index);
+    }
+
+    /**
+     * An entry that reads and writes the map at its index while the map's keys are unchanged, and by key afterwards, so it
+     * stays valid as long as its key is in the map.
+     */
+    private class MapEntry implements Entry<String, Serializable> {
+        private final AttributesSchema entrySchema;
+        private final int index;
+
+        MapEntry(int index) {
+            this.entrySchema = schema;
+            this.index = index;
+        }
+
+        @Override
+        public String getKey() {
+            return entrySchema.getKey(index);
+        }
+
+        @Override
+        public Serializable getValue() {
+            return schema == entrySchema ? values[index] : get(getKey());
+        }
+
+        @Override
+        public Serializable setValue(Serializable value) {
+            if (schema != entrySchema) {
+                return put(getKey(), value);
+            }
+            Serializable previous = values[index];
+            values[index] = value;
+            return previous;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> entry = (Entry<?, ?>) o;
+            Serializable value = getValue();
+            return (getKey() == null ? entry.getKey() == null : getKey().equals(entry.getKey()))
+                    && (value == null ? entry.getValue() == null : value.equals(entry.getValue()));
+        }
+
+        @Override
+        public int hashCode() {
+            Serializable value = getValue();
+            return (getKey() == null ? 0 : getKey().hashCode()) ^ (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        if (values.length != schema.size()) {
+            values = Arrays.copyOf(values, schema.size());
+        }
+        out.defaultWriteObject();
     }
 
     @Override
@@ -96,23 +391,37 @@ public class AttributesMap implements Map<String, Serializable>, Serializable {
 
         AttributesMap that = (AttributesMap) o;
 
-        if (map != null ? !map.equals(that.map) : that.map != null) return false;
+        if (schema.size() != that.schema.size()) return false;
+        for (int i = 0; i < schema.size(); i++) {
+            int index = schema == that.schema ? i : that.schema.indexOf(schema.getKey(i));
+            if (index < 0) return false;
+            if (values[i] == null ? that.values[index] != null : !values[i].equals(that.values[index])) return false;
+        }
 
         return true;
     }
 
+    //the same as the hash code of a HashMap with the same entries, times 31
     @Override
     public int hashCode() {
-        int result = map != null ? map.hashCode() : 0;
+        int result = 0;
+        for (int i = 0; i < schema.size(); i++) {
+            String key = schema.getKey(i);
+            result += (key == null ? 0 : key.hashCode()) ^ (values[i] == null ? 0 : values[i].hashCode());
+        }
         result = 31 * result;
         return result;
     }
 
     @Override
     public String toString() {
-        return map.toString();
+        StringBuilder builder = new StringBuilder("{");
+        for (int i = 0; i < schema.size(); i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(schema.getKey(i)).append('=').append(values[i]);
+        }
+        return builder.append('}').toString();
     }
 }
-
-
-
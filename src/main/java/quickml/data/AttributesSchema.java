@@ -0,0 +1,143 @@
+package quickml.data;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.collect.Maps;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The keys of an AttributesMap, in the order they were added, and the index of each key in the map's value array.
+ * Schemas are immutable and interned, so the many maps with the same keys share one schema and only hold their values.
+ * A schema caches the schema it last led to when a key was added, so maps that are filled in the same order find their
+ * next schema without a lookup.
+ */
+public final class AttributesSchema implements Serializable {
+    private static final long serialVersionUID = -6372094385716280391L;
+    private static final Interner<AttributesSchema> INTERNER = Interners.newWeakInterner();
+    public static final AttributesSchema EMPTY = INTERNER.intern(new AttributesSchema(new String[0]));
+
+    private final String[] keys;
+    private final Map<String, Integer> indices;
+    private final int hashCode;
+    //the last schema with(key) returned
+    private transient volatile Transition lastTransition;
+
+    private AttributesSchema(String[] keys) {
+        this.keys = keys;
+        this.indices = Maps.newHashMapWithExpectedSize(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            indices.put(keys[i], i);
+        }
+        this.hashCode = Arrays.hashCode(keys);
+    }
+
+    /**
+     * @return the interned schema of keys, in their order.  keys must be distinct.
+     */
+    public static AttributesSchema of(String... keys) {
+        return intern(keys.clone());
+    }
+
+    //keys is owned by the schema if it is new
+    static AttributesSchema intern(String[] keys) {
+        return INTERNER.intern(new AttributesSchema(keys));
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * @return the index of key, or -1 if the schema doesn't have it.
+     */
+    public int indexOf(Object key) {
+        Integer index = indices.get(key);
+        return index != null ? index : -1;
+    }
+
+    public String getKey(int index) {
+        return keys[index];
+    }
+
+    public List<String> getKeys() {
+        return Collections.unmodifiableList(Arrays.asList(keys));
+    }
+
+    /**
+     * @return the schema with key added after this schema's keys.  key must not be in this schema.
+     */
+    public AttributesSchema with(String key) {
+        Transition transition = lastTransition;
+        if (transition != null && (key == null ? transition.key == null : key.equals(transition.key))) {
+            return transition.schema;
+        }
+        String[] newKeys = Arrays.copyOf(keys, keys.length + 1);
+        newKeys[keys.length] = key;
+        AttributesSchema schema = INTERNER.intern(new AttributesSchema(newKeys));
+        lastTransition = new Transition(key, schema);
+        return schema;
+    }
+
+    /**
+     * @return the schema with newKeys added after this schema's keys, interned once rather than once per key.  newKeys
+     * must be distinct and not in this schema.
+     */
+    public AttributesSchema withAll(String... newKeys) {
+        if (newKeys.length == 1) {
+            return with(newKeys[0]);
+        }
+        String[] allKeys = Arrays.copyOf(keys, keys.length + newKeys.length);
+        System.arraycopy(newKeys, 0, allKeys, keys.length, newKeys.length);
+        return intern(allKeys);
+    }
+
+    /**
+     * @return the schema without the key at index, with the keys after it moved up by one.
+     */
+    public AttributesSchema without(int index) {
+        String[] newKeys = new String[keys.length - 1];
+        System.arraycopy(keys, 0, newKeys, 0, index);
+        System.arraycopy(keys, index + 1, newKeys, index, newKeys.length - index);
+        return INTERNER.intern(new AttributesSchema(newKeys));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        AttributesSchema that = (AttributesSchema) o;
+
+        return hashCode == that.hashCode && Arrays.equals(keys, that.keys);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(keys);
+    }
+
+    //deserialized schemas are shared like any others
+    private Object readResolve() {
+        return INTERNER.intern(this);
+    }
+
+    private static class Transition {
+        final String key;
+        final AttributesSchema schema;
+
+        Transition(String key, AttributesSchema schema) {
+            this.key = key;
+            this.schema = schema;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package quickml.data;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * The numeric columns of a ColumnarDataset quantized into at most MAX_BINS bins.  Each row holds an unsigned byte bin code
+ * per attribute, and bin i contains the values v with thresholds[i-1] < v <= thresholds[i].  Missing values are binned as 0,
+ * which is how NumBranch.decide treats them.
+ */
+public class BinnedNumericColumns implements Serializable {
+    private static final long serialVersionUID = -3407926655011733742L;
+    public static final int MAX_BINS = 255;
+    public static final int MAX_SAMPLES_FOR_THRESHOLDS = 200000;
+
+    private final int maxBins;
+    private final Map<String, byte[]> binCodes;
+    private final Map<String, double[]> thresholds;
+
+    private BinnedNumericColumns(int maxBins, Map<String, byte[]> binCodes, Map<String, double[]> thresholds) {
+        this.maxBins = maxBins;
+        this.binCodes = binCodes;
+        this.thresholds = thresholds;
+    }
+
+    public static BinnedNumericColumns create(ColumnarDataset data, int maxBins) {
+        Preconditions.checkArgument(maxBins > 1 && maxBins <= MAX_BINS, "maxBins must be in [2, " + MAX_BINS + "], was " + maxBins);
+        Map<String, byte[]> binCodes = Maps.newHashMap();
+        Map<String, double[]> thresholds = Maps.newHashMap();
+        for (String attribute : data.getNumericAttributes()) {
+            double[] column = data.getNumericColumn(attribute);
+            double[] attributeThresholds = getThresholds(column, maxBins);
+            byte[] codes = new byte[column.length];
+            for (int row = 0; row < column.length; row++) {
+                codes[row] = (byte) getBin(attributeThresholds, valueOrZero(column[row]));
+            }
+            binCodes.put(attribute, codes);
+            thresholds.put(attribute, attributeThresholds);
+        }
+        return new BinnedNumericColumns(maxBins, binCodes, thresholds);
+    }
+
+    /**
+     * Thresholds are midpoints between adjacent distinct values of (a sample of) the column.  If there are no more distinct
+     * values than bins, each value gets its own bin, otherwise the thresholds sit at (approximately) evenly spaced quantiles.
+     */
+    static double[] getThresholds(double[] column, int maxBins) {
+        int incrementSize = Math.max(1, column.length / MAX_SAMPLES_FOR_THRESHOLDS);
+        double[] samples = new double[(column.length + incrementSize - 1) / incrementSize];
+        int numSamples = 0;
+        for (int row = 0; row < column.length; row += incrementSize) {
+            samples[numSamples++] = valueOrZero(column[row]);
+        }
+        Arrays.sort(samples, 0, numSamples);
+        int numDistinct = numSamples == 0 ? 0 : 1;
+        for (int i = 1; i < numSamples; i++) {
+            if (samples[i] != samples[i - 1]) {
+                numDistinct++;
+            }
+        }
+        double[] thresholds = new double[Math.min(numDistinct, maxBins) - (numDistinct == 0 ? 0 : 1)];
+        int numThresholds = 0;
+        if (numDistinct <= maxBins) {
+            for (int i = 1; i < numSamples; i++) {
+                if (samples[i] != samples[i - 1]) {
+                    thresholds[numThresholds++] = (samples[i - 1] + samples[i]) / 2.0;
+                }
+            }
+            return thresholds;
+        }
+        for (int bin = 1; bin < maxBins; bin++) {
+            //move the quantile's index past runs of equal values, so that no value straddles two bins.
+            int upperIndex = (int) ((long) bin * numSamples / maxBins);
+            while (upperIndex < numSamples && samples[upperIndex] == samples[upperIndex - 1]) {
+                upperIndex++;
+            }
+            if (upperIndex == numSamples) {
+                break;
+            }
+            double threshold = (samples[upperIndex - 1] + samples[upperIndex]) / 2.0;
+            if (numThresholds == 0 || threshold > thresholds[numThresholds - 1]) {
+                thresholds[numThresholds++] = threshold;
+            }
+        }
+        return Arrays.copyOf(thresholds, numThresholds);
+    }
+
+    /**
+     * @return the index of the first threshold >= value, or thresholds.length if there is none.
+     */
+    static int getBin(double[] thresholds, double value) {
+        int low = 0, high = thresholds.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (thresholds[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static double valueOrZero(double value) {
+        return Double.isNaN(value) ? 0 : value;
+    }
+
+    public int getMaxBins() {
+        return maxBins;
+    }
+
+    public byte[] getBinCodes(String attribute) {
+        byte[] codes = binCodes.get(attribute);
+        if (codes == null) {
+            throw new RuntimeException("no binned column for attribute " + attribute);
+        }
+        return codes;
+    }
+
+    public double[] getThresholds(String attribute) {
+        return thresholds.get(attribute);
+    }
+
+    public int getNumBins(String attribute) {
+        return getThresholds(attribute).length + 1;
+    }
+}
@@ -0,0 +1,252 @@
+package quickml.data;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import quickml.data.instances.ClassifierInstance;
+import quickml.data.instances.InstanceWithAttributesMap;
+import quickml.data.instances.RegressionInstance;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * A column oriented, dictionary encoded copy of a training set.  Every attribute whose values are all Numbers is held
+ * in a primitive double column (missing values are NaN), every other attribute is held as int codes into a per attribute
+ * dictionary (missing values are MISSING_CODE).  Labels and weights live in parallel arrays, so the tree builders can
+ * reduce and split rows without looking anything up in an AttributesMap.
+ */
+public class ColumnarDataset implements Serializable {
+    private static final long serialVersionUID = 5183417210358946331L;
+    public static final int MISSING_CODE = -1;
+
+    private final int size;
+    private final Map<String, double[]> numericColumns;
+    private final Map<String, int[]> categoricalColumns;
+    private final Map<String, List<Serializable>> dictionaries;
+    private final double[] weights;
+    //classification labels are dictionary encoded, regression labels are held as is.  Exactly one of the two is set.
+    private final int[] labelCodes;
+    private final List<Serializable> labelDictionary;
+    private final double[] numericLabels;
+    private transient BinnedNumericColumns binnedNumericColumns;
+    //the dataset whose binning this one shares: itself, unless this is a reweighted view of another dataset
+    private final ColumnarDataset binningSource;
+
+    public ColumnarDataset(Map<String, double[]> numericColumns, Map<String, int[]> categoricalColumns, Map<String, List<Serializable>> dictionaries,
+                           double[] weights, int[] labelCodes, List<Serializable> labelDictionary, double[] numericLabels) {
+        Preconditions.checkArgument((labelCodes == null) != (numericLabels == null), "exactly one of labelCodes and numericLabels must be set");
+        Preconditions.checkArgument(labelCodes == null || labelDictionary != null, "labelCodes require a labelDictionary");
+        this.size = weights.length;
+        this.numericColumns = numericColumns;
+        this.categoricalColumns = categoricalColumns;
+        this.dictionaries = dictionaries;
+        this.weights = weights;
+        this.labelCodes = labelCodes;
+        this.labelDictionary = labelDictionary;
+        this.numericLabels = numericLabels;
+        this.binningSource = this;
+    }
+
+    private ColumnarDataset(ColumnarDataset source, double[] weights) {
+        Preconditions.checkArgument(weights.length == source.size, "expected %s weights, got %s", source.size, weights.length);
+        this.size = source.size;
+        this.numericColumns = source.numericColumns;
+        this.categoricalColumns = source.categoricalColumns;
+        this.dictionaries = source.dictionaries;
+        this.weights = weights;
+        this.labelCodes = source.labelCodes;
+        this.labelDictionary = source.labelDictionary;
+        this.numericLabels = source.numericLabels;
+        this.binningSource = source.binningSource;
+    }
+
+    public static ColumnarDataset forClassification(List<? extends ClassifierInstance> instances) {
+        int[] labelCodes = new int[instances.size()];
+        List<Serializable> labelDictionary = Lists.newArrayList();
+        Map<Serializable, Integer> labelIndex = Maps.newHashMap();
+        for (int row = 0; row < instances.size(); row++) {
+            labelCodes[row] = encode(instances.get(row).getLabel(), labelIndex, labelDictionary);
+        }
+        return encodeAttributes(instances, labelCodes, labelDictionary, null);
+    }
+
+    public static ColumnarDataset forRegression(List<? extends RegressionInstance> instances) {
+        double[] numericLabels = new double[instances.size()];
+        for (int row = 0; row < instances.size(); row++) {
+            numericLabels[row] = instances.get(row).getLabel();
+        }
+        return encodeAttributes(instances, null, null, numericLabels);
+    }
+
+    private static ColumnarDataset encodeAttributes(List<? extends InstanceWithAttributesMap<?>> instances, int[] labelCodes,
+                                                    List<Serializable> labelDictionary, double[] numericLabels) {
+        int size = instances.size();
+        //an attribute is numeric iff every non null value it takes is a Number (same rule as the BasicTrainingDataSurveyor)
+        Set<String> attributes = Sets.newHashSet();
+        Set<String> nonNumericAttributes = Sets.newHashSet();
+        for (InstanceWithAttributesMap<?> instance : instances) {
+            for (Map.Entry<String, Serializable> entry : instance.getAttributes().entrySet()) {
+                attributes.add(entry.getKey());
+                if (entry.getValue() != null && !(entry.getValue() instanceof Number)) {
+                    nonNumericAttributes.add(entry.getKey());
+                }
+            }
+        }
+        Map<String, double[]> numericColumns = Maps.newHashMap();
+        Map<String, int[]> categoricalColumns = Maps.newHashMap();
+        Map<String, List<Serializable>> dictionaries = Maps.newHashMap();
+        Map<String, Map<Serializable, Integer>> dictionaryIndices = Maps.newHashMap();
+        for (String attribute : attributes) {
+            if (nonNumericAttributes.contains(attribute)) {
+                int[] codes = new int[size];
+                Arrays.fill(codes, MISSING_CODE);
+                categoricalColumns.put(attribute, codes);
+                dictionaries.put(attribute, Lists.<Serializable>newArrayList());
+                dictionaryIndices.put(attribute, Maps.<Serializable, Integer>newHashMap());
+            } else {
+                double[] values = new double[size];
+                Arrays.fill(values, Double.NaN);
+                numericColumns.put(attribute, values);
+            }
+        }
+
+        double[] weights = new double[size];
+        for (int row = 0; row < size; row++) {
+            InstanceWithAttributesMap<?> instance = instances.get(row);
+            weights[row] = instance.getWeight();
+            for (Map.Entry<String, Serializable> entry : instance.getAttributes().entrySet()) {
+                Serializable value = entry.getValue();
+                if (value == null) {
+                    continue;
+                }
+                double[] numericColumn = numericColumns.get(entry.getKey());
+                if (numericColumn != null) {
+                    numericColumn[row] = ((Number) value).doubleValue();
+                } else {
+                    categoricalColumns.get(entry.getKey())[row] = encode(value, dictionaryIndices.get(entry.getKey()), dictionaries.get(entry.getKey()));
+                }
+            }
+        }
+        return new ColumnarDataset(numericColumns, categoricalColumns, dictionaries, weights, labelCodes, labelDictionary, numericLabels);
+    }
+
+    private static int encode(Serializable value, Map<Serializable, Integer> index, List<Serializable> dictionary) {
+        Integer code = index.get(value);
+        if (code == null) {
+            code = dictionary.size();
+            index.put(value, code);
+            dictionary.add(value);
+        }
+        return code;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the indices 0...size-1, i.e. every row of the dataset.
+     */
+    public int[] allRows() {
+        int[] rows = new int[size];
+        for (int i = 0; i < size; i++) {
+            rows[i] = i;
+        }
+        return rows;
+    }
+
+    public Set<String> getNumericAttributes() {
+        return Collections.unmodifiableSet(numericColumns.keySet());
+    }
+
+    public Set<String> getCategoricalAttributes() {
+        return Collections.unmodifiableSet(categoricalColumns.keySet());
+    }
+
+    public boolean hasNumericColumn(String attribute) {
+        return numericColumns.containsKey(attribute);
+    }
+
+    public double[] getNumericColumn(String attribute) {
+        double[] column = numericColumns.get(attribute);
+        if (column == null) {
+            throw new RuntimeException("no numeric column for attribute " + attribute);
+        }
+        return column;
+    }
+
+    /**
+     * @return the numeric columns quantized into at most maxBins bins.  The binning is computed on first use and shared
+     * by every tree built from this dataset.
+     */
+    public synchronized BinnedNumericColumns getBinnedNumericColumns(int maxBins) {
+        if (binningSource != this) {
+            return binningSource.getBinnedNumericColumns(maxBins);
+        }
+        if (binnedNumericColumns == null || binnedNumericColumns.getMaxBins() != maxBins) {
+            binnedNumericColumns = BinnedNumericColumns.create(this, maxBins);
+        }
+        return binnedNumericColumns;
+    }
+
+    public int[] getCategoricalColumn(String attribute) {
+        int[] column = categoricalColumns.get(attribute);
+        if (column == null) {
+            throw new RuntimeException("no categorical column for attribute " + attribute);
+        }
+        return column;
+    }
+
+    /**
+     * @return the values of a categorical attribute, indexed by code.
+     */
+    public List<Serializable> getDictionary(String attribute) {
+        List<Serializable> dictionary = dictionaries.get(attribute);
+        if (dictionary == null) {
+            throw new RuntimeException("no categorical column for attribute " + attribute);
+        }
+        return dictionary;
+    }
+
+    /**
+     * @return a view of this dataset with the given row weights.  Columns, labels and the numeric binning are shared rather
+     * than copied, so e.g. every tree of a forest can train on its own reweighting of the same data.
+     */
+    public ColumnarDataset withWeights(double[] weights) {
+        return new ColumnarDataset(this, weights);
+    }
+
+    public double[] getWeights() {
+        return weights;
+    }
+
+    public double getWeight(int row) {
+        return weights[row];
+    }
+
+    public boolean hasClassificationLabels() {
+        return labelCodes != null;
+    }
+
+    public int[] getLabelCodes() {
+        return labelCodes;
+    }
+
+    public List<Serializable> getLabelDictionary() {
+        return labelDictionary;
+    }
+
+    public Serializable getLabel(int row) {
+        return labelDictionary.get(labelCodes[row]);
+    }
+
+    public double[] getNumericLabels() {
+        return numericLabels;
+    }
+
+    public double getNumericLabel(int row) {
+        return numericLabels[row];
+    }
+}
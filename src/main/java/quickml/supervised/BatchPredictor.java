@@ -0,0 +1,70 @@
+package quickml.supervised;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import quickml.concurrent.ComputeScheduler;
+import quickml.data.AttributesMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Scores a batch of rows one block at a time.  Implementations push a whole block through each of their components
+ * (e.g. the trees of a forest) before moving on to the next component, so a component's nodes stay in cache while the
+ * block is scored.  Blocks can optionally be scored on several threads.
+ */
+public abstract class BatchPredictor<P> {
+    public static final int DEFAULT_BLOCK_SIZE = 256;
+
+    private final int blockSize;
+
+    protected BatchPredictor() {
+        this(DEFAULT_BLOCK_SIZE);
+    }
+
+    protected BatchPredictor(int blockSize) {
+        Preconditions.checkArgument(blockSize > 0, "blockSize must be positive");
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Sets the prediction for each row in [from, to) of the batch at the same index of predictions.
+     */
+    protected abstract void predictBlock(List<? extends AttributesMap> rows, int from, int to, List<P> predictions);
+
+    public List<P> predict(List<? extends AttributesMap> rows) {
+        return predict(rows, 1);
+    }
+
+    /**
+     * @return the predictions, in the order of the rows.  With more than one thread the blocks are scored as parallel
+     * tasks of the shared ComputeScheduler, which bounds the number of threads.
+     */
+    public List<P> predict(final List<? extends AttributesMap> rows, int numThreads) {
+        final List<P> predictions = new ArrayList<>(Collections.<P>nCopies(rows.size(), null));
+        if (numThreads <= 1 || rows.size() <= blockSize) {
+            for (int from = 0; from < rows.size(); from += blockSize) {
+                predictBlock(rows, from, Math.min(from + blockSize, rows.size()), predictions);
+            }
+            return predictions;
+        }
+        List<Callable<Void>> blocks = Lists.newArrayList();
+        for (int from = 0; from < rows.size(); from += blockSize) {
+            blocks.add(blockTask(rows, from, Math.min(from + blockSize, rows.size()), predictions));
+        }
+        ComputeScheduler.getShared().invokeAll(blocks);
+        return predictions;
+    }
+
+    private Callable<Void> blockTask(final List<? extends AttributesMap> rows, final int from, final int to, final List<P> predictions) {
+        return new Callable<Void>() {
+            @Override
+            public Void call() {
+                predictBlock(rows, from, to, predictions);
+                return null;
+            }
+        };
+    }
+}
@@ -18,6 +18,7 @@ import quickml.supervised.crossValidation.lossfunctions.LabelPredictionWeight;
 import quickml.supervised.crossValidation.utils.DateTimeExtractor;
 import quickml.supervised.dataProcessing.AttributeCharacteristics;
 import quickml.supervised.dataProcessing.BinaryAttributeCharacteristics;
+import quickml.supervised.ensembles.randomForest.randomDecisionForest.RandomDecisionForest;
 import quickml.supervised.tree.nodes.Branch;
 import quickml.supervised.tree.nodes.LeafDepthStats;
 import quickml.supervised.tree.nodes.Node;
@@ -89,9 +90,15 @@ public class Utils {
     }
 
     public static PredictionMapResults calcResultPredictions(Classifier predictiveModel, List<? extends InstanceWithAttributesMap<?>> validationSet) {
-        ArrayList<PredictionMapResult> results = new ArrayList<>();
+        List<AttributesMap> attributesList = new ArrayList<>(validationSet.size());
         for (InstanceWithAttributesMap<?> instance : validationSet) {
-            results.add(new PredictionMapResult(predictiveModel.predict(instance.getAttributes()), instance.getLabel(), instance.getWeight()));
+            attributesList.add(instance.getAttributes());
+        }
+        List<PredictionMap> predictions = predictiveModel.predictBatch(attributesList);
+        ArrayList<PredictionMapResult> results = new ArrayList<>();
+        for (int i = 0; i < validationSet.size(); i++) {
+            InstanceWithAttributesMap<?> instance = validationSet.get(i);
+            results.add(new PredictionMapResult(predictions.get(i), instance.getLabel(), instance.getWeight()));
         }
         return new PredictionMapResults(results);
     }
@@ -105,6 +112,28 @@ public class Utils {
         return new PredictionMapResults(results);
     }
 
+    /**
+     * @return for each of attributesToIgnore, the results calcResultpredictionsWithoutAttrs would give without just that
+     * attribute, with each tree of the forest traversed once per instance.
+     */
+    public static Map<String, PredictionMapResults> calcResultPredictionsWithoutEachAttr(RandomDecisionForest forest, List<? extends InstanceWithAttributesMap<?>> validationSet, Set<String> attributesToIgnore) {
+        Map<String, List<PredictionMapResult>> resultsByAttribute = Maps.newHashMap();
+        for (String attribute : attributesToIgnore) {
+            resultsByAttribute.put(attribute, new ArrayList<PredictionMapResult>(validationSet.size()));
+        }
+        for (InstanceWithAttributesMap<?> instance : validationSet) {
+            Map<String, PredictionMap> predictions = forest.predictWithoutEachAttribute(instance.getAttributes(), attributesToIgnore);
+            for (Map.Entry<String, PredictionMap> prediction : predictions.entrySet()) {
+                resultsByAttribute.get(prediction.getKey()).add(new PredictionMapResult(prediction.getValue(), instance.getLabel(), instance.getWeight()));
+            }
+        }
+        Map<String, PredictionMapResults> results = Maps.newHashMap();
+        for (Map.Entry<String, List<PredictionMapResult>> attributeResults : resultsByAttribute.entrySet()) {
+            results.put(attributeResults.getKey(), new PredictionMapResults(attributeResults.getValue()));
+        }
+        return results;
+    }
+
     public static List<LabelPredictionWeight<Double, Double>> calcLabelPredictionsWeightsWithoutAttrs(PredictiveModel<AttributesMap, Double> predictiveModel, List<? extends RegressionInstance> validationSet, Set<String> attributesToIgnore) {
         ArrayList<LabelPredictionWeight<Double, Double>> results = new ArrayList<>();
         for (RegressionInstance instance : validationSet) {
@@ -6,6 +6,8 @@ import quickml.supervised.classifier.Classifier;
 import quickml.supervised.regressionModel.IsotonicRegression.PoolAdjacentViolatorsModel;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 
@@ -49,6 +51,15 @@ public class CalibratedClassifier implements Classifier {
         return predictionMap;
     }
 
+    @Override
+    public List<PredictionMap> predictBatch(List<? extends AttributesMap> attributesList) {
+        List<PredictionMap> predictions = new ArrayList<>(attributesList.size());
+        for (AttributesMap attributes : attributesList) {
+            predictions.add(predict(attributes));
+        }
+        return predictions;
+    }
+
     @Override
     public PredictionMap predictWithoutAttributes(final AttributesMap attributes, Set<String> attributesToIgnore) {
         PredictionMap predictionMap = wrappedPredictiveModel.predictWithoutAttributes(attributes, attributesToIgnore);
@@ -4,6 +4,8 @@ import quickml.data.AttributesMap;
 import quickml.data.PredictionMap;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -34,4 +36,12 @@ public abstract class AbstractClassifier implements Classifier {
         }
         return mostProbableClass;
     }
+
+    public List<PredictionMap> predictBatch(List<? extends AttributesMap> attributesList) {
+        List<PredictionMap> predictions = new ArrayList<>(attributesList.size());
+        for (AttributesMap attributes : attributesList) {
+            predictions.add(predict(attributes));
+        }
+        return predictions;
+    }
 }
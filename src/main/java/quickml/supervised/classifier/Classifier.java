@@ -5,6 +5,7 @@ import quickml.data.PredictionMap;
 import quickml.supervised.PredictiveModel;
 
 import java.io.Serializable;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -18,4 +19,9 @@ public interface Classifier extends PredictiveModel<AttributesMap, PredictionMap
     PredictionMap predict(AttributesMap attributes);
     PredictionMap predictWithoutAttributes(AttributesMap attributes, Set<String> attributesToIgnore);
     Serializable getClassificationByMaxProb(AttributesMap attributes);
+
+    /**
+     * @return the predictions for a batch of rows, in the order of the rows.
+     */
+    List<PredictionMap> predictBatch(List<? extends AttributesMap> attributesList);
 }
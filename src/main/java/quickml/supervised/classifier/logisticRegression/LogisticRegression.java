@@ -8,6 +8,7 @@ import org.slf4j.LoggerFactory;
 import quickml.MathUtils;
 import quickml.data.AttributesMap;
 import quickml.data.PredictionMap;
+import quickml.supervised.BatchPredictor;
 import quickml.supervised.classifier.AbstractClassifier;
 import quickml.supervised.regressionModel.IsotonicRegression.PoolAdjacentViolatorsModel;
 
@@ -53,14 +54,48 @@ public class LogisticRegression extends AbstractClassifier {
     }
 
 
+    public double[] getWeights() {
+        return weights;
+    }
+
+    public HashMap<String, Integer> getNameToIndexMap() {
+        return nameToIndexMap;
+    }
+
+    /**
+     * @return the numeric label of each classification, or null if the model was created with numeric labels.
+     */
+    public Map<Serializable, Double> getClassificationToClassNameMap() {
+        return classificationToClassNameMap;
+    }
+
+    public Set<Double> getClassifications() {
+        return classifications;
+    }
+
+    /**
+     * @return the calibration of the model's probabilities, or null if they aren't calibrated.
+     */
+    public PoolAdjacentViolatorsModel getPoolAdjacentViolatorsModel() {
+        return poolAdjacentViolatorsModel;
+    }
+
     @Override
     public double getProbability(final AttributesMap attributes, final Serializable classification) {
+        return getProbability(dotProduct(attributes), classification);
+    }
+
+    private double dotProduct(AttributesMap attributes) {
         double dotProduct = 0;
         dotProduct += weights[0];
         for (String attribute : attributes.keySet()) {
             int index = nameToIndexMap.get(attribute);
             dotProduct += weights[index] * (Double) attributes.get(attribute);
         }
+        return dotProduct;
+    }
+
+    private double getProbability(double dotProduct, Serializable classification) {
         double uncalibrated;
         if ((double)classification == 1.0) {
             uncalibrated =  MathUtils.sigmoid(dotProduct);
@@ -76,13 +111,40 @@ public class LogisticRegression extends AbstractClassifier {
 
     @Override
     public PredictionMap predict(final AttributesMap attributes) {
+        return predictFromDotProduct(dotProduct(attributes));
+    }
+
+    private PredictionMap predictFromDotProduct(double dotProduct) {
         PredictionMap predictionMap = new PredictionMap(new HashMap<Serializable, Double>());
         for (Serializable classification : classifications) {
-            predictionMap.put(classification, getProbability(attributes, classification));
+            predictionMap.put(classification, getProbability(dotProduct, classification));
         }
         return predictionMap;
     }
 
+    /**
+     * Computes each row's dot product once for all of the classifications, rather than once per classification as
+     * predict does.
+     */
+    @Override
+    public List<PredictionMap> predictBatch(List<? extends AttributesMap> attributesList) {
+        return predictBatch(attributesList, 1);
+    }
+
+    /**
+     * @param numThreads above 1, the blocks of rows are scored in parallel on the shared ComputeScheduler.
+     */
+    public List<PredictionMap> predictBatch(List<? extends AttributesMap> attributesList, int numThreads) {
+        return new BatchPredictor<PredictionMap>() {
+            @Override
+            protected void predictBlock(List<? extends AttributesMap> rows, int from, int to, List<PredictionMap> predictions) {
+                for (int row = from; row < to; row++) {
+                    predictions.set(row, predictFromDotProduct(dotProduct(rows.get(row))));
+                }
+            }
+        }.predict(attributesList, numThreads);
+    }
+
 
     @Override
     public PredictionMap predictWithoutAttributes(final AttributesMap attributes, final Set<String> attributesToIgnore) {
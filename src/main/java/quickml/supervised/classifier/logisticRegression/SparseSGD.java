@@ -6,12 +6,11 @@ import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
 import org.javatuples.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import quickml.concurrent.ComputeScheduler;
 
 import java.io.Serializable;
 import java.util.*;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
 import static quickml.MathUtils.cappedlogBase2;
@@ -23,7 +22,7 @@ import static quickml.MathUtils.sigmoid;
 public class SparseSGD implements GradientDescent<SparseClassifierInstance > {
 
     private int executorThreadCount = Runtime.getRuntime().availableProcessors();
-    private ExecutorService executorService;
+    private ComputeScheduler scheduler = ComputeScheduler.getShared();
     public static final String RIDGE = "ridge";
     public static final String LASSO = "lasso";
 
@@ -142,6 +141,14 @@ public class SparseSGD implements GradientDescent<SparseClassifierInstance > {
         return this;
     }
 
+    /**
+     * the scheduler that computes the contributions to the gradient, executorThreadCount of them per mini batch.
+     */
+    public SparseSGD scheduler(ComputeScheduler scheduler) {
+        this.scheduler = scheduler;
+        return this;
+    }
+
     public SparseSGD minInstancesForParrellization(int minInstancesForParrellization) {
         this.minInstancesForParrellization = minInstancesForParrellization;
         return this;
@@ -222,8 +229,6 @@ public class SparseSGD implements GradientDescent<SparseClassifierInstance > {
     public double[] minimize(final List<SparseClassifierInstance > sparseClassifierInstances, int numRegressors) {
         /** minimizes the cross entropy loss function. NumRegressors includes the bias term.
          */
-        executorService = Executors.newFixedThreadPool(executorThreadCount);
-
         double[] weights = initializeWeights(numRegressors);
         double previousCostFunctionValue = 0;
         double costFunctionValue = computeCrossEntropyCostFunction(sparseClassifierInstances, weights, minPredictedProbablity, ridge, lasso);
@@ -261,8 +266,6 @@ public class SparseSGD implements GradientDescent<SparseClassifierInstance > {
             Collections.shuffle(sparseClassifierInstances);
 
         }
-        executorService.shutdown();
-
         return weights;
     }
 
@@ -270,7 +273,7 @@ public class SparseSGD implements GradientDescent<SparseClassifierInstance > {
         List<Future<Int2DoubleOpenHashMap>> contributionsToTheGradient = Lists.newArrayListWithCapacity(actualNumThreads);
         for (int i = 0; i < actualNumThreads; i++) {
             final int index = i;
-            contributionsToTheGradient.add(executorService.submit(new Callable<Int2DoubleOpenHashMap>() {
+            contributionsToTheGradient.add(scheduler.submit(new Callable<Int2DoubleOpenHashMap>() {
                 @Override
                 public Int2DoubleOpenHashMap call() throws Exception {
                     expectedFractionOfFeaturesToUpdatePerWorker = 1.0;
@@ -292,7 +295,7 @@ public class SparseSGD implements GradientDescent<SparseClassifierInstance > {
         List<Future<double[]>> contributionsToTheGradient = Lists.newArrayListWithCapacity(actualNumThreads);
         for (int i = 0; i < actualNumThreads; i++) {
             final int index = i;
-            contributionsToTheGradient.add(executorService.submit(new Callable<double[]>() {
+            contributionsToTheGradient.add(scheduler.submit(new Callable<double[]>() {
                 @Override
                 public double[] call() throws Exception {
                     expectedFractionOfFeaturesToUpdatePerWorker = 1.0;
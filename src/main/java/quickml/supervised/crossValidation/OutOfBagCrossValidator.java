@@ -0,0 +1,115 @@
+package quickml.supervised.crossValidation;
+
+import com.google.common.base.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import quickml.data.ColumnarDataset;
+import quickml.data.PredictionMap;
+import quickml.data.instances.ClassifierInstance;
+import quickml.supervised.crossValidation.lossfunctions.classifierLossFunctions.ClassifierLossFunction;
+import quickml.supervised.ensembles.randomForest.randomDecisionForest.RandomDecisionForest;
+import quickml.supervised.ensembles.randomForest.randomDecisionForest.RandomDecisionForestBuilder;
+import quickml.supervised.tree.bagging.PoissonBagging;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Estimates the loss of a bagged random forest from a single build, rather than from one forest per fold.  Each tree
+ * predicts the rows its bootstrap sample left out, and a row's prediction is the average over the trees it was out of bag
+ * for, so no training data is held out.  Rows that were in the bag of every tree are not scored.
+ */
+public class OutOfBagCrossValidator<I extends ClassifierInstance> implements CrossValidator {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutOfBagCrossValidator.class);
+
+    private final RandomDecisionForestBuilder<I> forestBuilder;
+    //passed to each build, so forestBuilder itself is left as it was
+    private final PoissonBagging bagging;
+    private final ClassifierLossFunction lossFunction;
+    private final List<I> trainingData;
+    //encoded once, and reused by every config that is tested
+    private final ColumnarDataset columnarTrainingData;
+
+    /**
+     * The forests are bagged with forestBuilder's bagging, or if it has none, with a PoissonBagging seeded with forestBuilder's seed
+     * (or a time based one if it has none).  forestBuilder's own bagging is not changed.
+     */
+    public OutOfBagCrossValidator(RandomDecisionForestBuilder<I> forestBuilder, ClassifierLossFunction lossFunction, List<I> trainingData) {
+        checkArgument(!trainingData.isEmpty(), "Training data must not be empty");
+        if (forestBuilder.getBagging().isPresent()) {
+            this.bagging = forestBuilder.getBagging().get();
+        } else {
+            Optional<Long> seed = forestBuilder.getSeed();
+            this.bagging = seed.isPresent() ? new PoissonBagging(seed.get()) : new PoissonBagging();
+        }
+        this.forestBuilder = forestBuilder;
+        this.lossFunction = lossFunction;
+        this.trainingData = trainingData;
+        this.columnarTrainingData = ColumnarDataset.forClassification(trainingData);
+    }
+
+    /**
+     * Get the loss for a model without updating the model config
+     */
+    @Override
+    public double getLossForModel() {
+        return getLossForModel(new HashMap<String, Serializable>());
+    }
+
+    @Override
+    public double getLossForModel(Map<String, Serializable> config) {
+        if (config.size() != 0) {
+            forestBuilder.updateBuilderConfig(config);
+        }
+        RandomDecisionForest forest = forestBuilder.buildPredictiveModel(columnarTrainingData, Optional.of(bagging));
+        double loss = lossFunction.getLoss(getOutOfBagPredictions(forest));
+        logger.info("Out of bag loss {} for config {}", loss, config.toString());
+        return loss;
+    }
+
+    /**
+     * relies on the trees of forest being in the order they were built in, so that a tree's index picks its bootstrap sample.
+     */
+    PredictionMapResults getOutOfBagPredictions(RandomDecisionForest forest) {
+        int numRows = trainingData.size();
+        PredictionMap[] sumsByRow = new PredictionMap[numRows];
+        int[] numOutOfBagTrees = new int[numRows];
+        for (int treeIndex = 0; treeIndex < forest.decisionTrees.size(); treeIndex++) {
+            for (int row : bagging.getOutOfBagRows(treeIndex, numRows)) {
+                PredictionMap treePrediction = forest.decisionTrees.get(treeIndex).predict(trainingData.get(row).getAttributes());
+                PredictionMap sums = sumsByRow[row];
+                if (sums == null) {
+                    sums = new PredictionMap(new HashMap<Serializable, Double>());
+                    sumsByRow[row] = sums;
+                }
+                for (Map.Entry<Serializable, Double> entry : treePrediction.entrySet()) {
+                    Double sum = sums.get(entry.getKey());
+                    sums.put(entry.getKey(), sum == null ? entry.getValue() : sum + entry.getValue());
+                }
+                numOutOfBagTrees[row]++;
+            }
+        }
+
+        List<PredictionMapResult> results = new ArrayList<>();
+        for (int row = 0; row < numRows; row++) {
+            PredictionMap sums = sumsByRow[row];
+            if (sums == null) {
+                continue;
+            }
+            PredictionMap average = new PredictionMap(new HashMap<Serializable, Double>());
+            for (Serializable classification : columnarTrainingData.getLabelDictionary()) {
+                Double sum = sums.get(classification);
+                average.put(classification, sum == null ? 0.0 : sum / numOutOfBagTrees[row]);
+            }
+            I instance = trainingData.get(row);
+            results.add(new PredictionMapResult(average, instance.getLabel(), instance.getWeight()));
+        }
+        return new PredictionMapResults(results);
+    }
+}
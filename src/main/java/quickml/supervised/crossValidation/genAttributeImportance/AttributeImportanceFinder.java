@@ -6,16 +6,20 @@ import quickml.data.instances.InstanceWithAttributesMap;
 import quickml.supervised.PredictiveModel;
 import quickml.supervised.PredictiveModelBuilder;
 import quickml.supervised.classifier.Classifier;
+import quickml.supervised.crossValidation.PredictionMapResults;
 import quickml.supervised.crossValidation.data.TrainingDataCycler;
 import quickml.supervised.crossValidation.lossfunctions.classifierLossFunctions.ClassifierLossFunction;
+import quickml.supervised.ensembles.randomForest.randomDecisionForest.RandomDecisionForest;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static com.google.common.collect.Sets.newHashSet;
 import static java.lang.Math.max;
 import static quickml.supervised.Utils.calcResultPredictions;
+import static quickml.supervised.Utils.calcResultPredictionsWithoutEachAttr;
 import static quickml.supervised.Utils.calcResultpredictionsWithoutAttrs;
 
 public class AttributeImportanceFinder <I extends InstanceWithAttributesMap<?>> {
@@ -95,7 +99,13 @@ public class AttributeImportanceFinder <I extends InstanceWithAttributesMap<?>>
     }
 
     private void trackLossForEachAttribute(Set<String> allAttributes, AttributeLossTracker lossTracker, PredictiveModel<AttributesMap, ?> model) {
-       if (model instanceof Classifier) {
+       if (model instanceof RandomDecisionForest) {
+           //one pass over each tree per instance, rather than one per attribute
+           Map<String, PredictionMapResults> resultsByAttribute = calcResultPredictionsWithoutEachAttr((RandomDecisionForest) model, dataCycler.getValidationSet(), allAttributes);
+           for (String attribute : allAttributes) {
+               lossTracker.updateAttribute(attribute, resultsByAttribute.get(attribute));
+           }
+       } else if (model instanceof Classifier) {
            for (String attribute : allAttributes) {
                lossTracker.updateAttribute(attribute,
                        calcResultpredictionsWithoutAttrs((Classifier)model, dataCycler.getValidationSet(), newHashSet(attribute)));
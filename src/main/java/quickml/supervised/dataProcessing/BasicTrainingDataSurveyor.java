@@ -1,6 +1,7 @@
 package quickml.supervised.dataProcessing;
 
 import com.google.common.collect.Maps;
+import quickml.data.ColumnarDataset;
 import quickml.data.instances.InstanceWithAttributesMap;
 import quickml.supervised.tree.constants.AttributeType;
 
@@ -27,6 +28,26 @@ public class BasicTrainingDataSurveyor<T extends InstanceWithAttributesMap<?>> {
         return attributesByType;
     }
 
+    /**
+     * Numeric columns are numeric attributes.  A categorical column is boolean if it takes at most two values, the first
+     * of which is not a Number (which is what AttributeCharacteristics concludes when seeing the values in row order).
+     */
+    public Map<AttributeType, Set<String>> groupAttributesByType(final ColumnarDataset trainingData) {
+        Map<String, AttributeCharacteristics> attributeCharacteristics = Maps.newHashMap();
+        for (String attribute : trainingData.getNumericAttributes()) {
+            attributeCharacteristics.put(attribute, new AttributeCharacteristics());
+        }
+        for (String attribute : trainingData.getCategoricalAttributes()) {
+            AttributeCharacteristics attributeCharacteristic = new AttributeCharacteristics();
+            attributeCharacteristic.isNumber = false;
+            for (Serializable value : trainingData.getDictionary(attribute)) {
+                attributeCharacteristic.updateBooleanStatus(value);
+            }
+            attributeCharacteristics.put(attribute, attributeCharacteristic);
+        }
+        return groupByType(attributeCharacteristics);
+    }
+
     public Map<String, AttributeCharacteristics> getMapOfAttributesToAttributeCharacteristics(List<T> trainingData) {
         Map<String, AttributeCharacteristics> attributeCharacteristics = Maps.newHashMap();
 
@@ -0,0 +1,70 @@
+package quickml.supervised.ensembles.boosting;
+
+import quickml.MathUtils;
+import quickml.data.AttributesMap;
+import quickml.data.PredictionMap;
+import quickml.supervised.classifier.AbstractClassifier;
+
+import java.io.Serializable;
+import java.util.Set;
+
+/**
+ * A binary classifier whose boosted trees score the log odds of the positive classification.
+ */
+public class BoostedClassifier extends AbstractClassifier {
+    private static final long serialVersionUID = 4871309425310372816L;
+
+    private final BoostedTrees boostedTrees;
+    private final Serializable positiveClassification;
+    private final Serializable negativeClassification;
+
+    public BoostedClassifier(BoostedTrees boostedTrees, Serializable positiveClassification, Serializable negativeClassification) {
+        this.boostedTrees = boostedTrees;
+        this.positiveClassification = positiveClassification;
+        this.negativeClassification = negativeClassification;
+    }
+
+    @Override
+    public double getProbability(AttributesMap attributes, Serializable classification) {
+        return getProbability(MathUtils.sigmoid(boostedTrees.score(attributes)), classification);
+    }
+
+    @Override
+    public double getProbabilityWithoutAttributes(AttributesMap attributes, Serializable classification, Set<String> attributesToIgnore) {
+        return getProbability(MathUtils.sigmoid(boostedTrees.scoreWithoutAttributes(attributes, attributesToIgnore)), classification);
+    }
+
+    @Override
+    public PredictionMap predict(AttributesMap attributes) {
+        return toPredictionMap(MathUtils.sigmoid(boostedTrees.score(attributes)));
+    }
+
+    @Override
+    public PredictionMap predictWithoutAttributes(AttributesMap attributes, Set<String> attributesToIgnore) {
+        return toPredictionMap(MathUtils.sigmoid(boostedTrees.scoreWithoutAttributes(attributes, attributesToIgnore)));
+    }
+
+    private double getProbability(double probabilityOfPositiveClassification, Serializable classification) {
+        if (classification.equals(positiveClassification)) {
+            return probabilityOfPositiveClassification;
+        } else if (classification.equals(negativeClassification)) {
+            return 1.0 - probabilityOfPositiveClassification;
+        }
+        return 0;
+    }
+
+    private PredictionMap toPredictionMap(double probabilityOfPositiveClassification) {
+        PredictionMap predictionMap = PredictionMap.newMap();
+        predictionMap.put(positiveClassification, probabilityOfPositiveClassification);
+        predictionMap.put(negativeClassification, 1.0 - probabilityOfPositiveClassification);
+        return predictionMap;
+    }
+
+    public BoostedTrees getBoostedTrees() {
+        return boostedTrees;
+    }
+
+    public Serializable getPositiveClassification() {
+        return positiveClassification;
+    }
+}
@@ -0,0 +1,86 @@
+package quickml.supervised.ensembles.boosting;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import quickml.data.instances.ClassifierInstance;
+import quickml.data.instances.RegressionInstance;
+import quickml.supervised.tree.decisionTree.valueCounters.ClassificationCounter;
+import quickml.supervised.tree.regressionTree.RegressionTreeBuilder;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Boosts shallow regression trees on the log loss of a binary classification.  The positive classification is 1.0
+ * when the training data has it, and the least popular classification otherwise.
+ */
+public class BoostedClassifierBuilder<I extends ClassifierInstance> extends GradientBoostedTreesBuilder<BoostedClassifier, I> {
+
+    public BoostedClassifierBuilder() {
+        super();
+    }
+
+    public BoostedClassifierBuilder(RegressionTreeBuilder<RegressionInstance> treeBuilder) {
+        super(treeBuilder);
+    }
+
+    @Override
+    public BoostedClassifier buildPredictiveModel(Iterable<I> trainingData) {
+        List<I> instances = Lists.newArrayList(trainingData);
+        ClassificationCounter classificationCounter = ClassificationCounter.countAll(instances);
+        Set<Serializable> classifications = classificationCounter.allClassifications();
+        checkArgument(classifications.size() == 2, "trainingData must contain only 2 classifications, but it had %s", classifications.size());
+        Serializable positiveClassification = classifications.contains(1.0) ? 1.0 : ClassificationCounter.getLeastPopularClass(classificationCounter);
+        Serializable negativeClassification = null;
+        for (Serializable classification : classifications) {
+            if (!classification.equals(positiveClassification)) {
+                negativeClassification = classification;
+            }
+        }
+
+        double[] labels = new double[instances.size()];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = instances.get(i).getLabel().equals(positiveClassification) ? 1.0 : 0.0;
+        }
+        return new BoostedClassifier(boost(instances, labels, new LogLoss()), positiveClassification, negativeClassification);
+    }
+
+    public BoostedClassifierBuilder<I> numTrees(int numTrees) {
+        this.numTrees = numTrees;
+        return this;
+    }
+
+    public BoostedClassifierBuilder<I> learningRate(double learningRate) {
+        this.learningRate = learningRate;
+        return this;
+    }
+
+    public BoostedClassifierBuilder<I> rowSampleFraction(double rowSampleFraction) {
+        this.rowSampleFraction = rowSampleFraction;
+        return this;
+    }
+
+    public BoostedClassifierBuilder<I> columnSampleFraction(double columnSampleFraction) {
+        this.columnSampleFraction = columnSampleFraction;
+        return this;
+    }
+
+    //fraction of the training data held out to stop boosting once its loss stops improving; 0 disables early stopping
+    public BoostedClassifierBuilder<I> validationFraction(double validationFraction) {
+        this.validationFraction = validationFraction;
+        return this;
+    }
+
+    public BoostedClassifierBuilder<I> earlyStoppingRounds(int earlyStoppingRounds) {
+        this.earlyStoppingRounds = earlyStoppingRounds;
+        return this;
+    }
+
+    public BoostedClassifierBuilder<I> seed(long seed) {
+        this.seed = Optional.of(seed);
+        return this;
+    }
+}
@@ -0,0 +1,33 @@
+package quickml.supervised.ensembles.boosting;
+
+import quickml.data.AttributesMap;
+import quickml.supervised.PredictiveModel;
+
+import java.util.Set;
+
+/**
+ * A regression model whose prediction is the score of its boosted trees.
+ */
+public class BoostedRegressor implements PredictiveModel<AttributesMap, Double> {
+    private static final long serialVersionUID = -2140937462015587436L;
+
+    private final BoostedTrees boostedTrees;
+
+    public BoostedRegressor(BoostedTrees boostedTrees) {
+        this.boostedTrees = boostedTrees;
+    }
+
+    @Override
+    public Double predict(AttributesMap attributes) {
+        return boostedTrees.score(attributes);
+    }
+
+    @Override
+    public Double predictWithoutAttributes(AttributesMap attributes, Set<String> attributesToIgnore) {
+        return boostedTrees.scoreWithoutAttributes(attributes, attributesToIgnore);
+    }
+
+    public BoostedTrees getBoostedTrees() {
+        return boostedTrees;
+    }
+}
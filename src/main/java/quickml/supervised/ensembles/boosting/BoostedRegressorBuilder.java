@@ -0,0 +1,74 @@
+package quickml.supervised.ensembles.boosting;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import quickml.data.instances.RegressionInstance;
+import quickml.supervised.tree.regressionTree.RegressionTreeBuilder;
+
+import java.util.List;
+
+/**
+ * Boosts shallow regression trees on a numeric label, by default on the squared loss.
+ */
+public class BoostedRegressorBuilder<I extends RegressionInstance> extends GradientBoostedTreesBuilder<BoostedRegressor, I> {
+    private BoostingLoss loss = new SquaredLoss();
+
+    public BoostedRegressorBuilder() {
+        super();
+    }
+
+    public BoostedRegressorBuilder(RegressionTreeBuilder<RegressionInstance> treeBuilder) {
+        super(treeBuilder);
+    }
+
+    @Override
+    public BoostedRegressor buildPredictiveModel(Iterable<I> trainingData) {
+        List<I> instances = Lists.newArrayList(trainingData);
+        double[] labels = new double[instances.size()];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = instances.get(i).getLabel();
+        }
+        return new BoostedRegressor(boost(instances, labels, loss));
+    }
+
+    public BoostedRegressorBuilder<I> loss(BoostingLoss loss) {
+        this.loss = loss;
+        return this;
+    }
+
+    public BoostedRegressorBuilder<I> numTrees(int numTrees) {
+        this.numTrees = numTrees;
+        return this;
+    }
+
+    public BoostedRegressorBuilder<I> learningRate(double learningRate) {
+        this.learningRate = learningRate;
+        return this;
+    }
+
+    public BoostedRegressorBuilder<I> rowSampleFraction(double rowSampleFraction) {
+        this.rowSampleFraction = rowSampleFraction;
+        return this;
+    }
+
+    public BoostedRegressorBuilder<I> columnSampleFraction(double columnSampleFraction) {
+        this.columnSampleFraction = columnSampleFraction;
+        return this;
+    }
+
+    //fraction of the training data held out to stop boosting once its loss stops improving; 0 disables early stopping
+    public BoostedRegressorBuilder<I> validationFraction(double validationFraction) {
+        this.validationFraction = validationFraction;
+        return this;
+    }
+
+    public BoostedRegressorBuilder<I> earlyStoppingRounds(int earlyStoppingRounds) {
+        this.earlyStoppingRounds = earlyStoppingRounds;
+        return this;
+    }
+
+    public BoostedRegressorBuilder<I> seed(long seed) {
+        this.seed = Optional.of(seed);
+        return this;
+    }
+}
@@ -0,0 +1,57 @@
+package quickml.supervised.ensembles.boosting;
+
+import quickml.data.AttributesMap;
+import quickml.supervised.tree.regressionTree.RegressionTree;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The additive model of a boosting run: an initial score plus the shrunken predictions of each tree.
+ */
+public class BoostedTrees implements Serializable {
+    private static final long serialVersionUID = -8226213780236719563L;
+
+    private final double initialScore;
+    private final double learningRate;
+    private final List<RegressionTree> trees;
+
+    public BoostedTrees(double initialScore, double learningRate, List<RegressionTree> trees) {
+        this.initialScore = initialScore;
+        this.learningRate = learningRate;
+        this.trees = trees;
+    }
+
+    public double score(AttributesMap attributes) {
+        double score = initialScore;
+        for (RegressionTree tree : trees) {
+            score += learningRate * tree.predict(attributes);
+        }
+        return score;
+    }
+
+    public double scoreWithoutAttributes(AttributesMap attributes, Set<String> attributesToIgnore) {
+        double score = initialScore;
+        for (RegressionTree tree : trees) {
+            score += learningRate * tree.predictWithoutAttributes(attributes, attributesToIgnore);
+        }
+        return score;
+    }
+
+    public double getInitialScore() {
+        return initialScore;
+    }
+
+    public double getLearningRate() {
+        return learningRate;
+    }
+
+    public List<RegressionTree> getTrees() {
+        return trees;
+    }
+
+    public int getNumTrees() {
+        return trees.size();
+    }
+}
@@ -0,0 +1,21 @@
+package quickml.supervised.ensembles.boosting;
+
+import java.io.Serializable;
+
+/**
+ * A twice differentiable loss of a numeric label and the raw score of a boosted model.  Each boosting round fits a
+ * regression tree to the Newton step -gradient / hessian of every row, weighted by its hessian.
+ */
+public interface BoostingLoss extends Serializable {
+
+    /**
+     * @return the constant score that minimizes the weighted loss, which the boosted model starts from.
+     */
+    double initialScore(double[] labels, double[] weights);
+
+    double gradient(double label, double score);
+
+    double hessian(double label, double score);
+
+    double loss(double label, double score);
+}
@@ -0,0 +1,163 @@
+package quickml.supervised.ensembles.boosting;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import quickml.concurrent.SplittableRandom;
+import quickml.data.instances.InstanceWithAttributesMap;
+import quickml.data.instances.RegressionInstance;
+import quickml.supervised.PredictiveModel;
+import quickml.supervised.PredictiveModelBuilder;
+import quickml.supervised.tree.attributeIgnoringStrategies.IgnoreAttributesInSet;
+import quickml.supervised.tree.attributeIgnoringStrategies.IgnoreAttributesWithConstantProbability;
+import quickml.supervised.tree.regressionTree.RegressionTree;
+import quickml.supervised.tree.regressionTree.RegressionTreeBuilder;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static quickml.supervised.tree.constants.ForestOptions.NUM_TREES;
+
+/**
+ * Gradient boosting with second order (Newton) steps.  Each round fits a shallow RegressionTree to -gradient / hessian
+ * of every row, weighted by the row's weight times its hessian, so the weighted mean a MeanValueCounter leaf predicts
+ * is the Newton step of the rows in that leaf.  Subclasses turn instances into numeric labels and wrap the result.
+ *
+ * Unless a seed is set, boosting is seeded with the tree builder's seed, if it has one.  Each round's tree is seeded with
+ * its own seed split from the boosting seed, so rounds don't all make the same random choices.
+ */
+public abstract class GradientBoostedTreesBuilder<PM extends PredictiveModel, I extends InstanceWithAttributesMap<?>> implements PredictiveModelBuilder<PM, I> {
+    private static final Logger logger = LoggerFactory.getLogger(GradientBoostedTreesBuilder.class);
+    public static final int DEFAULT_MAX_DEPTH = 3;
+    //bounds the Newton step of rows whose score is already saturated
+    private static final double MIN_HESSIAN = 1E-6;
+
+    protected final RegressionTreeBuilder<RegressionInstance> treeBuilder;
+    protected int numTrees = 100;
+    protected double learningRate = 0.1;
+    protected double rowSampleFraction = 1.0;
+    protected double columnSampleFraction = 1.0;
+    protected double validationFraction = 0.0;
+    protected int earlyStoppingRounds = 10;
+    protected Optional<Long> seed = Optional.absent();
+
+    protected GradientBoostedTreesBuilder() {
+        this(new RegressionTreeBuilder<RegressionInstance>().maxDepth(DEFAULT_MAX_DEPTH).attributeIgnoringStrategy(new IgnoreAttributesWithConstantProbability(0.0)));
+    }
+
+    protected GradientBoostedTreesBuilder(RegressionTreeBuilder<RegressionInstance> treeBuilder) {
+        this.treeBuilder = treeBuilder;
+    }
+
+    @Override
+    public void updateBuilderConfig(Map<String, Serializable> config) {
+        treeBuilder.updateBuilderConfig(config);
+        if (config.containsKey(NUM_TREES.name()))
+            this.numTrees = (Integer) config.get(NUM_TREES.name());
+    }
+
+    protected BoostedTrees boost(List<I> instances, double[] labels, BoostingLoss loss) {
+        Preconditions.checkArgument(!instances.isEmpty(), "Can't boost with no training data");
+        long boostingSeed = getBoostingSeed();
+        Random random = new Random(boostingSeed);
+        List<Integer> trainingRows = Lists.newArrayList();
+        List<Integer> validationRows = Lists.newArrayList();
+        for (int row = 0; row < instances.size(); row++) {
+            (random.nextDouble() < validationFraction ? validationRows : trainingRows).add(row);
+        }
+        Preconditions.checkArgument(!trainingRows.isEmpty(), "validationFraction leaves no training data");
+
+        double[] trainingLabels = new double[trainingRows.size()];
+        double[] trainingWeights = new double[trainingRows.size()];
+        Set<String> attributes = Sets.newHashSet();
+        for (int i = 0; i < trainingRows.size(); i++) {
+            I instance = instances.get(trainingRows.get(i));
+            trainingLabels[i] = labels[trainingRows.get(i)];
+            trainingWeights[i] = instance.getWeight();
+            attributes.addAll(instance.getAttributes().keySet());
+        }
+        double initialScore = loss.initialScore(trainingLabels, trainingWeights);
+        double[] scores = new double[instances.size()];
+        for (int row = 0; row < scores.length; row++) {
+            scores[row] = initialScore;
+        }
+
+        List<RegressionTree> trees = Lists.newArrayListWithCapacity(numTrees);
+        double bestValidationLoss = Double.POSITIVE_INFINITY;
+        int bestNumTrees = 0;
+        for (int round = 0; round < numTrees; round++) {
+            List<RegressionInstance> newtonSteps = Lists.newArrayListWithCapacity(trainingRows.size());
+            for (int row : trainingRows) {
+                if (rowSampleFraction < 1.0 && random.nextDouble() >= rowSampleFraction) {
+                    continue;
+                }
+                double hessian = Math.max(loss.hessian(labels[row], scores[row]), MIN_HESSIAN);
+                I instance = instances.get(row);
+                newtonSteps.add(new RegressionInstance(instance.getAttributes(), -loss.gradient(labels[row], scores[row]) / hessian, instance.getWeight() * hessian));
+            }
+            if (newtonSteps.isEmpty()) {
+                continue;
+            }
+            RegressionTree tree = getTreeBuilderForRound(attributes, random, boostingSeed, round).buildPredictiveModel(newtonSteps);
+            trees.add(tree);
+            for (int row = 0; row < scores.length; row++) {
+                scores[row] += learningRate * tree.predict(instances.get(row).getAttributes());
+            }
+
+            if (validationRows.isEmpty()) {
+                continue;
+            }
+            double validationLoss = getWeightedLoss(instances, labels, scores, validationRows, loss);
+            if (validationLoss < bestValidationLoss) {
+                bestValidationLoss = validationLoss;
+                bestNumTrees = trees.size();
+            } else if (trees.size() - bestNumTrees >= earlyStoppingRounds) {
+                logger.info("Stopping early after {} rounds, validation loss was lowest after {} trees", round + 1, bestNumTrees);
+                break;
+            }
+        }
+        if (!validationRows.isEmpty()) {
+            trees = Lists.newArrayList(trees.subList(0, bestNumTrees));
+        }
+        return new BoostedTrees(initialScore, learningRate, trees);
+    }
+
+    private long getBoostingSeed() {
+        if (seed.isPresent()) {
+            return seed.get();
+        }
+        Optional<Long> treeBuilderSeed = treeBuilder.getSeed();
+        return treeBuilderSeed.isPresent() ? treeBuilderSeed.get() : System.nanoTime();
+    }
+
+    private RegressionTreeBuilder<RegressionInstance> getTreeBuilderForRound(Set<String> attributes, Random random, long boostingSeed, int round) {
+        RegressionTreeBuilder<RegressionInstance> roundTreeBuilder = treeBuilder.copy().seed(new SplittableRandom(boostingSeed).split(round).nextLong());
+        if (columnSampleFraction < 1.0) {
+            Set<String> attributesToIgnore = Sets.newHashSet();
+            for (String attribute : attributes) {
+                if (random.nextDouble() >= columnSampleFraction) {
+                    attributesToIgnore.add(attribute);
+                }
+            }
+            //a discard probability of 0 ignores every attribute in the set
+            roundTreeBuilder.attributeIgnoringStrategy(new IgnoreAttributesInSet(attributesToIgnore, 0.0));
+        }
+        return roundTreeBuilder;
+    }
+
+    private double getWeightedLoss(List<I> instances, double[] labels, double[] scores, List<Integer> rows, BoostingLoss loss) {
+        double weightedLoss = 0, totalWeight = 0;
+        for (int row : rows) {
+            double weight = instances.get(row).getWeight();
+            weightedLoss += weight * loss.loss(labels[row], scores[row]);
+            totalWeight += weight;
+        }
+        return weightedLoss / totalWeight;
+    }
+}
@@ -0,0 +1,43 @@
+package quickml.supervised.ensembles.boosting;
+
+import quickml.MathUtils;
+
+/**
+ * Binomial log loss of a label in {0, 1} and a score on the log odds scale.
+ */
+public class LogLoss implements BoostingLoss {
+    private static final long serialVersionUID = 2287145163512064838L;
+    private static final double MIN_PROBABILITY = 1E-15;
+
+    @Override
+    public double initialScore(double[] labels, double[] weights) {
+        double weightedPositives = 0, totalWeight = 0;
+        for (int i = 0; i < labels.length; i++) {
+            weightedPositives += labels[i] * weights[i];
+            totalWeight += weights[i];
+        }
+        double probability = clamp(weightedPositives / totalWeight);
+        return Math.log(probability / (1 - probability));
+    }
+
+    @Override
+    public double gradient(double label, double score) {
+        return MathUtils.sigmoid(score) - label;
+    }
+
+    @Override
+    public double hessian(double label, double score) {
+        double probability = MathUtils.sigmoid(score);
+        return probability * (1 - probability);
+    }
+
+    @Override
+    public double loss(double label, double score) {
+        double probability = clamp(MathUtils.sigmoid(score));
+        return -label * Math.log(probability) - (1 - label) * Math.log(1 - probability);
+    }
+
+    private static double clamp(double probability) {
+        return Math.min(1 - MIN_PROBABILITY, Math.max(MIN_PROBABILITY, probability));
+    }
+}
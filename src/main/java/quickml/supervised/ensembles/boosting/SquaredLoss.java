@@ -0,0 +1,33 @@
+package quickml.supervised.ensembles.boosting;
+
+/**
+ * Squared error of a numeric label and score.  Its hessian is constant, so each round fits the residuals.
+ */
+public class SquaredLoss implements BoostingLoss {
+    private static final long serialVersionUID = -3340861218338325412L;
+
+    @Override
+    public double initialScore(double[] labels, double[] weights) {
+        double weightedLabels = 0, totalWeight = 0;
+        for (int i = 0; i < labels.length; i++) {
+            weightedLabels += labels[i] * weights[i];
+            totalWeight += weights[i];
+        }
+        return weightedLabels / totalWeight;
+    }
+
+    @Override
+    public double gradient(double label, double score) {
+        return score - label;
+    }
+
+    @Override
+    public double hessian(double label, double score) {
+        return 1.0;
+    }
+
+    @Override
+    public double loss(double label, double score) {
+        return (score - label) * (score - label);
+    }
+}
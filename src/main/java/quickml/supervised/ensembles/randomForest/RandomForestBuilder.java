@@ -1,14 +1,18 @@
 package quickml.supervised.ensembles.randomForest;
 
+import com.google.common.base.Optional;
+import quickml.concurrent.SplittableRandom;
 import quickml.data.instances.InstanceWithAttributesMap;
 import quickml.supervised.PredictiveModelBuilder;
 import quickml.supervised.tree.Tree;
+import quickml.supervised.tree.bagging.PoissonBagging;
 
 /**
  * Created by alexanderhawk on 6/21/15.
  */
 public abstract class RandomForestBuilder<P, PM extends RandomForest<P, ? extends Tree<P>>, I extends InstanceWithAttributesMap<?>> implements PredictiveModelBuilder<PM, I> {
     protected int numTrees = 8;
+    protected Optional<PoissonBagging> bagging = Optional.absent();
 
 
     public abstract PM buildPredictiveModel(Iterable<I> trainingData);
@@ -16,4 +20,24 @@ public abstract class RandomForestBuilder<P, PM extends RandomForest<P, ? extend
     public int getNumTrees() {
         return numTrees;
     }
+
+    public Optional<PoissonBagging> getBagging() {
+        return bagging;
+    }
+
+    /**
+     * @return the seed of the treeIndex'th tree of a forest seeded with forestSeed, which doesn't depend on the order the trees are built in.
+     */
+    protected static long getTreeSeed(long forestSeed, int treeIndex) {
+        return new SplittableRandom(forestSeed).split(treeIndex).nextLong();
+    }
+
+    /**
+     * Up to executorThreadCount trees are built at once, so each tree only gets its share of the parallelism its tree builder
+     * was configured with, rather than every tree spawning that many threads.
+     */
+    protected int getParallelismPerTree(int treeBuilderParallelism, int executorThreadCount) {
+        int numConcurrentTrees = Math.max(1, Math.min(executorThreadCount, numTrees));
+        return Math.max(1, treeBuilderParallelism / numConcurrentTrees);
+    }
 }
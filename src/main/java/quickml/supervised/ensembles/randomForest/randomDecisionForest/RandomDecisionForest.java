@@ -6,9 +6,14 @@ import com.google.common.util.concurrent.AtomicDouble;
 
 import quickml.data.AttributesMap;
 import quickml.data.PredictionMap;
+import quickml.supervised.BatchPredictor;
 import quickml.supervised.classifier.AbstractClassifier;
 import quickml.supervised.ensembles.randomForest.RandomForest;
 import quickml.supervised.tree.decisionTree.DecisionTree;
+import quickml.supervised.tree.decisionTree.DecisionTreeSlimmer;
+import quickml.supervised.tree.decisionTree.compiled.BytecodeDecisionForest;
+import quickml.supervised.tree.decisionTree.compiled.CompiledDecisionForest;
+import quickml.supervised.tree.decisionTree.compiled.DecisionForestCompiler;
 
 import java.io.Serializable;
 import java.util.*;
@@ -27,8 +32,10 @@ public class RandomDecisionForest  extends AbstractClassifier implements RandomF
     public final List<DecisionTree> decisionTrees;
     private Set<Serializable> classifications = new HashSet<>();
     private boolean binaryClassification = true;
+    //the first and second classification of a binary forest (the second is null with a single class), found once rather than per prediction
+    private transient volatile Serializable[] binaryClassifications = null;
 
-    protected RandomDecisionForest(List<DecisionTree> decisionTrees, Set<Serializable> classifications) {
+    public RandomDecisionForest(List<DecisionTree> decisionTrees, Set<Serializable> classifications) {
         Preconditions.checkArgument(decisionTrees.size() > 0, "We must have at least one oldTree");
         this.decisionTrees = decisionTrees;
         this.classifications = classifications;
@@ -39,6 +46,41 @@ public class RandomDecisionForest  extends AbstractClassifier implements RandomF
         }
     }
 
+    public Set<Serializable> getClassifications() {
+        return classifications;
+    }
+
+    /**
+     * @return the forest flattened into primitive arrays, for fast scoring.  The compiled forest makes the same predictions.
+     */
+    public CompiledDecisionForest compile() {
+        return DecisionForestCompiler.compile(decisionTrees, classifications);
+    }
+
+    /**
+     * @return the forest compiled to JVM bytecode, see BytecodeDecisionForest.
+     */
+    public BytecodeDecisionForest compileToBytecode() {
+        return compile().compileToBytecode();
+    }
+
+    /**
+     * Slims each tree (see DecisionTree.slim), sharing leaves with the same probabilities between the trees.
+     */
+    public void slim() {
+        slim(false);
+    }
+
+    /**
+     * @param quantize whether leaf probabilities are stored in 16 bits rather than as floats.
+     */
+    public void slim(boolean quantize) {
+        DecisionTreeSlimmer slimmer = new DecisionTreeSlimmer(quantize, classifications);
+        for (DecisionTree decisionTree : decisionTrees) {
+            decisionTree.slim(slimmer);
+        }
+    }
+
     @Override
     public double getProbability(AttributesMap attributes, Serializable classification) {
         double total = 0;
@@ -66,25 +108,31 @@ public class RandomDecisionForest  extends AbstractClassifier implements RandomF
 
     @Override
     public PredictionMap predict(final AttributesMap attributes) {
-        if (binaryClassification)  {
-            return getPredictionForTwoClasses(attributes);
+        if (binaryClassification) {
+            Serializable[] binaryClassifications = getBinaryClassifications();
+            double total = 0;
+            for (DecisionTree decisionTree : decisionTrees) {
+                total += getFirstProbability(decisionTree, attributes, binaryClassifications);
+            }
+            return getPredictionForTwoClasses(total, binaryClassifications);
         }
-        else {
-            return getPredictionForNClasses(attributes);
+        PredictionMap sumsByClassification = new PredictionMap(new HashMap<Serializable, Double>());
+        for (DecisionTree decisionTree : decisionTrees) {
+            addTreeProbabilities(sumsByClassification, decisionTree.predict(attributes));
         }
+        return averageOverTrees(sumsByClassification);
     }
 
-    private PredictionMap getPredictionForNClasses(AttributesMap attributes) {
-        PredictionMap sumsByClassification = new PredictionMap(new HashMap<Serializable, Double>());
-        for (DecisionTree decisionTree : decisionTrees) {
-            final PredictionMap treeProbs = decisionTree.predict(attributes);
-            for (Map.Entry<Serializable, Double> tpe : treeProbs.entrySet()) {
-                Double sum = sumsByClassification.get(tpe.getKey());
-                if (sum == null) sum = 0.0;
-                sum += tpe.getValue();
-                sumsByClassification.put(tpe.getKey(), sum);
-            }
+    private static void addTreeProbabilities(PredictionMap sumsByClassification, PredictionMap treeProbs) {
+        for (Map.Entry<Serializable, Double> tpe : treeProbs.entrySet()) {
+            Double sum = sumsByClassification.get(tpe.getKey());
+            if (sum == null) sum = 0.0;
+            sum += tpe.getValue();
+            sumsByClassification.put(tpe.getKey(), sum);
         }
+    }
+
+    private PredictionMap averageOverTrees(PredictionMap sumsByClassification) {
         PredictionMap probsByClassification = new PredictionMap(new HashMap<Serializable, Double>());
         for (Map.Entry<Serializable, Double> sumEntry : sumsByClassification.entrySet()) {
             probsByClassification.put(sumEntry.getKey(), sumEntry.getValue() / decisionTrees.size());
@@ -92,6 +140,99 @@ public class RandomDecisionForest  extends AbstractClassifier implements RandomF
         return probsByClassification;
     }
 
+    /**
+     * Makes the same predictions as predict, but pushes blocks of rows through one tree at a time so that each tree's
+     * nodes stay in cache.
+     */
+    @Override
+    public List<PredictionMap> predictBatch(List<? extends AttributesMap> attributesList) {
+        return predictBatch(attributesList, 1);
+    }
+
+    /**
+     * @param numThreads above 1, the blocks of rows are scored in parallel on the shared ComputeScheduler.
+     */
+    public List<PredictionMap> predictBatch(List<? extends AttributesMap> attributesList, int numThreads) {
+        return new BatchPredictor<PredictionMap>() {
+            @Override
+            protected void predictBlock(List<? extends AttributesMap> rows, int from, int to, List<PredictionMap> predictions) {
+                RandomDecisionForest.this.predictBlock(rows, from, to, predictions);
+            }
+        }.predict(attributesList, numThreads);
+    }
+
+    private void predictBlock(List<? extends AttributesMap> rows, int from, int to, List<PredictionMap> predictions) {
+        if (binaryClassification) {
+            predictBlockForTwoClasses(rows, from, to, predictions);
+        } else {
+            predictBlockForNClasses(rows, from, to, predictions);
+        }
+    }
+
+    //the trees stay in the outer loop, so that each tree's nodes stay in cache while the block is pushed through it
+    private void predictBlockForTwoClasses(List<? extends AttributesMap> rows, int from, int to, List<PredictionMap> predictions) {
+        Serializable[] binaryClassifications = getBinaryClassifications();
+        double[] totals = new double[to - from];
+        for (DecisionTree decisionTree : decisionTrees) {
+            for (int row = from; row < to; row++) {
+                totals[row - from] += getFirstProbability(decisionTree, rows.get(row), binaryClassifications);
+            }
+        }
+        for (int row = from; row < to; row++) {
+            predictions.set(row, getPredictionForTwoClasses(totals[row - from], binaryClassifications));
+        }
+    }
+
+    private static double getFirstProbability(DecisionTree decisionTree, AttributesMap attributes, Serializable[] binaryClassifications) {
+        final double probability = decisionTree.getProbability(attributes, binaryClassifications[0]);
+        if (Double.isInfinite(probability) || Double.isNaN(probability)) {
+            throw new RuntimeException("Probability must be a normal number, not "+probability);
+        }
+        return probability;
+    }
+
+    /**
+     * @param total the probability of the first classification, summed over the trees.
+     */
+    private PredictionMap getPredictionForTwoClasses(double total, Serializable[] binaryClassifications) {
+        double firstProbability = total / decisionTrees.size();
+        PredictionMap probsByClassification = PredictionMap.newMap();
+        probsByClassification.put(binaryClassifications[0], firstProbability);
+        if (binaryClassifications[1] != null) {
+            probsByClassification.put(binaryClassifications[1], 1.0 - firstProbability);
+        }
+        return probsByClassification;
+    }
+
+    private Serializable[] getBinaryClassifications() {
+        Serializable[] result = binaryClassifications;
+        if (result == null) {
+            Iterator<Serializable> classIterator = classifications.iterator();
+            if (!classIterator.hasNext()) {
+                throw new RuntimeException("no class labels present in classification set");
+            }
+            Serializable firstClassification = classIterator.next();
+            result = new Serializable[]{firstClassification, classIterator.hasNext() ? classIterator.next() : null};
+            binaryClassifications = result;
+        }
+        return result;
+    }
+
+    private void predictBlockForNClasses(List<? extends AttributesMap> rows, int from, int to, List<PredictionMap> predictions) {
+        List<PredictionMap> sums = new ArrayList<>(to - from);
+        for (int row = from; row < to; row++) {
+            sums.add(new PredictionMap(new HashMap<Serializable, Double>()));
+        }
+        for (DecisionTree decisionTree : decisionTrees) {
+            for (int row = from; row < to; row++) {
+                addTreeProbabilities(sums.get(row - from), decisionTree.predict(rows.get(row)));
+            }
+        }
+        for (int row = from; row < to; row++) {
+            predictions.set(row, averageOverTrees(sums.get(row - from)));
+        }
+    }
+
     @Override
     public PredictionMap predictWithoutAttributes(AttributesMap attributes, Set<String> attributesToIgnore) {
         PredictionMap sumsByClassification = new PredictionMap(new HashMap<Serializable, Double>());
@@ -111,20 +252,52 @@ public class RandomDecisionForest  extends AbstractClassifier implements RandomF
         return probsByClassification;
     }
 
-    private PredictionMap getPredictionForTwoClasses(AttributesMap attributes) {
-        PredictionMap probsByClassification = PredictionMap.newMap();
-        Iterator<Serializable> classIterator = classifications.iterator();
-        if (!classIterator.hasNext()) {
-            throw new RuntimeException("no class labels present in classification set");
+    /**
+     * Makes the predictions predictWithoutAttributes(attributes, {attribute}) would make for each of attributesToIgnore,
+     * traversing each tree once.  A tree only has to reweigh its children for the attributes its path through the row
+     * tests (see DecisionTree.predictWithoutEachAttribute), and most trees test few of the attributes, so this is much
+     * faster than a predictWithoutAttributes call per attribute.  Predictions agree with those calls up to rounding.
+     */
+    public Map<String, PredictionMap> predictWithoutEachAttribute(AttributesMap attributes, Set<String> attributesToIgnore) {
+        PredictionMap sumsByClassification = new PredictionMap(new HashMap<Serializable, Double>());
+        //for each attribute, the sum over trees of the change in each probability when the attribute is ignored
+        Map<String, Map<Serializable, Double>> changesByAttribute = Maps.newHashMap();
+        Map<String, PredictionMap> treePredictionsWithoutAttribute = Maps.newHashMap();
+        for (DecisionTree decisionTree : decisionTrees) {
+            treePredictionsWithoutAttribute.clear();
+            PredictionMap treeProbs = decisionTree.predictWithoutEachAttribute(attributes, attributesToIgnore, treePredictionsWithoutAttribute);
+            addTreeProbabilities(sumsByClassification, treeProbs);
+            for (Map.Entry<String, PredictionMap> withoutAttribute : treePredictionsWithoutAttribute.entrySet()) {
+                Map<Serializable, Double> changes = changesByAttribute.get(withoutAttribute.getKey());
+                if (changes == null) {
+                    changes = Maps.newHashMap();
+                    changesByAttribute.put(withoutAttribute.getKey(), changes);
+                }
+                for (Map.Entry<Serializable, Double> tpe : withoutAttribute.getValue().entrySet()) {
+                    Double change = changes.get(tpe.getKey());
+                    if (change == null) change = 0.0;
+                    change += tpe.getValue() - treeProbs.get(tpe.getKey());
+                    changes.put(tpe.getKey(), change);
+                }
+            }
         }
-        Serializable firstClassification = classIterator.next();
-        double firstProbability = getProbability(attributes, firstClassification);
-        probsByClassification.put(firstClassification, firstProbability);
-        if (classIterator.hasNext()) {
-            Serializable secondClassification = classIterator.next();
-            probsByClassification.put(secondClassification, 1.0 - firstProbability);
+
+        PredictionMap prediction = averageOverTrees(sumsByClassification);
+        Map<String, PredictionMap> predictionsByAttribute = Maps.newHashMap();
+        for (String attribute : attributesToIgnore) {
+            Map<Serializable, Double> changes = changesByAttribute.get(attribute);
+            if (changes == null) {
+                predictionsByAttribute.put(attribute, prediction);
+                continue;
+            }
+            PredictionMap probsByClassification = new PredictionMap(new HashMap<Serializable, Double>());
+            for (Map.Entry<Serializable, Double> sumEntry : sumsByClassification.entrySet()) {
+                Double change = changes.get(sumEntry.getKey());
+                probsByClassification.put(sumEntry.getKey(), (sumEntry.getValue() + (change == null ? 0 : change)) / decisionTrees.size());
+            }
+            predictionsByAttribute.put(attribute, probsByClassification);
         }
-        return probsByClassification;
+        return predictionsByAttribute;
     }
 
     @Override
@@ -1,11 +1,17 @@
 package quickml.supervised.ensembles.randomForest.randomDecisionForest;
 
+import com.google.common.base.Optional;
 import com.google.common.collect.Lists;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import quickml.concurrent.ComputeScheduler;
+import quickml.data.ColumnarDataset;
 import quickml.data.instances.ClassifierInstance;
 import quickml.data.PredictionMap;
 import quickml.supervised.ensembles.randomForest.RandomForestBuilder;
+import quickml.supervised.tree.bagging.PoissonBagging;
+import quickml.supervised.tree.decisionTree.valueCounters.ClassificationCounter;
+import quickml.supervised.tree.treeBuildContexts.PreparedTrainingData;
 import quickml.supervised.tree.decisionTree.DecisionTree;
 import quickml.supervised.tree.attributeIgnoringStrategies.IgnoreAttributesWithConstantProbability;
 import quickml.supervised.tree.decisionTree.DecisionTreeBuilder;
@@ -16,9 +22,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import static  quickml.supervised.tree.constants.ForestOptions.*;
 
 
@@ -28,8 +31,8 @@ public class RandomDecisionForestBuilder<I extends ClassifierInstance> extends R
     //TODO: copy treeBuilder before submitting
     private static final Logger logger = LoggerFactory.getLogger(RandomDecisionForestBuilder.class);
     private final DecisionTreeBuilder<I> treeBuilder;
-    private int executorThreadCount = Runtime.getRuntime().availableProcessors();
-    private ExecutorService executorService;
+    private ComputeScheduler scheduler = ComputeScheduler.getShared();
+    private int parallelismPerTree;
 
     public RandomDecisionForestBuilder() {
         this(new DecisionTreeBuilder<I>().attributeIgnoringStrategy(new IgnoreAttributesWithConstantProbability(0.7)).maxDepth(5));
@@ -51,61 +54,130 @@ public class RandomDecisionForestBuilder<I extends ClassifierInstance> extends R
         return this;
     }
 
+    //only applies to forests built from a ColumnarDataset
+    public RandomDecisionForestBuilder<I> bagging(PoissonBagging bagging) {
+        this.bagging = Optional.of(bagging);
+        return this;
+    }
+
+    /**
+     * Seeds the random numbers of the forest (those of its trees, and of the bagging an OutOfBagCrossValidator makes for it),
+     * which makes its builds reproducible.  Each tree is seeded with its own seed split from this one.
+     */
+    public RandomDecisionForestBuilder<I> seed(long seed) {
+        treeBuilder.seed(seed);
+        return this;
+    }
+
+    public Optional<Long> getSeed() {
+        return treeBuilder.getSeed();
+    }
+
+    /**
+     * Builds the trees on their own scheduler with threadCount threads, rather than the shared one.
+     */
     public RandomDecisionForestBuilder<I> executorThreadCount(int threadCount) {
-        this.executorThreadCount = threadCount;
+        this.scheduler = new ComputeScheduler(threadCount);
+        return this;
+    }
+
+    /**
+     * The trees are built as tasks of scheduler, and the subtasks of trees with a parallelism above 1 are forked into it.
+     */
+    public RandomDecisionForestBuilder<I> scheduler(ComputeScheduler scheduler) {
+        this.scheduler = scheduler;
         return this;
     }
 
     @Override
     public RandomDecisionForest buildPredictiveModel(Iterable<I> trainingData) {
-        executorService = Executors.newFixedThreadPool(executorThreadCount);
-        logger.info("Building random forest with {} trees", numTrees);
+        //the training data is surveyed once, and every tree shares the survey.  Each tree partitions its own copy of the list.
+        List<I> trainingDataList = trainingData instanceof List ? (List<I>) trainingData : Lists.newArrayList(trainingData);
+        PreparedTrainingData<I, ClassificationCounter> preparedTrainingData = treeBuilder.copy().prepareTrainingData(trainingDataList);
+        startBuild();
+        List<Callable<DecisionTree>> treeBuilds = Lists.newArrayListWithCapacity(numTrees);
+        for (int treeIndex = 0; treeIndex < numTrees; treeIndex++) {
+            treeBuilds.add(treeBuild(trainingDataList, preparedTrainingData, treeIndex));
+        }
+        return collectForest(scheduler.invokeAll(treeBuilds));
+    }
 
-        List<Future<DecisionTree>> treeFutures = Lists.newArrayListWithCapacity(numTrees);
-        List<DecisionTree> decisionTrees = Lists.newArrayListWithCapacity(numTrees);
+    /**
+     * Builds every tree from the same ColumnarDataset.  With bagging, each tree trains on a reweighted view of it, so no
+     * instances are copied per tree.  The attribute survey and root stats are made once, from the unweighted data, and
+     * shared by every tree.
+     */
+    public RandomDecisionForest buildPredictiveModel(ColumnarDataset trainingData) {
+        return buildPredictiveModel(trainingData, bagging);
+    }
 
-        // Submit all oldTree building jobs to the executor
+    /**
+     * Same as buildPredictiveModel(trainingData), but bags the trees with bagging (if present) instead of this builder's bagging.
+     */
+    public RandomDecisionForest buildPredictiveModel(ColumnarDataset trainingData, Optional<PoissonBagging> bagging) {
+        PreparedTrainingData<I, ClassificationCounter> preparedTrainingData = treeBuilder.copy().prepareTrainingData(trainingData);
+        startBuild();
+        List<Callable<DecisionTree>> treeBuilds = Lists.newArrayListWithCapacity(numTrees);
         for (int treeIndex = 0; treeIndex < numTrees; treeIndex++) {
-            treeFutures.add(submitTreeBuild(trainingData, treeIndex));
+            treeBuilds.add(treeBuild(trainingData, bagging, preparedTrainingData, treeIndex));
         }
+        return collectForest(scheduler.invokeAll(treeBuilds));
+    }
 
-        // Collect all completed trees. Will block until complete
-        collectTreeFutures(decisionTrees, treeFutures);
+    private void startBuild() {
+        parallelismPerTree = getParallelismPerTree(treeBuilder.getParallelism(), scheduler.getParallelism());
+        logger.info("Building random forest with {} trees", numTrees);
+    }
+
+    private RandomDecisionForest collectForest(List<DecisionTree> decisionTrees) {
         Set<Serializable> classifications = new HashSet<>();
         for (DecisionTree decisionTree : decisionTrees) {
             classifications.addAll(decisionTree.getClassifications());
         }
-        return new RandomDecisionForest(decisionTrees, classifications);
+        RandomDecisionForest forest = new RandomDecisionForest(decisionTrees, classifications);
+        if (treeBuilder.getSlim()) {
+            forest.slim(treeBuilder.getQuantizeLeafProbabilities());
+        }
+        return forest;
     }
 
-    private Future<DecisionTree> submitTreeBuild(final Iterable<I> trainingData, final int treeIndex) {
-        return executorService.submit(new Callable<DecisionTree>() {
+    private Callable<DecisionTree> treeBuild(final List<I> trainingData, final PreparedTrainingData<I, ClassificationCounter> preparedTrainingData, final int treeIndex) {
+        return new Callable<DecisionTree>() {
             @Override
             public DecisionTree call() throws Exception {
-                return buildModel(trainingData, treeIndex);
+                return buildModel(trainingData, preparedTrainingData, treeIndex);
             }
-        });
+        };
     }
 
-    private DecisionTree buildModel(Iterable<I> trainingData, int treeIndex) {
-        logger.debug("Building oldTree {} of {}", treeIndex, numTrees);
-        return treeBuilder.copy().buildPredictiveModel(trainingData);
+    private Callable<DecisionTree> treeBuild(final ColumnarDataset trainingData, final Optional<PoissonBagging> bagging,
+                                             final PreparedTrainingData<I, ClassificationCounter> preparedTrainingData, final int treeIndex) {
+        return new Callable<DecisionTree>() {
+            @Override
+            public DecisionTree call() throws Exception {
+                return buildModel(trainingData, bagging, preparedTrainingData, treeIndex);
+            }
+        };
     }
 
+    private DecisionTree buildModel(ColumnarDataset trainingData, Optional<PoissonBagging> bagging, PreparedTrainingData<I, ClassificationCounter> preparedTrainingData, int treeIndex) {
+        logger.debug("Building oldTree {} of {}", treeIndex, numTrees);
+        ColumnarDataset treeTrainingData = bagging.isPresent() ? bagging.get().bootstrap(trainingData, treeIndex) : trainingData;
+        return getTreeBuilder(treeIndex).buildPredictiveModel(treeTrainingData, preparedTrainingData);
+    }
 
-    protected void collectTreeFutures(List<DecisionTree> decisionTrees, List<Future<DecisionTree>> treeFutures) {
-        for (Future<DecisionTree> treeFuture : treeFutures) {
-            collectTreeFutures(decisionTrees, treeFuture);
-        }
-        executorService.shutdown();
+    private DecisionTree buildModel(List<I> trainingData, PreparedTrainingData<I, ClassificationCounter> preparedTrainingData, int treeIndex) {
+        logger.debug("Building oldTree {} of {}", treeIndex, numTrees);
+        return getTreeBuilder(treeIndex).buildPredictiveModel(trainingData, preparedTrainingData);
     }
 
-    private void collectTreeFutures(List<DecisionTree> decisionTrees, Future<DecisionTree> treeFuture) {
-        try {
-            decisionTrees.add(treeFuture.get());
-        } catch (Exception e) {
-            e.printStackTrace();
-            throw new RuntimeException(e);
+    private DecisionTreeBuilder<I> getTreeBuilder(int treeIndex) {
+        //slimming is left to collectForest, so that leaves are shared between trees
+        DecisionTreeBuilder<I> treeBuilderCopy = treeBuilder.copy().parallelism(parallelismPerTree).slim(false);
+        Optional<Long> seed = treeBuilder.getSeed();
+        if (seed.isPresent()) {
+            treeBuilderCopy.seed(getTreeSeed(seed.get(), treeIndex));
         }
+        return treeBuilderCopy;
     }
 }
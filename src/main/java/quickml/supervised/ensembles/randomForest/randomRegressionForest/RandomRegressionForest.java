@@ -5,6 +5,7 @@ import com.google.common.collect.Maps;
 import com.google.common.util.concurrent.AtomicDouble;
 import quickml.data.AttributesMap;
 import quickml.data.PredictionMap;
+import quickml.supervised.BatchPredictor;
 import quickml.supervised.classifier.AbstractClassifier;
 import quickml.supervised.ensembles.randomForest.RandomForest;
 import quickml.supervised.tree.regressionTree.RegressionTree;
@@ -25,7 +26,7 @@ public class RandomRegressionForest implements RandomForest<Double, RegressionTr
 
     public final List<RegressionTree> regressionTrees;
 
-    protected RandomRegressionForest(List<RegressionTree> regressionTrees) {
+    public RandomRegressionForest(List<RegressionTree> regressionTrees) {
         Preconditions.checkArgument(regressionTrees.size() > 0, "We must have at least one oldTree");
         this.regressionTrees = regressionTrees;
     }
@@ -56,6 +57,38 @@ public class RandomRegressionForest implements RandomForest<Double, RegressionTr
         return total / regressionTrees.size();
     }
 
+    /**
+     * Makes the same predictions as predict, but pushes blocks of rows through one tree at a time so that each tree's
+     * nodes stay in cache.
+     */
+    public List<Double> predictBatch(List<? extends AttributesMap> attributesList) {
+        return predictBatch(attributesList, 1);
+    }
+
+    /**
+     * @param numThreads above 1, the blocks of rows are scored in parallel on the shared ComputeScheduler.
+     */
+    public List<Double> predictBatch(List<? extends AttributesMap> attributesList, int numThreads) {
+        return new BatchPredictor<Double>() {
+            @Override
+            protected void predictBlock(List<? extends AttributesMap> rows, int from, int to, List<Double> predictions) {
+                double[] totals = new double[to - from];
+                for (RegressionTree regressionTree : regressionTrees) {
+                    for (int row = from; row < to; row++) {
+                        final double value = regressionTree.predict(rows.get(row));
+                        if (Double.isInfinite(value) || Double.isNaN(value)) {
+                            throw new RuntimeException("Probability must be a normal number, not "+value);
+                        }
+                        totals[row - from] += value;
+                    }
+                }
+                for (int row = from; row < to; row++) {
+                    predictions.set(row, totals[row - from] / regressionTrees.size());
+                }
+            }
+        }.predict(attributesList, numThreads);
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (this == o) return true;
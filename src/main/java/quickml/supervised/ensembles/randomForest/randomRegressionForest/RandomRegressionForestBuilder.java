@@ -1,12 +1,18 @@
 package quickml.supervised.ensembles.randomForest.randomRegressionForest;
 
+import com.google.common.base.Optional;
 import com.google.common.collect.Lists;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import quickml.concurrent.ComputeScheduler;
+import quickml.data.ColumnarDataset;
 import quickml.data.PredictionMap;
 import quickml.data.instances.ClassifierInstance;
 import quickml.data.instances.RegressionInstance;
 import quickml.supervised.ensembles.randomForest.RandomForestBuilder;
+import quickml.supervised.tree.bagging.PoissonBagging;
+import quickml.supervised.tree.regressionTree.valueCounters.MeanValueCounter;
+import quickml.supervised.tree.treeBuildContexts.PreparedTrainingData;
 import quickml.supervised.tree.attributeIgnoringStrategies.IgnoreAttributesWithConstantProbability;
 
 import quickml.supervised.tree.regressionTree.RegressionTree;
@@ -18,9 +24,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 
 import static quickml.supervised.tree.constants.ForestOptions.NUM_TREES;
 
@@ -31,8 +34,8 @@ public class RandomRegressionForestBuilder<I extends RegressionInstance> extends
     //TODO: copy treeBuilder before submitting
     private static final Logger logger = LoggerFactory.getLogger(RandomRegressionForestBuilder.class);
     private final RegressionTreeBuilder<I> treeBuilder;
-    private int executorThreadCount = Runtime.getRuntime().availableProcessors();
-    private ExecutorService executorService;
+    private ComputeScheduler scheduler = ComputeScheduler.getShared();
+    private int parallelismPerTree;
 
     public RandomRegressionForestBuilder() {
         this(new RegressionTreeBuilder<I>().attributeIgnoringStrategy(new IgnoreAttributesWithConstantProbability(0.7)).maxDepth(5));
@@ -54,58 +57,114 @@ public class RandomRegressionForestBuilder<I extends RegressionInstance> extends
         return this;
     }
 
+    //only applies to forests built from a ColumnarDataset
+    public RandomRegressionForestBuilder<I> bagging(PoissonBagging bagging) {
+        this.bagging = Optional.of(bagging);
+        return this;
+    }
+
+    /**
+     * Seeds the random numbers of the forest (those of its trees, and of the bagging an OutOfBagCrossValidator makes for it),
+     * which makes its builds reproducible.  Each tree is seeded with its own seed split from this one.
+     */
+    public RandomRegressionForestBuilder<I> seed(long seed) {
+        treeBuilder.seed(seed);
+        return this;
+    }
+
+    public Optional<Long> getSeed() {
+        return treeBuilder.getSeed();
+    }
+
+    /**
+     * Builds the trees on their own scheduler with threadCount threads, rather than the shared one.
+     */
     public RandomRegressionForestBuilder<I> executorThreadCount(int threadCount) {
-        this.executorThreadCount = threadCount;
+        this.scheduler = new ComputeScheduler(threadCount);
+        return this;
+    }
+
+    /**
+     * The trees are built as tasks of scheduler, and the subtasks of trees with a parallelism above 1 are forked into it.
+     */
+    public RandomRegressionForestBuilder<I> scheduler(ComputeScheduler scheduler) {
+        this.scheduler = scheduler;
         return this;
     }
 
     @Override
     public RandomRegressionForest buildPredictiveModel(Iterable<I> trainingData) {
-        executorService = Executors.newFixedThreadPool(executorThreadCount);
-        logger.info("Building random forest with {} trees", numTrees);
-
-        List<Future<RegressionTree>> treeFutures = Lists.newArrayListWithCapacity(numTrees);
-        List<RegressionTree> regressionTrees = Lists.newArrayListWithCapacity(numTrees);
+        //the training data is surveyed once, and every tree shares the survey.  Each tree partitions its own copy of the list.
+        List<I> trainingDataList = trainingData instanceof List ? (List<I>) trainingData : Lists.newArrayList(trainingData);
+        PreparedTrainingData<I, MeanValueCounter> preparedTrainingData = treeBuilder.copy().prepareTrainingData(trainingDataList);
+        startBuild();
+        List<Callable<RegressionTree>> treeBuilds = Lists.newArrayListWithCapacity(numTrees);
+        for (int treeIndex = 0; treeIndex < numTrees; treeIndex++) {
+            treeBuilds.add(treeBuild(trainingDataList, preparedTrainingData, treeIndex));
+        }
+        return collectForest(scheduler.invokeAll(treeBuilds));
+    }
 
-        // Submit all oldTree building jobs to the executor
+    /**
+     * Builds every tree from the same ColumnarDataset.  With bagging, each tree trains on a reweighted view of it, so no
+     * instances are copied per tree.  The attribute survey and root stats are made once, from the unweighted data, and
+     * shared by every tree.
+     */
+    public RandomRegressionForest buildPredictiveModel(ColumnarDataset trainingData) {
+        PreparedTrainingData<I, MeanValueCounter> preparedTrainingData = treeBuilder.copy().prepareTrainingData(trainingData);
+        startBuild();
+        List<Callable<RegressionTree>> treeBuilds = Lists.newArrayListWithCapacity(numTrees);
         for (int treeIndex = 0; treeIndex < numTrees; treeIndex++) {
-            treeFutures.add(submitTreeBuild(trainingData, treeIndex));
+            treeBuilds.add(treeBuild(trainingData, preparedTrainingData, treeIndex));
         }
+        return collectForest(scheduler.invokeAll(treeBuilds));
+    }
 
-        // Collect all completed trees. Will block until complete
-        collectTreeFutures(regressionTrees, treeFutures);
+    private void startBuild() {
+        parallelismPerTree = getParallelismPerTree(treeBuilder.getParallelism(), scheduler.getParallelism());
+        logger.info("Building random forest with {} trees", numTrees);
+    }
+
+    private RandomRegressionForest collectForest(List<RegressionTree> regressionTrees) {
 
         return new RandomRegressionForest(regressionTrees);
     }
 
-    private Future<RegressionTree> submitTreeBuild(final Iterable<I> trainingData, final int treeIndex) {
-        return executorService.submit(new Callable<RegressionTree>() {
+    private Callable<RegressionTree> treeBuild(final List<I> trainingData, final PreparedTrainingData<I, MeanValueCounter> preparedTrainingData, final int treeIndex) {
+        return new Callable<RegressionTree>() {
             @Override
             public RegressionTree call() throws Exception {
-                return buildModel(trainingData, treeIndex);
+                return buildModel(trainingData, preparedTrainingData, treeIndex);
             }
-        });
+        };
     }
 
-    private RegressionTree buildModel(Iterable<I> trainingData, int treeIndex) {
-        logger.debug("Building oldTree {} of {}", treeIndex, numTrees);
-        return treeBuilder.copy().buildPredictiveModel(trainingData);
+    private Callable<RegressionTree> treeBuild(final ColumnarDataset trainingData, final PreparedTrainingData<I, MeanValueCounter> preparedTrainingData, final int treeIndex) {
+        return new Callable<RegressionTree>() {
+            @Override
+            public RegressionTree call() throws Exception {
+                return buildModel(trainingData, preparedTrainingData, treeIndex);
+            }
+        };
     }
 
+    private RegressionTree buildModel(ColumnarDataset trainingData, PreparedTrainingData<I, MeanValueCounter> preparedTrainingData, int treeIndex) {
+        logger.debug("Building oldTree {} of {}", treeIndex, numTrees);
+        ColumnarDataset treeTrainingData = bagging.isPresent() ? bagging.get().bootstrap(trainingData, treeIndex) : trainingData;
+        return getTreeBuilder(treeIndex).buildPredictiveModel(treeTrainingData, preparedTrainingData);
+    }
 
-    protected void collectTreeFutures(List<RegressionTree> regressionTrees, List<Future<RegressionTree>> treeFutures) {
-        for (Future<RegressionTree> treeFuture : treeFutures) {
-            collectTreeFutures(regressionTrees, treeFuture);
-        }
-        executorService.shutdown();
+    private RegressionTree buildModel(List<I> trainingData, PreparedTrainingData<I, MeanValueCounter> preparedTrainingData, int treeIndex) {
+        logger.debug("Building oldTree {} of {}", treeIndex, numTrees);
+        return getTreeBuilder(treeIndex).buildPredictiveModel(trainingData, preparedTrainingData);
     }
 
-    private void collectTreeFutures(List<RegressionTree> regressionTrees, Future<RegressionTree> treeFuture) {
-        try {
-            regressionTrees.add(treeFuture.get());
-        } catch (Exception e) {
-            e.printStackTrace();
-            throw new RuntimeException(e);
+    private RegressionTreeBuilder<I> getTreeBuilder(int treeIndex) {
+        RegressionTreeBuilder<I> treeBuilderCopy = treeBuilder.copy().parallelism(parallelismPerTree);
+        Optional<Long> seed = treeBuilder.getSeed();
+        if (seed.isPresent()) {
+            treeBuilderCopy.seed(getTreeSeed(seed.get(), treeIndex));
         }
+        return treeBuilderCopy;
     }
 }
@@ -6,14 +6,13 @@ import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
 import org.javatuples.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import quickml.concurrent.ComputeScheduler;
 import quickml.data.instances.SparseRegressionInstance;
 
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
 import static quickml.MathUtils.cappedlogBase2;
@@ -25,7 +24,7 @@ import static quickml.MathUtils.sigmoid;
 public class OptimizableCostFunctionImp implements OptimizableCostFunction<SparseRegressionInstance> {
 
     private int executorThreadCount = Runtime.getRuntime().availableProcessors();
-    private ExecutorService executorService=Executors.newFixedThreadPool(executorThreadCount);
+    private ComputeScheduler scheduler = ComputeScheduler.getShared();
 
 
     public static final String EXPECTED_FRACTION_OF_FEATURES_TO_UPDATE_PER_WORKER = "expectedFractionOfFeaturesToUpdatePerWorker";
@@ -55,6 +54,14 @@ public class OptimizableCostFunctionImp implements OptimizableCostFunction<Spars
         }
         return this;
     }
+
+    /**
+     * the scheduler that computes the contributions to the gradient, executorThreadCount of them per mini batch.
+     */
+    public OptimizableCostFunctionImp scheduler(ComputeScheduler scheduler) {
+        this.scheduler = scheduler;
+        return this;
+    }
     public OptimizableCostFunctionImp maxGradientNorm(double maxGradientNorm) {
         this.maxGradientNorm = maxGradientNorm;
         return this;
@@ -158,7 +165,7 @@ public class OptimizableCostFunctionImp implements OptimizableCostFunction<Spars
         List<Future<Int2DoubleOpenHashMap>> contributionsToTheGradient = Lists.newArrayListWithCapacity(actualNumThreads);
         for (int i = 0; i < actualNumThreads; i++) {
             final int index = i;
-            contributionsToTheGradient.add(executorService.submit(new Callable<Int2DoubleOpenHashMap>() {
+            contributionsToTheGradient.add(scheduler.submit(new Callable<Int2DoubleOpenHashMap>() {
                 @Override
                 public Int2DoubleOpenHashMap call() throws Exception {
                     expectedFractionOfFeaturesToUpdatePerWorker = 1.0;
@@ -180,7 +187,7 @@ public class OptimizableCostFunctionImp implements OptimizableCostFunction<Spars
         List<Future<double[]>> contributionsToTheGradient = Lists.newArrayListWithCapacity(actualNumThreads);
         for (int i = 0; i < actualNumThreads; i++) {
             final int index = i;
-            contributionsToTheGradient.add(executorService.submit(new Callable<double[]>() {
+            contributionsToTheGradient.add(scheduler.submit(new Callable<double[]>() {
                 @Override
                 public double[] call() throws Exception {
                     expectedFractionOfFeaturesToUpdatePerWorker = 1.0;
@@ -365,7 +372,7 @@ public class OptimizableCostFunctionImp implements OptimizableCostFunction<Spars
 
     @Override
     public void shutdown(){
-        executorService.shutdown();
+        //the scheduler is shared, and its idle threads exit by themselves
     }
 
 }
@@ -2,24 +2,40 @@ package quickml.supervised.tree;
 
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import quickml.concurrent.ComputeScheduler;
+import quickml.concurrent.SplittableRandom;
+import quickml.data.ColumnarDataset;
 import quickml.data.instances.InstanceWithAttributesMap;
 import quickml.supervised.Utils;
 import quickml.supervised.tree.branchFinders.BranchFinderAndReducerFactory;
+import quickml.supervised.tree.reducers.AttributeStatisticsProducer;
+import quickml.supervised.tree.reducers.AttributeStats;
+import quickml.supervised.tree.reducers.CachingAttributeStatisticsProducer;
+import quickml.supervised.tree.reducers.ColumnarBinnedReducer;
+import quickml.supervised.tree.reducers.ColumnarReducer;
 import quickml.supervised.tree.reducers.Reducer;
-import quickml.supervised.tree.reducers.ReducerFactory;
+import quickml.supervised.tree.reducers.SiblingSubtractingReducer;
 import quickml.supervised.tree.summaryStatistics.ValueCounter;
+import quickml.supervised.tree.summaryStatistics.ValueCounterProducer;
 import quickml.supervised.tree.branchFinders.BranchFinder;
 import quickml.supervised.tree.nodes.Branch;
+import quickml.supervised.tree.nodes.ColumnarDecider;
 import quickml.supervised.tree.nodes.Leaf;
 import quickml.supervised.tree.nodes.Node;
 import quickml.supervised.tree.branchingConditions.BranchingConditions;
+import quickml.supervised.tree.treeBuildContexts.PreparedTrainingData;
 import quickml.supervised.tree.treeBuildContexts.TreeContext;
 import quickml.supervised.tree.treeBuildContexts.TreeContextBuilder;
 
 import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinTask;
 
 public class TreeBuilderHelper<I extends InstanceWithAttributesMap<?>, VC extends ValueCounter<VC>>  {
+    //keys that split the random numbers of a node's children from its own
+    private static final long TRUE_CHILD = 1;
+    private static final long FALSE_CHILD = 2;
 
     protected TreeContextBuilder<I, VC> treeContextBuilder;
 
@@ -37,17 +53,88 @@ public class TreeBuilderHelper<I extends InstanceWithAttributesMap<?>, VC extend
 
     public Node<VC> computeNodes(List<I> trainingData) {
         TreeContext<I, VC> itbc = treeContextBuilder.buildContext(trainingData);
-        return createNode(null, trainingData, itbc);
+        return createRoot(trainingData, itbc);
     }
 
-    protected Node<VC> createNode(Branch<VC> parent, List<I> trainingData, TreeContext<I, VC> tc) {
+    public Node<VC> computeNodes(ColumnarDataset trainingData) {
+        TreeContext<I, VC> itbc = treeContextBuilder.buildContext(trainingData);
+        return createRoot(trainingData, itbc);
+    }
+
+    public Node<VC> computeNodes(List<I> trainingData, PreparedTrainingData<I, VC> preparedTrainingData) {
+        TreeContext<I, VC> itbc = treeContextBuilder.buildContext(trainingData, preparedTrainingData);
+        return createRoot(trainingData, itbc);
+    }
+
+    public Node<VC> computeNodes(ColumnarDataset trainingData, PreparedTrainingData<I, VC> preparedTrainingData) {
+        TreeContext<I, VC> itbc = treeContextBuilder.buildContext(trainingData, preparedTrainingData);
+        return createRoot(trainingData, itbc);
+    }
+
+    protected Node<VC> createRoot(final List<I> trainingData, final TreeContext<I, VC> tc) {
+        return buildWithConfiguredParallelism(new Callable<Node<VC>>() {
+            @Override
+            public Node<VC> call() throws Exception {
+                return createNode(null, trainingData, tc, tc.getRandom());
+            }
+        });
+    }
+
+    protected Node<VC> createRoot(final ColumnarDataset trainingData, final TreeContext<I, VC> tc) {
+        if (treeContextBuilder.getLevelWiseGrowth()) {
+            return createRootLevelWise(trainingData, tc);
+        }
+        return buildWithConfiguredParallelism(new Callable<Node<VC>>() {
+            @Override
+            public Node<VC> call() throws Exception {
+                return createNode(null, trainingData, trainingData.allRows(), 0, trainingData.size(), tc, tc.getRandom());
+            }
+        });
+    }
+
+    protected Node<VC> createRootLevelWise(final ColumnarDataset trainingData, final TreeContext<I, VC> tc) {
+        Preconditions.checkArgument(trainingData.size() > 0, "Can't build a oldTree with no training data");
+        return buildWithConfiguredParallelism(new Callable<Node<VC>>() {
+            @Override
+            public Node<VC> call() throws Exception {
+                return new LevelWiseGrowth(trainingData, tc).grow();
+            }
+        });
+    }
+
+    /**
+     * With a parallelism above 1 the tree is built on the shared ComputeScheduler (or on the scheduler whose task is building it):
+     * the attributes of each node are evaluated as separate tasks, and nodes with enough instances build their true and false
+     * subtrees as parallel tasks.
+     */
+    private Node<VC> buildWithConfiguredParallelism(Callable<Node<VC>> rootBuilder) {
+        int parallelism = treeContextBuilder.getParallelism();
+        if (parallelism <= 1 || ForkJoinTask.inForkJoinPool()) {
+            return ForkJoinTask.adapt(rootBuilder).invoke();
+        }
+        return ComputeScheduler.getShared().invoke(rootBuilder);
+    }
+
+    private boolean buildInParallel() {
+        return treeContextBuilder.getParallelism() > 1 && ForkJoinTask.inForkJoinPool();
+    }
+
+    private boolean buildSubtreesInParallel(int numInstances) {
+        return buildInParallel() && numInstances >= treeContextBuilder.getMinInstancesForParallelSubtrees();
+    }
+
+    /**
+     * @param random the random numbers of this node, which are split per child so that a subtree draws the same numbers
+     *               whether or not it is built in parallel.
+     */
+    protected Node<VC> createNode(Branch<VC> parent, List<I> trainingData, TreeContext<I, VC> tc, SplittableRandom random) {
         Preconditions.checkArgument(trainingData != null && !trainingData.isEmpty(), "Can't build a oldTree with no training data");
         BranchingConditions<VC> branchingConditions = tc.getBranchingConditions();
         VC aggregateStats = getAggregateStats(tc, trainingData);
         if (!branchingConditions.canTryAddingChildren(parent, aggregateStats)) {
             return getLeaf(parent, aggregateStats, tc);
         }
-        Optional<? extends Branch<VC>> bestBranchOptional = findBestBranch(parent, trainingData, tc);
+        Optional<? extends Branch<VC>> bestBranchOptional = findBestBranchOfReducers(parent, getReducers(trainingData, tc, random), tc, random);
         if (!bestBranchOptional.isPresent()) {
             return getLeaf(parent, aggregateStats, tc);
         }
@@ -58,25 +145,394 @@ public class TreeBuilderHelper<I extends InstanceWithAttributesMap<?>, VC extend
         if (trueFalsePair.trueTrainingSet.size() ==0 || trueFalsePair.falseTrainingSet.size() ==0){//trueFalsePair.falseTrainingSet.size() ==0 || trueFalsePair.trueTrainingSet.size() ==0) {
             return getLeaf(parent, aggregateStats, tc);
         }
-        bestBranch.setTrueChild(createNode(bestBranch, trueFalsePair.trueTrainingSet, tc));
-        bestBranch.setFalseChild(createNode(bestBranch, trueFalsePair.falseTrainingSet, tc));
+        if (buildSubtreesInParallel(trainingData.size())) {
+            //the true and false sets are disjoint views of trainingData, so their subtrees can partition them concurrently.
+            ForkJoinTask<Node<VC>> trueChild = forkChild(bestBranch, trueFalsePair.trueTrainingSet, tc, random.split(TRUE_CHILD));
+            bestBranch.setFalseChild(createNode(bestBranch, trueFalsePair.falseTrainingSet, tc, random.split(FALSE_CHILD)));
+            bestBranch.setTrueChild(trueChild.join());
+        } else {
+            bestBranch.setTrueChild(createNode(bestBranch, trueFalsePair.trueTrainingSet, tc, random.split(TRUE_CHILD)));
+            bestBranch.setFalseChild(createNode(bestBranch, trueFalsePair.falseTrainingSet, tc, random.split(FALSE_CHILD)));
+        }
 
         return bestBranch;
     }
 
-    private Optional<? extends Branch<VC>> findBestBranch(Branch parent, List<I> instances, TreeContext<I, VC> tc ) {
-        double bestScore = 0;
-        Optional<? extends Branch<VC>> bestBranchOptional = Optional.absent();
+    /**
+     * Same as createNode(parent, trainingData, tc), but for the rows rows[from], ..., rows[to - 1] of a columnar dataset.  Reducing and splitting only read
+     * primitive columns, and the rows array is partitioned in place (like Utils.setTrueAndFalseTrainingSets does for lists), so the children get sub ranges of it.
+     */
+    protected Node<VC> createNode(Branch<VC> parent, ColumnarDataset data, int[] rows, int from, int to, TreeContext<I, VC> tc, SplittableRandom random) {
+        return createNode(parent, data, rows, from, to, tc, random, getReducers(data, rows, from, to, tc));
+    }
+
+    /**
+     * @param reducers one per branch finder of the context, in the same order.
+     */
+    private Node<VC> createNode(Branch<VC> parent, ColumnarDataset data, int[] rows, int from, int to, TreeContext<I, VC> tc, SplittableRandom random,
+                                List<CachingAttributeStatisticsProducer<VC>> reducers) {
+        Preconditions.checkArgument(to > from, "Can't build a oldTree with no training data");
+        BranchingConditions<VC> branchingConditions = tc.getBranchingConditions();
+        VC aggregateStats = tc.getValueCounterProducer().getValueCounter(data, rows, from, to);
+        if (!branchingConditions.canTryAddingChildren(parent, aggregateStats)) {
+            return getLeaf(parent, aggregateStats, tc);
+        }
+        Optional<? extends Branch<VC>> bestBranchOptional = findBestBranchOfReducers(parent, reducers, tc, random);
+        if (!bestBranchOptional.isPresent()) {
+            return getLeaf(parent, aggregateStats, tc);
+        }
+        Branch<VC> bestBranch = bestBranchOptional.get();
+        int firstFalseRow = partitionRows(rows, from, to, bestBranch.getColumnarDecider(data));
+        if (firstFalseRow == from || firstFalseRow == to) {
+            return getLeaf(parent, aggregateStats, tc);
+        }
+        if (tc.getPresortedRows().isPresent()) {
+            tc.getPresortedRows().get().partition(rows, from, firstFalseRow, to);
+        }
+        //only the smaller child is reduced directly, the stats of the larger one are derived by subtracting it from this node's stats.
+        //Building the smaller child's subtree only permutes rows within its own range, so its reducers still see the same rows afterwards.
+        boolean trueChildIsSmaller = firstFalseRow - from <= to - firstFalseRow;
+        int smallerFrom = trueChildIsSmaller ? from : firstFalseRow;
+        int smallerTo = trueChildIsSmaller ? firstFalseRow : to;
+        int largerFrom = trueChildIsSmaller ? firstFalseRow : from;
+        int largerTo = trueChildIsSmaller ? to : firstFalseRow;
+        SplittableRandom smallerChildRandom = random.split(trueChildIsSmaller ? TRUE_CHILD : FALSE_CHILD);
+        SplittableRandom largerChildRandom = random.split(trueChildIsSmaller ? FALSE_CHILD : TRUE_CHILD);
+        List<CachingAttributeStatisticsProducer<VC>> smallerChildReducers = getReducers(data, rows, smallerFrom, smallerTo, tc);
+        Node<VC> smallerChild;
+        Node<VC> largerChild;
+        if (buildSubtreesInParallel(to - from)) {
+            //the smaller subtree partitions its rows while the larger child is built, so every stat the larger child subtracts is reduced before forking.
+            reduceAttributesOfParent(smallerChildReducers, reducers);
+            ForkJoinTask<Node<VC>> smallerChildTask = forkChild(bestBranch, data, rows, smallerFrom, smallerTo, tc, smallerChildRandom, smallerChildReducers);
+            List<AttributeStatisticsProducer<VC>> computedSiblingStats = new ArrayList<>();
+            for (CachingAttributeStatisticsProducer<VC> smallerChildReducer : smallerChildReducers) {
+                computedSiblingStats.add(smallerChildReducer.computedStatsOnly());
+            }
+            largerChild = createNode(bestBranch, data, rows, largerFrom, largerTo, tc, largerChildRandom, getSiblingSubtractingReducers(data, rows, largerFrom, largerTo, tc, reducers, computedSiblingStats));
+            smallerChild = smallerChildTask.join();
+        } else {
+            List<CachingAttributeStatisticsProducer<VC>> largerChildReducers = getSiblingSubtractingReducers(data, rows, largerFrom, largerTo, tc, reducers, smallerChildReducers);
+            smallerChild = createNode(bestBranch, data, rows, smallerFrom, smallerTo, tc, smallerChildRandom, smallerChildReducers);
+            largerChild = createNode(bestBranch, data, rows, largerFrom, largerTo, tc, largerChildRandom, largerChildReducers);
+        }
+        bestBranch.setTrueChild(trueChildIsSmaller ? smallerChild : largerChild);
+        bestBranch.setFalseChild(trueChildIsSmaller ? largerChild : smallerChild);
+
+        return bestBranch;
+    }
+
+    /**
+     * Breadth first alternative to createNode for a columnar dataset.  Each depth makes a single sequential pass over the rows, which routes every
+     * row to its node on the frontier and accumulates the stats of every (node, attribute) pair, and then splits all frontier nodes together.
+     * The number of passes over the data is bounded by the depth of the tree.  Only reducers with fixed bins can accumulate stats this way.
+     */
+    class LevelWiseGrowth {
+        private final ColumnarDataset data;
+        private final TreeContext<I, VC> tc;
+        //one per branch finder, for its bins and to turn accumulated value counters into AttributeStats
+        private final List<ColumnarBinnedReducer<VC>> binnedReducers = new ArrayList<>();
+        private final List<List<String>> attributesOfEachBranchFinder = new ArrayList<>();
+        private final List<List<ColumnarBinnedReducer.AttributeBins>> binsOfEachBranchFinder = new ArrayList<>();
+        //the index of each row's node in the frontier, or -1 once the row has reached a leaf
+        private final int[] nodeOfRow;
+        private Node<VC> root;
+        private int numPasses;
+
+        LevelWiseGrowth(ColumnarDataset data, TreeContext<I, VC> tc) {
+            this.data = data;
+            this.tc = tc;
+            this.nodeOfRow = new int[data.size()];
+            for (BranchFinderAndReducerFactory<I, VC> branchFinderAndReducerFactory : tc.getBranchFindersAndReducers()) {
+                ColumnarReducer<VC> reducer = branchFinderAndReducerFactory.getReducerFactory().getReducer(data, nodeOfRow, 0, 0);
+                Preconditions.checkState(reducer instanceof ColumnarBinnedReducer, "Level wise growth needs reducers with fixed bins, e.g. numHistogramBins for numeric attributes");
+                ColumnarBinnedReducer<VC> binnedReducer = (ColumnarBinnedReducer<VC>) reducer;
+                List<String> attributes = new ArrayList<>();
+                List<ColumnarBinnedReducer.AttributeBins> bins = new ArrayList<>();
+                for (String attribute : branchFinderAndReducerFactory.getBranchFinder().getCandidateAttributes()) {
+                    Optional<ColumnarBinnedReducer.AttributeBins> binsOptional = binnedReducer.getBins(attribute);
+                    if (binsOptional.isPresent()) {
+                        attributes.add(attribute);
+                        bins.add(binsOptional.get());
+                    }
+                }
+                binnedReducers.add(binnedReducer);
+                attributesOfEachBranchFinder.add(attributes);
+                binsOfEachBranchFinder.add(bins);
+            }
+        }
+
+        Node<VC> grow() {
+            List<FrontierNode<VC>> previousFrontier = null;
+            List<FrontierNode<VC>> frontier = new ArrayList<>();
+            frontier.add(new FrontierNode<VC>(null, false, tc.getRandom()));
+            while (!frontier.isEmpty()) {
+                accumulate(previousFrontier, frontier);
+                numPasses++;
+                if (previousFrontier != null) {
+                    undoSplitsWithAnEmptyChild(previousFrontier, frontier);
+                }
+                List<FrontierNode<VC>> nextFrontier = new ArrayList<>();
+                for (FrontierNode<VC> node : frontier) {
+                    if (!node.discarded) {
+                        split(node, nextFrontier);
+                    }
+                }
+                previousFrontier = frontier;
+                frontier = nextFrontier;
+            }
+            return root;
+        }
+
+        /**
+         * @return the number of passes grow made over the rows.
+         */
+        int getNumPasses() {
+            return numPasses;
+        }
+
+        /**
+         * The single pass of a depth: moves each row from its node in previousFrontier to that node's child in frontier, and adds it to the child's stats.
+         */
+        private void accumulate(List<FrontierNode<VC>> previousFrontier, List<FrontierNode<VC>> frontier) {
+            for (int row = 0; row < nodeOfRow.length; row++) {
+                int node = nodeOfRow[row];
+                if (node < 0) {
+                    continue;
+                }
+                if (previousFrontier != null) {
+                    FrontierNode<VC> splitNode = previousFrontier.get(node);
+                    if (splitNode.decider == null) {
+                        nodeOfRow[row] = -1;
+                        continue;
+                    }
+                    node = splitNode.decider.decide(row) ? splitNode.trueChild : splitNode.falseChild;
+                    nodeOfRow[row] = node;
+                }
+                addRow(frontier.get(node), row);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void addRow(FrontierNode<VC> node, int row) {
+            ValueCounterProducer<I, VC> valueCounterProducer = tc.getValueCounterProducer();
+            if (node.aggregateStats == null) {
+                node.aggregateStats = valueCounterProducer.newValueCounter(null);
+                node.valueCounters = new ArrayList<>();
+                for (List<ColumnarBinnedReducer.AttributeBins> bins : binsOfEachBranchFinder) {
+                    List<VC[]> valueCountersOfEachAttribute = new ArrayList<>();
+                    for (ColumnarBinnedReducer.AttributeBins attributeBins : bins) {
+                        valueCountersOfEachAttribute.add((VC[]) new ValueCounter[attributeBins.getNumBins()]);
+                    }
+                    node.valueCounters.add(valueCountersOfEachAttribute);
+                }
+            }
+            valueCounterProducer.addRow(node.aggregateStats, data, row);
+            for (int i = 0; i < binsOfEachBranchFinder.size(); i++) {
+                List<ColumnarBinnedReducer.AttributeBins> bins = binsOfEachBranchFinder.get(i);
+                for (int j = 0; j < bins.size(); j++) {
+                    ColumnarBinnedReducer.AttributeBins attributeBins = bins.get(j);
+                    VC[] valueCounters = node.valueCounters.get(i).get(j);
+                    int bin = attributeBins.getBin(row);
+                    if (valueCounters[bin] == null) {
+                        valueCounters[bin] = valueCounterProducer.newValueCounter(attributeBins.getAttrVal(bin));
+                    }
+                    valueCounterProducer.addRow(valueCounters[bin], data, row);
+                }
+            }
+        }
+
+        //as in createNode, a branch that sends every row to one child becomes a leaf
+        private void undoSplitsWithAnEmptyChild(List<FrontierNode<VC>> previousFrontier, List<FrontierNode<VC>> frontier) {
+            for (FrontierNode<VC> splitNode : previousFrontier) {
+                if (splitNode.decider == null) {
+                    continue;
+                }
+                FrontierNode<VC> trueChild = frontier.get(splitNode.trueChild);
+                FrontierNode<VC> falseChild = frontier.get(splitNode.falseChild);
+                if (trueChild.aggregateStats == null || falseChild.aggregateStats == null) {
+                    attach(splitNode, getLeaf(splitNode.parent, splitNode.aggregateStats, tc));
+                    trueChild.discarded = true;
+                    falseChild.discarded = true;
+                }
+            }
+        }
+
+        private void split(FrontierNode<VC> node, List<FrontierNode<VC>> nextFrontier) {
+            List<AttributeStatisticsProducer<VC>> reducers = getAccumulatedStats(node);
+            node.valueCounters = null;
+            if (!tc.getBranchingConditions().canTryAddingChildren(node.parent, node.aggregateStats)) {
+                attach(node, getLeaf(node.parent, node.aggregateStats, tc));
+                return;
+            }
+            Optional<? extends Branch<VC>> bestBranchOptional = findBestBranchOfReducers(node.parent, reducers, tc, node.random);
+            if (!bestBranchOptional.isPresent()) {
+                attach(node, getLeaf(node.parent, node.aggregateStats, tc));
+                return;
+            }
+            Branch<VC> bestBranch = bestBranchOptional.get();
+            attach(node, bestBranch);
+            node.decider = bestBranch.getColumnarDecider(data);
+            node.trueChild = nextFrontier.size();
+            nextFrontier.add(new FrontierNode<VC>(bestBranch, true, node.random.split(TRUE_CHILD)));
+            node.falseChild = nextFrontier.size();
+            nextFrontier.add(new FrontierNode<VC>(bestBranch, false, node.random.split(FALSE_CHILD)));
+        }
+
+        //one per branch finder.  The stats are read only, so branch finders can evaluate attributes in parallel.
+        private List<AttributeStatisticsProducer<VC>> getAccumulatedStats(FrontierNode<VC> node) {
+            List<AttributeStatisticsProducer<VC>> reducers = new ArrayList<>();
+            for (int i = 0; i < binnedReducers.size(); i++) {
+                final Map<String, AttributeStats<VC>> statsByAttribute = new HashMap<>();
+                List<String> attributes = attributesOfEachBranchFinder.get(i);
+                for (int j = 0; j < attributes.size(); j++) {
+                    Optional<AttributeStats<VC>> attributeStats = binnedReducers.get(i).createAttributeStats(attributes.get(j),
+                            Arrays.asList(node.valueCounters.get(i).get(j)), node.aggregateStats);
+                    if (attributeStats.isPresent()) {
+                        statsByAttribute.put(attributes.get(j), attributeStats.get());
+                    }
+                }
+                reducers.add(new AttributeStatisticsProducer<VC>() {
+                    @Override
+                    public Optional<AttributeStats<VC>> getAttributeStats(String attribute) {
+                        return Optional.fromNullable(statsByAttribute.get(attribute));
+                    }
+                });
+            }
+            return reducers;
+        }
+
+        private void attach(FrontierNode<VC> frontierNode, Node<VC> node) {
+            if (frontierNode.parent == null) {
+                root = node;
+            } else if (frontierNode.isTrueChild) {
+                frontierNode.parent.setTrueChild(node);
+            } else {
+                frontierNode.parent.setFalseChild(node);
+            }
+        }
+    }
+
+    private static class FrontierNode<VC extends ValueCounter<VC>> {
+        final Branch<VC> parent;
+        final boolean isTrueChild;
+        final SplittableRandom random;
+        VC aggregateStats;
+        //[branch finder][attribute][bin], dropped once the node is split
+        List<List<VC[]>> valueCounters;
+        //set when the node is split, for routing its rows to the next frontier
+        ColumnarDecider decider;
+        int trueChild;
+        int falseChild;
+        boolean discarded;
+
+        FrontierNode(Branch<VC> parent, boolean isTrueChild, SplittableRandom random) {
+            this.parent = parent;
+            this.isTrueChild = isTrueChild;
+            this.random = random;
+        }
+    }
+
+    private ForkJoinTask<Node<VC>> forkChild(final Branch<VC> parent, final List<I> trainingData, final TreeContext<I, VC> tc, final SplittableRandom random) {
+        return ForkJoinTask.adapt(new Callable<Node<VC>>() {
+            @Override
+            public Node<VC> call() throws Exception {
+                return createNode(parent, trainingData, tc, random);
+            }
+        }).fork();
+    }
+
+    private ForkJoinTask<Node<VC>> forkChild(final Branch<VC> parent, final ColumnarDataset data, final int[] rows, final int from, final int to,
+                                             final TreeContext<I, VC> tc, final SplittableRandom random, final List<CachingAttributeStatisticsProducer<VC>> reducers) {
+        return ForkJoinTask.adapt(new Callable<Node<VC>>() {
+            @Override
+            public Node<VC> call() throws Exception {
+                return createNode(parent, data, rows, from, to, tc, random, reducers);
+            }
+        }).fork();
+    }
+
+    private List<Reducer<I, VC>> getReducers(List<I> instances, TreeContext<I, VC> tc, SplittableRandom random) {
+        //important to keep the reduction of instances to ValueCounters separate from branchFinders, which don't need to know anything about the form of the instances
+        List<Reducer<I, VC>> reducers = new ArrayList<>();
+        for (BranchFinderAndReducerFactory<I, VC> branchFinderAndReducerFactory : tc.getBranchFindersAndReducers()) {
+            reducers.add(branchFinderAndReducerFactory.getReducerFactory().getReducer(instances, random));
+        }
+        return reducers;
+    }
+
+    private List<CachingAttributeStatisticsProducer<VC>> getReducers(ColumnarDataset data, int[] rows, int from, int to, TreeContext<I, VC> tc) {
+        List<CachingAttributeStatisticsProducer<VC>> reducers = new ArrayList<>();
+        for (BranchFinderAndReducerFactory<I, VC> branchFinderAndReducerFactory : tc.getBranchFindersAndReducers()) {
+            reducers.add(new CachingAttributeStatisticsProducer<>(branchFinderAndReducerFactory.getReducerFactory().getReducer(data, rows, from, to)));
+        }
+        return reducers;
+    }
+
+    /**
+     * Reduces, with each of the child's reducers, the attributes its parent reduced, which are the only stats a sibling subtracts.
+     */
+    private void reduceAttributesOfParent(List<CachingAttributeStatisticsProducer<VC>> childReducers, List<CachingAttributeStatisticsProducer<VC>> parentReducers) {
+        for (int i = 0; i < childReducers.size(); i++) {
+            for (Map.Entry<String, Optional<AttributeStats<VC>>> parentStats : parentReducers.get(i).getComputedAttributeStats().entrySet()) {
+                if (parentStats.getValue().isPresent()) {
+                    childReducers.get(i).getAttributeStats(parentStats.getKey());
+                }
+            }
+        }
+    }
+
+    /**
+     * Only the parent's computed stats are referenced (not its reducers), so derived stats don't keep the reducers of every ancestor alive.
+     */
+    private List<CachingAttributeStatisticsProducer<VC>> getSiblingSubtractingReducers(ColumnarDataset data, int[] rows, int from, int to, TreeContext<I, VC> tc,
+                                                                                       List<CachingAttributeStatisticsProducer<VC>> parentReducers,
+                                                                                       List<? extends AttributeStatisticsProducer<VC>> siblingReducers) {
+        List<CachingAttributeStatisticsProducer<VC>> reducers = new ArrayList<>();
         List<? extends BranchFinderAndReducerFactory<I, VC>> branchFindersAndReducers = tc.getBranchFindersAndReducers();
-        //check how RT cat branch getting added twice?
-        for (BranchFinderAndReducerFactory<I, VC> branchFinderAndReducerFactory : branchFindersAndReducers) {
-            //important to keep the reduction of instances to ValueCounters separate from branchFinders, which don't need to know anything about the form of the instances
-            ReducerFactory<I, VC> reducerFactory = branchFinderAndReducerFactory.getReducerFactory();
-            Reducer<I, VC> reducer = reducerFactory.getReducer(instances);
+        for (int i = 0; i < branchFindersAndReducers.size(); i++) {
+            ColumnarReducer<VC> reducer = branchFindersAndReducers.get(i).getReducerFactory().getReducer(data, rows, from, to);
+            if (reducer.supportsSubtraction()) {
+                reducers.add(new CachingAttributeStatisticsProducer<>(new SiblingSubtractingReducer<>(parentReducers.get(i).getComputedAttributeStats(), siblingReducers.get(i), reducer)));
+            } else {
+                reducers.add(new CachingAttributeStatisticsProducer<>(reducer));
+            }
+        }
+        return reducers;
+    }
 
-            BranchFinder<VC> branchFinder = branchFinderAndReducerFactory.getBranchFinder();
+    /**
+     * Moves the rows in [from, to) that the decider sends to the true child to the front of the range, quicksort style.
+     * @return the index of the first row of the false child.
+     */
+    static int partitionRows(int[] rows, int from, int to, ColumnarDecider decider) {
+        int firstFalseRow = to;
+        int i = from;
+        while (i < firstFalseRow) {
+            if (decider.decide(rows[i])) {
+                i++;
+            } else {
+                firstFalseRow--;
+                int row = rows[i];
+                rows[i] = rows[firstFalseRow];
+                rows[firstFalseRow] = row;
+            }
+        }
+        return firstFalseRow;
+    }
 
-            Optional<? extends Branch<VC>> thisBranchOptional = branchFinder.findBestBranch(parent, reducer); //decoupling occurs bc trainingDataReducer implements a simpler interface than TraingDataReducer
+    /**
+     * @param reducers one per branch finder of the context, in the same order.
+     */
+    private Optional<? extends Branch<VC>> findBestBranchOfReducers(Branch<VC> parent, List<? extends AttributeStatisticsProducer<VC>> reducers, TreeContext<I, VC> tc,
+                                                                    SplittableRandom random) {
+        List<? extends BranchFinderAndReducerFactory<I, VC>> branchFindersAndReducers = tc.getBranchFindersAndReducers();
+        List<Optional<? extends Branch<VC>>> bestBranchOfEachBranchFinder = buildInParallel()
+                ? findBestBranchOfEachBranchFinderInParallel(parent, reducers, branchFindersAndReducers, random)
+                : findBestBranchOfEachBranchFinder(parent, reducers, branchFindersAndReducers, random);
+        double bestScore = 0;
+        Optional<? extends Branch<VC>> bestBranchOptional = Optional.absent();
+        for (Optional<? extends Branch<VC>> thisBranchOptional : bestBranchOfEachBranchFinder) {
             if (thisBranchOptional.isPresent()) {
                 Branch<VC> thisBranch = thisBranchOptional.get();
                 if (isBestSplitSoFar(tc, bestScore, thisBranch)) {
@@ -88,6 +544,57 @@ public class TreeBuilderHelper<I extends InstanceWithAttributesMap<?>, VC extend
         return bestBranchOptional;
     }
 
+    private List<Optional<? extends Branch<VC>>> findBestBranchOfEachBranchFinder(Branch<VC> parent, List<? extends AttributeStatisticsProducer<VC>> reducers,
+                                                                                 List<? extends BranchFinderAndReducerFactory<I, VC>> branchFindersAndReducers, SplittableRandom random) {
+        List<Optional<? extends Branch<VC>>> bestBranches = new ArrayList<>();
+        for (int i = 0; i < branchFindersAndReducers.size(); i++) {
+            //decoupling occurs bc the reducer implements a simpler interface than the training data
+            bestBranches.add(branchFindersAndReducers.get(i).getBranchFinder().findBestBranch(parent, reducers.get(i), random));
+        }
+        return bestBranches;
+    }
+
+    /**
+     * Evaluates every attribute of every branch finder as a separate task, and picks the same branches findBestBranchOfEachBranchFinder would.
+     */
+    private List<Optional<? extends Branch<VC>>> findBestBranchOfEachBranchFinderInParallel(final Branch<VC> parent, List<? extends AttributeStatisticsProducer<VC>> reducers,
+                                                                                           List<? extends BranchFinderAndReducerFactory<I, VC>> branchFindersAndReducers,
+                                                                                           SplittableRandom random) {
+        List<List<ForkJoinTask<Optional<? extends Branch<VC>>>>> tasksOfEachBranchFinder = new ArrayList<>();
+        List<ForkJoinTask<Optional<? extends Branch<VC>>>> allTasks = new ArrayList<>();
+        for (int i = 0; i < branchFindersAndReducers.size(); i++) {
+            final BranchFinder<VC> branchFinder = branchFindersAndReducers.get(i).getBranchFinder();
+            final AttributeStatisticsProducer<VC> reducer = reducers.get(i);
+            List<ForkJoinTask<Optional<? extends Branch<VC>>>> tasks = new ArrayList<>();
+            for (final String attribute : branchFinder.getAttributesToTry(parent, random)) {
+                tasks.add(ForkJoinTask.adapt(new Callable<Optional<? extends Branch<VC>>>() {
+                    @Override
+                    public Optional<? extends Branch<VC>> call() throws Exception {
+                        return branchFinder.getBranch(parent, reducer, attribute);
+                    }
+                }));
+            }
+            tasksOfEachBranchFinder.add(tasks);
+            allTasks.addAll(tasks);
+        }
+        ForkJoinTask.invokeAll(allTasks);
+
+        List<Optional<? extends Branch<VC>>> bestBranches = new ArrayList<>();
+        for (List<ForkJoinTask<Optional<? extends Branch<VC>>>> tasks : tasksOfEachBranchFinder) {
+            double bestScore = 0;
+            Optional<? extends Branch<VC>> bestBranchOptional = Optional.absent();
+            for (ForkJoinTask<Optional<? extends Branch<VC>>> task : tasks) {
+                Optional<? extends Branch<VC>> thisBranchOptional = task.join();
+                if (thisBranchOptional.isPresent() && thisBranchOptional.get().score > bestScore) {
+                    bestScore = thisBranchOptional.get().score;
+                    bestBranchOptional = thisBranchOptional;
+                }
+            }
+            bestBranches.add(bestBranchOptional);
+        }
+        return bestBranches;
+    }
+
     private boolean isBestSplitSoFar(TreeContext<I, VC> itbc, double bestScore, Branch<VC> thisBranch) {
         return thisBranch.getScore()> bestScore && !itbc.getBranchingConditions().isInvalidSplit(thisBranch.getScore());
     }
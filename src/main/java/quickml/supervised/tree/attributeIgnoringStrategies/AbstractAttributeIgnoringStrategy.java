@@ -0,0 +1,18 @@
+package quickml.supervised.tree.attributeIgnoringStrategies;
+
+import quickml.supervised.tree.nodes.Branch;
+
+import java.util.Random;
+
+/**
+ * A base for strategies that make no random choices, or whose choices needn't be reproducible from a seed: they only
+ * implement ignoreAttribute(attribute, parent), and ignore the node's generator.
+ */
+public abstract class AbstractAttributeIgnoringStrategy implements AttributeIgnoringStrategy {
+    private static final long serialVersionUID = 0L;
+
+    @Override
+    public boolean ignoreAttribute(String attribute, Branch parent, Random random) {
+        return ignoreAttribute(attribute, parent);
+    }
+}
@@ -3,6 +3,7 @@ package quickml.supervised.tree.attributeIgnoringStrategies;
 import quickml.supervised.tree.nodes.Branch;
 
 import java.io.Serializable;
+import java.util.Random;
 
 /**
  * Created by alexanderhawk on 2/28/15.
@@ -17,6 +18,14 @@ public interface AttributeIgnoringStrategy extends Serializable {
      */
     boolean ignoreAttribute(String attribute, Branch parent);
 
+    /**
+     * Same as ignoreAttribute(attribute, parent), with any random choice drawn from random (the generator of the node being split).
+     * The tree builders only call this method, so a seeded build is only reproducible if random choices are drawn from random.
+     * Strategies written before this method was added can extend AbstractAttributeIgnoringStrategy, which implements it with
+     * ignoreAttribute(attribute, parent).
+     */
+    boolean ignoreAttribute(String attribute, Branch parent, Random random);
+
     /**
      * @return a copy of this AttributeIgnoringStrategy
      */
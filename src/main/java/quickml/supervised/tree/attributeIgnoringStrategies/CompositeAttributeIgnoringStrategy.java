@@ -4,6 +4,7 @@ import com.google.common.collect.Lists;
 import quickml.supervised.tree.nodes.Branch;
 
 import java.util.List;
+import java.util.Random;
 
 /**
  * Created by alexanderhawk on 2/28/15.
@@ -36,6 +37,16 @@ public class CompositeAttributeIgnoringStrategy implements AttributeIgnoringStra
         return false;
     }
 
+    @Override
+    public boolean ignoreAttribute(String attribute, Branch parent, Random random) {
+        for (AttributeIgnoringStrategy attributeIgnoringStrategy : attributeIgnoringStrategies) {
+            if (attributeIgnoringStrategy.ignoreAttribute(attribute, parent, random)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public String toString() {
         return "CompositeAttributeIgnoringStrategy{" +
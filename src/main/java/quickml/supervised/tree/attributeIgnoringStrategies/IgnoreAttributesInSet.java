@@ -1,35 +1,47 @@
 package quickml.supervised.tree.attributeIgnoringStrategies;
 
 import com.google.common.collect.Sets;
+import quickml.concurrent.SplittableRandom;
 import quickml.supervised.tree.nodes.Branch;
 
 import java.util.HashSet;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Created by alexanderhawk on 2/28/15.
+ *
+ * Ignores the attributes of a set that is drawn from the proposed attributes once per strategy, i.e. once per tree, when
+ * the tree's first node is split.  The set is drawn from a split of that node's generator, so a seeded build ignores the
+ * same attributes every time.
  */
 public class IgnoreAttributesInSet implements AttributeIgnoringStrategy {
     private static final long serialVersionUID = 0L;
+    //the key of the split of the first node's generator that the set is drawn from
+    private static final long ATTRIBUTES_TO_IGNORE = 3;
 
-    private final HashSet<String> attributesToIgnore = Sets.newHashSet();
+    private HashSet<String> attributesToIgnore;
     private final Set<String> proposedAttributesToIgnore;
     private final double discardProbability;
-    private Random random = new Random();
 
     public IgnoreAttributesInSet(Set<String> attributesToIgnore, double probabilityOfDiscardingFromAttributesToIgnore) {
         this.proposedAttributesToIgnore = attributesToIgnore;
         this.discardProbability = probabilityOfDiscardingFromAttributesToIgnore;
-        setAttributesToIgnore();
     }
 
-    private void setAttributesToIgnore() {
-        for (String attribute : proposedAttributesToIgnore) {
-            if (random.nextDouble() > discardProbability) {
-                attributesToIgnore.add(attribute);
+    //the attributes of a node may be evaluated in parallel, so the set is drawn under a lock
+    private synchronized Set<String> getAttributesToIgnore(Random random) {
+        if (attributesToIgnore == null) {
+            Random setRandom = random instanceof SplittableRandom ? ((SplittableRandom) random).split(ATTRIBUTES_TO_IGNORE) : random;
+            attributesToIgnore = Sets.newHashSet();
+            for (String attribute : proposedAttributesToIgnore) {
+                if (setRandom.nextDouble() > discardProbability) {
+                    attributesToIgnore.add(attribute);
+                }
             }
         }
+        return attributesToIgnore;
     }
 
     @Override
@@ -38,11 +50,13 @@ public class IgnoreAttributesInSet implements AttributeIgnoringStrategy {
     }
 
     @Override
-    public boolean ignoreAttribute(String attribute, Branch Parent) {
-        if (attributesToIgnore.contains(attribute)) {
-            return true;
-        }
-        return false;
+    public boolean ignoreAttribute(String attribute, Branch parent) {
+        return ignoreAttribute(attribute, parent, ThreadLocalRandom.current());
+    }
+
+    @Override
+    public boolean ignoreAttribute(String attribute, Branch parent, Random random) {
+        return getAttributesToIgnore(random).contains(attribute);
     }
 
     @Override
@@ -2,6 +2,7 @@ package quickml.supervised.tree.attributeIgnoringStrategies;
 
 import quickml.supervised.tree.nodes.Branch;
 
+import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
@@ -11,7 +12,6 @@ public class IgnoreAttributesWithConstantProbability implements AttributeIgnorin
     private static final long serialVersionUID = 0L;
 
     private final double ignoreAttributeProbability;
-    private ThreadLocalRandom random = ThreadLocalRandom.current();
 
     public IgnoreAttributesWithConstantProbability(double ignoreAttributeProbability) {
         this.ignoreAttributeProbability = ignoreAttributeProbability;
@@ -24,6 +24,11 @@ public class IgnoreAttributesWithConstantProbability implements AttributeIgnorin
 
     @Override
     public boolean ignoreAttribute(String attribute, Branch parent) {
+        return ignoreAttribute(attribute, parent, ThreadLocalRandom.current());
+    }
+
+    @Override
+    public boolean ignoreAttribute(String attribute, Branch parent, Random random) {
         if (random.nextDouble() < ignoreAttributeProbability) {
             return true;
         }
@@ -0,0 +1,84 @@
+package quickml.supervised.tree.bagging;
+
+import quickml.concurrent.SplittableRandom;
+import quickml.data.ColumnarDataset;
+
+import java.io.Serializable;
+import java.util.Random;
+
+/**
+ * Bootstrap sampling that copies no instances.  A tree's bootstrap sample is a vector of Poisson(1) draw counts over the
+ * rows of a shared ColumnarDataset (which approximates drawing as many rows with replacement), applied by multiplying each
+ * row's weight by its count.  Rows with a count of 0 are the tree's out of bag rows.  The counts only depend on the seed
+ * and the tree's index, so they can be regenerated rather than kept for every tree.
+ */
+public class PoissonBagging implements Serializable {
+    private static final long serialVersionUID = -2316071894751307552L;
+    private static final double EXP_MINUS_ONE = Math.exp(-1);
+
+    private final long seed;
+
+    public PoissonBagging() {
+        this(System.nanoTime());
+    }
+
+    public PoissonBagging(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @return the number of times each of numRows rows is drawn into the bootstrap sample of the treeIndex'th tree.
+     */
+    public int[] getCounts(int treeIndex, int numRows) {
+        SplittableRandom random = new SplittableRandom(seed).split(treeIndex);
+        int[] counts = new int[numRows];
+        for (int row = 0; row < numRows; row++) {
+            counts[row] = drawPoisson(random);
+        }
+        return counts;
+    }
+
+    /**
+     * @return a view of data whose rows are weighted by the treeIndex'th tree's counts.
+     */
+    public ColumnarDataset bootstrap(ColumnarDataset data, int treeIndex) {
+        int[] counts = getCounts(treeIndex, data.size());
+        double[] weights = new double[data.size()];
+        for (int row = 0; row < weights.length; row++) {
+            weights[row] = data.getWeight(row) * counts[row];
+        }
+        return data.withWeights(weights);
+    }
+
+    /**
+     * @return the rows the treeIndex'th tree was not trained on, in ascending order.
+     */
+    public int[] getOutOfBagRows(int treeIndex, int numRows) {
+        int[] counts = getCounts(treeIndex, numRows);
+        int numOutOfBagRows = 0;
+        for (int count : counts) {
+            if (count == 0) {
+                numOutOfBagRows++;
+            }
+        }
+        int[] outOfBagRows = new int[numOutOfBagRows];
+        int i = 0;
+        for (int row = 0; row < numRows; row++) {
+            if (counts[row] == 0) {
+                outOfBagRows[i++] = row;
+            }
+        }
+        return outOfBagRows;
+    }
+
+    //Knuth's method, which takes 2 uniform draws on average for a mean of 1
+    static int drawPoisson(Random random) {
+        int count = 0;
+        double product = random.nextDouble();
+        while (product > EXP_MINUS_ONE) {
+            count++;
+            product *= random.nextDouble();
+        }
+        return count;
+    }
+}
@@ -1,20 +1,18 @@
 package quickml.supervised.tree.bagging;
 
 import com.google.common.collect.Lists;
-import quickml.collections.MapUtils;
 import quickml.data.instances.InstanceWithAttributesMap;
 
 import java.io.Serializable;
 import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Created by alexanderhawk on 4/5/15.
  */
 public class StationaryBagging implements Bagging {
 
-    private static com.twitter.common.util.Random rand = com.twitter.common.util.Random.Util.fromSystemRandom(MapUtils.random);
-
     @Override
     public <L extends Serializable,E extends InstanceWithAttributesMap<L>> TrainingDataPair<L, E> separateTrainingDataFromOutOfBagData(List<E> trainingData) {
         List<E> baggedTrainingData = Lists.newArrayList();
@@ -25,7 +23,7 @@ public class StationaryBagging implements Bagging {
             unusedDataIndices.add(i);
         }
         for (int i = 0; i < trainingData.size(); i++) {
-            int toAdd = rand.nextInt(trainingData.size());
+            int toAdd = ThreadLocalRandom.current().nextInt(trainingData.size());
             if (unusedDataIndices.contains(toAdd))
                 unusedDataIndices.remove(toAdd);
             baggedTrainingData.add(trainingData.get(toAdd));
@@ -17,6 +17,7 @@ import quickml.supervised.tree.nodes.Branch;
 import quickml.supervised.tree.branchingConditions.BranchingConditions;
 
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Created by alexanderhawk on 3/24/15.
@@ -39,10 +40,14 @@ public abstract class BranchFinder<VC extends ValueCounter<VC>> {
 
     public abstract BranchType getBranchType();
 
-    protected List<String> getCandidateAttributesWithIgnoringApplied(Branch<VC> parent) {
+    public Set<String> getCandidateAttributes() {
+        return candidateAttributes;
+    }
+
+    protected List<String> getCandidateAttributesWithIgnoringApplied(Branch<VC> parent, Random random) {
         List<String> attributes = Lists.newArrayList();
         for (String attribute : candidateAttributes) {
-            if (!attributeIgnoringStrategy.ignoreAttribute(attribute, parent)) {
+            if (!attributeIgnoringStrategy.ignoreAttribute(attribute, parent, random)) {
                 attributes.add(attribute);
             }
         }
@@ -50,7 +55,7 @@ public abstract class BranchFinder<VC extends ValueCounter<VC>> {
         return attributes;
     }
 
-    protected List<String> alternativeGetCandidateAttributesWithIgnoringApplied(Branch<VC> parent) {
+    protected List<String> alternativeGetCandidateAttributesWithIgnoringApplied(Branch<VC> parent, Random random) {
     double ignoreProb = ((IgnoreAttributesWithConstantProbability) attributeIgnoringStrategy).getIgnoreAttributeProbability();
     ArrayList<String> candidates = Lists.newArrayList(candidateAttributes);
         if (ignoreProb == 0.0) {
@@ -59,7 +64,7 @@ public abstract class BranchFinder<VC extends ValueCounter<VC>> {
         int numTrialAttributes = (int)((1.0-ignoreProb)*candidates.size());
 
         //O(N) way of shuffling the attributes to make all permutations equally likely.
-    Collections.shuffle(candidates);
+    Collections.shuffle(candidates, random);
 
     return candidates.subList(0,numTrialAttributes);
 
@@ -68,17 +73,32 @@ public abstract class BranchFinder<VC extends ValueCounter<VC>> {
 
 
 
+    /**
+     * @return the attributes to try splitting a child of parent on, i.e. the candidate attributes with the attribute ignoring strategy applied.
+     */
+    public List<String> getAttributesToTry(Branch<VC> parent) {
+        return getAttributesToTry(parent, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Same as getAttributesToTry(parent), with the attributes sampled with random (the generator of the node being split).
+     */
+    public List<String> getAttributesToTry(Branch<VC> parent, Random random) {
+        if (!(attributeIgnoringStrategy instanceof IgnoreAttributesWithConstantProbability)) {
+            return getCandidateAttributesWithIgnoringApplied(parent, random);
+        }
+        return alternativeGetCandidateAttributesWithIgnoringApplied(parent, random);
+    }
+
     public Optional<? extends Branch<VC>> findBestBranch(Branch<VC> parent, AttributeStatisticsProducer<VC> attributeStatisticsProducer) {
+        return findBestBranch(parent, attributeStatisticsProducer, ThreadLocalRandom.current());
+    }
+
+    public Optional<? extends Branch<VC>> findBestBranch(Branch<VC> parent, AttributeStatisticsProducer<VC> attributeStatisticsProducer, Random random) {
         double bestScore = 0;
         Optional<? extends Branch<VC>> bestBranchOptional = Optional.absent();
-       // for (String attribute : getCandidateAttributesWithIgnoringApplied(parent)) {
-        for (String attribute : alternativeGetCandidateAttributesWithIgnoringApplied(parent)) {
-            Optional<AttributeStats<VC>> attributeStatsOptional = attributeStatisticsProducer.getAttributeStats(attribute);
-            if (!attributeStatsOptional.isPresent()) {
-                continue;
-            }
-            AttributeStats<VC> attributeStats = attributeStatsOptional.get();
-            Optional<? extends Branch<VC>> thisBranchOptional = getBranch(parent, attributeStats);
+        for (String attribute : getAttributesToTry(parent, random)) {
+            Optional<? extends Branch<VC>> thisBranchOptional = getBranch(parent, attributeStatisticsProducer, attribute);
             if (thisBranchOptional.isPresent()) {
                 Branch<VC> thisBranch = thisBranchOptional.get();
                 if (thisBranch.score > bestScore) {
@@ -90,5 +110,17 @@ public abstract class BranchFinder<VC extends ValueCounter<VC>> {
         return bestBranchOptional;
     }
 
+    /**
+     * Finds the best branch on a single attribute.  Attributes are independent of each other, so this can be called for
+     * several attributes in parallel, as long as the attributeStatisticsProducer is thread safe.
+     */
+    public Optional<? extends Branch<VC>> getBranch(Branch<VC> parent, AttributeStatisticsProducer<VC> attributeStatisticsProducer, String attribute) {
+        Optional<AttributeStats<VC>> attributeStatsOptional = attributeStatisticsProducer.getAttributeStats(attribute);
+        if (!attributeStatsOptional.isPresent()) {
+            return Optional.absent();
+        }
+        return getBranch(parent, attributeStatsOptional.get());
+    }
+
     public abstract Optional<? extends Branch<VC>> getBranch(Branch<VC> parent, AttributeStats<VC> attributeStats);
 }
@@ -30,8 +30,10 @@ public class SplittingUtils {
         int valuesConsidered = 0;
 
         List<VC> attributeValueStatsList = attributeStats.getStatsOnEachValue();
-        VC falseSet = attributeStats.getAggregateStats();
-        VC trueSet = falseSet.subtract(falseSet); //empty true Set
+        VC aggregateStats = attributeStats.getAggregateStats();
+        VC trueSet = aggregateStats.subtract(aggregateStats); //empty true Set
+        //the true and false sets are fresh copies, so the scan can update them in place rather than allocating per value
+        VC falseSet = trueSet.add(aggregateStats);
 
         Scorer<VC> scorer = scorerFactory.getScorer(attributeStats);
 
@@ -43,8 +45,8 @@ public class SplittingUtils {
                 continue;
             }
             valuesConsidered++;
-            trueSet = trueSet.add(valueCounterForAttrVal);
-            falseSet = falseSet.subtract(valueCounterForAttrVal);
+            trueSet.addInPlace(valueCounterForAttrVal);
+            falseSet.subtractInPlace(valueCounterForAttrVal);
 
                           //TODO Could optimize by knowing that all additional trial splits will fail once false set because small enough
             if (branchingConditions.isInvalidSplit(trueSet, falseSet, attributeStats.getAttribute())
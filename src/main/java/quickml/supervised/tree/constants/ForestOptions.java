@@ -33,5 +33,14 @@ public enum ForestOptions {
     TREE_FACTORY(),
     DATA_PROPERTIES_TRANSFORMER(),
     MIN_ATTRIBUTE_VALUE_OCCURRENCES(),
+    NUM_HISTOGRAM_BINS(),
+    PARALLELISM(),
+    MIN_INSTANCES_FOR_PARALLEL_SUBTREES(),
+    SPARSE_NUMERIC_ATTRIBUTES(),
+    EXACT_NUMERIC_SPLITS(),
+    LEVEL_WISE_GROWTH(),
+    SEED(),
+    SLIM(),
+    QUANTIZE_LEAF_PROBABILITIES(),
     EXEMPT_ATTRIBUTES;
 }
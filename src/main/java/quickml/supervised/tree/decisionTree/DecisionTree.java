@@ -4,6 +4,10 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import quickml.data.AttributesMap;
 import quickml.data.PredictionMap;
+import quickml.supervised.tree.decisionTree.compiled.BytecodeDecisionForest;
+import quickml.supervised.tree.decisionTree.compiled.CompiledDecisionForest;
+import quickml.supervised.tree.decisionTree.compiled.DecisionForestCompiler;
+import quickml.supervised.tree.decisionTree.nodes.SlimDTLeaf;
 import quickml.supervised.tree.decisionTree.valueCounters.ClassificationCounter;
 import quickml.supervised.classifier.AbstractClassifier;
 import quickml.supervised.tree.Tree;
@@ -13,7 +17,9 @@ import quickml.supervised.tree.nodes.LeafDepthStats;
 import quickml.supervised.tree.nodes.Node;
 
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -26,35 +32,99 @@ import java.util.Set;
  */
 public class DecisionTree extends AbstractClassifier implements Tree<PredictionMap> {
     static final long serialVersionUID = 56394564395635672L;
-    public final Node<ClassificationCounter> root;
+    public Node<ClassificationCounter> root;
     private HashSet<Serializable> classifications = new HashSet<>();
+    //recorded when the tree is slimmed, since slim leaves don't keep their depth or example count
+    private LeafDepthStats leafDepthStats;
 
     public DecisionTree(Node<ClassificationCounter> root, Set<Serializable> classifications) {
         this.root = root;
         this.classifications = Sets.newHashSet(classifications);
     }
 
+    /**
+     * @param leafDepthStats the depth stats of the tree before it was slimmed, e.g. as read from the binary model format.
+     */
+    public DecisionTree(Node<ClassificationCounter> root, Set<Serializable> classifications, LeafDepthStats leafDepthStats) {
+        this(root, classifications);
+        this.leafDepthStats = leafDepthStats;
+    }
+
     public Set<Serializable> getClassifications() {
         return classifications;
     }
 
+    /**
+     * @return this tree flattened into primitive arrays, for fast scoring.  The compiled tree makes the same predictions.
+     */
+    public CompiledDecisionForest compile() {
+        return DecisionForestCompiler.compile(Collections.singletonList(this), classifications);
+    }
+
+    /**
+     * @return the tree compiled to JVM bytecode, see BytecodeDecisionForest.
+     */
+    public BytecodeDecisionForest compileToBytecode() {
+        return compile().compileToBytecode();
+    }
+
+    /**
+     * Drops the training statistics of the tree's nodes, and replaces its leaves by SlimDTLeafs with float probabilities.
+     * Predictions are unchanged, up to float precision.
+     */
+    public void slim() {
+        slim(false);
+    }
+
+    /**
+     * @param quantize whether leaf probabilities are stored in 16 bits, which changes them by at most 1/131070.
+     */
+    public void slim(boolean quantize) {
+        slim(new DecisionTreeSlimmer(quantize, classifications));
+    }
+
+    public void slim(DecisionTreeSlimmer slimmer) {
+        if (leafDepthStats == null) {
+            leafDepthStats = calcLeafDepthStats();
+        }
+        root = slimmer.slim(root);
+    }
+
 
     @Override
     public double getProbability(AttributesMap attributes, Serializable classification) {
-        Leaf<ClassificationCounter> dtLeaf = root.getLeaf(attributes);
-        ClassificationCounter valueCounter = dtLeaf.getValueCounter();
+        return getProbability(root.getLeaf(attributes), classification);
+    }
+
+    private static double getProbability(Leaf<ClassificationCounter> leaf, Serializable classification) {
+        if (leaf instanceof SlimDTLeaf) {
+            return ((SlimDTLeaf) leaf).getProbability(classification);
+        }
+        ClassificationCounter valueCounter = leaf.getValueCounter();
         return valueCounter.getCount(classification) / valueCounter.getTotal();
     }
 
-    public double calcMeanDepth(){
+    /**
+     * Once a tree is slimmed, its depth stats are the ones recorded before it was slimmed, since slim leaves are shared and
+     * add nothing to them.  The stats returned must not be modified.
+     */
+    public LeafDepthStats getLeafDepthStats() {
+        return leafDepthStats != null ? leafDepthStats : calcLeafDepthStats();
+    }
+
+    private LeafDepthStats calcLeafDepthStats() {
         LeafDepthStats leafDepthStats = new LeafDepthStats();
         root.calcLeafDepthStats(leafDepthStats);
+        return leafDepthStats;
+    }
+
+    public double calcMeanDepth(){
+        LeafDepthStats leafDepthStats = getLeafDepthStats();
         return (1.0*leafDepthStats.ttlDepth)/leafDepthStats.ttlSamples;
     }
 
     public double calcMedianDepth() {
-        LeafDepthStats leafDepthStats = new LeafDepthStats();
-        root.calcLeafDepthStats(leafDepthStats);
+        LeafDepthStats leafDepthStats = getLeafDepthStats();
         long counts = 0;
         int depth = 0;
         while (counts < leafDepthStats.ttlSamples/2) {
@@ -91,10 +161,7 @@ public class DecisionTree extends AbstractClassifier implements Tree<PredictionM
                 }
             }
         } else if (node instanceof Leaf) {
-            Leaf<ClassificationCounter> leaf = (Leaf<ClassificationCounter>) node;
-            ClassificationCounter classificationCounter = leaf.getValueCounter();
-            double prob = classificationCounter.getCount(classification) / classificationCounter.getTotal();
-            return prob;
+            return getProbability((Leaf<ClassificationCounter>) node, classification);
         }
         else {
             throw new RuntimeException("node not a branch or a leaf");
@@ -104,6 +171,9 @@ public class DecisionTree extends AbstractClassifier implements Tree<PredictionM
     @Override
     public PredictionMap predict(AttributesMap attributes) {
         Leaf<ClassificationCounter> dtLeaf = root.getLeaf(attributes);
+        if (dtLeaf instanceof SlimDTLeaf) {
+            return ((SlimDTLeaf) dtLeaf).getPredictionMap();
+        }
         ClassificationCounter valueCounter = dtLeaf.getValueCounter();
         Map<Serializable, Double> probsByClassification = Maps.newHashMap();
         for (Serializable classification : valueCounter.allClassifications()) {
@@ -122,6 +192,39 @@ public class DecisionTree extends AbstractClassifier implements Tree<PredictionM
         return new PredictionMap(probsByClassification);
     }
 
+    /**
+     * Follows the row's path once, and for each of candidateAttributes that a branch on the path tests, puts the
+     * prediction of predictWithoutAttributes without just that attribute into predictionsWithoutAttribute.  Ignoring an
+     * attribute the path doesn't test doesn't change the prediction, so the other candidates' predictions are the one
+     * returned.
+     *
+     * @return the prediction with all attributes, with a probability for each of the tree's classifications.
+     */
+    public PredictionMap predictWithoutEachAttribute(AttributesMap attributes, Set<String> candidateAttributes,
+                                                     Map<String, PredictionMap> predictionsWithoutAttribute) {
+        Set<String> attributesOnPath = new LinkedHashSet<>();
+        Node<ClassificationCounter> node = root;
+        while (node instanceof Branch) {
+            Branch<ClassificationCounter> branch = (Branch<ClassificationCounter>) node;
+            if (candidateAttributes.contains(branch.attribute)) {
+                attributesOnPath.add(branch.attribute);
+            }
+            node = branch.decide(attributes) ? branch.getTrueChild() : branch.getFalseChild();
+        }
+        if (!(node instanceof Leaf)) {
+            throw new RuntimeException("node not a branch or a leaf");
+        }
+        Leaf<ClassificationCounter> leaf = (Leaf<ClassificationCounter>) node;
+        Map<Serializable, Double> probsByClassification = Maps.newHashMap();
+        for (Serializable classification : classifications) {
+            probsByClassification.put(classification, getProbability(leaf, classification));
+        }
+        for (String attribute : attributesOnPath) {
+            predictionsWithoutAttribute.put(attribute, predictWithoutAttributes(attributes, Collections.singleton(attribute)));
+        }
+        return new PredictionMap(probsByClassification);
+    }
+
     @Override
     public Serializable getClassificationByMaxProb(AttributesMap attributes) {
         Leaf<ClassificationCounter> leaf = root.getLeaf(attributes);
@@ -1,7 +1,9 @@
 package quickml.supervised.tree.decisionTree;
 
+import com.google.common.base.Optional;
 import com.google.common.collect.Lists;
 import org.javatuples.Pair;
+import quickml.data.ColumnarDataset;
 import quickml.data.instances.ClassifierInstance;
 import quickml.supervised.PredictiveModelBuilder;
 import quickml.supervised.tree.attributeIgnoringStrategies.AttributeIgnoringStrategy;
@@ -15,6 +17,7 @@ import quickml.supervised.tree.decisionTree.valueCounters.ClassificationCounter;
 import quickml.supervised.tree.nodes.LeafBuilder;
 import quickml.supervised.tree.nodes.Node;
 import quickml.supervised.tree.scorers.ScorerFactory;
+import quickml.supervised.tree.treeBuildContexts.PreparedTrainingData;
 
 import java.io.Serializable;
 import java.util.*;
@@ -52,9 +55,57 @@ public class DecisionTreeBuilder<I extends ClassifierInstance> implements Predic
         DecisionTreeBuilderHelper<I> treeBuilderHelper = new DecisionTreeBuilderHelper<>(tcb);
         ArrayList<I> trainingDataList = Lists.newArrayList(trainingData);
         Pair<Node<ClassificationCounter>, Set<Serializable>> rootAndClassifications = treeBuilderHelper.computeNodesAndClasses(trainingDataList);
-        Node<ClassificationCounter> root = rootAndClassifications.getValue0();
-        Set<Serializable> classifications = rootAndClassifications.getValue1();
-        return new DecisionTree(root, classifications);
+        return createTree(rootAndClassifications);
+    }
+
+    /**
+     * Builds the tree from a columnar copy of the training data (see ColumnarDataset.forClassification), which avoids
+     * AttributesMap lookups while reducing and splitting.
+     */
+    public DecisionTree buildPredictiveModel(ColumnarDataset trainingData) {
+        tcb.initializeConfig();
+        DecisionTreeBuilderHelper<I> treeBuilderHelper = new DecisionTreeBuilderHelper<>(tcb);
+        Pair<Node<ClassificationCounter>, Set<Serializable>> rootAndClassifications = treeBuilderHelper.computeNodesAndClasses(trainingData);
+        return createTree(rootAndClassifications);
+    }
+
+    /**
+     * Surveys the training data once, for trees built with buildPredictiveModel(trainingData, preparedTrainingData).
+     */
+    public PreparedTrainingData<I, ClassificationCounter> prepareTrainingData(List<I> trainingData) {
+        tcb.initializeConfig();
+        return tcb.prepare(trainingData);
+    }
+
+    public PreparedTrainingData<I, ClassificationCounter> prepareTrainingData(ColumnarDataset trainingData) {
+        tcb.initializeConfig();
+        return tcb.prepare(trainingData);
+    }
+
+    /**
+     * The tree is built from a copy of trainingData, which is partitioned in place while splitting, so the trees of a forest
+     * can share one list.
+     */
+    public DecisionTree buildPredictiveModel(List<I> trainingData, PreparedTrainingData<I, ClassificationCounter> preparedTrainingData) {
+        tcb.initializeConfig();
+        DecisionTreeBuilderHelper<I> treeBuilderHelper = new DecisionTreeBuilderHelper<>(tcb);
+        Pair<Node<ClassificationCounter>, Set<Serializable>> rootAndClassifications = treeBuilderHelper.computeNodesAndClasses(Lists.newArrayList(trainingData), preparedTrainingData);
+        return createTree(rootAndClassifications);
+    }
+
+    public DecisionTree buildPredictiveModel(ColumnarDataset trainingData, PreparedTrainingData<I, ClassificationCounter> preparedTrainingData) {
+        tcb.initializeConfig();
+        DecisionTreeBuilderHelper<I> treeBuilderHelper = new DecisionTreeBuilderHelper<>(tcb);
+        Pair<Node<ClassificationCounter>, Set<Serializable>> rootAndClassifications = treeBuilderHelper.computeNodesAndClasses(trainingData, preparedTrainingData);
+        return createTree(rootAndClassifications);
+    }
+
+    private DecisionTree createTree(Pair<Node<ClassificationCounter>, Set<Serializable>> rootAndClassifications) {
+        DecisionTree decisionTree = new DecisionTree(rootAndClassifications.getValue0(), rootAndClassifications.getValue1());
+        if (tcb.getSlim()) {
+            decisionTree.slim(tcb.getQuantizeLeafProbabilities());
+        }
+        return decisionTree;
     }
 
     @Override
@@ -116,6 +167,67 @@ public class DecisionTreeBuilder<I extends ClassifierInstance> implements Predic
         return this;
     }
 
+    public DecisionTreeBuilder<I> numHistogramBins(int numHistogramBins) {
+        tcb.numHistogramBins(numHistogramBins);
+        return this;
+    }
+
+    public DecisionTreeBuilder<I> sparseNumericAttributes(boolean sparseNumericAttributes) {
+        tcb.sparseNumericAttributes(sparseNumericAttributes);
+        return this;
+    }
+
+    public DecisionTreeBuilder<I> exactNumericSplits(boolean exactNumericSplits) {
+        tcb.exactNumericSplits(exactNumericSplits);
+        return this;
+    }
+
+    public DecisionTreeBuilder<I> levelWiseGrowth(boolean levelWiseGrowth) {
+        tcb.levelWiseGrowth(levelWiseGrowth);
+        return this;
+    }
+
+    public DecisionTreeBuilder<I> seed(long seed) {
+        tcb.seed(seed);
+        return this;
+    }
+
+    public DecisionTreeBuilder<I> slim(boolean slim) {
+        tcb.slim(slim);
+        return this;
+    }
+
+    public DecisionTreeBuilder<I> quantizeLeafProbabilities(boolean quantizeLeafProbabilities) {
+        tcb.quantizeLeafProbabilities(quantizeLeafProbabilities);
+        return this;
+    }
+
+    public boolean getSlim() {
+        return tcb.getSlim();
+    }
+
+    public boolean getQuantizeLeafProbabilities() {
+        return tcb.getQuantizeLeafProbabilities();
+    }
+
+    public DecisionTreeBuilder<I> parallelism(int parallelism) {
+        tcb.parallelism(parallelism);
+        return this;
+    }
+
+    public int getParallelism() {
+        return tcb.getParallelism();
+    }
+
+    public Optional<Long> getSeed() {
+        return tcb.getSeed();
+    }
+
+    public DecisionTreeBuilder<I> minInstancesForParallelSubtrees(int minInstancesForParallelSubtrees) {
+        tcb.minInstancesForParallelSubtrees(minInstancesForParallelSubtrees);
+        return this;
+    }
+
     public DecisionTreeBuilder<I> branchingConditions(DTBranchingConditions branchingConditions) {
         tcb.branchingConditions(branchingConditions);
         return this;
@@ -2,12 +2,14 @@
 package quickml.supervised.tree.decisionTree;
 
 import org.javatuples.Pair;
+import quickml.data.ColumnarDataset;
 import quickml.data.instances.ClassifierInstance;
 import quickml.supervised.tree.TreeBuilderHelper;
 import quickml.supervised.tree.decisionTree.treeBuildContexts.DTreeContextBuilder;
 import quickml.supervised.tree.decisionTree.treeBuildContexts.DTreeContext;
 import quickml.supervised.tree.decisionTree.valueCounters.ClassificationCounter;
 import quickml.supervised.tree.nodes.Node;
+import quickml.supervised.tree.treeBuildContexts.PreparedTrainingData;
 
 import java.io.Serializable;
 import java.util.List;
@@ -26,7 +28,25 @@ public class DecisionTreeBuilderHelper<I extends ClassifierInstance> extends Tre
 
     public Pair<Node<ClassificationCounter>, Set<Serializable>> computeNodesAndClasses(List<I> trainingData) {
         DTreeContext<I> itbc = treeBuildContext.buildContext(trainingData);
-        Node<ClassificationCounter> root =  createNode(null, trainingData, itbc);
+        Node<ClassificationCounter> root =  createRoot(trainingData, itbc);
+        return Pair.with(root, itbc.getClassifications());
+    }
+
+    public Pair<Node<ClassificationCounter>, Set<Serializable>> computeNodesAndClasses(ColumnarDataset trainingData) {
+        DTreeContext<I> itbc = treeBuildContext.buildContext(trainingData);
+        Node<ClassificationCounter> root =  createRoot(trainingData, itbc);
+        return Pair.with(root, itbc.getClassifications());
+    }
+
+    public Pair<Node<ClassificationCounter>, Set<Serializable>> computeNodesAndClasses(List<I> trainingData, PreparedTrainingData<I, ClassificationCounter> preparedTrainingData) {
+        DTreeContext<I> itbc = treeBuildContext.buildContext(trainingData, preparedTrainingData);
+        Node<ClassificationCounter> root =  createRoot(trainingData, itbc);
+        return Pair.with(root, itbc.getClassifications());
+    }
+
+    public Pair<Node<ClassificationCounter>, Set<Serializable>> computeNodesAndClasses(ColumnarDataset trainingData, PreparedTrainingData<I, ClassificationCounter> preparedTrainingData) {
+        DTreeContext<I> itbc = treeBuildContext.buildContext(trainingData, preparedTrainingData);
+        Node<ClassificationCounter> root =  createRoot(trainingData, itbc);
         return Pair.with(root, itbc.getClassifications());
     }
 
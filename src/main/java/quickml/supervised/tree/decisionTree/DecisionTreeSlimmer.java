@@ -0,0 +1,65 @@
+package quickml.supervised.tree.decisionTree;
+
+import com.google.common.collect.Maps;
+import quickml.supervised.tree.decisionTree.nodes.SlimDTLeaf;
+import quickml.supervised.tree.decisionTree.valueCounters.ClassIndex;
+import quickml.supervised.tree.decisionTree.valueCounters.ClassificationCounter;
+import quickml.supervised.tree.nodes.Branch;
+import quickml.supervised.tree.nodes.Leaf;
+import quickml.supervised.tree.nodes.Node;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Strips what prediction doesn't need from built trees: branches lose their training counts and parent links, and
+ * leaves are replaced by SlimDTLeafs.  Leaves with the same probabilities are replaced by the same SlimDTLeaf, so
+ * slimming the trees of a forest with one slimmer shares leaves between them.
+ */
+public class DecisionTreeSlimmer {
+    private final boolean quantize;
+    private final ClassIndex classIndex = new ClassIndex();
+    private final Map<SlimDTLeaf, SlimDTLeaf> slimLeaves = Maps.newHashMap();
+
+    /**
+     * @param quantize whether leaf probabilities are stored in 16 bits rather than as floats.
+     */
+    public DecisionTreeSlimmer(boolean quantize, Collection<? extends Serializable> classifications) {
+        this.quantize = quantize;
+        //indexing every classification up front gives leaves with the same probabilities the same arrays
+        for (Serializable classification : classifications) {
+            classIndex.getOrAddIndex(classification);
+        }
+    }
+
+    /**
+     * @return node, slimmed in place, or its replacement if it is a leaf.
+     */
+    public Node<ClassificationCounter> slim(Node<ClassificationCounter> node) {
+        if (node instanceof SlimDTLeaf) {
+            return node;
+        }
+        if (node instanceof Leaf) {
+            SlimDTLeaf slimLeaf = new SlimDTLeaf(((Leaf<ClassificationCounter>) node).getValueCounter(), classIndex, quantize);
+            SlimDTLeaf sharedLeaf = slimLeaves.get(slimLeaf);
+            if (sharedLeaf == null) {
+                slimLeaves.put(slimLeaf, slimLeaf);
+                sharedLeaf = slimLeaf;
+            }
+            return sharedLeaf;
+        }
+        Branch<ClassificationCounter> branch = (Branch<ClassificationCounter>) node;
+        branch.dropTrainingStatistics();
+        branch.setTrueChild(slim(branch.getTrueChild()));
+        branch.setFalseChild(slim(branch.getFalseChild()));
+        return branch;
+    }
+
+    /**
+     * @return the number of distinct leaves the slimmed trees have.
+     */
+    public int getNumSlimLeaves() {
+        return slimLeaves.size();
+    }
+}
@@ -6,10 +6,12 @@ import org.joda.time.DateTime;
 import org.joda.time.Duration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import quickml.data.ColumnarDataset;
 import quickml.data.instances.ClassifierInstance;
 import quickml.supervised.Utils;
 import quickml.supervised.crossValidation.ClassifierLossChecker;
 import quickml.supervised.crossValidation.LossChecker;
+import quickml.supervised.crossValidation.OutOfBagCrossValidator;
 import quickml.supervised.crossValidation.RegressionLossChecker;
 import quickml.supervised.crossValidation.data.FoldedData;
 import quickml.supervised.crossValidation.data.TrainingDataCycler;
@@ -23,6 +25,7 @@ import quickml.supervised.predictiveModelOptimizer.PredictiveModelOptimizer;
 import quickml.supervised.predictiveModelOptimizer.SimplePredictiveModelOptimizerBuilder;
 import quickml.supervised.predictiveModelOptimizer.fieldValueRecommenders.FixedOrderRecommender;
 import quickml.supervised.tree.attributeIgnoringStrategies.IgnoreAttributesWithConstantProbability;
+import quickml.supervised.tree.bagging.PoissonBagging;
 
 import java.io.Serializable;
 import java.util.List;
@@ -65,6 +68,20 @@ public class OptimizedDecisionForest {
     }
 
 
+    /**
+     * Tests each config on the out of bag predictions of one bagged forest, instead of training a forest per fold.
+     */
+    public static <T extends ClassifierInstance> Pair<Map<String, Serializable>, RandomDecisionForest> getOutOfBagOptimizedRandomForest(List<T> trainingData, Map<String, FieldValueRecommender> config) {
+        RandomDecisionForestBuilder<T> modelBuilder = new RandomDecisionForestBuilder<T>().bagging(new PoissonBagging());
+        OutOfBagCrossValidator<T> crossValidator = new OutOfBagCrossValidator<>(modelBuilder, new WeightedAUCCrossValLossFunction(1.0), trainingData);
+        PredictiveModelOptimizer optimizer = new PredictiveModelOptimizer(config, crossValidator, 2);
+
+        Map<String, Serializable> optimalConfig = optimizer.determineOptimalConfig();
+
+        modelBuilder.updateBuilderConfig(optimalConfig);
+        return Pair.with(optimalConfig, modelBuilder.buildPredictiveModel(ColumnarDataset.forClassification(trainingData)));
+    }
+
     public static <T extends ClassifierInstance> Pair<Map<String, Serializable>, RandomDecisionForest> getOptimizedRandomForest(List<T> trainingData) {
         Map<String, FieldValueRecommender> config = createConfig();
         return getOptimizedRandomForest(trainingData, config, new FoldedData<>(trainingData, 6, 2));
@@ -42,7 +42,7 @@ public class DTNClassCatBranchFinder extends BranchFinder<ClassificationCounter>
                                                                                AttributeStats<ClassificationCounter> attributeStats) {
 
         final Set<Serializable> trueSet = Sets.newHashSet();
-        ClassificationCounter trueClassificationCounts = new ClassificationCounter();
+        ClassificationCounter trueClassificationCounts = new ClassificationCounter(attributeStats.getAggregateStats().getClassIndex());
         ClassificationCounter falseClassificationCounts = attributeStats.getAggregateStats();
         final List<ClassificationCounter> valueOutcomeCounts = attributeStats.getStatsOnEachValue();
         Map<Serializable, ClassificationCounter> attrValToCCMap = Maps.newHashMap();
@@ -0,0 +1,107 @@
+package quickml.supervised.tree.decisionTree.compiled;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A CompiledDecisionForest whose trees are also compiled to JVM bytecode, as nested if statements on the feature vector
+ * (see LeafFinderGenerator).  The JIT turns these into straight line code with constant thresholds, which scores
+ * several times faster than following the forest's arrays.  The classes are generated when the forest is created or
+ * deserialized, and are loaded by a class loader of their own, so they are unloaded along with the forest.
+ *
+ * Predictions are the same as the CompiledDecisionForest's.  predictWithoutAttributes, which sends rows down both
+ * children of some branches, uses the arrays.
+ */
+public class BytecodeDecisionForest extends FlatDecisionForest {
+    private static final long serialVersionUID = -1871226044625381347L;
+
+    private final CompiledDecisionForest compiledForest;
+    private transient LeafFinder[] leafFinders;
+
+    BytecodeDecisionForest(CompiledDecisionForest compiledForest) {
+        this.compiledForest = compiledForest;
+        this.leafFinders = LeafFinderGenerator.generate(compiledForest);
+    }
+
+    //for tests, to give smaller subtrees methods of their own
+    BytecodeDecisionForest(CompiledDecisionForest compiledForest, int maxInlinedSubtreeSize) {
+        this.compiledForest = compiledForest;
+        this.leafFinders = LeafFinderGenerator.generate(compiledForest, maxInlinedSubtreeSize);
+    }
+
+    public CompiledDecisionForest getCompiledForest() {
+        return compiledForest;
+    }
+
+    @Override
+    public FeatureIndex getFeatureIndex() {
+        return compiledForest.getFeatureIndex();
+    }
+
+    @Override
+    public List<Serializable> getClassifications() {
+        return compiledForest.getClassifications();
+    }
+
+    @Override
+    public int getClassIndex(Serializable classification) {
+        return compiledForest.getClassIndex(classification);
+    }
+
+    @Override
+    public int getNumTrees() {
+        return compiledForest.getNumTrees();
+    }
+
+    @Override
+    public int[] getLeaves(double[] features) {
+        int[] leaves = new int[compiledForest.roots.length];
+        for (LeafFinder leafFinder : leafFinders) {
+            leafFinder.getLeaves(features, compiledForest.categorySets, leaves);
+        }
+        return leaves;
+    }
+
+    //the arrays, for predictWithoutAttributes
+    @Override
+    int getRoot(int tree) {
+        return compiledForest.getRoot(tree);
+    }
+
+    @Override
+    int getFeature(int branch) {
+        return compiledForest.getFeature(branch);
+    }
+
+    @Override
+    boolean decide(int branch, double[] features) {
+        return compiledForest.decide(branch, features);
+    }
+
+    @Override
+    int getTrueChild(int branch) {
+        return compiledForest.getTrueChild(branch);
+    }
+
+    @Override
+    int getFalseChild(int branch) {
+        return compiledForest.getFalseChild(branch);
+    }
+
+    @Override
+    double getProbabilityOfTrueChild(int branch) {
+        return compiledForest.getProbabilityOfTrueChild(branch);
+    }
+
+    @Override
+    double getLeafProbability(int leaf, int classIndex) {
+        return compiledForest.getLeafProbability(leaf, classIndex);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        leafFinders = LeafFinderGenerator.generate(compiledForest);
+    }
+}
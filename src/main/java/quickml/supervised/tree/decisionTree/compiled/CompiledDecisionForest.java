@@ -0,0 +1,186 @@
+package quickml.supervised.tree.decisionTree.compiled;
+
+import com.google.common.collect.Maps;
+import quickml.data.AttributesMap;
+import quickml.data.PredictionMap;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A decision tree or forest compiled into flat arrays (see DecisionTree.compile and RandomDecisionForest.compile), with
+ * branches and leaves indexed as described in FlatDecisionForest.  Numeric branches go to their true child iff the
+ * feature is greater than their threshold, categorical branches iff the feature's category is in their bit set, so
+ * scoring never touches an AttributesMap, a Node or a boxed value.
+ */
+public class CompiledDecisionForest extends FlatDecisionForest {
+    private static final long serialVersionUID = 6207139431840273384L;
+
+    private final FeatureIndex featureIndex;
+    private final List<Serializable> classifications;
+    private final Map<Serializable, Integer> classIndices;
+    //the arrays LeafFinderGenerator, BytecodeDecisionForest and MappedDecisionForest read are package private
+    final int[] roots;
+    //per branch
+    final int[] features;
+    final double[] thresholds;
+    //offset of a categorical branch's true set in categorySets, or -1 for a numeric branch
+    final int[] categorySetOffsets;
+    final int[] trueChildren;
+    final int[] falseChildren;
+    final double[] probabilitiesOfTrueChild;
+    final long[] categorySets;
+    //the probability of class c in leaf l is leafProbabilities[l * classifications.size() + c]
+    final double[] leafProbabilities;
+
+    CompiledDecisionForest(FeatureIndex featureIndex, List<Serializable> classifications, int[] roots, int[] features, double[] thresholds,
+                           int[] categorySetOffsets, int[] trueChildren, int[] falseChildren, double[] probabilitiesOfTrueChild,
+                           long[] categorySets, double[] leafProbabilities) {
+        this.featureIndex = featureIndex;
+        this.classifications = classifications;
+        this.classIndices = Maps.newHashMap();
+        for (int i = 0; i < classifications.size(); i++) {
+            classIndices.put(classifications.get(i), i);
+        }
+        this.roots = roots;
+        this.features = features;
+        this.thresholds = thresholds;
+        this.categorySetOffsets = categorySetOffsets;
+        this.trueChildren = trueChildren;
+        this.falseChildren = falseChildren;
+        this.probabilitiesOfTrueChild = probabilitiesOfTrueChild;
+        this.categorySets = categorySets;
+        this.leafProbabilities = leafProbabilities;
+    }
+
+    @Override
+    public FeatureIndex getFeatureIndex() {
+        return featureIndex;
+    }
+
+    @Override
+    public List<Serializable> getClassifications() {
+        return Collections.unmodifiableList(classifications);
+    }
+
+    @Override
+    public int getClassIndex(Serializable classification) {
+        Integer classIndex = classIndices.get(classification);
+        return classIndex != null ? classIndex : -1;
+    }
+
+    /**
+     * @return this forest with its trees also compiled to JVM bytecode, which scores faster once the JIT has compiled it.
+     */
+    public BytecodeDecisionForest compileToBytecode() {
+        return new BytecodeDecisionForest(this);
+    }
+
+    @Override
+    public int getNumTrees() {
+        return roots.length;
+    }
+
+    public int getNumBranches() {
+        return features.length;
+    }
+
+    public int getNumLeaves() {
+        return leafProbabilities.length / classifications.size();
+    }
+
+    @Override
+    public int[] getLeaves(double[] features) {
+        int[] leaves = new int[roots.length];
+        for (int tree = 0; tree < roots.length; tree++) {
+            leaves[tree] = getLeaf(roots[tree], features);
+        }
+        return leaves;
+    }
+
+    /**
+     * Scores the feature vectors tree by tree, so each tree's arrays stay in cache while every vector goes through it.
+     * @return the probabilities of each feature vector, as returned by predictProbabilities(double[]).
+     */
+    public double[][] predictProbabilities(double[][] featureVectors) {
+        int numClasses = classifications.size();
+        double[][] probabilities = new double[featureVectors.length][numClasses];
+        for (int root : roots) {
+            for (int row = 0; row < featureVectors.length; row++) {
+                int offset = getLeaf(root, featureVectors[row]) * numClasses;
+                for (int classIndex = 0; classIndex < numClasses; classIndex++) {
+                    probabilities[row][classIndex] += leafProbabilities[offset + classIndex];
+                }
+            }
+        }
+        for (double[] rowProbabilities : probabilities) {
+            for (int classIndex = 0; classIndex < numClasses; classIndex++) {
+                rowProbabilities[classIndex] /= roots.length;
+            }
+        }
+        return probabilities;
+    }
+
+    private int getLeaf(int node, double[] features) {
+        while (node >= 0) {
+            node = decide(node, features) ? trueChildren[node] : falseChildren[node];
+        }
+        return ~node;
+    }
+
+    @Override
+    boolean decide(int branch, double[] features) {
+        double value = features[this.features[branch]];
+        int categorySetOffset = categorySetOffsets[branch];
+        if (categorySetOffset < 0) {
+            return value > thresholds[branch];
+        }
+        int category = (int) value;
+        return category >= 0 && (categorySets[categorySetOffset + (category >>> 6)] & (1L << category)) != 0;
+    }
+
+    @Override
+    int getRoot(int tree) {
+        return roots[tree];
+    }
+
+    @Override
+    int getFeature(int branch) {
+        return features[branch];
+    }
+
+    @Override
+    int getTrueChild(int branch) {
+        return trueChildren[branch];
+    }
+
+    @Override
+    int getFalseChild(int branch) {
+        return falseChildren[branch];
+    }
+
+    @Override
+    double getProbabilityOfTrueChild(int branch) {
+        return probabilitiesOfTrueChild[branch];
+    }
+
+    @Override
+    double getLeafProbability(int leaf, int classIndex) {
+        return leafProbabilities[leaf * classifications.size() + classIndex];
+    }
+
+    //tree by tree, see predictProbabilities(double[][])
+    @Override
+    void predictBlock(List<? extends AttributesMap> rows, int from, int to, List<PredictionMap> predictions) {
+        double[][] featureVectors = new double[to - from][];
+        for (int row = from; row < to; row++) {
+            featureVectors[row - from] = featureIndex.toFeatureVector(rows.get(row));
+        }
+        double[][] probabilities = predictProbabilities(featureVectors);
+        for (int row = from; row < to; row++) {
+            predictions.set(row, toPredictionMap(probabilities[row - from]));
+        }
+    }
+}
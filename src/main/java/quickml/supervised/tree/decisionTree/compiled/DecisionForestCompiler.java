@@ -0,0 +1,111 @@
+package quickml.supervised.tree.decisionTree.compiled;
+
+import com.google.common.collect.Lists;
+import com.google.common.primitives.Doubles;
+import com.google.common.primitives.Ints;
+import com.google.common.primitives.Longs;
+import quickml.supervised.tree.decisionTree.DecisionTree;
+import quickml.supervised.tree.decisionTree.nodes.DTCatBranch;
+import quickml.supervised.tree.decisionTree.valueCounters.ClassificationCounter;
+import quickml.supervised.tree.nodes.Branch;
+import quickml.supervised.tree.nodes.Leaf;
+import quickml.supervised.tree.nodes.Node;
+import quickml.supervised.tree.nodes.NumBranch;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Flattens the Node graphs of decision trees into a CompiledDecisionForest.  The first pass over the trees registers the
+ * attributes and categories they split on in a FeatureIndex, the second emits the branches and leaves.
+ */
+public class DecisionForestCompiler {
+    private final FeatureIndex featureIndex = new FeatureIndex();
+    private final List<Serializable> classifications;
+    private final List<Integer> features = Lists.newArrayList();
+    private final List<Double> thresholds = Lists.newArrayList();
+    private final List<Integer> categorySetOffsets = Lists.newArrayList();
+    private final List<Integer> trueChildren = Lists.newArrayList();
+    private final List<Integer> falseChildren = Lists.newArrayList();
+    private final List<Double> probabilitiesOfTrueChild = Lists.newArrayList();
+    private final List<Long> categorySets = Lists.newArrayList();
+    private final List<Double> leafProbabilities = Lists.newArrayList();
+    private int numLeaves = 0;
+
+    private DecisionForestCompiler(Collection<Serializable> classifications) {
+        this.classifications = Lists.newArrayList(classifications);
+    }
+
+    public static CompiledDecisionForest compile(List<DecisionTree> decisionTrees, Collection<Serializable> classifications) {
+        DecisionForestCompiler compiler = new DecisionForestCompiler(classifications);
+        for (DecisionTree decisionTree : decisionTrees) {
+            compiler.registerFeatures(decisionTree.root);
+        }
+        compiler.featureIndex.freeze();
+        int[] roots = new int[decisionTrees.size()];
+        for (int i = 0; i < roots.length; i++) {
+            roots[i] = compiler.emit(decisionTrees.get(i).root);
+        }
+        return new CompiledDecisionForest(compiler.featureIndex, compiler.classifications, roots, Ints.toArray(compiler.features),
+                Doubles.toArray(compiler.thresholds), Ints.toArray(compiler.categorySetOffsets), Ints.toArray(compiler.trueChildren),
+                Ints.toArray(compiler.falseChildren), Doubles.toArray(compiler.probabilitiesOfTrueChild), Longs.toArray(compiler.categorySets),
+                Doubles.toArray(compiler.leafProbabilities));
+    }
+
+    private void registerFeatures(Node<ClassificationCounter> node) {
+        if (!(node instanceof Branch)) {
+            return;
+        }
+        Branch<ClassificationCounter> branch = (Branch<ClassificationCounter>) node;
+        if (branch instanceof NumBranch) {
+            featureIndex.addNumericAttribute(branch.attribute);
+        } else if (branch instanceof DTCatBranch) {
+            featureIndex.addCategoricalAttribute(branch.attribute);
+            for (Serializable value : ((DTCatBranch) branch).trueSet) {
+                featureIndex.addCategory(branch.attribute, value);
+            }
+        } else {
+            throw new RuntimeException("can't compile branches of type " + branch.getClass().getSimpleName());
+        }
+        registerFeatures(branch.getTrueChild());
+        registerFeatures(branch.getFalseChild());
+    }
+
+    /**
+     * @return a reference to the emitted node: its branch index, or ~leafIndex.
+     */
+    private int emit(Node<ClassificationCounter> node) {
+        if (node instanceof Leaf) {
+            ClassificationCounter classificationCounter = ((Leaf<ClassificationCounter>) node).getValueCounter();
+            for (Serializable classification : classifications) {
+                leafProbabilities.add(classificationCounter.getCount(classification) / classificationCounter.getTotal());
+            }
+            return ~numLeaves++;
+        }
+        Branch<ClassificationCounter> branch = (Branch<ClassificationCounter>) node;
+        int branchIndex = features.size();
+        if (branch instanceof NumBranch) {
+            features.add(featureIndex.getNumericSlot(branch.attribute));
+            thresholds.add(((NumBranch) branch).threshold);
+            categorySetOffsets.add(-1);
+        } else {
+            int slot = featureIndex.getCategoricalSlot(branch.attribute);
+            features.add(slot);
+            thresholds.add(0.0);
+            categorySetOffsets.add(categorySets.size());
+            long[] trueSet = new long[Math.max(1, (featureIndex.getNumCategories(slot) + 63) / 64)];
+            for (Serializable value : ((DTCatBranch) branch).trueSet) {
+                int category = featureIndex.getCategoryCode(slot, value);
+                trueSet[category >>> 6] |= 1L << category;
+            }
+            categorySets.addAll(Longs.asList(trueSet));
+        }
+        probabilitiesOfTrueChild.add(branch.getProbabilityOfTrueChild());
+        trueChildren.add(0);
+        falseChildren.add(0);
+        trueChildren.set(branchIndex, emit(branch.getTrueChild()));
+        falseChildren.set(branchIndex, emit(branch.getFalseChild()));
+        return branchIndex;
+    }
+}
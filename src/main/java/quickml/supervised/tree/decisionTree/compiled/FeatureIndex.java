@@ -0,0 +1,128 @@
+package quickml.supervised.tree.decisionTree.compiled;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps the attributes a compiled model splits on to positions in a primitive feature vector.  Numeric attributes take the
+ * first slots and hold their value (missing values are 0, as in NumBranch.decide).  Categorical attributes take the
+ * remaining slots and hold the code of their value, where only values that appear in some branch's true set get a code
+ * (other values are UNKNOWN_CATEGORY).
+ *
+ * Resolve a request's attributes once with toFeatureVector, and score every tree from the resulting vector.
+ */
+public class FeatureIndex implements Serializable {
+    private static final long serialVersionUID = -3281764019254733219L;
+    public static final int UNKNOWN_CATEGORY = -1;
+
+    private final List<String> numericAttributes = Lists.newArrayList();
+    private final Map<String, Integer> numericSlots = Maps.newHashMap();
+    private final List<String> categoricalAttributes = Lists.newArrayList();
+    private final Map<String, Integer> categoricalSlots = Maps.newHashMap();
+    //the codes of the values of each categorical attribute, in the order of categoricalAttributes
+    private final List<Map<Serializable, Integer>> categoryCodes = Lists.newArrayList();
+    private double[] defaultFeatureVector;
+
+    FeatureIndex() {
+    }
+
+    void addNumericAttribute(String attribute) {
+        if (!numericSlots.containsKey(attribute)) {
+            numericSlots.put(attribute, numericAttributes.size());
+            numericAttributes.add(attribute);
+        }
+    }
+
+    void addCategoricalAttribute(String attribute) {
+        if (!categoricalSlots.containsKey(attribute)) {
+            categoricalSlots.put(attribute, categoricalAttributes.size());
+            categoricalAttributes.add(attribute);
+            categoryCodes.add(Maps.<Serializable, Integer>newHashMap());
+        }
+    }
+
+    void addCategory(String attribute, Serializable value) {
+        addCategoricalAttribute(attribute);
+        Map<Serializable, Integer> codes = categoryCodes.get(categoricalSlots.get(attribute));
+        if (!codes.containsKey(value)) {
+            codes.put(value, codes.size());
+        }
+    }
+
+    /**
+     * Called once every attribute has been added; slots don't change afterwards.
+     */
+    void freeze() {
+        defaultFeatureVector = new double[getNumFeatures()];
+        for (int i = 0; i < categoricalAttributes.size(); i++) {
+            defaultFeatureVector[numericAttributes.size() + i] = getCategoryCodeOfOrdinal(i, null);
+        }
+    }
+
+    public int getNumFeatures() {
+        return numericAttributes.size() + categoricalAttributes.size();
+    }
+
+    /**
+     * @return the slot of a numeric attribute, or -1 if no branch splits on it numerically.
+     */
+    public int getNumericSlot(String attribute) {
+        Integer slot = numericSlots.get(attribute);
+        return slot != null ? slot : -1;
+    }
+
+    /**
+     * @return the slot of a categorical attribute, or -1 if no branch splits on it categorically.
+     */
+    public int getCategoricalSlot(String attribute) {
+        Integer ordinal = categoricalSlots.get(attribute);
+        return ordinal != null ? numericAttributes.size() + ordinal : -1;
+    }
+
+    /**
+     * @return the number of values of the categorical attribute in the given slot that have a code.
+     */
+    public int getNumCategories(int slot) {
+        return categoryCodes.get(slot - numericAttributes.size()).size();
+    }
+
+    public int getCategoryCode(int slot, Serializable value) {
+        return getCategoryCodeOfOrdinal(slot - numericAttributes.size(), value);
+    }
+
+    private int getCategoryCodeOfOrdinal(int ordinal, Serializable value) {
+        Integer code = categoryCodes.get(ordinal).get(value);
+        return code != null ? code : UNKNOWN_CATEGORY;
+    }
+
+    /**
+     * @return a feature vector in which every attribute is missing.
+     */
+    public double[] newFeatureVector() {
+        return Arrays.copyOf(defaultFeatureVector, defaultFeatureVector.length);
+    }
+
+    public double[] toFeatureVector(Map<String, Serializable> attributes) {
+        double[] features = new double[defaultFeatureVector.length];
+        for (int slot = 0; slot < numericAttributes.size(); slot++) {
+            String attribute = numericAttributes.get(slot);
+            Serializable value = attributes.get(attribute);
+            if (value == null) {
+                continue;
+            }
+            if (!(value instanceof Number)) {
+                throw new RuntimeException("Expecting a number as the value of " + attribute + " but got " + value + " of type " + value.getClass().getSimpleName());
+            }
+            features[slot] = ((Number) value).doubleValue();
+        }
+        for (int ordinal = 0; ordinal < categoricalAttributes.size(); ordinal++) {
+            features[numericAttributes.size() + ordinal] = getCategoryCodeOfOrdinal(ordinal, attributes.get(categoricalAttributes.get(ordinal)));
+        }
+        return features;
+    }
+}
@@ -0,0 +1,179 @@
+package quickml.supervised.tree.decisionTree.compiled;
+
+import quickml.data.AttributesMap;
+import quickml.data.PredictionMap;
+import quickml.supervised.BatchPredictor;
+import quickml.supervised.classifier.AbstractClassifier;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Scoring for the forms of a compiled forest (CompiledDecisionForest, BytecodeDecisionForest and MappedDecisionForest),
+ * which differ only in where their branches and leaves are stored.  Branches are indexed from 0; a child or root
+ * reference r >= 0 is a branch, and r < 0 is the leaf ~r.  Subclasses find the leaves a feature vector reaches in their
+ * own way, and give access to the branches and leaf probabilities; predictions are built from these here.
+ *
+ * Predictions are the mean over the trees of the leaf probabilities, as for a RandomDecisionForest.
+ */
+public abstract class FlatDecisionForest extends AbstractClassifier {
+    private static final long serialVersionUID = -3815927730481153927L;
+
+    public abstract FeatureIndex getFeatureIndex();
+
+    /**
+     * @return the classifications, in the order of the probabilities returned by predictProbabilities.
+     */
+    public abstract List<Serializable> getClassifications();
+
+    /**
+     * @return the index of classification in getClassifications(), or -1 if the forest never predicts it.
+     */
+    public abstract int getClassIndex(Serializable classification);
+
+    public abstract int getNumTrees();
+
+    /**
+     * @return the index of the leaf features reach in each tree.
+     */
+    public abstract int[] getLeaves(double[] features);
+
+    abstract int getRoot(int tree);
+
+    abstract int getFeature(int branch);
+
+    abstract boolean decide(int branch, double[] features);
+
+    abstract int getTrueChild(int branch);
+
+    abstract int getFalseChild(int branch);
+
+    abstract double getProbabilityOfTrueChild(int branch);
+
+    abstract double getLeafProbability(int leaf, int classIndex);
+
+    /**
+     * @param features a feature vector from getFeatureIndex()
+     * @return the probability of each classification, in the order of getClassifications().
+     */
+    public double[] predictProbabilities(double[] features) {
+        int numClasses = getClassifications().size();
+        int[] leaves = getLeaves(features);
+        double[] probabilities = new double[numClasses];
+        for (int leaf : leaves) {
+            for (int classIndex = 0; classIndex < numClasses; classIndex++) {
+                probabilities[classIndex] += getLeafProbability(leaf, classIndex);
+            }
+        }
+        for (int classIndex = 0; classIndex < numClasses; classIndex++) {
+            probabilities[classIndex] /= leaves.length;
+        }
+        return probabilities;
+    }
+
+    public double getProbability(double[] features, int classIndex) {
+        int[] leaves = getLeaves(features);
+        double total = 0;
+        for (int leaf : leaves) {
+            total += getLeafProbability(leaf, classIndex);
+        }
+        return total / leaves.length;
+    }
+
+    @Override
+    public double getProbability(AttributesMap attributes, Serializable classification) {
+        int classIndex = getClassIndex(classification);
+        return classIndex < 0 ? 0 : getProbability(getFeatureIndex().toFeatureVector(attributes), classIndex);
+    }
+
+    @Override
+    public PredictionMap predict(AttributesMap attributes) {
+        return toPredictionMap(predictProbabilities(getFeatureIndex().toFeatureVector(attributes)));
+    }
+
+    @Override
+    public List<PredictionMap> predictBatch(List<? extends AttributesMap> attributesList) {
+        return predictBatch(attributesList, 1);
+    }
+
+    /**
+     * @param numThreads above 1, the blocks of rows are scored in parallel on the shared ComputeScheduler.
+     */
+    public List<PredictionMap> predictBatch(List<? extends AttributesMap> attributesList, int numThreads) {
+        return new BatchPredictor<PredictionMap>() {
+            @Override
+            protected void predictBlock(List<? extends AttributesMap> rows, int from, int to, List<PredictionMap> predictions) {
+                FlatDecisionForest.this.predictBlock(rows, from, to, predictions);
+            }
+        }.predict(attributesList, numThreads);
+    }
+
+    //row by row, unless a subclass has a faster way to score a block
+    void predictBlock(List<? extends AttributesMap> rows, int from, int to, List<PredictionMap> predictions) {
+        for (int row = from; row < to; row++) {
+            predictions.set(row, predict(rows.get(row)));
+        }
+    }
+
+    @Override
+    public PredictionMap predictWithoutAttributes(AttributesMap attributes, Set<String> attributesToIgnore) {
+        FeatureIndex featureIndex = getFeatureIndex();
+        double[] features = featureIndex.toFeatureVector(attributes);
+        boolean[] ignoredFeatures = new boolean[featureIndex.getNumFeatures()];
+        for (String attribute : attributesToIgnore) {
+            int numericSlot = featureIndex.getNumericSlot(attribute);
+            if (numericSlot >= 0) {
+                ignoredFeatures[numericSlot] = true;
+            }
+            int categoricalSlot = featureIndex.getCategoricalSlot(attribute);
+            if (categoricalSlot >= 0) {
+                ignoredFeatures[categoricalSlot] = true;
+            }
+        }
+        double[] probabilities = new double[getClassifications().size()];
+        int numTrees = getNumTrees();
+        for (int tree = 0; tree < numTrees; tree++) {
+            addProbabilitiesWithoutFeatures(getRoot(tree), features, ignoredFeatures, 1.0 / numTrees, probabilities);
+        }
+        return toPredictionMap(probabilities);
+    }
+
+    /**
+     * Ignored features send a node's weight down both children, in proportion to the training instances that went each way.
+     */
+    private void addProbabilitiesWithoutFeatures(int node, double[] features, boolean[] ignoredFeatures, double weight, double[] probabilities) {
+        if (node < 0) {
+            for (int classIndex = 0; classIndex < probabilities.length; classIndex++) {
+                probabilities[classIndex] += weight * getLeafProbability(~node, classIndex);
+            }
+        } else if (ignoredFeatures[getFeature(node)]) {
+            double probabilityOfTrueChild = getProbabilityOfTrueChild(node);
+            addProbabilitiesWithoutFeatures(getTrueChild(node), features, ignoredFeatures, weight * probabilityOfTrueChild, probabilities);
+            addProbabilitiesWithoutFeatures(getFalseChild(node), features, ignoredFeatures, weight * (1.0 - probabilityOfTrueChild), probabilities);
+        } else {
+            addProbabilitiesWithoutFeatures(decide(node, features) ? getTrueChild(node) : getFalseChild(node), features, ignoredFeatures, weight, probabilities);
+        }
+    }
+
+    @Override
+    public Serializable getClassificationByMaxProb(AttributesMap attributes) {
+        double[] probabilities = predictProbabilities(getFeatureIndex().toFeatureVector(attributes));
+        int bestClassIndex = 0;
+        for (int classIndex = 1; classIndex < probabilities.length; classIndex++) {
+            if (probabilities[classIndex] > probabilities[bestClassIndex]) {
+                bestClassIndex = classIndex;
+            }
+        }
+        return getClassifications().get(bestClassIndex);
+    }
+
+    PredictionMap toPredictionMap(double[] probabilities) {
+        List<Serializable> classifications = getClassifications();
+        PredictionMap predictionMap = PredictionMap.newMap();
+        for (int classIndex = 0; classIndex < probabilities.length; classIndex++) {
+            predictionMap.put(classifications.get(classIndex), probabilities[classIndex]);
+        }
+        return predictionMap;
+    }
+}
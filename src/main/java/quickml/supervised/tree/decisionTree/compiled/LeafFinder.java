@@ -0,0 +1,15 @@
+package quickml.supervised.tree.decisionTree.compiled;
+
+/**
+ * Implemented by the classes LeafFinderGenerator generates for the trees of a BytecodeDecisionForest.  It is public
+ * because the generated classes are loaded by a class loader of their own.
+ */
+public interface LeafFinder {
+
+    /**
+     * Sets leaves[t] to the index of the leaf features reach in tree t, for each tree t of this leaf finder.
+     *
+     * @param categorySets the category sets of the CompiledDecisionForest the leaf finder was generated from.
+     */
+    void getLeaves(double[] features, long[] categorySets, int[] leaves);
+}
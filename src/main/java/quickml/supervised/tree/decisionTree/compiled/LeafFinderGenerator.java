@@ -0,0 +1,458 @@
+package quickml.supervised.tree.decisionTree.compiled;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates JVM classes that find the leaves of the trees of a CompiledDecisionForest with nested if statements, rather
+ * than by following child indices through arrays.  Each tree becomes a static method whose features and thresholds are
+ * constants, so the JIT compiles (and inlines and branch predicts) the shape of the tree like hand written code.  Numeric
+ * branches compare features[slot] with their threshold, and categorical branches test a bit of the forest's category sets.
+ * <p/>
+ * Class files are written directly, in version 49 (which needs no stack map frames), so no bytecode library is needed.
+ * Subtrees of more than MAX_INLINED_SUBTREE_SIZE bytes of code get a method of their own, as HotSpot doesn't JIT compile
+ * methods of more than 8000 bytes, and trees are spread over several classes to keep each constant pool within bounds.
+ */
+class LeafFinderGenerator {
+    private static final String CLASS_NAME_PREFIX = "quickml/supervised/tree/decisionTree/compiled/GeneratedLeafFinder";
+    private static final String LEAF_FINDER = "quickml/supervised/tree/decisionTree/compiled/LeafFinder";
+    //static int subtree(double[] features, long[] categorySets)
+    private static final String SUBTREE_DESCRIPTOR = "([D[J)I";
+    private static final AtomicInteger numGeneratedClasses = new AtomicInteger();
+
+    private static final int MAX_INLINED_SUBTREE_SIZE = 3000;
+    //getLeaves takes at most 10 bytes of code per tree, so it stays well below 8000 bytes as well
+    private static final int MAX_TREES_PER_CLASS = 500;
+    private static final int MAX_CONSTANTS_PER_CLASS = 60000;
+
+    //upper bounds on the code size of a leaf, a call to a subtree's method, and the tests of branches
+    private static final int LEAF_SIZE = 4;
+    private static final int CALL_SIZE = 6;
+    private static final int NUMERIC_TEST_SIZE = 12;
+    private static final int CATEGORICAL_TEST_SIZE = 32;
+
+    private static final int ICONST_0 = 0x03, LCONST_0 = 0x09, LCONST_1 = 0x0a, BIPUSH = 0x10, SIPUSH = 0x11, LDC_W = 0x13, LDC2_W = 0x14,
+            ILOAD_2 = 0x1c, ALOAD_0 = 0x2a, ALOAD_1 = 0x2b, ALOAD_2 = 0x2c, ALOAD_3 = 0x2d, LALOAD = 0x2f, DALOAD = 0x31, ISTORE_2 = 0x3d,
+            IASTORE = 0x4f, IADD = 0x60, LSHL = 0x79, IUSHR = 0x7c, LAND = 0x7f, D2I = 0x8e, LCMP = 0x94, DCMPL = 0x97, IFEQ = 0x99,
+            IFLT = 0x9b, IFLE = 0x9e, IRETURN = 0xac, RETURN = 0xb1, INVOKESPECIAL = 0xb7, INVOKESTATIC = 0xb8;
+    private static final int ACC_PUBLIC = 0x0001, ACC_PRIVATE = 0x0002, ACC_STATIC = 0x0008, ACC_FINAL = 0x0010, ACC_SUPER = 0x0020;
+
+    private final CompiledDecisionForest forest;
+    private final int maxInlinedSubtreeSize;
+    //the branches that are compiled to a method of their own: the roots of trees, and subtrees too large to inline
+    private final boolean[] methodRoots;
+
+    private LeafFinderGenerator(CompiledDecisionForest forest, int maxInlinedSubtreeSize) {
+        this.forest = forest;
+        this.maxInlinedSubtreeSize = maxInlinedSubtreeSize;
+        this.methodRoots = new boolean[forest.features.length];
+    }
+
+    /**
+     * @return leaf finders that together fill in the leaves of every tree of forest.
+     */
+    static LeafFinder[] generate(CompiledDecisionForest forest) {
+        return generate(forest, MAX_INLINED_SUBTREE_SIZE);
+    }
+
+    static LeafFinder[] generate(CompiledDecisionForest forest, int maxInlinedSubtreeSize) {
+        LeafFinderGenerator generator = new LeafFinderGenerator(forest, maxInlinedSubtreeSize);
+        GeneratedClassLoader classLoader = new GeneratedClassLoader();
+        List<LeafFinder> leafFinders = Lists.newArrayList();
+        int firstTree = 0;
+        int numConstants = 0;
+        for (int tree = 0; tree < forest.roots.length; tree++) {
+            int treeConstants = generator.plan(forest.roots[tree]);
+            if (tree > firstTree && (tree - firstTree == MAX_TREES_PER_CLASS || numConstants + treeConstants > MAX_CONSTANTS_PER_CLASS)) {
+                leafFinders.add(generator.generateClass(firstTree, tree, classLoader));
+                firstTree = tree;
+                numConstants = 0;
+            }
+            numConstants += treeConstants;
+        }
+        if (firstTree < forest.roots.length) {
+            leafFinders.add(generator.generateClass(firstTree, forest.roots.length, classLoader));
+        }
+        return leafFinders.toArray(new LeafFinder[leafFinders.size()]);
+    }
+
+    /**
+     * Decides which subtrees of the tree at root get a method of their own.
+     *
+     * @return an upper bound on the number of constants the tree's methods add to a class.
+     */
+    private int plan(int root) {
+        if (root < 0) {
+            return 1;
+        }
+        methodRoots[root] = true;
+        getCodeSize(root);
+        return countConstants(root);
+    }
+
+    private int getCodeSize(int node) {
+        if (node < 0) {
+            return LEAF_SIZE;
+        }
+        int testSize = forest.categorySetOffsets[node] < 0 ? NUMERIC_TEST_SIZE : CATEGORICAL_TEST_SIZE;
+        return testSize + getInlinedCodeSize(forest.trueChildren[node]) + getInlinedCodeSize(forest.falseChildren[node]);
+    }
+
+    private int getInlinedCodeSize(int node) {
+        int codeSize = getCodeSize(node);
+        if (node >= 0 && codeSize > maxInlinedSubtreeSize) {
+            methodRoots[node] = true;
+            return CALL_SIZE;
+        }
+        return codeSize;
+    }
+
+    //2 per branch (a threshold, or a slot and a category set offset), 1 per leaf, and 3 per method (its name, and a reference to it)
+    private int countConstants(int node) {
+        if (node < 0) {
+            return 1;
+        }
+        return 2 + (methodRoots[node] ? 3 : 0) + countConstants(forest.trueChildren[node]) + countConstants(forest.falseChildren[node]);
+    }
+
+    private LeafFinder generateClass(int firstTree, int lastTree, GeneratedClassLoader classLoader) {
+        String className = CLASS_NAME_PREFIX + numGeneratedClasses.incrementAndGet();
+        ClassFile classFile = new ClassFile(className);
+
+        Code constructor = new Code();
+        constructor.op(ALOAD_0);
+        constructor.op(INVOKESPECIAL);
+        constructor.u2(classFile.methodRef("java/lang/Object", "<init>", "()V"));
+        constructor.op(RETURN);
+        classFile.addMethod(ACC_PUBLIC, "<init>", "()V", 1, 1, constructor);
+
+        //getLeaves(double[] features, long[] categorySets, int[] leaves)
+        Code getLeaves = new Code();
+        for (int tree = firstTree; tree < lastTree; tree++) {
+            getLeaves.op(ALOAD_3);
+            getLeaves.pushInt(classFile, tree);
+            int root = forest.roots[tree];
+            if (root < 0) {
+                getLeaves.pushInt(classFile, ~root);
+            } else {
+                getLeaves.op(ALOAD_1);
+                getLeaves.op(ALOAD_2);
+                getLeaves.op(INVOKESTATIC);
+                getLeaves.u2(classFile.methodRef(className, getMethodName(root), SUBTREE_DESCRIPTOR));
+            }
+            getLeaves.op(IASTORE);
+        }
+        getLeaves.op(RETURN);
+        classFile.addMethod(ACC_PUBLIC, "getLeaves", "([D[J[I)V", 4, 4, getLeaves);
+
+        for (int tree = firstTree; tree < lastTree; tree++) {
+            addMethods(classFile, forest.roots[tree]);
+        }
+        byte[] bytes = classFile.toByteArray();
+        try {
+            return (LeafFinder) classLoader.define(className.replace('/', '.'), bytes).newInstance();
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    //adds the methods of the subtrees of node that are method roots
+    private void addMethods(ClassFile classFile, int node) {
+        if (node < 0) {
+            return;
+        }
+        if (methodRoots[node]) {
+            Code code = new Code();
+            addSubtree(classFile, code, node, true);
+            classFile.addMethod(ACC_PRIVATE | ACC_STATIC, getMethodName(node), SUBTREE_DESCRIPTOR, 6, 3, code);
+        }
+        addMethods(classFile, forest.trueChildren[node]);
+        addMethods(classFile, forest.falseChildren[node]);
+    }
+
+    /**
+     * Adds code that returns the leaf features reach from node.  Locals: 0 is the features, 1 the category sets, 2 a category.
+     */
+    private void addSubtree(ClassFile classFile, Code code, int node, boolean isMethodRoot) {
+        if (node < 0) {
+            code.pushInt(classFile, ~node);
+            code.op(IRETURN);
+            return;
+        }
+        if (methodRoots[node] && !isMethodRoot) {
+            code.op(ALOAD_0);
+            code.op(ALOAD_1);
+            code.op(INVOKESTATIC);
+            code.u2(classFile.methodRef(classFile.className, getMethodName(node), SUBTREE_DESCRIPTOR));
+            code.op(IRETURN);
+            return;
+        }
+        code.op(ALOAD_0);
+        code.pushInt(classFile, forest.features[node]);
+        code.op(DALOAD);
+        int categorySetOffset = forest.categorySetOffsets[node];
+        int[] jumpsToFalseChild;
+        if (categorySetOffset < 0) {
+            //features[slot] > threshold, which is false for NaN as dcmpl pushes -1
+            code.op(LDC2_W);
+            code.u2(classFile.doubleConstant(forest.thresholds[node]));
+            code.op(DCMPL);
+            jumpsToFalseChild = new int[]{code.jump(IFLE)};
+        } else {
+            //category >= 0 && (categorySets[offset + (category >>> 6)] & (1L << category)) != 0
+            code.op(D2I);
+            code.op(ISTORE_2);
+            code.op(ILOAD_2);
+            int jumpIfUnknown = code.jump(IFLT);
+            code.op(ALOAD_1);
+            code.pushInt(classFile, categorySetOffset);
+            code.op(ILOAD_2);
+            code.pushInt(classFile, 6);
+            code.op(IUSHR);
+            code.op(IADD);
+            code.op(LALOAD);
+            code.op(LCONST_1);
+            code.op(ILOAD_2);
+            code.op(LSHL);
+            code.op(LAND);
+            code.op(LCONST_0);
+            code.op(LCMP);
+            jumpsToFalseChild = new int[]{jumpIfUnknown, code.jump(IFEQ)};
+        }
+        addSubtree(classFile, code, forest.trueChildren[node], false);
+        for (int jump : jumpsToFalseChild) {
+            code.setJumpTarget(jump);
+        }
+        addSubtree(classFile, code, forest.falseChildren[node], false);
+    }
+
+    private static String getMethodName(int branch) {
+        return "subtree" + branch;
+    }
+
+    private static class GeneratedClassLoader extends ClassLoader {
+        GeneratedClassLoader() {
+            super(LeafFinder.class.getClassLoader());
+        }
+
+        Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+
+    private static class Code {
+        private byte[] bytes = new byte[256];
+        private int length = 0;
+
+        void op(int opcode) {
+            u1(opcode);
+        }
+
+        void u1(int value) {
+            if (length == bytes.length) {
+                bytes = Arrays.copyOf(bytes, 2 * length);
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        void u2(int value) {
+            u1(value >>> 8);
+            u1(value);
+        }
+
+        void pushInt(ClassFile classFile, int value) {
+            if (value >= -1 && value <= 5) {
+                op(ICONST_0 + value);
+            } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+                op(BIPUSH);
+                u1(value);
+            } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+                op(SIPUSH);
+                u2(value);
+            } else {
+                op(LDC_W);
+                u2(classFile.intConstant(value));
+            }
+        }
+
+        /**
+         * @return the position of the jump, whose target is set by setJumpTarget.
+         */
+        int jump(int opcode) {
+            int position = length;
+            op(opcode);
+            u2(0);
+            return position;
+        }
+
+        //targets the current end of the code
+        void setJumpTarget(int jump) {
+            int offset = length - jump;
+            bytes[jump + 1] = (byte) (offset >>> 8);
+            bytes[jump + 2] = (byte) offset;
+        }
+    }
+
+    private static class ClassFile {
+        final String className;
+        private final ByteArrayOutputStream constantPool = new ByteArrayOutputStream();
+        private final DataOutputStream constantPoolOut = new DataOutputStream(constantPool);
+        private final Map<String, Integer> constantIndices = Maps.newHashMap();
+        private int numConstantSlots = 1;
+        private final ByteArrayOutputStream methods = new ByteArrayOutputStream();
+        private final DataOutputStream methodsOut = new DataOutputStream(methods);
+        private int numMethods = 0;
+
+        ClassFile(String className) {
+            this.className = className;
+        }
+
+        void addMethod(int accessFlags, String name, String descriptor, int maxStack, int maxLocals, Code code) {
+            try {
+                methodsOut.writeShort(accessFlags);
+                methodsOut.writeShort(utf8(name));
+                methodsOut.writeShort(utf8(descriptor));
+                methodsOut.writeShort(1);
+                methodsOut.writeShort(utf8("Code"));
+                methodsOut.writeInt(12 + code.length);
+                methodsOut.writeShort(maxStack);
+                methodsOut.writeShort(maxLocals);
+                methodsOut.writeInt(code.length);
+                methodsOut.write(code.bytes, 0, code.length);
+                //no exception table or attributes
+                methodsOut.writeShort(0);
+                methodsOut.writeShort(0);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            numMethods++;
+        }
+
+        byte[] toByteArray() {
+            if (numConstantSlots > 0xFFFF) {
+                throw new IllegalStateException("too many constants for a class: " + numConstantSlots);
+            }
+            int thisClass = classRef(className);
+            int superClass = classRef("java/lang/Object");
+            int leafFinder = classRef(LEAF_FINDER);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            try {
+                out.writeInt(0xCAFEBABE);
+                out.writeShort(0);
+                out.writeShort(49);
+                out.writeShort(numConstantSlots);
+                constantPool.writeTo(out);
+                out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+                out.writeShort(thisClass);
+                out.writeShort(superClass);
+                out.writeShort(1);
+                out.writeShort(leafFinder);
+                //no fields
+                out.writeShort(0);
+                out.writeShort(numMethods);
+                methods.writeTo(out);
+                //no attributes
+                out.writeShort(0);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            return bytes.toByteArray();
+        }
+
+        int utf8(String value) {
+            Integer index = constantIndices.get("Utf8 " + value);
+            if (index != null) {
+                return index;
+            }
+            try {
+                constantPoolOut.writeByte(1);
+                constantPoolOut.writeUTF(value);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            return addConstant("Utf8 " + value, 1);
+        }
+
+        int classRef(String name) {
+            int nameIndex = utf8(name);
+            Integer index = constantIndices.get("Class " + name);
+            if (index != null) {
+                return index;
+            }
+            writeConstant(7, nameIndex);
+            return addConstant("Class " + name, 1);
+        }
+
+        int methodRef(String owner, String name, String descriptor) {
+            String key = "Methodref " + owner + "." + name + descriptor;
+            Integer index = constantIndices.get(key);
+            if (index != null) {
+                return index;
+            }
+            int classIndex = classRef(owner);
+            int nameIndex = utf8(name);
+            int descriptorIndex = utf8(descriptor);
+            writeConstant(12, nameIndex, descriptorIndex);
+            int nameAndTypeIndex = addConstant("NameAndType " + name + descriptor, 1);
+            writeConstant(10, classIndex, nameAndTypeIndex);
+            return addConstant(key, 1);
+        }
+
+        int intConstant(int value) {
+            Integer index = constantIndices.get("Integer " + value);
+            if (index != null) {
+                return index;
+            }
+            try {
+                constantPoolOut.writeByte(3);
+                constantPoolOut.writeInt(value);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            return addConstant("Integer " + value, 1);
+        }
+
+        //doubles take two slots of the constant pool
+        int doubleConstant(double value) {
+            String key = "Double " + Double.doubleToRawLongBits(value);
+            Integer index = constantIndices.get(key);
+            if (index != null) {
+                return index;
+            }
+            try {
+                constantPoolOut.writeByte(6);
+                constantPoolOut.writeLong(Double.doubleToRawLongBits(value));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            return addConstant(key, 2);
+        }
+
+        private void writeConstant(int tag, int... indices) {
+            try {
+                constantPoolOut.writeByte(tag);
+                for (int index : indices) {
+                    constantPoolOut.writeShort(index);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        private int addConstant(String key, int numSlots) {
+            int index = numConstantSlots;
+            constantIndices.put(key, index);
+            numConstantSlots += numSlots;
+            return index;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package quickml.supervised.tree.decisionTree.compiled;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A CompiledDecisionForest that scores straight from a memory mapped model file, written by write.  Nothing but the
+ * FeatureIndex and the classifications is read onto the heap, so opening a model takes milliseconds, the garbage
+ * collector never scans the trees, and the JVMs on a host that open the same file share one copy of it in the page
+ * cache.  Predictions are the same as the CompiledDecisionForest's, and so the RandomDecisionForest's.
+ *
+ * The file is little endian, and is
+ * <pre>
+ *   header: magic, version, metadata length, number of trees, branches, classifications, leaves and category set words (ints)
+ *   metadata: the FeatureIndex and the classifications, Java serialized
+ *   roots (ints), then per branch: feature, category set offset, true child, false child (ints),
+ *   threshold, probability of the true child (doubles), then the category sets (longs) and the leaf probabilities (doubles)
+ * </pre>
+ * with every section 8 byte aligned.  A model file must not be modified while it is open: write replaces it atomically.
+ * Model files are limited to 2GB.
+ *
+ * A serialized MappedDecisionForest holds the path of its file, which is mapped again when it is deserialized.
+ */
+public class MappedDecisionForest extends FlatDecisionForest {
+    private static final long serialVersionUID = 4126470329181740962L;
+    private static final int MAGIC = 0x514D4D46;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8 * 4;
+    private static final int BRANCH_SIZE = 4 * 4 + 2 * 8;
+    //offsets of the fields within a branch
+    private static final int FEATURE = 0;
+    private static final int CATEGORY_SET_OFFSET = 4;
+    private static final int TRUE_CHILD = 8;
+    private static final int FALSE_CHILD = 12;
+    private static final int THRESHOLD = 16;
+    private static final int PROBABILITY_OF_TRUE_CHILD = 24;
+
+    private final String path;
+    private transient FeatureIndex featureIndex;
+    private transient List<Serializable> classifications;
+    private transient Map<Serializable, Integer> classIndices;
+    private transient ByteBuffer buffer;
+    private transient int numTrees;
+    private transient int numClasses;
+    //byte offsets of the sections of buffer
+    private transient int rootsOffset;
+    private transient int branchesOffset;
+    private transient int categorySetsOffset;
+    private transient int leafProbabilitiesOffset;
+
+    private MappedDecisionForest(File file) throws IOException {
+        this.path = file.getPath();
+        map();
+    }
+
+    /**
+     * Maps a model file written by write.  Concurrent predictions from the returned forest are safe.
+     */
+    public static MappedDecisionForest open(File file) throws IOException {
+        return new MappedDecisionForest(file);
+    }
+
+    /**
+     * Writes compiledForest to file, through a temporary file in the same directory that is then moved over file, so
+     * forests that have the old file open keep scoring with it.
+     */
+    public static void write(CompiledDecisionForest compiledForest, File file) throws IOException {
+        ByteArrayOutputStream metadata = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(metadata)) {
+            out.writeObject(compiledForest.getFeatureIndex());
+            out.writeObject(Lists.newArrayList(compiledForest.getClassifications()));
+        }
+        int numTrees = compiledForest.roots.length;
+        int numBranches = compiledForest.features.length;
+        long rootsOffset = align(HEADER_SIZE + metadata.size());
+        long branchesOffset = align(rootsOffset + 4L * numTrees);
+        long categorySetsOffset = branchesOffset + (long) BRANCH_SIZE * numBranches;
+        long leafProbabilitiesOffset = categorySetsOffset + 8L * compiledForest.categorySets.length;
+        long size = leafProbabilitiesOffset + 8L * compiledForest.leafProbabilities.length;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("the forest needs " + size + " bytes, but model files are limited to 2GB");
+        }
+
+        File tempFile = File.createTempFile(file.getName(), ".tmp", file.getAbsoluteFile().getParentFile());
+        try {
+            try (RandomAccessFile randomAccessFile = new RandomAccessFile(tempFile, "rw")) {
+                randomAccessFile.setLength(size);
+                MappedByteBuffer buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                buffer.putInt(MAGIC).putInt(VERSION).putInt(metadata.size()).putInt(numTrees).putInt(numBranches)
+                        .putInt(compiledForest.getClassifications().size()).putInt(compiledForest.getNumLeaves())
+                        .putInt(compiledForest.categorySets.length);
+                buffer.put(metadata.toByteArray());
+                buffer.position((int) rootsOffset);
+                for (int root : compiledForest.roots) {
+                    buffer.putInt(root);
+                }
+                buffer.position((int) branchesOffset);
+                for (int branch = 0; branch < numBranches; branch++) {
+                    buffer.putInt(compiledForest.features[branch]);
+                    buffer.putInt(compiledForest.categorySetOffsets[branch]);
+                    buffer.putInt(compiledForest.trueChildren[branch]);
+                    buffer.putInt(compiledForest.falseChildren[branch]);
+                    buffer.putDouble(compiledForest.thresholds[branch]);
+                    buffer.putDouble(compiledForest.probabilitiesOfTrueChild[branch]);
+                }
+                for (long word : compiledForest.categorySets) {
+                    buffer.putLong(word);
+                }
+                for (double probability : compiledForest.leafProbabilities) {
+                    buffer.putDouble(probability);
+                }
+                buffer.force();
+            }
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+
+    private void map() throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(path, "r")) {
+            if (randomAccessFile.length() > Integer.MAX_VALUE) {
+                throw new IOException(path + " is larger than 2GB");
+            }
+            //the mapping outlives the channel
+            buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, randomAccessFile.length());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException(path + " isn't a mapped decision forest");
+        }
+        int version = buffer.getInt(4);
+        if (version > VERSION) {
+            throw new IOException("mapped decision forest version " + version + " is newer than the supported version " + VERSION);
+        }
+        int metadataLength = buffer.getInt(8);
+        numTrees = buffer.getInt(12);
+        int numBranches = buffer.getInt(16);
+        numClasses = buffer.getInt(20);
+        int numCategorySetWords = buffer.getInt(28);
+
+        byte[] metadata = new byte[metadataLength];
+        ByteBuffer metadataBuffer = buffer.duplicate();
+        metadataBuffer.position(HEADER_SIZE);
+        metadataBuffer.get(metadata);
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(metadata))) {
+            featureIndex = (FeatureIndex) in.readObject();
+            classifications = (List<Serializable>) in.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        }
+        classIndices = Maps.newHashMap();
+        for (int i = 0; i < classifications.size(); i++) {
+            classIndices.put(classifications.get(i), i);
+        }
+
+        rootsOffset = (int) align(HEADER_SIZE + metadataLength);
+        branchesOffset = (int) align(rootsOffset + 4L * numTrees);
+        categorySetsOffset = branchesOffset + BRANCH_SIZE * numBranches;
+        leafProbabilitiesOffset = categorySetsOffset + 8 * numCategorySetWords;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    @Override
+    public FeatureIndex getFeatureIndex() {
+        return featureIndex;
+    }
+
+    @Override
+    public List<Serializable> getClassifications() {
+        return Collections.unmodifiableList(classifications);
+    }
+
+    @Override
+    public int getClassIndex(Serializable classification) {
+        Integer classIndex = classIndices.get(classification);
+        return classIndex != null ? classIndex : -1;
+    }
+
+    @Override
+    public int getNumTrees() {
+        return numTrees;
+    }
+
+    @Override
+    public int[] getLeaves(double[] features) {
+        int[] leaves = new int[numTrees];
+        for (int tree = 0; tree < numTrees; tree++) {
+            leaves[tree] = getLeaf(getRoot(tree), features);
+        }
+        return leaves;
+    }
+
+    private int getLeaf(int node, double[] features) {
+        while (node >= 0) {
+            int branch = branchesOffset + BRANCH_SIZE * node;
+            node = buffer.getInt(branch + (decideAt(branch, features) ? TRUE_CHILD : FALSE_CHILD));
+        }
+        return ~node;
+    }
+
+    //branch is the byte offset of the branch
+    private boolean decideAt(int branch, double[] features) {
+        double value = features[buffer.getInt(branch + FEATURE)];
+        int categorySetOffset = buffer.getInt(branch + CATEGORY_SET_OFFSET);
+        if (categorySetOffset < 0) {
+            return value > buffer.getDouble(branch + THRESHOLD);
+        }
+        int category = (int) value;
+        return category >= 0 && (buffer.getLong(categorySetsOffset + 8 * (categorySetOffset + (category >>> 6))) & (1L << category)) != 0;
+    }
+
+    @Override
+    int getRoot(int tree) {
+        return buffer.getInt(rootsOffset + 4 * tree);
+    }
+
+    @Override
+    boolean decide(int branch, double[] features) {
+        return decideAt(branchesOffset + BRANCH_SIZE * branch, features);
+    }
+
+    @Override
+    int getFeature(int branch) {
+        return buffer.getInt(branchesOffset + BRANCH_SIZE * branch + FEATURE);
+    }
+
+    @Override
+    int getTrueChild(int branch) {
+        return buffer.getInt(branchesOffset + BRANCH_SIZE * branch + TRUE_CHILD);
+    }
+
+    @Override
+    int getFalseChild(int branch) {
+        return buffer.getInt(branchesOffset + BRANCH_SIZE * branch + FALSE_CHILD);
+    }
+
+    @Override
+    double getProbabilityOfTrueChild(int branch) {
+        return buffer.getDouble(branchesOffset + BRANCH_SIZE * branch + PROBABILITY_OF_TRUE_CHILD);
+    }
+
+    @Override
+    double getLeafProbability(int leaf, int classIndex) {
+        return buffer.getDouble(leafProbabilitiesOffset + 8 * (numClasses * leaf + classIndex));
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        map();
+    }
+}
@@ -1,8 +1,10 @@
 package quickml.supervised.tree.decisionTree.nodes;
 
 import com.google.common.collect.Sets;
+import quickml.data.ColumnarDataset;
 import quickml.supervised.tree.decisionTree.valueCounters.ClassificationCounter;
 import quickml.supervised.tree.nodes.Branch;
+import quickml.supervised.tree.nodes.ColumnarDecider;
 
 import java.io.Serializable;
 import java.util.Map;
@@ -27,6 +29,11 @@ public class DTCatBranch extends Branch<ClassificationCounter>  {
         return trueSet.contains(attributeVal);
     }
 
+    @Override
+    public ColumnarDecider getColumnarDecider(ColumnarDataset data) {
+        return getCategoricalDecider(data, attribute, trueSet);
+    }
+
     @Override
     public String toString() {
         return attribute + " in " + trueSet;
@@ -0,0 +1,186 @@
+package quickml.supervised.tree.decisionTree.nodes;
+
+import quickml.data.AttributesMap;
+import quickml.data.PredictionMap;
+import quickml.supervised.tree.decisionTree.valueCounters.ClassIndex;
+import quickml.supervised.tree.decisionTree.valueCounters.ClassificationCounter;
+import quickml.supervised.tree.nodes.Branch;
+import quickml.supervised.tree.nodes.Leaf;
+import quickml.supervised.tree.nodes.LeafDepthStats;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A leaf that only keeps what prediction needs: the probability of each classification, as a float or, quantized, as
+ * a 16 bit fraction of 1.  Slim leaves have no parent, depth or training counts, so leaves with the same probabilities
+ * are shared within a tree, and between the trees of a forest (see DecisionTreeSlimmer).
+ */
+public class SlimDTLeaf implements Leaf<ClassificationCounter>, Serializable {
+    private static final long serialVersionUID = 2739163005418297745L;
+    private static final double QUANTUM = 1.0 / Character.MAX_VALUE;
+
+    //shared by all the leaves of a slimmer, so it is serialized once
+    private final ClassIndex classIndex;
+    //indexed by classIndex; only one of them is set
+    private final float[] probabilities;
+    private final char[] quantizedProbabilities;
+
+    public SlimDTLeaf(ClassificationCounter classificationCounter, ClassIndex classIndex, boolean quantize) {
+        this.classIndex = classIndex;
+        double total = classificationCounter.getTotal();
+        float[] probabilities = new float[classIndex.size()];
+        char[] quantizedProbabilities = new char[classIndex.size()];
+        for (Serializable classification : classificationCounter.allClassifications()) {
+            int index = classIndex.getOrAddIndex(classification);
+            if (index >= probabilities.length) {
+                probabilities = Arrays.copyOf(probabilities, index + 1);
+                quantizedProbabilities = Arrays.copyOf(quantizedProbabilities, index + 1);
+            }
+            double probability = classificationCounter.getCount(classification) / total;
+            probabilities[index] = (float) probability;
+            quantizedProbabilities[index] = (char) Math.round(probability * Character.MAX_VALUE);
+        }
+        this.probabilities = quantize ? null : probabilities;
+        this.quantizedProbabilities = quantize ? quantizedProbabilities : null;
+    }
+
+    public SlimDTLeaf(ClassIndex classIndex, float[] probabilities) {
+        this.classIndex = classIndex;
+        this.probabilities = probabilities;
+        this.quantizedProbabilities = null;
+    }
+
+    /**
+     * @param quantizedProbabilities probabilities in units of 1/65535.
+     */
+    public SlimDTLeaf(ClassIndex classIndex, char[] quantizedProbabilities) {
+        this.classIndex = classIndex;
+        this.probabilities = null;
+        this.quantizedProbabilities = quantizedProbabilities;
+    }
+
+    public ClassIndex getClassIndex() {
+        return classIndex;
+    }
+
+    public boolean isQuantized() {
+        return quantizedProbabilities != null;
+    }
+
+    /**
+     * @return the probabilities indexed by getClassIndex(), or null if the leaf is quantized.  Must not be modified.
+     */
+    public float[] getProbabilities() {
+        return probabilities;
+    }
+
+    /**
+     * @return the probabilities in units of 1/65535, indexed by getClassIndex(), or null if the leaf isn't quantized.
+     * Must not be modified.
+     */
+    public char[] getQuantizedProbabilities() {
+        return quantizedProbabilities;
+    }
+
+    public double getProbability(Serializable classification) {
+        int index = classIndex.indexOf(classification);
+        return index >= 0 ? getProbability(index) : 0;
+    }
+
+    private double getProbability(int index) {
+        if (quantizedProbabilities != null) {
+            return index < quantizedProbabilities.length ? quantizedProbabilities[index] * QUANTUM : 0;
+        }
+        return index < probabilities.length ? probabilities[index] : 0;
+    }
+
+    private int getNumClassIndices() {
+        return quantizedProbabilities != null ? quantizedProbabilities.length : probabilities.length;
+    }
+
+    /**
+     * @return the probability of each classification with a non-zero probability.
+     */
+    public PredictionMap getPredictionMap() {
+        PredictionMap predictionMap = PredictionMap.newMap();
+        for (int index = 0; index < getNumClassIndices(); index++) {
+            double probability = getProbability(index);
+            if (probability > 0) {
+                predictionMap.put(classIndex.getClassification(index), probability);
+            }
+        }
+        return predictionMap;
+    }
+
+    /**
+     * @return a counter whose counts are the leaf's probabilities.  It is created on each call, for code that reads
+     * leaves through their value counters; predictions should use getProbability or getPredictionMap instead.
+     */
+    @Override
+    public ClassificationCounter getValueCounter() {
+        ClassificationCounter classificationCounter = new ClassificationCounter(classIndex);
+        for (int index = 0; index < getNumClassIndices(); index++) {
+            double probability = getProbability(index);
+            if (probability > 0) {
+                classificationCounter.addToIndex(index, probability);
+            }
+        }
+        return classificationCounter;
+    }
+
+    /**
+     * Slim leaves are shared between branches at different depths, so they don't have one.
+     * @return -1
+     */
+    @Override
+    public int getDepth() {
+        return -1;
+    }
+
+    @Override
+    public Branch<ClassificationCounter> getParent() {
+        return null;
+    }
+
+    @Override
+    public SlimDTLeaf getLeaf(AttributesMap attributes) {
+        return this;
+    }
+
+    @Override
+    public int getSize() {
+        return 1;
+    }
+
+    //slim leaves don't keep their depth or example count, so they add nothing; DecisionTree records its depth stats before it is slimmed
+    @Override
+    public void calcLeafDepthStats(LeafDepthStats stats) {
+    }
+
+    @Override
+    public String toString() {
+        return getPredictionMap().toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        SlimDTLeaf that = (SlimDTLeaf) o;
+
+        if (classIndex != that.classIndex) return false;
+        if (!Arrays.equals(probabilities, that.probabilities)) return false;
+        if (!Arrays.equals(quantizedProbabilities, that.quantizedProbabilities)) return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(probabilities);
+        result = 31 * result + Arrays.hashCode(quantizedProbabilities);
+        return result;
+    }
+}
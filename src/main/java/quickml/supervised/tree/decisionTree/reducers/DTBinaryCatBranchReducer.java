@@ -3,6 +3,7 @@ package quickml.supervised.tree.decisionTree.reducers;
 import com.google.common.base.Optional;
 import com.google.common.collect.Ordering;
 import quickml.data.instances.ClassifierInstance;
+import quickml.supervised.tree.decisionTree.valueCounters.ClassIndex;
 import quickml.supervised.tree.decisionTree.valueCounters.ClassificationCounter;
 import quickml.supervised.tree.reducers.AttributeStats;
 
@@ -18,7 +19,11 @@ public class DTBinaryCatBranchReducer<I extends ClassifierInstance> extends DTCa
     final Serializable minorityClassification;
 
     public DTBinaryCatBranchReducer(List<I> trainingData, Serializable minorityClassification) {
-        super(trainingData);
+        this(trainingData, minorityClassification, new ClassIndex());
+    }
+
+    public DTBinaryCatBranchReducer(List<I> trainingData, Serializable minorityClassification, ClassIndex classIndex) {
+        super(trainingData, classIndex);
         this.minorityClassification = minorityClassification;
     }
 
@@ -30,14 +35,21 @@ public class DTBinaryCatBranchReducer<I extends ClassifierInstance> extends DTCa
         }
         AttributeStats<ClassificationCounter> attributeStats = attributeStatsOptional.get();
         List<ClassificationCounter> attributesWithClassificationCounters = attributeStats.getStatsOnEachValue();
-        Collections.sort(attributesWithClassificationCounters, new Comparator<ClassificationCounter>() {
+        Collections.sort(attributesWithClassificationCounters, minorityClassificationOrdering(minorityClassification));
+        return Optional.of(attributeStats);
+    }
+
+    /**
+     * orders ClassificationCounters by decreasing probability of the minority classification.
+     */
+    public static Comparator<ClassificationCounter> minorityClassificationOrdering(final Serializable minorityClassification) {
+        return new Comparator<ClassificationCounter>() {
             @Override
             public int compare(ClassificationCounter cc1, ClassificationCounter cc2) {
                 double probOfMinority1 = cc1.getCount(minorityClassification) / cc1.getTotal();
                 double probOfMinority2 = cc2.getCount(minorityClassification) / cc2.getTotal();
                 return Ordering.natural().reverse().compare(probOfMinority1, probOfMinority2);
             }
-        });
-        return Optional.of(attributeStats);
+        };
     }
 }
@@ -5,6 +5,7 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import org.javatuples.Pair;
 import quickml.data.instances.ClassifierInstance;
+import quickml.supervised.tree.decisionTree.valueCounters.ClassIndex;
 import quickml.supervised.tree.decisionTree.valueCounters.ClassificationCounter;
 import quickml.supervised.tree.reducers.AttributeStats;
 
@@ -22,6 +23,10 @@ public class DTCatBranchReducer<I extends ClassifierInstance> extends DTreeReduc
         super(trainingData);
     }
 
+    public DTCatBranchReducer(List<I> trainingData, ClassIndex classIndex) {
+        super(trainingData, classIndex);
+    }
+
     @Override
     public Optional<AttributeStats<ClassificationCounter>> getAttributeStats(String attribute) {
         Pair<ClassificationCounter, Map<Serializable, ClassificationCounter>> aggregateAndAttributeValueClassificationCounters = getAggregateAndAttributeValueClassificationCounters(attribute);
@@ -37,7 +42,7 @@ public class DTCatBranchReducer<I extends ClassifierInstance> extends DTreeReduc
 
     protected Pair<ClassificationCounter, Map<Serializable, ClassificationCounter>> getAggregateAndAttributeValueClassificationCounters(String attribute) {
         final Map<Serializable, ClassificationCounter> result = Maps.newHashMap();
-        final ClassificationCounter totals = new ClassificationCounter();
+        final ClassificationCounter totals = new ClassificationCounter(classIndex);
         for (ClassifierInstance instance : getTrainingData()) {
             final Serializable attrVal = instance.getAttributes().get(attribute);
             ClassificationCounter cc;
@@ -51,7 +56,7 @@ public class DTCatBranchReducer<I extends ClassifierInstance> extends DTreeReduc
                 continue;
 
             if (cc == null) {
-                cc = new ClassificationCounter(attrVal != null ? attrVal : MISSING_VALUE);
+                cc = new ClassificationCounter(attrVal != null ? attrVal : MISSING_VALUE, classIndex);
                 Serializable newKey = (attrVal != null) ? attrVal : MISSING_VALUE;
                 result.put(newKey, cc);
             }
@@ -6,9 +6,10 @@ import com.twitter.common.stats.ReservoirSampler;
 import com.twitter.common.util.Random;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import quickml.collections.MapUtils;
+import quickml.concurrent.SplittableRandom;
 import quickml.data.AttributesMap;
 import quickml.data.instances.ClassifierInstance;
+import quickml.supervised.tree.decisionTree.valueCounters.ClassIndex;
 import quickml.supervised.tree.decisionTree.valueCounters.ClassificationCounter;
 import quickml.supervised.tree.reducers.AttributeStats;
 
@@ -16,6 +17,7 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Created by alexanderhawk on 4/23/15.
@@ -23,15 +25,25 @@ import java.util.List;
 public class DTNumBranchReducer<I extends ClassifierInstance> extends DTreeReducer<I> {
     private static final Logger logger = LoggerFactory.getLogger(DTNumBranchReducer.class);
     public static final double DOWN_FACTOR = 10E5;
-    private Random rand = Random.Util.fromSystemRandom(MapUtils.random);
    //TODO: once verify functionality is correct, remove these variables and get n classification counters which can then be further merged in the branchFinder
     final int numSamplesPerBin;
     final int numNumericBins;
+    //split per attribute, as attributes may be reduced in parallel
+    private final SplittableRandom random;
 
     public DTNumBranchReducer(List<I> trainingData, int numSamplesPerBin, int numNumericBins) {
-        super(trainingData);
+        this(trainingData, numSamplesPerBin, numNumericBins, new ClassIndex());
+    }
+
+    public DTNumBranchReducer(List<I> trainingData, int numSamplesPerBin, int numNumericBins, ClassIndex classIndex) {
+        this(trainingData, numSamplesPerBin, numNumericBins, classIndex, new SplittableRandom(ThreadLocalRandom.current().nextLong()));
+    }
+
+    public DTNumBranchReducer(List<I> trainingData, int numSamplesPerBin, int numNumericBins, ClassIndex classIndex, SplittableRandom random) {
+        super(trainingData, classIndex);
         this.numSamplesPerBin = numSamplesPerBin;
         this.numNumericBins = numNumericBins;
+        this.random = random;
     }
 
 
@@ -50,19 +62,23 @@ public class DTNumBranchReducer<I extends ClassifierInstance> extends DTreeReduc
         }
 
         double[] splitPoints = splitsOptional.get();
-        return getAttributeStatsOptional(attribute, splitPoints, getTrainingData());
+        return getAttributeStatsOptional(attribute, splitPoints, getTrainingData(), classIndex);
     }
 
     public static <I extends ClassifierInstance> Optional<AttributeStats<ClassificationCounter>> getAttributeStatsOptional(String attribute, double[] splitPoints, List<I> trainingData) {
+        return getAttributeStatsOptional(attribute, splitPoints, trainingData, new ClassIndex());
+    }
+
+    public static <I extends ClassifierInstance> Optional<AttributeStats<ClassificationCounter>> getAttributeStatsOptional(String attribute, double[] splitPoints, List<I> trainingData, ClassIndex classIndex) {
 
      //TODO: split points should not be doubles.  They should be Numbers, which can be longs for the case that numeric values are longs.
         List<ClassificationCounter> classificationCounters = Lists.newArrayListWithCapacity(splitPoints.length + 1);
-        ClassificationCounter aggregateStats = new ClassificationCounter();
+        ClassificationCounter aggregateStats = new ClassificationCounter(classIndex);
         double delta = getDelta(splitPoints);
         for (int i = 0; i < splitPoints.length; i++) {
-            classificationCounters.add(new ClassificationCounter(splitPoints[i]));
+            classificationCounters.add(new ClassificationCounter(splitPoints[i], classIndex));
         }
-        classificationCounters.add(new ClassificationCounter(splitPoints[splitPoints.length-1] + delta)); //cc holds all vals greater than greatest split point.
+        classificationCounters.add(new ClassificationCounter(splitPoints[splitPoints.length-1] + delta, classIndex)); //cc holds all vals greater than greatest split point.
         int uncaughtMissingValues = 0;
         for (I instance : trainingData) {
             AttributesMap attributes = instance.getAttributes();
@@ -188,13 +204,17 @@ public class DTNumBranchReducer<I extends ClassifierInstance> extends DTreeReduc
             return getDeterministicSplit(trainingData, attribute, numNumericBins); //makes code testable, because now can be made deterministic by making numSamplesPerNumericBin < trainingData.getSize.
         }
 
-        final ReservoirSampler<Double> reservoirSampler = fillReservoirSampler(trainingData, attribute, desiredSamples);
+        final ReservoirSampler<Double> reservoirSampler = fillReservoirSampler(trainingData, attribute, desiredSamples, random.split(attribute.hashCode()));
 
         return getSplit(reservoirSampler);
     }
 
     public static <I extends ClassifierInstance> ReservoirSampler<Double> fillReservoirSampler(List<I> trainingData, String attribute, int desiredSamples) {
-        Random rand = Random.Util.fromSystemRandom(MapUtils.random);
+        return fillReservoirSampler(trainingData, attribute, desiredSamples, ThreadLocalRandom.current());
+    }
+
+    public static <I extends ClassifierInstance> ReservoirSampler<Double> fillReservoirSampler(List<I> trainingData, String attribute, int desiredSamples, java.util.Random random) {
+        Random rand = Random.Util.fromSystemRandom(random);
 
         final ReservoirSampler<Double> reservoirSampler = new ReservoirSampler<Double>(desiredSamples + trainingData.size()%desiredSamples, rand);
 
@@ -5,6 +5,7 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import org.javatuples.Pair;
 import quickml.data.instances.ClassifierInstance;
+import quickml.supervised.tree.decisionTree.valueCounters.ClassIndex;
 import quickml.supervised.tree.decisionTree.valueCounters.ClassificationCounter;
 import quickml.supervised.tree.reducers.AttributeStats;
 
@@ -23,6 +24,10 @@ public class DTOldCatBranchReducer<I extends ClassifierInstance> extends DTreeRe
         super(trainingData);
     }
 
+    public DTOldCatBranchReducer(List<I> trainingData, ClassIndex classIndex) {
+        super(trainingData, classIndex);
+    }
+
     @Override
     public Optional<AttributeStats<ClassificationCounter>> getAttributeStats(String attribute) {
         Pair<ClassificationCounter, Map<Serializable, ClassificationCounter>> aggregateAndAttributeValueClassificationCounters = getAggregateAndAttributeValueClassificationCounters(attribute);
@@ -38,7 +43,7 @@ public class DTOldCatBranchReducer<I extends ClassifierInstance> extends DTreeRe
 
     protected Pair<ClassificationCounter, Map<Serializable, ClassificationCounter>> getAggregateAndAttributeValueClassificationCounters(String attribute) {
         final Map<Serializable, ClassificationCounter> result = Maps.newHashMap();
-        final ClassificationCounter totals = new ClassificationCounter();
+        final ClassificationCounter totals = new ClassificationCounter(classIndex);
         for (ClassifierInstance instance : getTrainingData()) {
             final Serializable attrVal = instance.getAttributes().get(attribute);
             ClassificationCounter cc;
@@ -52,7 +57,7 @@ public class DTOldCatBranchReducer<I extends ClassifierInstance> extends DTreeRe
                 continue;
 
             if (cc == null) {
-                cc = new ClassificationCounter(attrVal);
+                cc = new ClassificationCounter(attrVal, classIndex);
                 Serializable newKey = (attrVal != null) ? attrVal : MISSING_VALUE;
                 result.put(newKey, cc);
             }
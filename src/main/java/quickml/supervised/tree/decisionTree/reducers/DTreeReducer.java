@@ -1,6 +1,7 @@
 package quickml.supervised.tree.decisionTree.reducers;
 
 import quickml.data.instances.ClassifierInstance;
+import quickml.supervised.tree.decisionTree.valueCounters.ClassIndex;
 import quickml.supervised.tree.decisionTree.valueCounters.ClassificationCounter;
 import quickml.supervised.tree.reducers.Reducer;
 
@@ -10,7 +11,15 @@ import java.util.List;
  * Created by alexanderhawk on 6/21/15.
  */
 public abstract class DTreeReducer<I extends ClassifierInstance> extends Reducer<I, ClassificationCounter> {
+    //shared by every counter the reducer creates, so they can be combined element by element
+    protected final ClassIndex classIndex;
+
     public DTreeReducer(List<I> trainingData) {
+        this(trainingData, new ClassIndex());
+    }
+
+    public DTreeReducer(List<I> trainingData, ClassIndex classIndex) {
         super(trainingData);
+        this.classIndex = classIndex;
     }
 }
@@ -1,8 +1,14 @@
 package quickml.supervised.tree.decisionTree.reducers.reducerFactories;
 
+import quickml.concurrent.SplittableRandom;
+import quickml.data.ColumnarDataset;
 import quickml.data.instances.ClassifierInstance;
 import quickml.supervised.tree.decisionTree.reducers.DTBinaryCatBranchReducer;
 import quickml.supervised.tree.decisionTree.valueCounters.ClassificationCounter;
+import quickml.supervised.tree.decisionTree.valueCounters.ClassIndex;
+import quickml.supervised.tree.decisionTree.valueCounters.ClassificationCounterProducer;
+import quickml.supervised.tree.reducers.ColumnarCatBranchReducer;
+import quickml.supervised.tree.reducers.ColumnarReducer;
 import quickml.supervised.tree.reducers.Reducer;
 import quickml.supervised.tree.reducers.ReducerFactory;
 
@@ -15,14 +21,26 @@ import java.util.Map;
  */
 public class DTBinaryCatBranchReducerFactory<I extends ClassifierInstance> implements ReducerFactory<I, ClassificationCounter>{
     private final Serializable minorityClassification;
+    private final ClassIndex classIndex;
 
     public DTBinaryCatBranchReducerFactory(Serializable minorityClassification) {
+        this(minorityClassification, new ClassIndex());
+    }
+
+    public DTBinaryCatBranchReducerFactory(Serializable minorityClassification, ClassIndex classIndex) {
         this.minorityClassification = minorityClassification;
+        this.classIndex = classIndex;
+    }
+
+    @Override
+    public Reducer<I, ClassificationCounter> getReducer(List<I> trainingData, SplittableRandom random) {
+        return new DTBinaryCatBranchReducer<>(trainingData, minorityClassification, classIndex);
     }
 
     @Override
-    public Reducer<I, ClassificationCounter> getReducer(List<I> trainingData) {
-        return new DTBinaryCatBranchReducer<>(trainingData, minorityClassification);
+    public ColumnarReducer<ClassificationCounter> getReducer(ColumnarDataset data, int[] rows, int from, int to) {
+        return new ColumnarCatBranchReducer<>(data, rows, from, to, new ClassificationCounterProducer<I>(classIndex),
+                DTBinaryCatBranchReducer.minorityClassificationOrdering(minorityClassification));
     }
 
     @Override
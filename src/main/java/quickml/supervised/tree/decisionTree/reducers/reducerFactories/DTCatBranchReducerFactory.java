@@ -1,8 +1,14 @@
 package quickml.supervised.tree.decisionTree.reducers.reducerFactories;
 
+import quickml.concurrent.SplittableRandom;
+import quickml.data.ColumnarDataset;
 import quickml.data.instances.ClassifierInstance;
 import quickml.supervised.tree.decisionTree.reducers.DTCatBranchReducer;
 import quickml.supervised.tree.decisionTree.valueCounters.ClassificationCounter;
+import quickml.supervised.tree.decisionTree.valueCounters.ClassIndex;
+import quickml.supervised.tree.decisionTree.valueCounters.ClassificationCounterProducer;
+import quickml.supervised.tree.reducers.ColumnarCatBranchReducer;
+import quickml.supervised.tree.reducers.ColumnarReducer;
 import quickml.supervised.tree.reducers.Reducer;
 import quickml.supervised.tree.reducers.ReducerFactory;
 
@@ -14,10 +20,24 @@ import java.util.Map;
  * Created by alexanderhawk on 7/9/15.
  */
 public class DTCatBranchReducerFactory<I extends ClassifierInstance> implements ReducerFactory<I, ClassificationCounter>{
+    private final ClassIndex classIndex;
+
+    public DTCatBranchReducerFactory() {
+        this(new ClassIndex());
+    }
+
+    public DTCatBranchReducerFactory(ClassIndex classIndex) {
+        this.classIndex = classIndex;
+    }
+
+    @Override
+    public Reducer<I, ClassificationCounter> getReducer(List<I> trainingData, SplittableRandom random) {
+        return new DTCatBranchReducer<>(trainingData, classIndex);
+    }
 
     @Override
-    public Reducer<I, ClassificationCounter> getReducer(List<I> trainingData) {
-        return new DTCatBranchReducer<>(trainingData);
+    public ColumnarReducer<ClassificationCounter> getReducer(ColumnarDataset data, int[] rows, int from, int to) {
+        return new ColumnarCatBranchReducer<>(data, rows, from, to, new ClassificationCounterProducer<I>(classIndex));
     }
 
     @Override
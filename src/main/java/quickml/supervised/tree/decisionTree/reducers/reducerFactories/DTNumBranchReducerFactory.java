@@ -1,17 +1,30 @@
 package quickml.supervised.tree.decisionTree.reducers.reducerFactories;
 
+import com.google.common.base.Optional;
+import quickml.concurrent.SplittableRandom;
+import quickml.data.ColumnarDataset;
 import quickml.data.instances.ClassifierInstance;
 import quickml.supervised.tree.decisionTree.reducers.DTNumBranchReducer;
 import quickml.supervised.tree.decisionTree.valueCounters.ClassificationCounter;
+import quickml.supervised.tree.decisionTree.valueCounters.ClassIndex;
+import quickml.supervised.tree.decisionTree.valueCounters.ClassificationCounterProducer;
+import quickml.supervised.tree.reducers.ColumnarHistogramReducer;
+import quickml.supervised.tree.reducers.ColumnarNumBranchReducer;
+import quickml.supervised.tree.reducers.ColumnarExactNumBranchReducer;
+import quickml.supervised.tree.reducers.ColumnarReducer;
+import quickml.supervised.tree.reducers.PresortedRows;
 import quickml.supervised.tree.reducers.Reducer;
 import quickml.supervised.tree.reducers.ReducerFactory;
+import quickml.supervised.tree.reducers.SparseNumBranchReducer;
 
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
 
+import static quickml.supervised.tree.constants.ForestOptions.NUM_HISTOGRAM_BINS;
 import static quickml.supervised.tree.constants.ForestOptions.NUM_NUMERIC_BINS;
 import static quickml.supervised.tree.constants.ForestOptions.NUM_SAMPLES_PER_NUMERIC_BIN;
+import static quickml.supervised.tree.constants.ForestOptions.SPARSE_NUMERIC_ATTRIBUTES;
 
 /**
  * Created by alexanderhawk on 7/9/15.
@@ -19,11 +32,42 @@ import static quickml.supervised.tree.constants.ForestOptions.NUM_SAMPLES_PER_NU
 public class DTNumBranchReducerFactory<I extends ClassifierInstance> implements ReducerFactory<I, ClassificationCounter>{
    int numSamplesPerBin;
    int numNumericBins;
+   int numHistogramBins;
+   boolean sparseNumericAttributes;
+   private final ClassIndex classIndex;
+   private final Optional<PresortedRows> presortedRows;
 
+    public DTNumBranchReducerFactory() {
+        this(new ClassIndex());
+    }
+
+    public DTNumBranchReducerFactory(ClassIndex classIndex) {
+        this(classIndex, Optional.<PresortedRows>absent());
+    }
+
+    public DTNumBranchReducerFactory(ClassIndex classIndex, Optional<PresortedRows> presortedRows) {
+        this.classIndex = classIndex;
+        this.presortedRows = presortedRows;
+    }
+
+
+    @Override
+    public Reducer<I, ClassificationCounter> getReducer(List<I> trainingData, SplittableRandom random) {
+        if (sparseNumericAttributes) {
+            return new SparseNumBranchReducer<>(trainingData, new ClassificationCounterProducer<I>(classIndex), numSamplesPerBin, numNumericBins);
+        }
+        return new DTNumBranchReducer<>(trainingData, numSamplesPerBin, numNumericBins, classIndex, random);
+    }
 
     @Override
-    public Reducer<I, ClassificationCounter> getReducer(List<I> trainingData) {
-        return new DTNumBranchReducer<>(trainingData, numSamplesPerBin, numNumericBins);
+    public ColumnarReducer<ClassificationCounter> getReducer(ColumnarDataset data, int[] rows, int from, int to) {
+        if (presortedRows.isPresent()) {
+            return new ColumnarExactNumBranchReducer<>(data, rows, from, to, new ClassificationCounterProducer<I>(classIndex), presortedRows.get());
+        }
+        if (numHistogramBins > 0) {
+            return new ColumnarHistogramReducer<>(data, rows, from, to, new ClassificationCounterProducer<I>(classIndex), data.getBinnedNumericColumns(numHistogramBins));
+        }
+        return new ColumnarNumBranchReducer<>(data, rows, from, to, new ClassificationCounterProducer<I>(classIndex), numSamplesPerBin, numNumericBins);
     }
 
     @Override
@@ -34,5 +78,11 @@ public class DTNumBranchReducerFactory<I extends ClassifierInstance> implements
         if (cfg.containsKey(NUM_NUMERIC_BINS.name())) {
             numNumericBins = (int) cfg.get(NUM_NUMERIC_BINS.name());
         }
+        if (cfg.containsKey(NUM_HISTOGRAM_BINS.name())) {
+            numHistogramBins = (int) cfg.get(NUM_HISTOGRAM_BINS.name());
+        }
+        if (cfg.containsKey(SPARSE_NUMERIC_ATTRIBUTES.name())) {
+            sparseNumericAttributes = (boolean) cfg.get(SPARSE_NUMERIC_ATTRIBUTES.name());
+        }
     }
 }
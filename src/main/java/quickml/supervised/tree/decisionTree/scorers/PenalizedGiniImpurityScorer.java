@@ -4,8 +4,6 @@ import quickml.supervised.tree.decisionTree.valueCounters.ClassificationCounter;
 import quickml.supervised.tree.reducers.AttributeStats;
 import quickml.supervised.tree.scorers.GRImbalancedScorer;
 
-import java.io.Serializable;
-import java.util.Map;
 
 /**
  * Created by chrisreeves on 6/24/14.
@@ -18,9 +16,9 @@ public class PenalizedGiniImpurityScorer extends GRImbalancedScorer<Classificati
 
     @Override
     public double scoreSplit(ClassificationCounter a, ClassificationCounter b) {
-        ClassificationCounter parent = ClassificationCounter.merge(a, b);
-        double aGiniIndex = getGiniIndex(a) * a.getTotal() / parent.getTotal();
-        double bGiniIndex = getGiniIndex(b) * b.getTotal() / parent.getTotal();
+        double parentTotal = a.getTotal() + b.getTotal();
+        double aGiniIndex = getGiniIndex(a) * a.getTotal() / parentTotal;
+        double bGiniIndex = getGiniIndex(b) * b.getTotal() / parentTotal;
         double score = unSplitScore - aGiniIndex - bGiniIndex;
         return correctForGainRatio(score)*getPenaltyForImabalance(a, b);
     }
@@ -33,8 +31,9 @@ public class PenalizedGiniImpurityScorer extends GRImbalancedScorer<Classificati
 
     private double getGiniIndex(ClassificationCounter cc) {
         double sum = 0.0d;
-        for (Map.Entry<Serializable, Double> e : cc.getCounts().entrySet()) {
-            double error = (cc.getTotal() > 0) ? e.getValue() / cc.getTotal() : 0;
+        double total = cc.getTotal();
+        for (double count : cc.getCountsByClassIndex()) {
+            double error = (total > 0) ? count / total : 0;
             sum += error * error;
         }
         return 1.0d - sum;
@@ -4,8 +4,6 @@ import quickml.supervised.tree.decisionTree.valueCounters.ClassificationCounter;
 import quickml.supervised.tree.reducers.AttributeStats;
 import quickml.supervised.tree.scorers.GRImbalancedScorer;
 
-import java.io.Serializable;
-import java.util.Map;
 
 /**
  * Created by chrisreeves on 6/24/14.
@@ -32,11 +30,12 @@ public class PenalizedInformationGainScorer extends GRImbalancedScorer<Classific
     private double calculateEntropy(ClassificationCounter cc) {
         double entropy = 0;
 
-        for (Map.Entry<Serializable, Double> e : cc.getCounts().entrySet()) {
-            if (e.getValue().equals(0.0)) {
+        double total = cc.getTotal();
+        for (double count : cc.getCountsByClassIndex()) {
+            if (count == 0.0) {
                 continue;
             }
-            double error = (cc.getTotal() > 0) ? e.getValue() / cc.getTotal() : 0;
+            double error = (total > 0) ? count / total : 0;
             entropy += -error * (Math.log(error) / Math.log(2));
         }
 
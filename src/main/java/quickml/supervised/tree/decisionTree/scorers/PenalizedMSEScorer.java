@@ -6,8 +6,6 @@ import quickml.supervised.tree.decisionTree.valueCounters.ClassificationCounter;
 import quickml.supervised.tree.reducers.AttributeStats;
 import quickml.supervised.tree.scorers.GRImbalancedScorer;
 
-import java.io.Serializable;
-import java.util.Map;
 
 /**
  * A Scorer intended to estimate the impact on the Mean of the Squared Error (MSE)
@@ -34,10 +32,11 @@ public class PenalizedMSEScorer extends GRImbalancedScorer<ClassificationCounter
 
     private double getTotalError(ClassificationCounter cc) {
         double totalError = 0;
-        for (Map.Entry<Serializable, Double> e : cc.getCounts().entrySet()) {
-            double error = (cc.getTotal()>0) ? 1.0 - e.getValue()/cc.getTotal() : 0;
+        double total = cc.getTotal();
+        for (double count : cc.getCountsByClassIndex()) {
+            double error = (total>0) ? 1.0 - count/total : 0;
             double errorSquared = error*error;
-            totalError += errorSquared * e.getValue();
+            totalError += errorSquared * count;
         }
         return totalError;
     }
@@ -1,8 +1,11 @@
 package quickml.supervised.tree.decisionTree.treeBuildContexts;
 
+import com.google.common.base.Optional;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import quickml.data.ColumnarDataset;
+import quickml.supervised.tree.reducers.PresortedRows;
 import quickml.data.instances.ClassifierInstance;
 import quickml.supervised.tree.attributeIgnoringStrategies.AttributeIgnoringStrategy;
 import quickml.supervised.tree.attributeIgnoringStrategies.IgnoreAttributesWithConstantProbability;
@@ -13,7 +16,6 @@ import quickml.supervised.tree.branchFinders.branchFinderBuilders.BranchFinderBu
 import quickml.supervised.tree.branchingConditions.BranchingConditions;
 import quickml.supervised.tree.constants.AttributeType;
 import quickml.supervised.tree.constants.BranchType;
-import quickml.supervised.dataProcessing.BasicTrainingDataSurveyor;
 import quickml.supervised.tree.decisionTree.branchFinders.branchFinderBuilders.DTBinaryCatBranchFinderBuilder;
 import quickml.supervised.tree.decisionTree.branchFinders.branchFinderBuilders.DTCatBranchFinderBuilder;
 import quickml.supervised.tree.decisionTree.branchFinders.branchFinderBuilders.DTNumBranchFinderBuilder;
@@ -22,11 +24,13 @@ import quickml.supervised.tree.decisionTree.reducers.reducerFactories.DTBinaryCa
 import quickml.supervised.tree.decisionTree.reducers.reducerFactories.DTCatBranchReducerFactory;
 import quickml.supervised.tree.decisionTree.reducers.reducerFactories.DTNumBranchReducerFactory;
 import quickml.supervised.tree.decisionTree.scorers.PenalizedGiniImpurityScorerFactory;
+import quickml.supervised.tree.decisionTree.valueCounters.ClassIndex;
 import quickml.supervised.tree.decisionTree.valueCounters.ClassificationCounter;
 import quickml.supervised.tree.decisionTree.valueCounters.ClassificationCounterProducer;
 import quickml.supervised.tree.nodes.LeafBuilder;
 import quickml.supervised.tree.reducers.ReducerFactory;
 import quickml.supervised.tree.scorers.ScorerFactory;
+import quickml.supervised.tree.treeBuildContexts.PreparedTrainingData;
 import quickml.supervised.tree.treeBuildContexts.TreeContextBuilder;
 
 import java.io.Serializable;
@@ -47,17 +51,38 @@ public class DTreeContextBuilder<I extends ClassifierInstance> extends TreeConte
 
     @Override
     public DTreeContext<I> buildContext(List<I> trainingData) {
-        boolean considerBooleanAttributes = hasBranchFinderBuilder(BranchType.BOOLEAN);
-        BasicTrainingDataSurveyor<I> decTreeTrainingDataSurveyor = new BasicTrainingDataSurveyor<>(considerBooleanAttributes);
-        Map<AttributeType, Set<String>> candidateAttributesByType = decTreeTrainingDataSurveyor.groupAttributesByType(trainingData);
-        ClassificationCounter classificationCounts = getValueCounterProducer().getValueCounter(trainingData);
-        List<BranchFinderAndReducerFactory<I, ClassificationCounter>> branchFinderAndReducers = intializeBranchFindersAndReducers(classificationCounts, candidateAttributesByType);
-        return new DTreeContext<I>(classificationCounts.allClassifications(),
+        return buildContext(trainingData, prepare(trainingData));
+    }
+
+    @Override
+    public DTreeContext<I> buildContext(ColumnarDataset trainingData) {
+        return buildContext(trainingData, prepare(trainingData));
+    }
+
+    @Override
+    public DTreeContext<I> buildContext(List<I> trainingData, PreparedTrainingData<I, ClassificationCounter> preparedTrainingData) {
+        return buildContext(preparedTrainingData, Optional.<PresortedRows>absent());
+    }
+
+    @Override
+    public DTreeContext<I> buildContext(ColumnarDataset trainingData, PreparedTrainingData<I, ClassificationCounter> preparedTrainingData) {
+        return buildContext(preparedTrainingData, getPresortedRows(trainingData, preparedTrainingData.getCandidateAttributesByType().get(AttributeType.NUMERIC)));
+    }
+
+    //every counter of a build is created on the class index of valueCounterProducer, so that they can be combined element by element
+    private DTreeContext<I> buildContext(PreparedTrainingData<I, ClassificationCounter> preparedTrainingData, Optional<PresortedRows> presortedRows) {
+        ClassificationCounter classificationCounts = preparedTrainingData.getAggregateStats();
+        Map<AttributeType, Set<String>> candidateAttributesByType = preparedTrainingData.getCandidateAttributesByType();
+        List<BranchFinderAndReducerFactory<I, ClassificationCounter>> branchFinderAndReducers = intializeBranchFindersAndReducers(classificationCounts, candidateAttributesByType, presortedRows);
+        DTreeContext<I> context = new DTreeContext<I>(classificationCounts.allClassifications(),
                 (BranchingConditions<ClassificationCounter>) config.get(BRANCHING_CONDITIONS.name()),
                 (ScorerFactory<ClassificationCounter>) config.get(SCORER_FACTORY.name()),
                 branchFinderAndReducers,
                 (LeafBuilder<ClassificationCounter>) config.get(LEAF_BUILDER.name()),
-                getValueCounterProducer());
+                preparedTrainingData.getValueCounterProducer());
+        context.setPresortedRows(presortedRows);
+        context.setRandom(getRandom());
+        return context;
     }
 
     @Override
@@ -89,14 +114,15 @@ public class DTreeContextBuilder<I extends ClassifierInstance> extends TreeConte
         return getDefaultBranchFinderBuilders();
     }
 
-    private List<BranchFinderAndReducerFactory<I, ClassificationCounter>> intializeBranchFindersAndReducers(ClassificationCounter classificationCounts, Map<AttributeType, Set<String>> candidateAttributesByType) {
+    private List<BranchFinderAndReducerFactory<I, ClassificationCounter>> intializeBranchFindersAndReducers(ClassificationCounter classificationCounts, Map<AttributeType, Set<String>> candidateAttributesByType,
+                                                                                                  Optional<PresortedRows> presortedRows) {
         /**Branch finders should be paired with the correct reducers. With this method, we don't leave open the possibility for a user to make a mistake with the pairings.
          * */
         //
         List<BranchFinderAndReducerFactory<I, ClassificationCounter>> branchFindersAndReducers = Lists.newArrayList();
         int numClasses = classificationCounts.allClassifications().size();
         Serializable minorityClassification = ClassificationCounter.getLeastPopularClass(classificationCounts);
-        Map<BranchType, ReducerFactory<I, ClassificationCounter>> reducerMap = getDefaultReducerFactories(minorityClassification);
+        Map<BranchType, ReducerFactory<I, ClassificationCounter>> reducerMap = getDefaultReducerFactories(minorityClassification, classificationCounts.getClassIndex(), presortedRows);
         for (BranchFinderBuilder<ClassificationCounter> branchFinderBuilder : getBranchFinderBuilders()) {
             if (useBranchFinder(branchFinderBuilder, numClasses)) {
                 AttributeType attributeType = AttributeType.convertBranchTypeToAttributeType(branchFinderBuilder.getBranchType());
@@ -121,11 +147,20 @@ public class DTreeContextBuilder<I extends ClassifierInstance> extends TreeConte
     }
 
     public static <I extends ClassifierInstance> Map<BranchType, ReducerFactory<I, ClassificationCounter>> getDefaultReducerFactories(Serializable minorityClassification) {
+        return getDefaultReducerFactories(minorityClassification, new ClassIndex());
+    }
+
+    public static <I extends ClassifierInstance> Map<BranchType, ReducerFactory<I, ClassificationCounter>> getDefaultReducerFactories(Serializable minorityClassification, ClassIndex classIndex) {
+        return getDefaultReducerFactories(minorityClassification, classIndex, Optional.<PresortedRows>absent());
+    }
+
+    public static <I extends ClassifierInstance> Map<BranchType, ReducerFactory<I, ClassificationCounter>> getDefaultReducerFactories(Serializable minorityClassification, ClassIndex classIndex,
+                                                                                                                                     Optional<PresortedRows> presortedRows) {
         Map<BranchType, ReducerFactory<I, ClassificationCounter>> reducerFactories = Maps.newHashMap();
-        reducerFactories.put(BranchType.BINARY_CATEGORICAL, new DTBinaryCatBranchReducerFactory<I>(minorityClassification));
-        reducerFactories.put(BranchType.CATEGORICAL, new DTCatBranchReducerFactory<I>());
-        reducerFactories.put(BranchType.NUMERIC, new DTNumBranchReducerFactory<I>());
-        reducerFactories.put(BranchType.BOOLEAN, new DTCatBranchReducerFactory<I>());
+        reducerFactories.put(BranchType.BINARY_CATEGORICAL, new DTBinaryCatBranchReducerFactory<I>(minorityClassification, classIndex));
+        reducerFactories.put(BranchType.CATEGORICAL, new DTCatBranchReducerFactory<I>(classIndex));
+        reducerFactories.put(BranchType.NUMERIC, new DTNumBranchReducerFactory<I>(classIndex, presortedRows));
+        reducerFactories.put(BranchType.BOOLEAN, new DTCatBranchReducerFactory<I>(classIndex));
         return reducerFactories;
     }
 
@@ -244,6 +279,33 @@ public class DTreeContextBuilder<I extends ClassifierInstance> extends TreeConte
         if (config.containsKey(ATTRIBUTE_VALUE_IGNORING_STRATEGY_BUILDER.name())) {
             copiedConfig.put(ATTRIBUTE_VALUE_IGNORING_STRATEGY_BUILDER.name(), ((AttributeValueIgnoringStrategyBuilder<ClassificationCounter>) config.get(ATTRIBUTE_VALUE_IGNORING_STRATEGY.name())).copy());
         }
+        if (config.containsKey(NUM_HISTOGRAM_BINS.name())) {
+            copiedConfig.put(NUM_HISTOGRAM_BINS.name(), config.get(NUM_HISTOGRAM_BINS.name()));
+        }
+        if (config.containsKey(PARALLELISM.name())) {
+            copiedConfig.put(PARALLELISM.name(), config.get(PARALLELISM.name()));
+        }
+        if (config.containsKey(MIN_INSTANCES_FOR_PARALLEL_SUBTREES.name())) {
+            copiedConfig.put(MIN_INSTANCES_FOR_PARALLEL_SUBTREES.name(), config.get(MIN_INSTANCES_FOR_PARALLEL_SUBTREES.name()));
+        }
+        if (config.containsKey(SPARSE_NUMERIC_ATTRIBUTES.name())) {
+            copiedConfig.put(SPARSE_NUMERIC_ATTRIBUTES.name(), config.get(SPARSE_NUMERIC_ATTRIBUTES.name()));
+        }
+        if (config.containsKey(EXACT_NUMERIC_SPLITS.name())) {
+            copiedConfig.put(EXACT_NUMERIC_SPLITS.name(), config.get(EXACT_NUMERIC_SPLITS.name()));
+        }
+        if (config.containsKey(LEVEL_WISE_GROWTH.name())) {
+            copiedConfig.put(LEVEL_WISE_GROWTH.name(), config.get(LEVEL_WISE_GROWTH.name()));
+        }
+        if (config.containsKey(SEED.name())) {
+            copiedConfig.put(SEED.name(), config.get(SEED.name()));
+        }
+        if (config.containsKey(SLIM.name())) {
+            copiedConfig.put(SLIM.name(), config.get(SLIM.name()));
+        }
+        if (config.containsKey(QUANTIZE_LEAF_PROBABILITIES.name())) {
+            copiedConfig.put(QUANTIZE_LEAF_PROBABILITIES.name(), config.get(QUANTIZE_LEAF_PROBABILITIES.name()));
+        }
         return copiedConfig;
     }
 
@@ -290,6 +352,59 @@ public class DTreeContextBuilder<I extends ClassifierInstance> extends TreeConte
         config.put(NUM_NUMERIC_BINS.name(), numNumericBins);
     }
 
+    //doesn't have a default. When set, numeric attributes of a ColumnarDataset are pre-binned into at most this many (<= 255) bins.
+    public void numHistogramBins(int numHistogramBins) {
+        config.put(NUM_HISTOGRAM_BINS.name(), numHistogramBins);
+    }
+
+    //doesn't have a default. When set, numeric attributes of instance lists are reduced from a per node inverted index, with absent values treated as 0.
+    public void sparseNumericAttributes(boolean sparseNumericAttributes) {
+        config.put(SPARSE_NUMERIC_ATTRIBUTES.name(), sparseNumericAttributes);
+    }
+
+    //numeric attributes of a ColumnarDataset are argsorted once per tree, and every distinct value is tried as a threshold
+    public void exactNumericSplits(boolean exactNumericSplits) {
+        config.put(EXACT_NUMERIC_SPLITS.name(), exactNumericSplits);
+    }
+
+    //trees built from a ColumnarDataset grow a whole depth at a time, with one pass over the rows per depth.  Needs numHistogramBins
+    public void levelWiseGrowth(boolean levelWiseGrowth) {
+        config.put(LEVEL_WISE_GROWTH.name(), levelWiseGrowth);
+    }
+
+    //doesn't have a default. The seed of the tree's random numbers; a forest splits a seed per tree from it
+    public void seed(long seed) {
+        config.put(SEED.name(), seed);
+    }
+
+    //built trees drop their training statistics, and their leaves only keep probabilities (see DecisionTreeSlimmer)
+    public void slim(boolean slim) {
+        config.put(SLIM.name(), slim);
+    }
+
+    //slim trees store leaf probabilities in 16 bits rather than as floats
+    public void quantizeLeafProbabilities(boolean quantizeLeafProbabilities) {
+        config.put(QUANTIZE_LEAF_PROBABILITIES.name(), quantizeLeafProbabilities);
+    }
+
+    public boolean getSlim() {
+        return config.containsKey(SLIM.name()) && (Boolean) config.get(SLIM.name());
+    }
+
+    public boolean getQuantizeLeafProbabilities() {
+        return config.containsKey(QUANTIZE_LEAF_PROBABILITIES.name()) && (Boolean) config.get(QUANTIZE_LEAF_PROBABILITIES.name());
+    }
+
+    //number of threads a single tree is built with; 1 builds it sequentially
+    public void parallelism(int parallelism) {
+        config.put(PARALLELISM.name(), parallelism);
+    }
+
+    //when building in parallel, nodes with at least this many instances build their subtrees as parallel tasks
+    public void minInstancesForParallelSubtrees(int minInstancesForParallelSubtrees) {
+        config.put(MIN_INSTANCES_FOR_PARALLEL_SUBTREES.name(), minInstancesForParallelSubtrees);
+    }
+
     public void branchingConditions(DTBranchingConditions branchingConditions) {
         config.put(BRANCHING_CONDITIONS.name(), branchingConditions);
     }
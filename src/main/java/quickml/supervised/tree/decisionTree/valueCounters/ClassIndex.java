@@ -0,0 +1,52 @@
+package quickml.supervised.tree.decisionTree.valueCounters;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps classifications to dense indices, so that a ClassificationCounter can hold its counts in a double[].  A tree
+ * build creates one index and shares it between all of its counters, which lets them be added and subtracted element
+ * by element.  Classifications are only ever appended, so an index already handed out never changes.
+ */
+public class ClassIndex implements Serializable {
+    private static final long serialVersionUID = 3650192747820331186L;
+
+    private final Map<Serializable, Integer> indices = new ConcurrentHashMap<>();
+    private volatile Serializable[] classifications = new Serializable[0];
+
+    /**
+     * @return the index of the classification, or -1 if it has none.
+     */
+    public int indexOf(Serializable classification) {
+        Integer index = indices.get(classification);
+        return index == null ? -1 : index;
+    }
+
+    public int getOrAddIndex(Serializable classification) {
+        Integer index = indices.get(classification);
+        return index != null ? index : addIndex(classification);
+    }
+
+    private synchronized int addIndex(Serializable classification) {
+        Integer index = indices.get(classification);
+        if (index == null) {
+            index = classifications.length;
+            Serializable[] extended = Arrays.copyOf(classifications, index + 1);
+            extended[index] = classification;
+            //publish the classification before its index, so that anyone who sees the index can look it up
+            classifications = extended;
+            indices.put(classification, index);
+        }
+        return index;
+    }
+
+    public Serializable getClassification(int index) {
+        return classifications[index];
+    }
+
+    public int size() {
+        return classifications.length;
+    }
+}
@@ -1,19 +1,34 @@
 package quickml.supervised.tree.decisionTree.valueCounters;
 
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import org.javatuples.Pair;
-import quickml.collections.ValueSummingMap;
 import quickml.data.instances.ClassifierInstance;
 import quickml.supervised.tree.summaryStatistics.ValueCounter;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.*;
-import java.util.Map.Entry;
 
 
+/**
+ * Weighted counts of each classification.  Counts are held in a double[] indexed by a ClassIndex; counters sharing an
+ * index (as all the counters of a tree build do) are added and subtracted element by element, and the split scan uses
+ * addInPlace and subtractInPlace so that it doesn't allocate a counter per candidate split.
+ */
 public class ClassificationCounter extends ValueCounter<ClassificationCounter> implements Serializable {
     private static final long serialVersionUID = -6821237234748044623L;
-    private final ValueSummingMap<Serializable> counts = new ValueSummingMap<Serializable>();
+    private static final double[] NO_COUNTS = new double[0];
+    private static final boolean[] NONE_PRESENT = new boolean[0];
+
+    //not final, so that readObject can set it
+    private ClassIndex classIndex;
+    private double[] counts = NO_COUNTS;
+    //whether a classification has been counted, even with a weight of 0, so that allClassifications is unchanged by the dense storage
+    private boolean[] present = NONE_PRESENT;
+    private int numPresent = 0;
+    private double total = 0;
     //TODO: remove hasSuffientData stuff after debugging
     private boolean hasSufficientData = true;
     public void setHasSufficientData(boolean hasSufficientData) {
@@ -23,34 +38,61 @@ public class ClassificationCounter extends ValueCounter<ClassificationCounter> i
     public boolean hasSufficientData() {
         return hasSufficientData;
     }
-    public ClassificationCounter() {}
+    public ClassificationCounter() {
+        this(new ClassIndex());
+    }
 
     public ClassificationCounter(Serializable attrVal) {
+        this(attrVal, new ClassIndex());
+    }
+
+    public ClassificationCounter(ClassIndex classIndex) {
+        this.classIndex = classIndex;
+    }
+
+    public ClassificationCounter(Serializable attrVal, ClassIndex classIndex) {
         super(attrVal);
+        this.classIndex = classIndex;
     }
+
     public boolean isEmpty() {
-        return counts.isEmpty();
+        return numPresent == 0;
     }
 
     public ClassificationCounter(ClassificationCounter classificationCounter) {
         super(classificationCounter.attrVal);
-        this.counts.putAll(classificationCounter.counts);
+        this.classIndex = classificationCounter.classIndex;
+        this.counts = classificationCounter.counts.clone();
+        this.present = classificationCounter.present.clone();
+        this.numPresent = classificationCounter.numPresent;
+        this.total = classificationCounter.total;
     }
     public ClassificationCounter(HashMap<Serializable, ? extends Number> mapOfCounts) {
+        this();
         for (Serializable classification: mapOfCounts.keySet()) {
-            counts.addToValue(classification, mapOfCounts.get(classification).doubleValue());
+            addClassification(classification, mapOfCounts.get(classification).doubleValue());
         }
     }
 
     public static ClassificationCounter merge(ClassificationCounter a, ClassificationCounter b) {
-        ClassificationCounter newCC = new ClassificationCounter();
-        newCC.counts.putAll(a.counts);
-        for (Entry<Serializable, Number> e : b.counts.entrySet()) {
-            newCC.counts.addToValue(e.getKey(), e.getValue().doubleValue());
-        }
+        ClassificationCounter newCC = new ClassificationCounter(a.classIndex);
+        newCC.addInPlace(a);
+        newCC.addInPlace(b);
         return newCC;
     }
 
+    public ClassIndex getClassIndex() {
+        return classIndex;
+    }
+
+    /**
+     * @return the counts indexed by getClassIndex(), for scorers to read without boxing.  Classifications with an index
+     * at or beyond the array's length have a count of 0.  The array must not be modified.
+     */
+    public double[] getCountsByClassIndex() {
+        return counts;
+    }
+
     public static Serializable getLeastPopularClass(ClassificationCounter classificationCounter) {
         Serializable minClass = null;
         double minCounts = Double.MAX_VALUE;
@@ -82,15 +124,21 @@ public class ClassificationCounter extends ValueCounter<ClassificationCounter> i
 
     public Map<Serializable, Double> getCounts() {
         Map<Serializable, Double> ret = Maps.newHashMap();
-        for (Entry<Serializable, Number> serializableNumberEntry : counts.entrySet()) {
-            ret.put(serializableNumberEntry.getKey(), serializableNumberEntry.getValue().doubleValue());
+        for (int index = 0; index < present.length; index++) {
+            if (present[index]) {
+                ret.put(classIndex.getClassification(index), counts[index]);
+            }
         }
         return ret;
     }
 
 
     public static ClassificationCounter countAll(final Iterable<? extends ClassifierInstance> instances) {
-        final ClassificationCounter result = new ClassificationCounter();
+        return countAll(instances, new ClassIndex());
+    }
+
+    public static ClassificationCounter countAll(final Iterable<? extends ClassifierInstance> instances, ClassIndex classIndex) {
+        final ClassificationCounter result = new ClassificationCounter(classIndex);
         for (ClassifierInstance instance : instances) {
             result.addClassification(instance.getLabel(), instance.getWeight());
         }
@@ -98,53 +146,127 @@ public class ClassificationCounter extends ValueCounter<ClassificationCounter> i
     }
 
     public void addClassification(final Serializable classification, double weight) {
-        counts.addToValue(classification, weight);
+        addToIndex(classIndex.getOrAddIndex(classification), weight);
     }
 
-    public double getCount(final Serializable classification) {
-        Number count = counts.get(classification);
-        if (count == null) {
-            return 0;
-        } else {
-            return count.doubleValue();
+    /**
+     * Adds weight to the classification with the given index in getClassIndex().
+     */
+    public void addToIndex(int index, double weight) {
+        if (index >= counts.length) {
+            grow(index + 1);
+        }
+        counts[index] += weight;
+        total += weight;
+        if (!present[index]) {
+            present[index] = true;
+            numPresent++;
         }
     }
 
+    private void grow(int minLength) {
+        int length = Math.max(minLength, classIndex.size());
+        counts = Arrays.copyOf(counts, length);
+        present = Arrays.copyOf(present, length);
+    }
+
+    public double getCount(final Serializable classification) {
+        int index = classIndex.indexOf(classification);
+        return index >= 0 && index < counts.length ? counts[index] : 0;
+    }
+
     public Set<Serializable> allClassifications() {
-        return counts.keySet();
+        Set<Serializable> classifications = Sets.newHashSet();
+        for (int index = 0; index < present.length; index++) {
+            if (present[index]) {
+                classifications.add(classIndex.getClassification(index));
+            }
+        }
+        return classifications;
     }
 
     public ClassificationCounter add(final ClassificationCounter other) {
-        final ClassificationCounter result = new ClassificationCounter();
-        result.counts.putAll(counts);
-        for (final Entry<Serializable, Number> e : other.counts.entrySet()) {
-            result.counts.addToValue(e.getKey(), e.getValue().doubleValue());
-        }
-        return result;
+        return new ClassificationCounter(this).addInPlace(other);
     }
 
     public ClassificationCounter subtract(final ClassificationCounter other) {
-        final ClassificationCounter result = new ClassificationCounter();
-        result.counts.putAll(counts);
-        for (final Entry<Serializable, Number> e : other.counts.entrySet()) {
-            result.counts.addToValue(e.getKey(), -other.getCount(e.getKey()));
+        return new ClassificationCounter(this).subtractInPlace(other);
+    }
+
+    @Override
+    public ClassificationCounter addInPlace(final ClassificationCounter other) {
+        return addInPlace(other, 1.0);
+    }
+
+    @Override
+    public ClassificationCounter subtractInPlace(final ClassificationCounter other) {
+        return addInPlace(other, -1.0);
+    }
+
+    private ClassificationCounter addInPlace(final ClassificationCounter other, double sign) {
+        if (other.classIndex != classIndex) {
+            //counters from different tree builds: match classifications by value
+            for (int otherIndex = 0; otherIndex < other.present.length; otherIndex++) {
+                if (other.present[otherIndex]) {
+                    addClassification(other.classIndex.getClassification(otherIndex), sign * other.counts[otherIndex]);
+                }
+            }
+            return this;
         }
-        return result;
+        if (other.counts.length > counts.length) {
+            grow(other.counts.length);
+        }
+        for (int index = 0; index < other.counts.length; index++) {
+            if (other.present[index]) {
+                counts[index] += sign * other.counts[index];
+                if (!present[index]) {
+                    present[index] = true;
+                    numPresent++;
+                }
+            }
+        }
+        total += sign * other.total;
+        return this;
     }
 
     @Override
     public double getTotal() {
-        return counts.getSumOfValues();
+        return total;
     }
 
     public Pair<Serializable, Double> mostPopular() {
-        Entry<Serializable, Number> best = null;
-        for (final Entry<Serializable, Number> e : counts.entrySet()) {
-            if (best == null || e.getValue().doubleValue() > best.getValue().doubleValue()) {
+        //ties go to the first classification in hash order, as they do for the classifications of a tree
+        Map.Entry<Serializable, Double> best = null;
+        for (final Map.Entry<Serializable, Double> e : getCounts().entrySet()) {
+            if (best == null || e.getValue() > best.getValue()) {
                 best = e;
             }
         }
-        return Pair.with(best.getKey(), best.getValue().doubleValue());
+        return Pair.with(best.getKey(), best.getValue());
+    }
+
+    /**
+     * Counters serialized before they were indexed by a ClassIndex hold their counts field as a ValueSummingMap of
+     * classification to count, rather than as an array.  They are read into a ClassIndex of their own.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        hasSufficientData = fields.get("hasSufficientData", true);
+        if (fields.defaulted("classIndex")) {
+            classIndex = new ClassIndex();
+            counts = NO_COUNTS;
+            present = NONE_PRESENT;
+            Map<Serializable, Number> legacyCounts = (Map<Serializable, Number>) fields.get("counts", null);
+            for (Map.Entry<Serializable, Number> entry : legacyCounts.entrySet()) {
+                addClassification(entry.getKey(), entry.getValue().doubleValue());
+            }
+        } else {
+            classIndex = (ClassIndex) fields.get("classIndex", null);
+            counts = (double[]) fields.get("counts", null);
+            present = (boolean[]) fields.get("present", null);
+            numPresent = fields.get("numPresent", 0);
+            total = fields.get("total", 0.0);
+        }
     }
 
     @Override
@@ -154,14 +276,14 @@ public class ClassificationCounter extends ValueCounter<ClassificationCounter> i
 
         ClassificationCounter that = (ClassificationCounter) o;
 
-        if (!counts.equals(that.counts)) return false;
+        if (!getCounts().equals(that.getCounts())) return false;
 
         return true;
     }
 
     @Override
     public int hashCode() {
-        return counts.hashCode();
+        return getCounts().hashCode();
     }
 
     @Override
@@ -1,16 +1,85 @@
 package quickml.supervised.tree.decisionTree.valueCounters;
 
+import quickml.data.ColumnarDataset;
 import quickml.data.instances.ClassifierInstance;
 import quickml.supervised.tree.summaryStatistics.ValueCounterProducer;
 
+import java.io.Serializable;
 import java.util.List;
 
 /**
  * Created by alexanderhawk on 4/22/15.
  */
 public class ClassificationCounterProducer<I extends ClassifierInstance> implements ValueCounterProducer<I, ClassificationCounter> {
+    private final ClassIndex classIndex;
+    //class index of each label code of the last ColumnarDataset counted, so that rows are counted without hashing their labels
+    private volatile LabelCodeIndices labelCodeIndices;
+
+    public ClassificationCounterProducer() {
+        this(new ClassIndex());
+    }
+
+    public ClassificationCounterProducer(ClassIndex classIndex) {
+        this.classIndex = classIndex;
+    }
+
+    public ClassIndex getClassIndex() {
+        return classIndex;
+    }
+
     @Override
     public ClassificationCounter getValueCounter(List<I> instances) {
-        return ClassificationCounter.countAll(instances);
+        return ClassificationCounter.countAll(instances, classIndex);
+    }
+
+    @Override
+    public ClassificationCounter getValueCounter(ColumnarDataset data, int[] rows, int from, int to) {
+        ClassificationCounter result = new ClassificationCounter(classIndex);
+        for (int i = from; i < to; i++) {
+            int row = rows[i];
+            addRow(result, data, row);
+        }
+        return result;
+    }
+
+    @Override
+    public ClassificationCounter newValueCounter(Serializable attrVal) {
+        return new ClassificationCounter(attrVal, classIndex);
+    }
+
+    @Override
+    public void addRow(ClassificationCounter valueCounter, ColumnarDataset data, int row) {
+        if (valueCounter.getClassIndex() != classIndex) {
+            valueCounter.addClassification(data.getLabel(row), data.getWeight(row));
+            return;
+        }
+        valueCounter.addToIndex(getLabelCodeIndices(data).indices[data.getLabelCodes()[row]], data.getWeight(row));
+    }
+
+    @Override
+    public void addInstance(ClassificationCounter valueCounter, I instance) {
+        valueCounter.addClassification(instance.getLabel(), instance.getWeight());
+    }
+
+    private LabelCodeIndices getLabelCodeIndices(ColumnarDataset data) {
+        LabelCodeIndices current = labelCodeIndices;
+        if (current == null || current.labelDictionary != data.getLabelDictionary()) {
+            current = new LabelCodeIndices(data.getLabelDictionary(), classIndex);
+            labelCodeIndices = current;
+        }
+        return current;
+    }
+
+    private static class LabelCodeIndices {
+        final List<Serializable> labelDictionary;
+        final int[] indices;
+
+        LabelCodeIndices(List<Serializable> labelDictionary, ClassIndex classIndex) {
+            this.labelDictionary = labelDictionary;
+            this.indices = new int[labelDictionary.size()];
+            for (int code = 0; code < indices.length; code++) {
+                indices[code] = classIndex.getOrAddIndex(labelDictionary.get(code));
+            }
+        }
     }
 }
@@ -2,12 +2,15 @@ package quickml.supervised.tree.nodes;
 
 import com.google.common.base.Predicate;
 import quickml.data.AttributesMap;
+import quickml.data.ColumnarDataset;
 import quickml.data.instances.Instance;
 import quickml.supervised.tree.summaryStatistics.ValueCounter;
 
 
 import java.io.Serializable;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 //signature ensures that Branch<VC, N> extends N (as it extends Node<VC, N>, which has exactly one valid extension: N).
 public abstract class Branch<VC extends ValueCounter<VC>> implements Node<VC>, Serializable {
@@ -65,12 +68,42 @@ public abstract class Branch<VC extends ValueCounter<VC>> implements Node<VC>, S
         return parent;
     }
 
+    /**
+     * Drops the branch's training counts and its link to its parent, which prediction doesn't need.
+     */
+    public void dropTrainingStatistics() {
+        valueCounter = null;
+        parent = null;
+    }
+
     public boolean isEmpty() {
         return attribute.isEmpty();
     }
 
 	public abstract boolean decide(Map<String, Serializable> attributes);
 
+    /**
+     * @return a decider that makes the same decision as decide(attributes), but for rows of data.  Columns are looked up once, when the decider is created.
+     */
+    public abstract ColumnarDecider getColumnarDecider(ColumnarDataset data);
+
+    protected static ColumnarDecider getCategoricalDecider(ColumnarDataset data, String attribute, Set<Serializable> trueSet) {
+        final int[] codes = data.getCategoricalColumn(attribute);
+        List<Serializable> dictionary = data.getDictionary(attribute);
+        final boolean[] codeInTrueSet = new boolean[dictionary.size()];
+        for (int code = 0; code < codeInTrueSet.length; code++) {
+            codeInTrueSet[code] = trueSet.contains(dictionary.get(code));
+        }
+        final boolean missingValueInTrueSet = trueSet.contains(null);
+        return new ColumnarDecider() {
+            @Override
+            public boolean decide(int row) {
+                int code = codes[row];
+                return code == ColumnarDataset.MISSING_CODE ? missingValueInTrueSet : codeInTrueSet[code];
+            }
+        };
+    }
+
     @Override
     public Leaf<VC> getLeaf(final AttributesMap attributes) {
         if (decide(attributes))
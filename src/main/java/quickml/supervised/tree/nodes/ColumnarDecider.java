@@ -0,0 +1,8 @@
+package quickml.supervised.tree.nodes;
+
+/**
+ * Applies a Branch's decision to rows of the ColumnarDataset it was created for.
+ */
+public interface ColumnarDecider {
+    boolean decide(int row);
+}
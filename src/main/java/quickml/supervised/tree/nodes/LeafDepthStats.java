@@ -2,12 +2,14 @@ package quickml.supervised.tree.nodes;
 
 import com.google.common.collect.Maps;
 
+import java.io.Serializable;
 import java.util.TreeMap;
 
 /**
  * Created by alexanderhawk on 4/28/15.
  */
-public class LeafDepthStats {
+public class LeafDepthStats implements Serializable {
+    private static final long serialVersionUID = 3120937460917364032L;
     public int ttlDepth = 0;
     public int ttlSamples = 0;
     public TreeMap<Integer, Long> depthDistribution = Maps.newTreeMap();
@@ -3,6 +3,7 @@ package quickml.supervised.tree.nodes;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import quickml.data.ColumnarDataset;
 import quickml.supervised.tree.summaryStatistics.ValueCounter;
 
 import java.io.Serializable;
@@ -30,6 +31,19 @@ public abstract class NumBranch<VC extends ValueCounter<VC>> extends Branch<VC>
 		return valueAsDouble > threshold;
 	}
 
+    @Override
+    public ColumnarDecider getColumnarDecider(ColumnarDataset data) {
+        final double[] column = data.getNumericColumn(attribute);
+        return new ColumnarDecider() {
+            @Override
+            public boolean decide(int row) {
+                double value = column[row];
+                //as in decide(attributes), missing values are treated as 0
+                return (Double.isNaN(value) ? 0 : value) > threshold;
+            }
+        };
+    }
+
 	@Override
 	public String toString() {
 		return attribute + " > " + threshold;
@@ -0,0 +1,51 @@
+package quickml.supervised.tree.reducers;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Maps;
+import quickml.supervised.tree.summaryStatistics.ValueCounter;
+
+import java.util.Map;
+
+/**
+ * Remembers the AttributeStats a node's branch finder asked for, so that they can be reused when deriving the stats of the node's children.
+ */
+public class CachingAttributeStatisticsProducer<VC extends ValueCounter<VC>> implements AttributeStatisticsProducer<VC> {
+    private final AttributeStatisticsProducer<VC> attributeStatisticsProducer;
+    //concurrent, since the attributes of a node may be evaluated in parallel
+    private final Map<String, Optional<AttributeStats<VC>>> computedAttributeStats = Maps.newConcurrentMap();
+
+    public CachingAttributeStatisticsProducer(AttributeStatisticsProducer<VC> attributeStatisticsProducer) {
+        this.attributeStatisticsProducer = attributeStatisticsProducer;
+    }
+
+    @Override
+    public Optional<AttributeStats<VC>> getAttributeStats(String attribute) {
+        Optional<AttributeStats<VC>> attributeStats = computedAttributeStats.get(attribute);
+        if (attributeStats == null) {
+            attributeStats = attributeStatisticsProducer.getAttributeStats(attribute);
+            computedAttributeStats.put(attribute, attributeStats);
+        }
+        return attributeStats;
+    }
+
+    /**
+     * @return the stats computed so far, keyed by attribute.
+     */
+    public Map<String, Optional<AttributeStats<VC>>> getComputedAttributeStats() {
+        return computedAttributeStats;
+    }
+
+    /**
+     * @return a producer that serves the stats computed so far, and no stats for any other attribute.  Unlike this producer,
+     * it never reads the rows, so it can be used while another thread is partitioning them.
+     */
+    public AttributeStatisticsProducer<VC> computedStatsOnly() {
+        return new AttributeStatisticsProducer<VC>() {
+            @Override
+            public Optional<AttributeStats<VC>> getAttributeStats(String attribute) {
+                Optional<AttributeStats<VC>> attributeStats = computedAttributeStats.get(attribute);
+                return attributeStats != null ? attributeStats : Optional.<AttributeStats<VC>>absent();
+            }
+        };
+    }
+}
@@ -0,0 +1,66 @@
+package quickml.supervised.tree.reducers;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import quickml.data.ColumnarDataset;
+import quickml.supervised.tree.summaryStatistics.ValueCounter;
+import quickml.supervised.tree.summaryStatistics.ValueCounterProducer;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A ColumnarReducer whose bins depend only on the attribute, not on the rows being reduced.  Such stats can be derived
+ * by subtracting a sibling from its parent, and can be accumulated row by row for many nodes at once.
+ */
+public abstract class ColumnarBinnedReducer<VC extends ValueCounter<VC>> extends ColumnarReducer<VC> {
+
+    public ColumnarBinnedReducer(ColumnarDataset data, int[] rows, int from, int to, ValueCounterProducer<?, VC> valueCounterProducer) {
+        super(data, rows, from, to, valueCounterProducer);
+    }
+
+    /**
+     * @return the bins of attribute, or absent if it can't be split on.
+     */
+    public abstract Optional<AttributeBins> getBins(String attribute);
+
+    public interface AttributeBins {
+        int getNumBins();
+
+        int getBin(int row);
+
+        //the attrVal of the value counter of a bin
+        Serializable getAttrVal(int bin);
+    }
+
+    @Override
+    public Optional<AttributeStats<VC>> getAttributeStats(String attribute) {
+        Optional<AttributeBins> binsOptional = getBins(attribute);
+        if (!binsOptional.isPresent()) {
+            return Optional.absent();
+        }
+        AttributeBins bins = binsOptional.get();
+        List<VC> valueCounters = Lists.newArrayListWithCapacity(bins.getNumBins());
+        for (int bin = 0; bin < bins.getNumBins(); bin++) {
+            valueCounters.add(null);
+        }
+        VC aggregateStats = valueCounterProducer.newValueCounter(null);
+        for (int i = from; i < to; i++) {
+            int row = rows[i];
+            int bin = bins.getBin(row);
+            VC valueCounter = valueCounters.get(bin);
+            if (valueCounter == null) {
+                valueCounter = valueCounterProducer.newValueCounter(bins.getAttrVal(bin));
+                valueCounters.set(bin, valueCounter);
+            }
+            valueCounterProducer.addRow(valueCounter, data, row);
+            valueCounterProducer.addRow(aggregateStats, data, row);
+        }
+        return createAttributeStats(attribute, valueCounters, aggregateStats);
+    }
+
+    @Override
+    public boolean supportsSubtraction() {
+        return true;
+    }
+}
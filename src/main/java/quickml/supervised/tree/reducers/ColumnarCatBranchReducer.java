@@ -0,0 +1,58 @@
+package quickml.supervised.tree.reducers;
+
+import com.google.common.base.Optional;
+import quickml.data.ColumnarDataset;
+import quickml.supervised.tree.summaryStatistics.ValueCounter;
+import quickml.supervised.tree.summaryStatistics.ValueCounterProducer;
+
+import java.io.Serializable;
+import java.util.Comparator;
+import java.util.List;
+
+import static quickml.supervised.tree.constants.MissingValue.MISSING_VALUE;
+
+/**
+ * Reduces a dictionary encoded column to one ValueCounter per attribute value (missing values are counted under MISSING_VALUE).
+ * Counters are optionally sorted, e.g. by the probability of the minority class, for branch finders that need ordered values.
+ */
+public class ColumnarCatBranchReducer<VC extends ValueCounter<VC>> extends ColumnarBinnedReducer<VC> {
+    private final Comparator<VC> valueOrdering;
+
+    public ColumnarCatBranchReducer(ColumnarDataset data, int[] rows, int from, int to, ValueCounterProducer<?, VC> valueCounterProducer) {
+        this(data, rows, from, to, valueCounterProducer, null);
+    }
+
+    public ColumnarCatBranchReducer(ColumnarDataset data, int[] rows, int from, int to, ValueCounterProducer<?, VC> valueCounterProducer, Comparator<VC> valueOrdering) {
+        super(data, rows, from, to, valueCounterProducer);
+        this.valueOrdering = valueOrdering;
+    }
+
+    //missing values get the bin after the last dictionary code
+    @Override
+    public Optional<AttributeBins> getBins(String attribute) {
+        final int[] codes = data.getCategoricalColumn(attribute);
+        final List<Serializable> dictionary = data.getDictionary(attribute);
+        final int missingIndex = dictionary.size();
+        return Optional.<AttributeBins>of(new AttributeBins() {
+            @Override
+            public int getNumBins() {
+                return missingIndex + 1;
+            }
+
+            @Override
+            public int getBin(int row) {
+                return codes[row] == ColumnarDataset.MISSING_CODE ? missingIndex : codes[row];
+            }
+
+            @Override
+            public Serializable getAttrVal(int bin) {
+                return bin == missingIndex ? MISSING_VALUE : dictionary.get(bin);
+            }
+        });
+    }
+
+    @Override
+    protected Comparator<VC> getValueOrdering() {
+        return valueOrdering;
+    }
+}
@@ -0,0 +1,47 @@
+package quickml.supervised.tree.reducers;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import quickml.data.ColumnarDataset;
+import quickml.supervised.tree.summaryStatistics.ValueCounter;
+import quickml.supervised.tree.summaryStatistics.ValueCounterProducer;
+
+import java.util.List;
+
+/**
+ * Numeric reducer that keeps one value counter per distinct value of a node, so the branch finder's prefix scan tries
+ * every threshold.  The node's rows are read in value order from PresortedRows, which makes a single linear pass enough.
+ */
+public class ColumnarExactNumBranchReducer<VC extends ValueCounter<VC>> extends ColumnarReducer<VC> {
+    private final PresortedRows presortedRows;
+
+    public ColumnarExactNumBranchReducer(ColumnarDataset data, int[] rows, int from, int to, ValueCounterProducer<?, VC> valueCounterProducer, PresortedRows presortedRows) {
+        super(data, rows, from, to, valueCounterProducer);
+        this.presortedRows = presortedRows;
+    }
+
+    @Override
+    public Optional<AttributeStats<VC>> getAttributeStats(String attribute) {
+        if (!presortedRows.hasAttribute(attribute)) {
+            return Optional.absent();
+        }
+        int[] sortedRows = presortedRows.getSortedRows(attribute);
+        double[] column = data.getNumericColumn(attribute);
+        List<VC> valueCounters = Lists.newArrayList();
+        VC aggregateStats = valueCounterProducer.newValueCounter(null);
+        VC valueCounter = null;
+        double previousValue = Double.NaN;
+        for (int i = from; i < to; i++) {
+            int row = sortedRows[i];
+            double value = PresortedRows.getSortKey(column[row]);
+            if (valueCounter == null || value != previousValue) {
+                valueCounter = valueCounterProducer.newValueCounter(value);
+                valueCounters.add(valueCounter);
+                previousValue = value;
+            }
+            valueCounterProducer.addRow(valueCounter, data, row);
+            valueCounterProducer.addRow(aggregateStats, data, row);
+        }
+        return createAttributeStats(attribute, valueCounters, aggregateStats);
+    }
+}
@@ -0,0 +1,49 @@
+package quickml.supervised.tree.reducers;
+
+import com.google.common.base.Optional;
+import quickml.data.BinnedNumericColumns;
+import quickml.data.ColumnarDataset;
+import quickml.supervised.tree.summaryStatistics.ValueCounter;
+import quickml.supervised.tree.summaryStatistics.ValueCounterProducer;
+
+import java.io.Serializable;
+
+/**
+ * Reduces a pre-binned numeric column to a histogram of ValueCounters in a single pass over the rows of a node, with
+ * no sampling or sorting.  The attrVal of each bin's ValueCounter is the bin's upper threshold, which is what
+ * NumericBranchFinder uses as the threshold of the branch.
+ */
+public class ColumnarHistogramReducer<VC extends ValueCounter<VC>> extends ColumnarBinnedReducer<VC> {
+    private final BinnedNumericColumns binnedColumns;
+
+    public ColumnarHistogramReducer(ColumnarDataset data, int[] rows, int from, int to, ValueCounterProducer<?, VC> valueCounterProducer, BinnedNumericColumns binnedColumns) {
+        super(data, rows, from, to, valueCounterProducer);
+        this.binnedColumns = binnedColumns;
+    }
+
+    //empty bins can't change a split's score, so only occupied bins are scanned by the branch finder
+    @Override
+    public Optional<AttributeBins> getBins(String attribute) {
+        final byte[] binCodes = binnedColumns.getBinCodes(attribute);
+        final double[] thresholds = binnedColumns.getThresholds(attribute);
+        if (thresholds.length == 0) {
+            return Optional.absent();
+        }
+        return Optional.<AttributeBins>of(new AttributeBins() {
+            @Override
+            public int getNumBins() {
+                return thresholds.length + 1;
+            }
+
+            @Override
+            public int getBin(int row) {
+                return binCodes[row] & 0xFF;
+            }
+
+            @Override
+            public Serializable getAttrVal(int bin) {
+                return bin < thresholds.length ? thresholds[bin] : Double.POSITIVE_INFINITY;
+            }
+        });
+    }
+}
@@ -0,0 +1,132 @@
+package quickml.supervised.tree.reducers;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import quickml.data.ColumnarDataset;
+import quickml.supervised.tree.summaryStatistics.ValueCounter;
+import quickml.supervised.tree.summaryStatistics.ValueCounterProducer;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Columnar version of the DTNumBranchReducer/RTNumBranchReducer.  Bin divider points are chosen exactly as the instance
+ * based reducers choose them, but from a primitive sample of the column, and each row is placed in its bin with a binary search.
+ */
+public class ColumnarNumBranchReducer<VC extends ValueCounter<VC>> extends ColumnarReducer<VC> {
+    public static final double DOWN_FACTOR = 10E5;
+    private final int numSamplesPerBin;
+    private final int numNumericBins;
+
+    public ColumnarNumBranchReducer(ColumnarDataset data, int[] rows, int from, int to, ValueCounterProducer<?, VC> valueCounterProducer, int numSamplesPerBin, int numNumericBins) {
+        super(data, rows, from, to, valueCounterProducer);
+        this.numSamplesPerBin = numSamplesPerBin;
+        this.numNumericBins = numNumericBins;
+    }
+
+    @Override
+    public Optional<AttributeStats<VC>> getAttributeStats(String attribute) {
+        if (numRows() < numNumericBins) {
+            return Optional.absent();
+        }
+        double[] column = data.getNumericColumn(attribute);
+        Optional<double[]> splitsOptional = createNumericSplit(column);
+        if (!splitsOptional.isPresent()) {
+            return Optional.absent();
+        }
+        return Optional.of(getAttributeStats(attribute, column, splitsOptional.get()));
+    }
+
+    private AttributeStats<VC> getAttributeStats(String attribute, double[] column, double[] splitPoints) {
+        List<VC> valueCounters = Lists.newArrayListWithCapacity(splitPoints.length + 1);
+        VC aggregateStats = valueCounterProducer.newValueCounter(null);
+        double delta = getDelta(splitPoints);
+        double[] upperBounds = new double[splitPoints.length];
+        for (int i = 0; i < splitPoints.length; i++) {
+            valueCounters.add(valueCounterProducer.newValueCounter(splitPoints[i]));
+            upperBounds[i] = splitPoints[i] + delta;
+        }
+        valueCounters.add(valueCounterProducer.newValueCounter(splitPoints[splitPoints.length - 1] + delta)); //holds all vals greater than greatest split point.
+        for (int i = from; i < to; i++) {
+            int row = rows[i];
+            double attributeVal = column[row];
+            if (Double.isNaN(attributeVal)) {
+                attributeVal = Double.MIN_VALUE; //missing values are binned the way the instance based reducers bin them
+            }
+            valueCounterProducer.addRow(valueCounters.get(getBin(upperBounds, attributeVal)), data, row);
+            valueCounterProducer.addRow(aggregateStats, data, row);
+        }
+        return new AttributeStats<>(valueCounters, aggregateStats, attribute);
+    }
+
+    /**
+     * @return the index of the first bin whose upper bound is >= attributeVal, or upperBounds.length if there is none.
+     */
+    static int getBin(double[] upperBounds, double attributeVal) {
+        int low = 0, high = upperBounds.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (upperBounds[mid] < attributeVal) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static double getDelta(double[] splitPoints) {
+        return (splitPoints.length >= 2) ? (splitPoints[1] - splitPoints[0]) / DOWN_FACTOR : splitPoints[0] / DOWN_FACTOR;
+    }
+
+    private Optional<double[]> createNumericSplit(double[] column) {
+        int desiredSamples = numSamplesPerBin * numNumericBins;
+        //when there is more data than desired samples, every incrementSize'th row is sampled (as in DTNumBranchReducer.fillReservoirSampler, whose reservoir never fills up).
+        int incrementSize = numRows() < desiredSamples ? 1 : numRows() / desiredSamples;
+        double[] samples = new double[(numRows() + incrementSize - 1) / incrementSize];
+        int numSamples = 0;
+        for (int i = from; i < to; i += incrementSize) {
+            double value = column[rows[i]];
+            if (!Double.isNaN(value)) {
+                samples[numSamples++] = value;
+            }
+        }
+        if (numSamples == 0 || numSamples < numNumericBins) {
+            return Optional.absent();
+        }
+        return getBinDividerPoints(numNumericBins, samples, numSamples);
+    }
+
+    /**
+     * Primitive equivalent of DTNumBranchReducer.getBinDividerPoints, operating on the first numValues entries of attributeValues.
+     */
+    public static Optional<double[]> getBinDividerPoints(int numNumericBins, double[] attributeValues, int numValues) {
+        Arrays.sort(attributeValues, 0, numValues);
+        final double[] split = new double[numNumericBins - 1];
+        final int indexMultiplier = numValues / numNumericBins;
+        final int remainder = numValues % numNumericBins;
+        int splitPointIndex = 0;
+        for (int upperIndex = indexMultiplier; upperIndex < numValues; upperIndex += indexMultiplier) {
+            if (splitPointIndex < remainder) {
+                upperIndex++;
+            }
+            split[splitPointIndex] = (attributeValues[upperIndex] + attributeValues[upperIndex - 1]) / 2.0;
+            splitPointIndex++;
+        }
+        if (allValuesSame(split)) {
+            return Optional.absent();
+        }
+        return Optional.of(split);
+    }
+
+    private static boolean allValuesSame(double[] split) {
+        if (split.length == 1) {
+            return false;
+        }
+        for (int x = 0; x < split.length - 1; x++) {
+            if (split[x] != split[x + 1])
+                return false;
+        }
+        return true;
+    }
+}
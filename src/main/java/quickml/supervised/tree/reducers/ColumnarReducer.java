@@ -0,0 +1,88 @@
+package quickml.supervised.tree.reducers;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import quickml.data.ColumnarDataset;
+import quickml.supervised.tree.summaryStatistics.ValueCounter;
+import quickml.supervised.tree.summaryStatistics.ValueCounterProducer;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Counterpart of the Reducer for a ColumnarDataset: reduces the rows of a node to AttributeStats by reading primitive
+ * columns rather than the AttributesMaps of instances.
+ */
+public abstract class ColumnarReducer<VC extends ValueCounter<VC>> implements AttributeStatisticsProducer<VC> {
+    //value counters with less weight than this (e.g. the remainders of subtracting a sibling from its parent) are treated as empty
+    public static final double EMPTY_TOLERANCE = 1E-9;
+    protected final ColumnarDataset data;
+    //the node's rows are rows[from], ..., rows[to - 1]; the array is shared by every node of the tree
+    protected final int[] rows;
+    protected final int from;
+    protected final int to;
+    protected final ValueCounterProducer<?, VC> valueCounterProducer;
+
+    public ColumnarReducer(ColumnarDataset data, int[] rows, int from, int to, ValueCounterProducer<?, VC> valueCounterProducer) {
+        this.data = data;
+        this.rows = rows;
+        this.from = from;
+        this.to = to;
+        this.valueCounterProducer = valueCounterProducer;
+    }
+
+    public ColumnarDataset getData() {
+        return data;
+    }
+
+    public int[] getRows() {
+        return rows;
+    }
+
+    public int getFrom() {
+        return from;
+    }
+
+    public int getTo() {
+        return to;
+    }
+
+    public int numRows() {
+        return to - from;
+    }
+
+    /**
+     * @return true if, for every attribute, the stats of a node equal the value-wise difference of the stats of its parent
+     * and its sibling, i.e. if the values (bins) stats are kept for don't depend on the rows being reduced.
+     */
+    public boolean supportsSubtraction() {
+        return false;
+    }
+
+    /**
+     * @return the order the branch finder expects values in, or null if the order in which they are reduced is fine.
+     */
+    protected Comparator<VC> getValueOrdering() {
+        return null;
+    }
+
+    /**
+     * Drops null and empty value counters and orders the remaining ones.  Attributes with fewer than 2 values can't be split on.
+     */
+    public Optional<AttributeStats<VC>> createAttributeStats(String attribute, List<VC> valueCounters, VC aggregateStats) {
+        List<VC> nonEmptyValueCounters = Lists.newArrayListWithCapacity(valueCounters.size());
+        for (VC valueCounter : valueCounters) {
+            if (valueCounter != null && valueCounter.getTotal() > EMPTY_TOLERANCE) {
+                nonEmptyValueCounters.add(valueCounter);
+            }
+        }
+        if (nonEmptyValueCounters.size() <= 1) {
+            return Optional.absent();
+        }
+        if (getValueOrdering() != null) {
+            Collections.sort(nonEmptyValueCounters, getValueOrdering());
+        }
+        return Optional.of(new AttributeStats<>(nonEmptyValueCounters, aggregateStats, attribute));
+    }
+}
@@ -0,0 +1,92 @@
+package quickml.supervised.tree.reducers;
+
+import com.google.common.collect.Maps;
+import quickml.data.ColumnarDataset;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The rows of a ColumnarDataset argsorted by each numeric attribute, once per tree.  Every node of the tree occupies the
+ * same range [from, to) of every sorted array as it does of the rows array TreeBuilderHelper partitions, and partition
+ * keeps each range sorted, so a node's rows can be read in value order without sorting them again.
+ */
+public class PresortedRows {
+    private final Map<String, int[]> sortedRows = Maps.newHashMap();
+    //which child of the node being partitioned each row goes to.  Nodes being split at the same time have disjoint rows.
+    private final boolean[] inTrueChild;
+
+    public PresortedRows(ColumnarDataset data, Set<String> numericAttributes) {
+        this.inTrueChild = new boolean[data.size()];
+        for (String attribute : numericAttributes) {
+            if (data.hasNumericColumn(attribute)) {
+                sortedRows.put(attribute, argsort(data.getNumericColumn(attribute), data.size()));
+            }
+        }
+    }
+
+    public boolean hasAttribute(String attribute) {
+        return sortedRows.containsKey(attribute);
+    }
+
+    public int[] getSortedRows(String attribute) {
+        return sortedRows.get(attribute);
+    }
+
+    /**
+     * Mirrors a split of rows[from], ..., rows[to - 1] into rows[from, firstFalseRow) and rows[firstFalseRow, to) in every
+     * sorted array.  The partition is stable, so both children's ranges stay sorted.
+     */
+    public void partition(int[] rows, int from, int firstFalseRow, int to) {
+        for (int i = from; i < to; i++) {
+            inTrueChild[rows[i]] = i < firstFalseRow;
+        }
+        int[] falseRows = new int[to - firstFalseRow];
+        for (int[] sorted : sortedRows.values()) {
+            int numTrueRows = 0, numFalseRows = 0;
+            for (int i = from; i < to; i++) {
+                int row = sorted[i];
+                if (inTrueChild[row]) {
+                    sorted[from + numTrueRows++] = row;
+                } else {
+                    falseRows[numFalseRows++] = row;
+                }
+            }
+            System.arraycopy(falseRows, 0, sorted, from + numTrueRows, numFalseRows);
+        }
+    }
+
+    /**
+     * Missing values sort as 0, since NumBranch treats them as 0.
+     */
+    public static double getSortKey(double value) {
+        return Double.isNaN(value) ? 0 : value;
+    }
+
+    //bottom up merge sort of the rows 0, ..., size - 1 by their values in column
+    static int[] argsort(double[] column, int size) {
+        int[] sorted = new int[size];
+        for (int row = 0; row < size; row++) {
+            sorted[row] = row;
+        }
+        int[] buffer = new int[size];
+        for (int width = 1; width < size; width *= 2) {
+            for (int low = 0; low < size - width; low += 2 * width) {
+                int mid = low + width;
+                int high = Math.min(low + 2 * width, size);
+                int left = low, right = mid, out = low;
+                while (left < mid && right < high) {
+                    buffer[out++] = getSortKey(column[sorted[right]]) < getSortKey(column[sorted[left]]) ? sorted[right++] : sorted[left++];
+                }
+                while (left < mid) {
+                    buffer[out++] = sorted[left++];
+                }
+                while (right < high) {
+                    buffer[out++] = sorted[right++];
+                }
+                System.arraycopy(buffer, low, sorted, low, high - low);
+            }
+        }
+        return sorted;
+    }
+}
@@ -1,5 +1,7 @@
 package quickml.supervised.tree.reducers;
 
+import quickml.concurrent.SplittableRandom;
+import quickml.data.ColumnarDataset;
 import quickml.data.instances.InstanceWithAttributesMap;
 import quickml.supervised.tree.summaryStatistics.ValueCounter;
 
@@ -12,7 +14,12 @@ import java.util.Map;
  */
 public interface ReducerFactory<I extends InstanceWithAttributesMap<?>, VC extends ValueCounter<VC>> {
 
-    Reducer<I, VC> getReducer(List<I> trainingData);
+    /**
+     * @param random the generator of the node whose instances are trainingData, for reducers that sample them.
+     */
+    Reducer<I, VC> getReducer(List<I> trainingData, SplittableRandom random);
+
+    ColumnarReducer<VC> getReducer(ColumnarDataset data, int[] rows, int from, int to);
 
     void updateBuilderConfig(Map<String, Serializable> cfg);
 
@@ -0,0 +1,60 @@
+package quickml.supervised.tree.reducers;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import quickml.supervised.tree.summaryStatistics.ValueCounter;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Derives the AttributeStats of a node from the stats of its parent and of its sibling, which is computed directly because it
+ * has fewer rows.  Attributes the parent never reduced are reduced directly.
+ */
+public class SiblingSubtractingReducer<VC extends ValueCounter<VC>> implements AttributeStatisticsProducer<VC> {
+    private final Map<String, Optional<AttributeStats<VC>>> parentAttributeStats;
+    private final AttributeStatisticsProducer<VC> sibling;
+    private final ColumnarReducer<VC> reducer;
+
+    /**
+     * @param reducer reduces the node's own rows, and determines which values are kept and how they are ordered.
+     */
+    public SiblingSubtractingReducer(Map<String, Optional<AttributeStats<VC>>> parentAttributeStats, AttributeStatisticsProducer<VC> sibling, ColumnarReducer<VC> reducer) {
+        this.parentAttributeStats = parentAttributeStats;
+        this.sibling = sibling;
+        this.reducer = reducer;
+    }
+
+    @Override
+    public Optional<AttributeStats<VC>> getAttributeStats(String attribute) {
+        Optional<AttributeStats<VC>> parentStats = parentAttributeStats.get(attribute);
+        if (parentStats == null) {
+            return reducer.getAttributeStats(attribute);
+        }
+        if (!parentStats.isPresent()) {
+            //the parent had fewer than 2 values, so its children do too.
+            return Optional.absent();
+        }
+        Optional<AttributeStats<VC>> siblingStats = sibling.getAttributeStats(attribute);
+        if (!siblingStats.isPresent()) {
+            return reducer.getAttributeStats(attribute);
+        }
+        return reducer.createAttributeStats(attribute, subtract(parentStats.get().getStatsOnEachValue(), siblingStats.get().getStatsOnEachValue()),
+                parentStats.get().getAggregateStats().subtract(siblingStats.get().getAggregateStats()));
+    }
+
+    private List<VC> subtract(List<VC> parentValueStats, List<VC> siblingValueStats) {
+        Map<Serializable, VC> siblingStatsByValue = Maps.newHashMapWithExpectedSize(siblingValueStats.size());
+        for (VC valueCounter : siblingValueStats) {
+            siblingStatsByValue.put(valueCounter.getAttrVal(), valueCounter);
+        }
+        List<VC> valueStats = Lists.newArrayListWithCapacity(parentValueStats.size());
+        for (VC parentValueCounter : parentValueStats) {
+            VC siblingValueCounter = siblingStatsByValue.get(parentValueCounter.getAttrVal());
+            valueStats.add(siblingValueCounter == null ? parentValueCounter : parentValueCounter.subtract(siblingValueCounter));
+        }
+        return valueStats;
+    }
+}
@@ -0,0 +1,133 @@
+package quickml.supervised.tree.reducers;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import quickml.data.instances.InstanceWithAttributesMap;
+import quickml.supervised.tree.summaryStatistics.ValueCounter;
+import quickml.supervised.tree.summaryStatistics.ValueCounterProducer;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Numeric reducer for instances with many sparse numeric attributes.  On construction it inverts the node's training
+ * data into, for each numeric attribute, the rows that have it and their values, so the statistics of an attribute cost
+ * time proportional to the number of rows that have it rather than to the size of the node.  Absent values are treated
+ * as 0, as NumBranch treats them when deciding: their statistics are the aggregate statistics minus those of the rows
+ * that have the attribute, and go to the bin that holds 0.
+ */
+public class SparseNumBranchReducer<I extends InstanceWithAttributesMap<?>, VC extends ValueCounter<VC>> extends Reducer<I, VC> {
+    private final ValueCounterProducer<I, VC> valueCounterProducer;
+    private final int numSamplesPerBin;
+    private final int numNumericBins;
+    private final VC aggregateStats;
+    private final Map<String, Postings> postingsByAttribute;
+
+    public SparseNumBranchReducer(List<I> trainingData, ValueCounterProducer<I, VC> valueCounterProducer, int numSamplesPerBin, int numNumericBins) {
+        super(trainingData);
+        this.valueCounterProducer = valueCounterProducer;
+        this.numSamplesPerBin = numSamplesPerBin;
+        this.numNumericBins = numNumericBins;
+        this.aggregateStats = valueCounterProducer.getValueCounter(trainingData);
+        this.postingsByAttribute = invert(trainingData);
+    }
+
+    @Override
+    public Optional<AttributeStats<VC>> getAttributeStats(String attribute) {
+        Postings postings = postingsByAttribute.get(attribute);
+        if (postings == null) {
+            return Optional.absent();
+        }
+        boolean hasAbsentValues = postings.size < getTrainingData().size();
+        double[] splitPoints = getSplitPoints(postings, hasAbsentValues);
+        if (splitPoints.length == 0) {
+            return Optional.absent();
+        }
+
+        List<VC> valueCounters = Lists.newArrayListWithCapacity(splitPoints.length + 1);
+        for (double splitPoint : splitPoints) {
+            valueCounters.add(valueCounterProducer.newValueCounter(splitPoint));
+        }
+        valueCounters.add(valueCounterProducer.newValueCounter(Double.POSITIVE_INFINITY)); //holds all vals greater than the greatest split point.
+        VC presentStats = valueCounterProducer.newValueCounter(null);
+        List<I> trainingData = getTrainingData();
+        for (int i = 0; i < postings.size; i++) {
+            I instance = trainingData.get(postings.rows[i]);
+            valueCounterProducer.addInstance(valueCounters.get(ColumnarNumBranchReducer.getBin(splitPoints, postings.values[i])), instance);
+            valueCounterProducer.addInstance(presentStats, instance);
+        }
+        if (hasAbsentValues) {
+            valueCounters.get(ColumnarNumBranchReducer.getBin(splitPoints, 0)).addInPlace(aggregateStats.subtract(presentStats));
+        }
+        return Optional.of(new AttributeStats<>(valueCounters, aggregateStats, attribute));
+    }
+
+    /**
+     * @return the sorted, distinct bin divider points of the values of the rows that have the attribute, chosen as
+     * DTNumBranchReducer chooses them, plus 0 if some rows don't have it.
+     */
+    private double[] getSplitPoints(Postings postings, boolean hasAbsentValues) {
+        int desiredSamples = numSamplesPerBin * numNumericBins;
+        int incrementSize = postings.size < desiredSamples ? 1 : postings.size / desiredSamples;
+        double[] samples = new double[(postings.size + incrementSize - 1) / incrementSize];
+        int numSamples = 0;
+        for (int i = 0; i < postings.size; i += incrementSize) {
+            samples[numSamples++] = postings.values[i];
+        }
+        double[] splitPoints = new double[0];
+        if (numSamples >= numNumericBins) {
+            splitPoints = ColumnarNumBranchReducer.getBinDividerPoints(numNumericBins, samples, numSamples).or(splitPoints);
+        }
+        if (hasAbsentValues) {
+            splitPoints = Arrays.copyOf(splitPoints, splitPoints.length + 1);
+        }
+        Arrays.sort(splitPoints);
+        int numDistinct = 0;
+        for (int i = 0; i < splitPoints.length; i++) {
+            if (i == 0 || splitPoints[i] != splitPoints[numDistinct - 1]) {
+                splitPoints[numDistinct++] = splitPoints[i];
+            }
+        }
+        return Arrays.copyOf(splitPoints, numDistinct);
+    }
+
+    private static <I extends InstanceWithAttributesMap<?>> Map<String, Postings> invert(List<I> trainingData) {
+        Map<String, Postings> postingsByAttribute = Maps.newHashMap();
+        for (int row = 0; row < trainingData.size(); row++) {
+            for (Map.Entry<String, Serializable> entry : trainingData.get(row).getAttributes().entrySet()) {
+                if (!(entry.getValue() instanceof Number)) {
+                    continue;
+                }
+                Postings postings = postingsByAttribute.get(entry.getKey());
+                if (postings == null) {
+                    postings = new Postings();
+                    postingsByAttribute.put(entry.getKey(), postings);
+                }
+                postings.add(row, ((Number) entry.getValue()).doubleValue());
+            }
+        }
+        return postingsByAttribute;
+    }
+
+    /**
+     * The rows of the node's training data that have an attribute, and their values.
+     */
+    private static class Postings {
+        int[] rows = new int[4];
+        double[] values = new double[4];
+        int size = 0;
+
+        void add(int row, double value) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, 2 * size);
+                values = Arrays.copyOf(values, 2 * size);
+            }
+            rows[size] = row;
+            values[size] = value;
+            size++;
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package quickml.supervised.tree.regressionTree;
 
+import com.google.common.base.Optional;
 import com.google.common.collect.Lists;
 import org.javatuples.Pair;
+import quickml.data.ColumnarDataset;
 import quickml.data.instances.RegressionInstance;
 import quickml.supervised.PredictiveModelBuilder;
 import quickml.supervised.tree.attributeIgnoringStrategies.AttributeIgnoringStrategy;
@@ -16,6 +18,7 @@ import quickml.supervised.tree.regressionTree.nodes.RTLeafBuilder;
 import quickml.supervised.tree.regressionTree.treeBuildContexts.RTreeContextBuilder;
 import quickml.supervised.tree.regressionTree.valueCounters.MeanValueCounter;
 import quickml.supervised.tree.scorers.ScorerFactory;
+import quickml.supervised.tree.treeBuildContexts.PreparedTrainingData;
 
 import java.io.Serializable;
 import java.util.*;
@@ -56,6 +59,45 @@ public class RegressionTreeBuilder<I extends RegressionInstance> implements Pred
         return new RegressionTree(root);
     }
 
+    /**
+     * Builds the tree from a columnar copy of the training data (see ColumnarDataset.forRegression), which avoids
+     * AttributesMap lookups while reducing and splitting.
+     */
+    public RegressionTree buildPredictiveModel(ColumnarDataset trainingData) {
+        tcb.initializeConfig();
+        RegressionTreeBuilderHelper<I> treeBuilderHelper = new RegressionTreeBuilderHelper<>(tcb);
+        return new RegressionTree(treeBuilderHelper.computeNodes(trainingData));
+    }
+
+    /**
+     * Surveys the training data once, for trees built with buildPredictiveModel(trainingData, preparedTrainingData).
+     */
+    public PreparedTrainingData<I, MeanValueCounter> prepareTrainingData(List<I> trainingData) {
+        tcb.initializeConfig();
+        return tcb.prepare(trainingData);
+    }
+
+    public PreparedTrainingData<I, MeanValueCounter> prepareTrainingData(ColumnarDataset trainingData) {
+        tcb.initializeConfig();
+        return tcb.prepare(trainingData);
+    }
+
+    /**
+     * The tree is built from a copy of trainingData, which is partitioned in place while splitting, so the trees of a forest
+     * can share one list.
+     */
+    public RegressionTree buildPredictiveModel(List<I> trainingData, PreparedTrainingData<I, MeanValueCounter> preparedTrainingData) {
+        tcb.initializeConfig();
+        RegressionTreeBuilderHelper<I> treeBuilderHelper = new RegressionTreeBuilderHelper<>(tcb);
+        return new RegressionTree(treeBuilderHelper.computeNodes(Lists.newArrayList(trainingData), preparedTrainingData));
+    }
+
+    public RegressionTree buildPredictiveModel(ColumnarDataset trainingData, PreparedTrainingData<I, MeanValueCounter> preparedTrainingData) {
+        tcb.initializeConfig();
+        RegressionTreeBuilderHelper<I> treeBuilderHelper = new RegressionTreeBuilderHelper<>(tcb);
+        return new RegressionTree(treeBuilderHelper.computeNodes(trainingData, preparedTrainingData));
+    }
+
     @Override
     public void updateBuilderConfig(Map<String, Serializable> config) {
         tcb.setConfig(config);
@@ -115,6 +157,49 @@ public class RegressionTreeBuilder<I extends RegressionInstance> implements Pred
         return this;
     }
 
+    public RegressionTreeBuilder<I> numHistogramBins(int numHistogramBins) {
+        tcb.numHistogramBins(numHistogramBins);
+        return this;
+    }
+
+    public RegressionTreeBuilder<I> sparseNumericAttributes(boolean sparseNumericAttributes) {
+        tcb.sparseNumericAttributes(sparseNumericAttributes);
+        return this;
+    }
+
+    public RegressionTreeBuilder<I> exactNumericSplits(boolean exactNumericSplits) {
+        tcb.exactNumericSplits(exactNumericSplits);
+        return this;
+    }
+
+    public RegressionTreeBuilder<I> levelWiseGrowth(boolean levelWiseGrowth) {
+        tcb.levelWiseGrowth(levelWiseGrowth);
+        return this;
+    }
+
+    public RegressionTreeBuilder<I> seed(long seed) {
+        tcb.seed(seed);
+        return this;
+    }
+
+    public RegressionTreeBuilder<I> parallelism(int parallelism) {
+        tcb.parallelism(parallelism);
+        return this;
+    }
+
+    public int getParallelism() {
+        return tcb.getParallelism();
+    }
+
+    public Optional<Long> getSeed() {
+        return tcb.getSeed();
+    }
+
+    public RegressionTreeBuilder<I> minInstancesForParallelSubtrees(int minInstancesForParallelSubtrees) {
+        tcb.minInstancesForParallelSubtrees(minInstancesForParallelSubtrees);
+        return this;
+    }
+
     public RegressionTreeBuilder<I> branchingConditions(DTBranchingConditions branchingConditions) {
         tcb.branchingConditions(branchingConditions);
         return this;
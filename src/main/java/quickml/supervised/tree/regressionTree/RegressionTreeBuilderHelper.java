@@ -2,6 +2,7 @@
 package quickml.supervised.tree.regressionTree;
 
 import org.javatuples.Pair;
+import quickml.data.ColumnarDataset;
 import quickml.data.instances.RegressionInstance;
 import quickml.supervised.tree.TreeBuilderHelper;
 import quickml.supervised.tree.decisionTree.treeBuildContexts.DTreeContextBuilder;
@@ -28,9 +29,14 @@ public class RegressionTreeBuilderHelper<I extends RegressionInstance> extends T
 
     public Node<MeanValueCounter> computeNodes(List<I> trainingData) {
         RTreeContext<I> itbc = treeBuildContext.buildContext(trainingData);
-        Node<MeanValueCounter> root =  createNode(null, trainingData, itbc);
+        Node<MeanValueCounter> root =  createRoot(trainingData, itbc);
         return root;
     }
 
+    public Node<MeanValueCounter> computeNodes(ColumnarDataset trainingData) {
+        RTreeContext<I> itbc = treeBuildContext.buildContext(trainingData);
+        return createRoot(trainingData, itbc);
+    }
+
 }
 
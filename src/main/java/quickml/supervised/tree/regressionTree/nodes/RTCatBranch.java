@@ -1,8 +1,10 @@
 package quickml.supervised.tree.regressionTree.nodes;
 
 import com.google.common.collect.Sets;
+import quickml.data.ColumnarDataset;
 import quickml.supervised.tree.decisionTree.valueCounters.ClassificationCounter;
 import quickml.supervised.tree.nodes.Branch;
+import quickml.supervised.tree.nodes.ColumnarDecider;
 import quickml.supervised.tree.regressionTree.valueCounters.MeanValueCounter;
 
 import java.io.Serializable;
@@ -28,6 +30,11 @@ public class RTCatBranch extends Branch<MeanValueCounter>  {
         return trueSet.contains(attributeVal);
     }
 
+    @Override
+    public ColumnarDecider getColumnarDecider(ColumnarDataset data) {
+        return getCategoricalDecider(data, attribute, trueSet);
+    }
+
     @Override
     public String toString() {
         return attribute + " in " + trueSet;
@@ -22,6 +22,17 @@ import static quickml.supervised.tree.constants.MissingValue.MISSING_VALUE;
  * Created by alexanderhawk on 4/22/15.
  */
 public class RTCatBranchReducer<I extends RegressionInstance> extends RTreeReducer<I> {
+    /**
+     * orders MeanValueCounters by decreasing mean.
+     */
+    public static final Comparator<MeanValueCounter> DESCENDING_MEAN_ORDERING = new Comparator<MeanValueCounter>() {
+        @Override
+        public int compare(MeanValueCounter mv1, MeanValueCounter mv2) {
+            double meanOfOne = mv1.getAccumulatedValue() / mv1.getTotal();
+            double meanOfTwo = mv2.getAccumulatedValue() / mv2.getTotal();
+            return Ordering.natural().reverse().compare(meanOfOne, meanOfTwo);
+        }
+    };
 
     public RTCatBranchReducer(List<I> trainingData) {
         super(trainingData);
@@ -35,14 +46,7 @@ public class RTCatBranchReducer<I extends RegressionInstance> extends RTreeReduc
         }
         AttributeStats<MeanValueCounter> attributeStats = attributeStatsOptional.get();
         List<MeanValueCounter> attributesWithClassificationCounters = attributeStats.getStatsOnEachValue();
-        Collections.sort(attributesWithClassificationCounters, new Comparator<MeanValueCounter>() {
-            @Override
-            public int compare(MeanValueCounter mv1, MeanValueCounter mv2) {
-                double meanOfOne = mv1.getAccumulatedValue() / mv1.getTotal();
-                double meanOfTwo = mv2.getAccumulatedValue() / mv2.getTotal();
-                return Ordering.natural().reverse().compare(meanOfOne, meanOfTwo);
-            }
-        });
+        Collections.sort(attributesWithClassificationCounters, DESCENDING_MEAN_ORDERING);
         return Optional.of(attributeStats);
     }
 
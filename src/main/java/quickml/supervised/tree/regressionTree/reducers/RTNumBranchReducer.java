@@ -6,7 +6,7 @@ import com.twitter.common.stats.ReservoirSampler;
 import com.twitter.common.util.Random;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import quickml.collections.MapUtils;
+import quickml.concurrent.SplittableRandom;
 import quickml.data.AttributesMap;
 import quickml.data.instances.RegressionInstance;
 import quickml.supervised.tree.reducers.AttributeStats;
@@ -16,6 +16,7 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Created by alexanderhawk on 4/23/15.
@@ -23,15 +24,21 @@ import java.util.List;
 public class RTNumBranchReducer<I extends RegressionInstance> extends RTreeReducer<I> {
     private static final Logger logger = LoggerFactory.getLogger(RTNumBranchReducer.class);
     public static final double DOWN_FACTOR = 10E5;
-    private Random rand = Random.Util.fromSystemRandom(MapUtils.random);
    //TODO: once verify functionality is correct, remove these variables and get n classification counters which can then be further merged in the branchFinder
     final int numSamplesPerBin;
     final int numNumericBins;
+    //split per attribute, as attributes may be reduced in parallel
+    private final SplittableRandom random;
 
     public RTNumBranchReducer(List<I> trainingData, int numSamplesPerBin, int numNumericBins) {
+        this(trainingData, numSamplesPerBin, numNumericBins, new SplittableRandom(ThreadLocalRandom.current().nextLong()));
+    }
+
+    public RTNumBranchReducer(List<I> trainingData, int numSamplesPerBin, int numNumericBins, SplittableRandom random) {
         super(trainingData);
         this.numSamplesPerBin = numSamplesPerBin;
         this.numNumericBins = numNumericBins;
+        this.random = random;
     }
 
 
@@ -188,13 +195,17 @@ public class RTNumBranchReducer<I extends RegressionInstance> extends RTreeReduc
             return getDeterministicSplit(trainingData, attribute, numNumericBins); //makes code testable, because now can be made deterministic by making numSamplesPerNumericBin < trainingData.getSize.
         }
 
-        final ReservoirSampler<Double> reservoirSampler = fillReservoirSampler(trainingData, attribute, desiredSamples);
+        final ReservoirSampler<Double> reservoirSampler = fillReservoirSampler(trainingData, attribute, desiredSamples, random.split(attribute.hashCode()));
 
         return getSplit(reservoirSampler);
     }
 
     public static <I extends RegressionInstance> ReservoirSampler<Double> fillReservoirSampler(List<I> trainingData, String attribute, int desiredSamples) {
-        Random rand = Random.Util.fromSystemRandom(MapUtils.random);
+        return fillReservoirSampler(trainingData, attribute, desiredSamples, ThreadLocalRandom.current());
+    }
+
+    public static <I extends RegressionInstance> ReservoirSampler<Double> fillReservoirSampler(List<I> trainingData, String attribute, int desiredSamples, java.util.Random random) {
+        Random rand = Random.Util.fromSystemRandom(random);
 
         final ReservoirSampler<Double> reservoirSampler = new ReservoirSampler<Double>(desiredSamples + trainingData.size()%desiredSamples, rand);
 
@@ -1,11 +1,16 @@
 package quickml.supervised.tree.regressionTree.reducers.reducerFactories;
 
+import quickml.concurrent.SplittableRandom;
+import quickml.data.ColumnarDataset;
 import quickml.data.instances.RegressionInstance;
 import quickml.supervised.tree.decisionTree.reducers.DTBinaryCatBranchReducer;
+import quickml.supervised.tree.reducers.ColumnarReducer;
 import quickml.supervised.tree.reducers.Reducer;
 import quickml.supervised.tree.reducers.ReducerFactory;
 import quickml.supervised.tree.regressionTree.reducers.RTCatBranchReducer;
 import quickml.supervised.tree.regressionTree.valueCounters.MeanValueCounter;
+import quickml.supervised.tree.regressionTree.valueCounters.MeanValueCounterProducer;
+import quickml.supervised.tree.reducers.ColumnarCatBranchReducer;
 
 import java.io.Serializable;
 import java.util.List;
@@ -20,10 +25,15 @@ public class RTCatBranchReducerFactory<I extends RegressionInstance> implements
     }
 
     @Override
-    public Reducer<I, MeanValueCounter> getReducer(List<I> trainingData) {
+    public Reducer<I, MeanValueCounter> getReducer(List<I> trainingData, SplittableRandom random) {
         return new RTCatBranchReducer<>(trainingData);
     }
 
+    @Override
+    public ColumnarReducer<MeanValueCounter> getReducer(ColumnarDataset data, int[] rows, int from, int to) {
+        return new ColumnarCatBranchReducer<>(data, rows, from, to, new MeanValueCounterProducer<I>(), RTCatBranchReducer.DESCENDING_MEAN_ORDERING);
+    }
+
     @Override
     public void updateBuilderConfig(Map<String, Serializable> cfg) {
 
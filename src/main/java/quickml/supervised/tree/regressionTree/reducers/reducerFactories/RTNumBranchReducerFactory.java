@@ -1,17 +1,29 @@
 package quickml.supervised.tree.regressionTree.reducers.reducerFactories;
 
+import com.google.common.base.Optional;
+import quickml.concurrent.SplittableRandom;
+import quickml.data.ColumnarDataset;
 import quickml.data.instances.RegressionInstance;
+import quickml.supervised.tree.reducers.ColumnarExactNumBranchReducer;
+import quickml.supervised.tree.reducers.ColumnarReducer;
+import quickml.supervised.tree.reducers.PresortedRows;
 import quickml.supervised.tree.reducers.Reducer;
 import quickml.supervised.tree.reducers.ReducerFactory;
+import quickml.supervised.tree.reducers.SparseNumBranchReducer;
 import quickml.supervised.tree.regressionTree.reducers.RTNumBranchReducer;
 import quickml.supervised.tree.regressionTree.valueCounters.MeanValueCounter;
+import quickml.supervised.tree.regressionTree.valueCounters.MeanValueCounterProducer;
+import quickml.supervised.tree.reducers.ColumnarHistogramReducer;
+import quickml.supervised.tree.reducers.ColumnarNumBranchReducer;
 
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
 
+import static quickml.supervised.tree.constants.ForestOptions.NUM_HISTOGRAM_BINS;
 import static quickml.supervised.tree.constants.ForestOptions.NUM_NUMERIC_BINS;
 import static quickml.supervised.tree.constants.ForestOptions.NUM_SAMPLES_PER_NUMERIC_BIN;
+import static quickml.supervised.tree.constants.ForestOptions.SPARSE_NUMERIC_ATTRIBUTES;
 
 /**
  * Created by alexanderhawk on 7/9/15.
@@ -19,11 +31,35 @@ import static quickml.supervised.tree.constants.ForestOptions.NUM_SAMPLES_PER_NU
 public class RTNumBranchReducerFactory<I extends RegressionInstance> implements ReducerFactory<I, MeanValueCounter>{
    int numSamplesPerBin;
    int numNumericBins;
+   int numHistogramBins;
+   boolean sparseNumericAttributes;
+   private final Optional<PresortedRows> presortedRows;
 
+    public RTNumBranchReducerFactory() {
+        this(Optional.<PresortedRows>absent());
+    }
+
+    public RTNumBranchReducerFactory(Optional<PresortedRows> presortedRows) {
+        this.presortedRows = presortedRows;
+    }
 
     @Override
-    public Reducer<I, MeanValueCounter> getReducer(List<I> trainingData) {
-        return new RTNumBranchReducer<>(trainingData, numSamplesPerBin, numNumericBins);
+    public Reducer<I, MeanValueCounter> getReducer(List<I> trainingData, SplittableRandom random) {
+        if (sparseNumericAttributes) {
+            return new SparseNumBranchReducer<>(trainingData, new MeanValueCounterProducer<I>(), numSamplesPerBin, numNumericBins);
+        }
+        return new RTNumBranchReducer<>(trainingData, numSamplesPerBin, numNumericBins, random);
+    }
+
+    @Override
+    public ColumnarReducer<MeanValueCounter> getReducer(ColumnarDataset data, int[] rows, int from, int to) {
+        if (presortedRows.isPresent()) {
+            return new ColumnarExactNumBranchReducer<>(data, rows, from, to, new MeanValueCounterProducer<I>(), presortedRows.get());
+        }
+        if (numHistogramBins > 0) {
+            return new ColumnarHistogramReducer<>(data, rows, from, to, new MeanValueCounterProducer<I>(), data.getBinnedNumericColumns(numHistogramBins));
+        }
+        return new ColumnarNumBranchReducer<>(data, rows, from, to, new MeanValueCounterProducer<I>(), numSamplesPerBin, numNumericBins);
     }
 
     @Override
@@ -34,5 +70,11 @@ public class RTNumBranchReducerFactory<I extends RegressionInstance> implements
         if (cfg.containsKey(NUM_NUMERIC_BINS.name())) {
             numNumericBins = (int) cfg.get(NUM_NUMERIC_BINS.name());
         }
+        if (cfg.containsKey(NUM_HISTOGRAM_BINS.name())) {
+            numHistogramBins = (int) cfg.get(NUM_HISTOGRAM_BINS.name());
+        }
+        if (cfg.containsKey(SPARSE_NUMERIC_ATTRIBUTES.name())) {
+            sparseNumericAttributes = (boolean) cfg.get(SPARSE_NUMERIC_ATTRIBUTES.name());
+        }
     }
 }
@@ -1,8 +1,11 @@
 package quickml.supervised.tree.regressionTree.treeBuildContexts;
 
+import com.google.common.base.Optional;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import quickml.data.ColumnarDataset;
+import quickml.supervised.tree.reducers.PresortedRows;
 import quickml.data.instances.RegressionInstance;
 import quickml.supervised.tree.attributeIgnoringStrategies.AttributeIgnoringStrategy;
 import quickml.supervised.tree.attributeIgnoringStrategies.IgnoreAttributesWithConstantProbability;
@@ -13,7 +16,6 @@ import quickml.supervised.tree.branchFinders.branchFinderBuilders.BranchFinderBu
 import quickml.supervised.tree.branchingConditions.BranchingConditions;
 import quickml.supervised.tree.constants.AttributeType;
 import quickml.supervised.tree.constants.BranchType;
-import quickml.supervised.dataProcessing.BasicTrainingDataSurveyor;
 import quickml.supervised.tree.decisionTree.branchingConditions.DTBranchingConditions;
 import quickml.supervised.tree.nodes.LeafBuilder;
 import quickml.supervised.tree.reducers.ReducerFactory;
@@ -25,6 +27,7 @@ import quickml.supervised.tree.regressionTree.scorers.RTPenalizedMSEScorerFactor
 import quickml.supervised.tree.regressionTree.valueCounters.MeanValueCounter;
 import quickml.supervised.tree.regressionTree.valueCounters.MeanValueCounterProducer;
 import quickml.supervised.tree.scorers.ScorerFactory;
+import quickml.supervised.tree.treeBuildContexts.PreparedTrainingData;
 import quickml.supervised.tree.treeBuildContexts.TreeContextBuilder;
 
 import java.io.Serializable;
@@ -45,16 +48,35 @@ public class RTreeContextBuilder<I extends RegressionInstance> extends TreeConte
 
     @Override
     public RTreeContext<I> buildContext(List<I> trainingData) {
-        boolean considerBooleanAttributes = hasBranchFinderBuilder(BranchType.BOOLEAN);
-        BasicTrainingDataSurveyor<I> decTreeTrainingDataSurveyor = new BasicTrainingDataSurveyor<>(considerBooleanAttributes);
-        Map<AttributeType, Set<String>> candidateAttributesByType = decTreeTrainingDataSurveyor.groupAttributesByType(trainingData);
-        List<BranchFinderAndReducerFactory<I, MeanValueCounter>> branchFinderAndReducers = intializeBranchFindersAndReducers(candidateAttributesByType);
-        return new RTreeContext<I>(
+        return buildContext(trainingData, prepare(trainingData));
+    }
+
+    @Override
+    public RTreeContext<I> buildContext(ColumnarDataset trainingData) {
+        return buildContext(trainingData, prepare(trainingData));
+    }
+
+    @Override
+    public RTreeContext<I> buildContext(List<I> trainingData, PreparedTrainingData<I, MeanValueCounter> preparedTrainingData) {
+        return buildContext(preparedTrainingData, Optional.<PresortedRows>absent());
+    }
+
+    @Override
+    public RTreeContext<I> buildContext(ColumnarDataset trainingData, PreparedTrainingData<I, MeanValueCounter> preparedTrainingData) {
+        return buildContext(preparedTrainingData, getPresortedRows(trainingData, preparedTrainingData.getCandidateAttributesByType().get(AttributeType.NUMERIC)));
+    }
+
+    private RTreeContext<I> buildContext(PreparedTrainingData<I, MeanValueCounter> preparedTrainingData, Optional<PresortedRows> presortedRows) {
+        List<BranchFinderAndReducerFactory<I, MeanValueCounter>> branchFinderAndReducers = intializeBranchFindersAndReducers(preparedTrainingData.getCandidateAttributesByType(), presortedRows);
+        RTreeContext<I> context = new RTreeContext<I>(
                 (BranchingConditions<MeanValueCounter>) config.get(BRANCHING_CONDITIONS.name()),
                 (ScorerFactory<MeanValueCounter>) config.get(SCORER_FACTORY.name()),
                 branchFinderAndReducers,
                 (LeafBuilder<MeanValueCounter>) config.get(LEAF_BUILDER.name()),
-                getValueCounterProducer());
+                preparedTrainingData.getValueCounterProducer());
+        context.setPresortedRows(presortedRows);
+        context.setRandom(getRandom());
+        return context;
     }
 
     @Override
@@ -86,12 +108,12 @@ public class RTreeContextBuilder<I extends RegressionInstance> extends TreeConte
         return getDefaultBranchFinderBuilders();
     }
 
-    private List<BranchFinderAndReducerFactory<I, MeanValueCounter>> intializeBranchFindersAndReducers(Map<AttributeType, Set<String>> candidateAttributesByType) {
+    private List<BranchFinderAndReducerFactory<I, MeanValueCounter>> intializeBranchFindersAndReducers(Map<AttributeType, Set<String>> candidateAttributesByType, Optional<PresortedRows> presortedRows) {
         /**Branch finders should be paired with the correct reducers. With this method, we don't leave open the possibility for a user to make a mistake with the pairings.
          * */
         //
         List<BranchFinderAndReducerFactory<I, MeanValueCounter>> branchFindersAndReducers = Lists.newArrayList();
-        Map<BranchType, ReducerFactory<I, MeanValueCounter>> reducerMap = getDefaultReducerFactories();
+        Map<BranchType, ReducerFactory<I, MeanValueCounter>> reducerMap = getDefaultReducerFactories(presortedRows);
         for (BranchFinderBuilder<MeanValueCounter> branchFinderBuilder : getBranchFinderBuilders()) {
                 AttributeType attributeType = AttributeType.convertBranchTypeToAttributeType(branchFinderBuilder.getBranchType());
                 BranchFinder<MeanValueCounter> branchFinder = branchFinderBuilder.buildBranchFinder(null, candidateAttributesByType.get(attributeType));
@@ -103,9 +125,13 @@ public class RTreeContextBuilder<I extends RegressionInstance> extends TreeConte
     }
 
     public static <I extends RegressionInstance> Map<BranchType, ReducerFactory<I, MeanValueCounter>> getDefaultReducerFactories() {
+        return getDefaultReducerFactories(Optional.<PresortedRows>absent());
+    }
+
+    public static <I extends RegressionInstance> Map<BranchType, ReducerFactory<I, MeanValueCounter>> getDefaultReducerFactories(Optional<PresortedRows> presortedRows) {
         Map<BranchType, ReducerFactory<I, MeanValueCounter>> reducerFactories = Maps.newHashMap();
         reducerFactories.put(BranchType.RT_CATEGORICAL, new RTCatBranchReducerFactory<I>());
-        reducerFactories.put(BranchType.RT_NUMERIC, new RTNumBranchReducerFactory<I>());
+        reducerFactories.put(BranchType.RT_NUMERIC, new RTNumBranchReducerFactory<I>(presortedRows));
         return reducerFactories;
     }
 
@@ -224,6 +250,27 @@ public class RTreeContextBuilder<I extends RegressionInstance> extends TreeConte
         if (config.containsKey(ATTRIBUTE_VALUE_IGNORING_STRATEGY_BUILDER.name())) {
             copiedConfig.put(ATTRIBUTE_VALUE_IGNORING_STRATEGY_BUILDER.name(), ((AttributeValueIgnoringStrategyBuilder<MeanValueCounter>) config.get(ATTRIBUTE_VALUE_IGNORING_STRATEGY.name())).copy());
         }
+        if (config.containsKey(NUM_HISTOGRAM_BINS.name())) {
+            copiedConfig.put(NUM_HISTOGRAM_BINS.name(), config.get(NUM_HISTOGRAM_BINS.name()));
+        }
+        if (config.containsKey(PARALLELISM.name())) {
+            copiedConfig.put(PARALLELISM.name(), config.get(PARALLELISM.name()));
+        }
+        if (config.containsKey(MIN_INSTANCES_FOR_PARALLEL_SUBTREES.name())) {
+            copiedConfig.put(MIN_INSTANCES_FOR_PARALLEL_SUBTREES.name(), config.get(MIN_INSTANCES_FOR_PARALLEL_SUBTREES.name()));
+        }
+        if (config.containsKey(SPARSE_NUMERIC_ATTRIBUTES.name())) {
+            copiedConfig.put(SPARSE_NUMERIC_ATTRIBUTES.name(), config.get(SPARSE_NUMERIC_ATTRIBUTES.name()));
+        }
+        if (config.containsKey(EXACT_NUMERIC_SPLITS.name())) {
+            copiedConfig.put(EXACT_NUMERIC_SPLITS.name(), config.get(EXACT_NUMERIC_SPLITS.name()));
+        }
+        if (config.containsKey(LEVEL_WISE_GROWTH.name())) {
+            copiedConfig.put(LEVEL_WISE_GROWTH.name(), config.get(LEVEL_WISE_GROWTH.name()));
+        }
+        if (config.containsKey(SEED.name())) {
+            copiedConfig.put(SEED.name(), config.get(SEED.name()));
+        }
         return copiedConfig;
     }
 
@@ -270,6 +317,41 @@ public class RTreeContextBuilder<I extends RegressionInstance> extends TreeConte
         config.put(NUM_NUMERIC_BINS.name(), numNumericBins);
     }
 
+    //doesn't have a default. When set, numeric attributes of a ColumnarDataset are pre-binned into at most this many (<= 255) bins.
+    public void numHistogramBins(int numHistogramBins) {
+        config.put(NUM_HISTOGRAM_BINS.name(), numHistogramBins);
+    }
+
+    //doesn't have a default. When set, numeric attributes of instance lists are reduced from a per node inverted index, with absent values treated as 0.
+    public void sparseNumericAttributes(boolean sparseNumericAttributes) {
+        config.put(SPARSE_NUMERIC_ATTRIBUTES.name(), sparseNumericAttributes);
+    }
+
+    //numeric attributes of a ColumnarDataset are argsorted once per tree, and every distinct value is tried as a threshold
+    public void exactNumericSplits(boolean exactNumericSplits) {
+        config.put(EXACT_NUMERIC_SPLITS.name(), exactNumericSplits);
+    }
+
+    //trees built from a ColumnarDataset grow a whole depth at a time, with one pass over the rows per depth.  Needs numHistogramBins
+    public void levelWiseGrowth(boolean levelWiseGrowth) {
+        config.put(LEVEL_WISE_GROWTH.name(), levelWiseGrowth);
+    }
+
+    //doesn't have a default. The seed of the tree's random numbers; a forest splits a seed per tree from it
+    public void seed(long seed) {
+        config.put(SEED.name(), seed);
+    }
+
+    //number of threads a single tree is built with; 1 builds it sequentially
+    public void parallelism(int parallelism) {
+        config.put(PARALLELISM.name(), parallelism);
+    }
+
+    //when building in parallel, nodes with at least this many instances build their subtrees as parallel tasks
+    public void minInstancesForParallelSubtrees(int minInstancesForParallelSubtrees) {
+        config.put(MIN_INSTANCES_FOR_PARALLEL_SUBTREES.name(), minInstancesForParallelSubtrees);
+    }
+
     public void branchingConditions(DTBranchingConditions branchingConditions) {
         config.put(BRANCHING_CONDITIONS.name(), branchingConditions);
     }
@@ -87,6 +87,22 @@ public class MeanValueCounter extends ValueCounter<MeanValueCounter> implements
         double accumulatedSquares = this.accumulatedSquares - other.accumulatedSquares;
         return new MeanValueCounter(this.attrVal, weightedNumValues, accumulatedValue, accumulatedSquares);  }
 
+    @Override
+    public MeanValueCounter addInPlace(final MeanValueCounter other) {
+        this.accumulatedWeight += other.accumulatedWeight;
+        this.accumulatedValue += other.accumulatedValue;
+        this.accumulatedSquares += other.accumulatedSquares;
+        return this;
+    }
+
+    @Override
+    public MeanValueCounter subtractInPlace(final MeanValueCounter other) {
+        this.accumulatedWeight -= other.accumulatedWeight;
+        this.accumulatedValue -= other.accumulatedValue;
+        this.accumulatedSquares -= other.accumulatedSquares;
+        return this;
+    }
+
     @Override
     public double getTotal() {
         return accumulatedWeight;
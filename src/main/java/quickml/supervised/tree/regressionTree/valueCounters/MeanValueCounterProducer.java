@@ -1,9 +1,11 @@
 package quickml.supervised.tree.regressionTree.valueCounters;
 
+import quickml.data.ColumnarDataset;
 import quickml.data.instances.RegressionInstance;
 import quickml.supervised.tree.decisionTree.valueCounters.ClassificationCounter;
 import quickml.supervised.tree.summaryStatistics.ValueCounterProducer;
 
+import java.io.Serializable;
 import java.util.List;
 
 /**
@@ -14,4 +16,29 @@ public class MeanValueCounterProducer<I extends RegressionInstance> implements V
     public MeanValueCounter getValueCounter(List<I> instances) {
         return MeanValueCounter.accumulateAll(instances);
     }
+
+    @Override
+    public MeanValueCounter getValueCounter(ColumnarDataset data, int[] rows, int from, int to) {
+        MeanValueCounter result = new MeanValueCounter();
+        for (int i = from; i < to; i++) {
+            int row = rows[i];
+            addRow(result, data, row);
+        }
+        return result;
+    }
+
+    @Override
+    public MeanValueCounter newValueCounter(Serializable attrVal) {
+        return new MeanValueCounter(attrVal);
+    }
+
+    @Override
+    public void addRow(MeanValueCounter valueCounter, ColumnarDataset data, int row) {
+        valueCounter.update(data.getNumericLabel(row), data.getWeight(row));
+    }
+
+    @Override
+    public void addInstance(MeanValueCounter valueCounter, I instance) {
+        valueCounter.update(instance.getLabel(), instance.getWeight());
+    }
 }
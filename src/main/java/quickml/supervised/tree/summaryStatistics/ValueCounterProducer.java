@@ -1,7 +1,9 @@
 package quickml.supervised.tree.summaryStatistics;
 
+import quickml.data.ColumnarDataset;
 import quickml.data.instances.InstanceWithAttributesMap;
 
+import java.io.Serializable;
 import java.util.List;
 
 /**
@@ -9,4 +11,18 @@ import java.util.List;
  */
 public interface ValueCounterProducer<I extends InstanceWithAttributesMap<?>, VC extends ValueCounter<VC>> {
     public abstract VC getValueCounter(List<I> instances);
+
+    public abstract VC getValueCounter(ColumnarDataset data, int[] rows, int from, int to);
+
+    public abstract VC newValueCounter(Serializable attrVal);
+
+    /**
+     * adds the label and weight of a row of a columnar dataset to valueCounter.
+     */
+    public abstract void addRow(VC valueCounter, ColumnarDataset data, int row);
+
+    /**
+     * adds the label and weight of instance to valueCounter.
+     */
+    public abstract void addInstance(VC valueCounter, I instance);
 }
@@ -7,4 +7,16 @@ package quickml.supervised.tree.summaryStatistics;
 public interface ValueStatisticsOperations<TS extends ValueStatistics> {
     TS add(TS ts);
     TS subtract(TS ts);
+
+    /**
+     * Adds ts to these statistics rather than to a copy of them.
+     * @return this
+     */
+    TS addInPlace(TS ts);
+
+    /**
+     * Subtracts ts from these statistics rather than from a copy of them.
+     * @return this
+     */
+    TS subtractInPlace(TS ts);
 }
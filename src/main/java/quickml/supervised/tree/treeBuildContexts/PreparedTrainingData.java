@@ -0,0 +1,39 @@
+package quickml.supervised.tree.treeBuildContexts;
+
+import quickml.data.instances.InstanceWithAttributesMap;
+import quickml.supervised.tree.constants.AttributeType;
+import quickml.supervised.tree.summaryStatistics.ValueCounter;
+import quickml.supervised.tree.summaryStatistics.ValueCounterProducer;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The survey of a training set that every tree built from it needs: its attributes grouped by type, the stats of all of
+ * its instances, and the value counter producer those stats were created with (for decision trees, the owner of the
+ * shared class index).  A forest prepares its training data once and hands the result to each of its trees, which only
+ * read it, rather than having every tree repeat the survey.  For bagged trees the stats are those of the unweighted data.
+ */
+public class PreparedTrainingData<I extends InstanceWithAttributesMap<?>, VC extends ValueCounter<VC>> {
+    private final Map<AttributeType, Set<String>> candidateAttributesByType;
+    private final VC aggregateStats;
+    private final ValueCounterProducer<I, VC> valueCounterProducer;
+
+    public PreparedTrainingData(Map<AttributeType, Set<String>> candidateAttributesByType, VC aggregateStats, ValueCounterProducer<I, VC> valueCounterProducer) {
+        this.candidateAttributesByType = candidateAttributesByType;
+        this.aggregateStats = aggregateStats;
+        this.valueCounterProducer = valueCounterProducer;
+    }
+
+    public Map<AttributeType, Set<String>> getCandidateAttributesByType() {
+        return candidateAttributesByType;
+    }
+
+    public VC getAggregateStats() {
+        return aggregateStats;
+    }
+
+    public ValueCounterProducer<I, VC> getValueCounterProducer() {
+        return valueCounterProducer;
+    }
+}
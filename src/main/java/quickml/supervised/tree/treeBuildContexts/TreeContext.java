@@ -1,6 +1,8 @@
 package quickml.supervised.tree.treeBuildContexts;
 
 import com.google.common.base.Optional;
+import quickml.concurrent.SplittableRandom;
+import quickml.supervised.tree.reducers.PresortedRows;
 import quickml.data.instances.InstanceWithAttributesMap;
 import quickml.supervised.tree.bagging.Bagging;
 import quickml.supervised.tree.branchFinders.BranchFinderAndReducerFactory;
@@ -33,6 +35,8 @@ public class TreeContext<I extends InstanceWithAttributesMap<?>, VC extends Valu
     private Optional<? extends Bagging> bagging;
     private final List<? extends BranchFinderAndReducerFactory<I, VC>> branchFindersAndReducers;
     private LeafBuilder<VC> leafBuilder;
+    private Optional<PresortedRows> presortedRows = Optional.absent();
+    private SplittableRandom random;
 
     public LeafBuilder<VC> getLeafBuilder() {
         return leafBuilder;
@@ -55,6 +59,28 @@ public class TreeContext<I extends InstanceWithAttributesMap<?>, VC extends Valu
         return branchingConditions;
     }
 
+    /**
+     * @return the numeric columns argsorted for this tree, present when exact numeric splits are used on a ColumnarDataset.
+     */
+    public Optional<PresortedRows> getPresortedRows() {
+        return presortedRows;
+    }
+
+    public void setPresortedRows(Optional<PresortedRows> presortedRows) {
+        this.presortedRows = presortedRows;
+    }
+
+    /**
+     * @return the random numbers of the root node.  Every node splits those of its children from its own.
+     */
+    public SplittableRandom getRandom() {
+        return random;
+    }
+
+    public void setRandom(SplittableRandom random) {
+        this.random = random;
+    }
+
     public Optional<? extends Bagging> getBagging() {
         return bagging;
     }
@@ -4,7 +4,11 @@ import com.google.common.base.Optional;
 import com.google.common.collect.Lists;
 
 import com.google.common.collect.Maps;
+import quickml.concurrent.SplittableRandom;
+import quickml.data.ColumnarDataset;
 import quickml.data.instances.InstanceWithAttributesMap;
+import quickml.supervised.dataProcessing.BasicTrainingDataSurveyor;
+import quickml.supervised.tree.reducers.PresortedRows;
 import quickml.supervised.tree.scorers.ScorerFactory;
 import quickml.supervised.tree.summaryStatistics.ValueCounterProducer;
 import quickml.supervised.tree.summaryStatistics.ValueCounter;
@@ -18,11 +22,15 @@ import static quickml.supervised.tree.constants.ForestOptions.*;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Created by alexanderhawk on 3/20/15.
  */
 public abstract class TreeContextBuilder<I extends InstanceWithAttributesMap<?>, VC extends ValueCounter<VC>> {
+    public static final int DEFAULT_PARALLELISM = 1;
+    public static final int DEFAULT_MIN_INSTANCES_FOR_PARALLEL_SUBTREES = 10000;
 
     protected Map<String, Serializable> config = Maps.newHashMap();
 
@@ -49,6 +57,44 @@ public abstract class TreeContextBuilder<I extends InstanceWithAttributesMap<?>,
         return (LeafBuilder<VC>) config.get(LEAF_BUILDER.name());
     }
 
+    public int getParallelism() {
+        return config.containsKey(PARALLELISM.name()) ? (Integer) config.get(PARALLELISM.name()) : DEFAULT_PARALLELISM;
+    }
+
+    public int getMinInstancesForParallelSubtrees() {
+        return config.containsKey(MIN_INSTANCES_FOR_PARALLEL_SUBTREES.name()) ? (Integer) config.get(MIN_INSTANCES_FOR_PARALLEL_SUBTREES.name())
+                : DEFAULT_MIN_INSTANCES_FOR_PARALLEL_SUBTREES;
+    }
+
+
+    public boolean getExactNumericSplits() {
+        return config.containsKey(EXACT_NUMERIC_SPLITS.name()) && (Boolean) config.get(EXACT_NUMERIC_SPLITS.name());
+    }
+
+    public boolean getLevelWiseGrowth() {
+        return config.containsKey(LEVEL_WISE_GROWTH.name()) && (Boolean) config.get(LEVEL_WISE_GROWTH.name());
+    }
+
+    public Optional<Long> getSeed() {
+        return Optional.fromNullable((Long) config.get(SEED.name()));
+    }
+
+    /**
+     * @return the random numbers of a tree, which are only reproducible when a seed is configured.
+     */
+    protected SplittableRandom getRandom() {
+        return new SplittableRandom(config.containsKey(SEED.name()) ? (Long) config.get(SEED.name()) : ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * The argsort is done here, once per tree, rather than by the reducers of each node.
+     */
+    protected Optional<PresortedRows> getPresortedRows(ColumnarDataset trainingData, Set<String> numericAttributes) {
+        if (!getExactNumericSplits() || numericAttributes == null) {
+            return Optional.absent();
+        }
+        return Optional.of(new PresortedRows(trainingData, numericAttributes));
+    }
 
     public TreeContextBuilder<I, VC> copy() {
         TreeContextBuilder<I, VC> copy = createTreeBuildContext();
@@ -102,6 +148,29 @@ public abstract class TreeContextBuilder<I extends InstanceWithAttributesMap<?>,
 
     public abstract TreeContext<I, VC> buildContext(List<I> trainingData);
 
+    public abstract TreeContext<I, VC> buildContext(ColumnarDataset trainingData);
+
+    /**
+     * builds a context from training data that was surveyed by prepare, so that the trees of a forest can share one survey.
+     */
+    public abstract TreeContext<I, VC> buildContext(List<I> trainingData, PreparedTrainingData<I, VC> preparedTrainingData);
+
+    public abstract TreeContext<I, VC> buildContext(ColumnarDataset trainingData, PreparedTrainingData<I, VC> preparedTrainingData);
+
+    public PreparedTrainingData<I, VC> prepare(List<I> trainingData) {
+        BasicTrainingDataSurveyor<I> trainingDataSurveyor = new BasicTrainingDataSurveyor<>(hasBranchFinderBuilder(BranchType.BOOLEAN));
+        ValueCounterProducer<I, VC> valueCounterProducer = getValueCounterProducer();
+        return new PreparedTrainingData<>(trainingDataSurveyor.groupAttributesByType(trainingData), valueCounterProducer.getValueCounter(trainingData),
+                valueCounterProducer);
+    }
+
+    public PreparedTrainingData<I, VC> prepare(ColumnarDataset trainingData) {
+        BasicTrainingDataSurveyor<I> trainingDataSurveyor = new BasicTrainingDataSurveyor<>(hasBranchFinderBuilder(BranchType.BOOLEAN));
+        ValueCounterProducer<I, VC> valueCounterProducer = getValueCounterProducer();
+        return new PreparedTrainingData<>(trainingDataSurveyor.groupAttributesByType(trainingData),
+                valueCounterProducer.getValueCounter(trainingData, trainingData.allRows(), 0, trainingData.size()), valueCounterProducer);
+    }
+
     public abstract void setDefaultsAsNeeded();
 
     public abstract Map<String, Serializable> deepCopyConfig(Map<String, Serializable> config);
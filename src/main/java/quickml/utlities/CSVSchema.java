@@ -0,0 +1,64 @@
+package quickml.utlities;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The types of the columns of a csv file, so that a reader decides how to convert a column once, rather than for each
+ * value (see StreamingCSVReader).  Columns that aren't declared get the default type, which is INFERRED unless given.
+ */
+public class CSVSchema {
+    public enum ColumnType {
+        //values are Longs or Doubles
+        NUMERIC,
+        //values are Strings, even if they look like numbers
+        CATEGORICAL,
+        //values that parse as a Long or a Double are numbers, other values are Strings
+        INFERRED,
+        //the column isn't read
+        IGNORED
+    }
+
+    private final Map<String, ColumnType> columnTypes = Maps.newHashMap();
+    private final ColumnType defaultType;
+
+    public CSVSchema() {
+        this(ColumnType.INFERRED);
+    }
+
+    public CSVSchema(ColumnType defaultType) {
+        this.defaultType = Preconditions.checkNotNull(defaultType);
+    }
+
+    public CSVSchema column(String columnName, ColumnType columnType) {
+        columnTypes.put(columnName, Preconditions.checkNotNull(columnType));
+        return this;
+    }
+
+    public CSVSchema numericColumns(Set<String> columnNames) {
+        return columns(columnNames, ColumnType.NUMERIC);
+    }
+
+    public CSVSchema categoricalColumns(Set<String> columnNames) {
+        return columns(columnNames, ColumnType.CATEGORICAL);
+    }
+
+    public CSVSchema ignoredColumns(Set<String> columnNames) {
+        return columns(columnNames, ColumnType.IGNORED);
+    }
+
+    private CSVSchema columns(Set<String> columnNames, ColumnType columnType) {
+        for (String columnName : columnNames) {
+            column(columnName, columnType);
+        }
+        return this;
+    }
+
+    public ColumnType getColumnType(String columnName) {
+        ColumnType columnType = columnTypes.get(columnName);
+        return columnType != null ? columnType : defaultType;
+    }
+}
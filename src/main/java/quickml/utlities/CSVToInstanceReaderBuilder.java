@@ -1,6 +1,7 @@
 package quickml.utlities;
 
 import com.google.common.base.Optional;
+import quickml.concurrent.ComputeScheduler;
 
 import java.util.List;
 
@@ -36,6 +37,9 @@ public class CSVToInstanceReaderBuilder {
     private Optional<NumericSelector> numericSelector = Optional.absent();
     private char delimiter = ',';
     private boolean hasHeader = true;
+    private Optional<CSVSchema> schema = Optional.absent();
+    private int chunkSize = StreamingCSVReader.DEFAULT_CHUNK_SIZE;
+    private ComputeScheduler scheduler = ComputeScheduler.getShared();
 
 
     public CSVToInstanceReaderBuilder categoricalSelector(CategoricalSelector categoricalSelector) {
@@ -78,6 +82,32 @@ public class CSVToInstanceReaderBuilder {
         return this;
     }
 
+    /**
+     * The types of the columns, for the StreamingCSVReader.  A schema takes precedence over the selectors.
+     */
+    public CSVToInstanceReaderBuilder schema(CSVSchema schema) {
+        this.schema = Optional.of(schema);
+        return this;
+    }
+
+    /**
+     * The approximate number of bytes the StreamingCSVReader parses in a task.
+     */
+    public CSVToInstanceReaderBuilder chunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    public CSVToInstanceReaderBuilder scheduler(ComputeScheduler scheduler) {
+        this.scheduler = scheduler;
+        return this;
+    }
+
+    public StreamingCSVReader buildStreamingCsvReader() {
+        return new StreamingCSVReader(delimiter, columnNameForLabel, columnNameForWeight, schema, categoricalSelector, numericSelector,
+                hasHeader, chunkSize, scheduler);
+    }
+
     public CSVToInstanceReader buildCsvReader(){
         return new CSVToInstanceReader(delimiter, columnNameForLabel, columnNameForWeight, categoricalSelector, numericSelector, hasHeader);
     }
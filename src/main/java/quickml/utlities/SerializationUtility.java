@@ -1,5 +1,7 @@
 package quickml.utlities;
 
+import quickml.utlities.binaryFormat.BinaryModelFormat;
+
 import java.io.*;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
@@ -26,4 +28,23 @@ public class SerializationUtility<E> {
             throw new RuntimeException("Error reading predictive model", e);
         }
     }
+
+    /**
+     * Loads a model written by writeModelToBinaryFile (see BinaryModelFormat).
+     */
+    public E loadObjectFromBinaryFile(final String modelFile) {
+        try (InputStream is = new FileInputStream(modelFile)) {
+            return (E) BinaryModelFormat.read(is);
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading predictive model", e);
+        }
+    }
+
+    public void writeModelToBinaryFile(final String modelFileName, E object, boolean compress) {
+        try (OutputStream os = new FileOutputStream(modelFileName)) {
+            BinaryModelFormat.write(object, os, compress);
+        } catch (IOException e) {
+            throw new RuntimeException("Error writing predictive model", e);
+        }
+    }
 }
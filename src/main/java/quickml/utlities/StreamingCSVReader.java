@@ -0,0 +1,749 @@
+package quickml.utlities;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import quickml.concurrent.ComputeScheduler;
+import quickml.data.AttributesMap;
+import quickml.data.AttributesSchema;
+import quickml.data.ColumnarDataset;
+import quickml.data.instances.ClassifierInstance;
+import quickml.utlities.CSVSchema.ColumnType;
+import quickml.utlities.selectors.CategoricalSelector;
+import quickml.utlities.selectors.NumericSelector;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Reads csv files, with the same defaults and options as the CSVToInstanceReader, in chunks that are split at line breaks,
+ * memory mapped and parsed in parallel on a ComputeScheduler.  How each column is converted is decided once, from the
+ * header: by the CSVSchema if one is given, otherwise by the selectors, otherwise each value that parses as a number is
+ * one.  Declaring columns NUMERIC or CATEGORICAL in a schema saves trying to parse every value.
+ * <p/>
+ * iterateClassifierInstances streams instances, keeping only a few chunks in memory.  readColumnarDatasetForClassification
+ * and readColumnarDatasetForRegression parse straight into the primitive columns of a ColumnarDataset for the tree builders.
+ * <p/>
+ * Values may be quoted with '"', and a quote in a quoted value is written twice, but values can't contain line breaks.
+ */
+public class StreamingCSVReader {
+    public static final int DEFAULT_CHUNK_SIZE = 32 << 20;
+    private static final byte QUOTE = '"';
+    private static final byte NEWLINE = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+    private static final String MISSING_LABEL = "missing label";
+    private static final int INITIAL_CHUNK_ROWS = 1 << 10;
+
+    private final byte delimiter;
+    private final String columnNameForLabel;
+    private final String columnNameForWeight;
+    private final Optional<CSVSchema> schema;
+    private final Optional<CategoricalSelector> categoricalSelector;
+    private final Optional<NumericSelector> numericSelector;
+    private final boolean hasHeader;
+    private final int chunkSize;
+    private final ComputeScheduler scheduler;
+
+    public StreamingCSVReader(char delimiter, String columnNameForLabel, String columnNameForWeight, Optional<CSVSchema> schema,
+                              Optional<CategoricalSelector> categoricalSelector, Optional<NumericSelector> numericSelector,
+                              boolean hasHeader, int chunkSize, ComputeScheduler scheduler) {
+        Preconditions.checkArgument(delimiter < 0x80 && delimiter != '"' && delimiter != '\n' && delimiter != '\r',
+                "delimiter must be an ascii character other than a quote or a line break");
+        Preconditions.checkArgument(chunkSize > 0, "chunkSize must be positive");
+        this.delimiter = (byte) delimiter;
+        this.columnNameForLabel = columnNameForLabel;
+        this.columnNameForWeight = columnNameForWeight;
+        this.schema = schema;
+        this.categoricalSelector = categoricalSelector;
+        this.numericSelector = numericSelector;
+        this.hasHeader = hasHeader;
+        this.chunkSize = chunkSize;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * @return the instances of the file, in order.  Chunks are parsed ahead of the iterator, on up to twice as many
+     * chunks as the scheduler has threads.
+     */
+    public Iterator<ClassifierInstance> iterateClassifierInstances(final File file) throws IOException {
+        final Columns columns = readColumns(file);
+        final int maxPendingChunks = 2 * scheduler.getParallelism();
+        return new AbstractIterator<ClassifierInstance>() {
+            private final Deque<ForkJoinTask<List<ClassifierInstance>>> pendingChunks = new ArrayDeque<>();
+            private long nextChunkStart = columns.dataStart;
+            private Iterator<ClassifierInstance> chunk = Collections.emptyIterator();
+
+            @Override
+            protected ClassifierInstance computeNext() {
+                while (!chunk.hasNext()) {
+                    try {
+                        while (pendingChunks.size() < maxPendingChunks && nextChunkStart < columns.fileLength) {
+                            long chunkEnd = findLineStart(file, nextChunkStart + chunkSize, columns.fileLength);
+                            pendingChunks.add(scheduler.submit(new InstanceChunkParser(file, columns, nextChunkStart, chunkEnd)));
+                            nextChunkStart = chunkEnd;
+                        }
+                    } catch (IOException e) {
+                        throw new RuntimeException("Error reading " + file, e);
+                    }
+                    if (pendingChunks.isEmpty()) {
+                        return endOfData();
+                    }
+                    chunk = pendingChunks.poll().join().iterator();
+                }
+                return chunk.next();
+            }
+        };
+    }
+
+    public List<ClassifierInstance> readClassifierInstances(File file) throws IOException {
+        return Lists.newArrayList(iterateClassifierInstances(file));
+    }
+
+    /**
+     * @return the file as columns with classification labels, the same as ColumnarDataset.forClassification of the
+     * file's instances.
+     */
+    public ColumnarDataset readColumnarDatasetForClassification(File file) throws IOException {
+        return readColumnarDataset(file, false);
+    }
+
+    /**
+     * @return the file as columns with numeric labels.  Rows whose label is missing or isn't a number are skipped.
+     */
+    public ColumnarDataset readColumnarDatasetForRegression(File file) throws IOException {
+        return readColumnarDataset(file, true);
+    }
+
+    private ColumnarDataset readColumnarDataset(File file, boolean numericLabels) throws IOException {
+        Columns columns = readColumns(file);
+        List<ColumnChunkParser> parsers = Lists.newArrayList();
+        for (long chunkStart = columns.dataStart; chunkStart < columns.fileLength; ) {
+            long chunkEnd = findLineStart(file, chunkStart + chunkSize, columns.fileLength);
+            parsers.add(new ColumnChunkParser(file, columns, chunkStart, chunkEnd, numericLabels));
+            chunkStart = chunkEnd;
+        }
+        return mergeChunks(columns, scheduler.invokeAll(parsers), numericLabels);
+    }
+
+    private Columns readColumns(File file) throws IOException {
+        long fileLength = file.length();
+        long firstLineEnd = findLineStart(file, 0, fileLength);
+        List<String> firstLine = Lists.newArrayList();
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+            ByteBuffer buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, firstLineEnd);
+            new LineParser(buffer).parseLine(0, buffer.limit(), firstLine);
+        }
+        String[] names = new String[firstLine.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = hasHeader ? firstLine.get(i) : "x" + i;
+        }
+        return new Columns(names, hasHeader ? firstLineEnd : 0, fileLength);
+    }
+
+    /**
+     * @return the position after the first line break at or after position, or fileLength if there is none.
+     */
+    private static long findLineStart(File file, long position, long fileLength) throws IOException {
+        if (position >= fileLength) {
+            return fileLength;
+        }
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+            FileChannel channel = randomAccessFile.getChannel();
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 13);
+            while (position < fileLength) {
+                buffer.clear();
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (buffer.get(i) == NEWLINE) {
+                        return position + i + 1;
+                    }
+                }
+                position += read;
+            }
+        }
+        return fileLength;
+    }
+
+    /**
+     * How each column of a file is read, decided once from its header.
+     */
+    private class Columns {
+        final String[] names;
+        final ColumnType[] types;
+        //whether a column's values are cleaned by the categorical or the numeric selector
+        final boolean[] cleanCategorical;
+        final boolean[] cleanNumeric;
+        final int labelColumn;
+        final int weightColumn;
+        final long dataStart;
+        final long fileLength;
+
+        Columns(String[] names, long dataStart, long fileLength) {
+            this.names = names;
+            this.dataStart = dataStart;
+            this.fileLength = fileLength;
+            types = new ColumnType[names.length];
+            cleanCategorical = new boolean[names.length];
+            cleanNumeric = new boolean[names.length];
+            int labelColumn = columnNameForLabel == null ? 0 : -1;
+            int weightColumn = -1;
+            for (int i = 0; i < names.length; i++) {
+                if (columnNameForLabel != null && columnNameForLabel.equals(names[i])) {
+                    labelColumn = i;
+                }
+                if (columnNameForWeight != null && columnNameForWeight.equals(names[i])) {
+                    weightColumn = i;
+                }
+                if (schema.isPresent()) {
+                    types[i] = schema.get().getColumnType(names[i]);
+                } else if (categoricalSelector.isPresent() && categoricalSelector.get().isCategorical(names[i])) {
+                    types[i] = ColumnType.CATEGORICAL;
+                    cleanCategorical[i] = true;
+                } else if (numericSelector.isPresent() && !numericSelector.get().isNumeric(names[i])) {
+                    types[i] = ColumnType.CATEGORICAL;
+                } else {
+                    //selected numeric columns keep the CSVToInstanceReader's fallback to strings
+                    types[i] = ColumnType.INFERRED;
+                    cleanNumeric[i] = numericSelector.isPresent();
+                }
+            }
+            this.labelColumn = labelColumn;
+            this.weightColumn = weightColumn;
+        }
+
+        boolean isAttribute(int column) {
+            return column != labelColumn && column != weightColumn && types[column] != ColumnType.IGNORED;
+        }
+
+        Serializable convert(int column, String value) {
+            switch (types[column]) {
+                case NUMERIC:
+                    try {
+                        return parseNumber(value);
+                    } catch (NumberFormatException e) {
+                        throw new NumberFormatException("the value " + value + " of numeric column " + names[column] + " isn't a number");
+                    }
+                case CATEGORICAL:
+                    return cleanCategorical[column] ? categoricalSelector.get().cleanValue(value) : value;
+                default:
+                    return toNumberOrString(cleanNumeric[column] ? numericSelector.get().cleanValue(value) : value);
+            }
+        }
+
+        double toDouble(int column, String value) {
+            if (types[column] == ColumnType.NUMERIC) {
+                return Double.parseDouble(value);
+            }
+            Serializable converted = convert(column, value);
+            if (!(converted instanceof Number)) {
+                throw new NumberFormatException("the value " + value + " of column " + names[column] + " isn't a number");
+            }
+            return ((Number) converted).doubleValue();
+        }
+
+        void checkNumFields(List<String> fields) {
+            if (fields.size() < names.length) {
+                throw new IndexOutOfBoundsException("a row has " + fields.size() + " values, but the header has " + names.length + " columns");
+            }
+        }
+    }
+
+    private static Serializable parseNumber(String value) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            return Double.valueOf(value);
+        }
+    }
+
+    //as CSVToInstanceReader.tryToConvertToNumeric, without trying to parse values that can't be numbers
+    private static Serializable toNumberOrString(String value) {
+        if ((value.startsWith("\"") && value.endsWith("\"")) || (value.startsWith("\'") && value.endsWith("\'"))) {
+            value = value.substring(1, value.length() - 1);
+        }
+        if (value.isEmpty() || "0123456789+-.NI \t".indexOf(value.charAt(0)) < 0) {
+            return value;
+        }
+        try {
+            return parseNumber(value);
+        } catch (NumberFormatException e) {
+            return value;
+        }
+    }
+
+    /**
+     * Splits the lines of a buffer into their values.
+     */
+    private class LineParser {
+        private final ByteBuffer buffer;
+        private byte[] bytes = new byte[256];
+
+        LineParser(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        /**
+         * Adds the values of the line starting at position to fields, with missing values as empty strings.
+         * @return the position after the line.
+         */
+        int parseLine(int position, int end, List<String> fields) {
+            fields.clear();
+            while (true) {
+                int length = 0;
+                if (position < end && buffer.get(position) == QUOTE) {
+                    position++;
+                    while (true) {
+                        if (position >= end || buffer.get(position) == NEWLINE) {
+                            throw new RuntimeException("unterminated quoted value; values can't contain line breaks");
+                        }
+                        byte b = buffer.get(position++);
+                        if (b == QUOTE) {
+                            if (position < end && buffer.get(position) == QUOTE) {
+                                position++;
+                            } else {
+                                break;
+                            }
+                        }
+                        length = append(length, b);
+                    }
+                    //anything between the closing quote and the delimiter is part of the value, as for opencsv
+                    while (position < end && buffer.get(position) != delimiter && buffer.get(position) != NEWLINE) {
+                        length = append(length, buffer.get(position++));
+                    }
+                } else {
+                    while (position < end && buffer.get(position) != delimiter && buffer.get(position) != NEWLINE) {
+                        length = append(length, buffer.get(position++));
+                    }
+                }
+                boolean endOfLine = position >= end || buffer.get(position) == NEWLINE;
+                if (endOfLine && length > 0 && bytes[length - 1] == CARRIAGE_RETURN) {
+                    length--;
+                }
+                fields.add(new String(bytes, 0, length, StandardCharsets.UTF_8));
+                position++;
+                if (endOfLine) {
+                    return Math.min(position, end);
+                }
+            }
+        }
+
+        private int append(int length, byte b) {
+            if (length == bytes.length) {
+                bytes = Arrays.copyOf(bytes, 2 * length);
+            }
+            bytes[length] = b;
+            return length + 1;
+        }
+    }
+
+    /**
+     * Parses the lines between start and end, which are line starts, passing the values of each non blank line to parseRow.
+     */
+    private abstract class ChunkParser<T> implements Callable<T> {
+        private final File file;
+        private final long start;
+        private final long end;
+        final Columns columns;
+
+        ChunkParser(File file, Columns columns, long start, long end) {
+            this.file = file;
+            this.columns = columns;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public T call() throws IOException {
+            ByteBuffer buffer;
+            try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+                //the mapping outlives the channel
+                buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            }
+            LineParser lineParser = new LineParser(buffer);
+            List<String> fields = Lists.newArrayList();
+            int position = 0;
+            while (position < buffer.limit()) {
+                position = lineParser.parseLine(position, buffer.limit(), fields);
+                if (fields.size() > 1 || !fields.get(0).isEmpty()) {
+                    columns.checkNumFields(fields);
+                    parseRow(fields);
+                }
+            }
+            return getResult();
+        }
+
+        abstract void parseRow(List<String> fields);
+
+        abstract T getResult();
+    }
+
+    private class InstanceChunkParser extends ChunkParser<List<ClassifierInstance>> {
+        private final List<ClassifierInstance> instances = Lists.newArrayList();
+        //the keys of the current row, and the schema of the last row, which rows with the same missing cells share
+        private final String[] keys;
+        private AttributesSchema lastSchema = AttributesSchema.EMPTY;
+
+        InstanceChunkParser(File file, Columns columns, long start, long end) {
+            super(file, columns, start, end);
+            keys = new String[columns.names.length];
+        }
+
+        @Override
+        void parseRow(List<String> fields) {
+            Serializable[] values = new Serializable[keys.length];
+            int numAttributes = 0;
+            Serializable label = MISSING_LABEL;
+            double weight = 1.0;
+            for (int column = 0; column < columns.names.length; column++) {
+                String value = fields.get(column);
+                if (value.isEmpty()) {
+                    continue;
+                }
+                if (column == columns.labelColumn) {
+                    label = columns.convert(column, value);
+                } else if (column == columns.weightColumn) {
+                    weight = columns.toDouble(column, value);
+                } else if (columns.isAttribute(column)) {
+                    keys[numAttributes] = columns.names[column];
+                    values[numAttributes] = columns.convert(column, value);
+                    numAttributes++;
+                }
+            }
+            instances.add(new ClassifierInstance(new AttributesMap(getSchema(numAttributes), values), label, weight));
+        }
+
+        private AttributesSchema getSchema(int numAttributes) {
+            if (lastSchema.size() == numAttributes) {
+                int i = 0;
+                while (i < numAttributes && lastSchema.getKey(i).equals(keys[i])) {
+                    i++;
+                }
+                if (i == numAttributes) {
+                    return lastSchema;
+                }
+            }
+            lastSchema = AttributesSchema.of(Arrays.copyOf(keys, numAttributes));
+            return lastSchema;
+        }
+
+        @Override
+        List<ClassifierInstance> getResult() {
+            return instances;
+        }
+    }
+
+    /**
+     * Parses a chunk into columns, with NUMERIC columns as doubles, CATEGORICAL columns and classification labels as codes
+     * into dictionaries of the chunk, and INFERRED columns as values, until every chunk has been seen.
+     */
+    private class ColumnChunkParser extends ChunkParser<ColumnChunk> {
+        private final boolean numericLabels;
+        private final ColumnChunk chunk;
+
+        ColumnChunkParser(File file, Columns columns, long start, long end, boolean numericLabels) {
+            super(file, columns, start, end);
+            this.numericLabels = numericLabels;
+            this.chunk = new ColumnChunk(columns, numericLabels);
+        }
+
+        @Override
+        void parseRow(List<String> fields) {
+            double numericLabel = 0;
+            if (numericLabels) {
+                String value = columns.labelColumn >= 0 ? fields.get(columns.labelColumn) : "";
+                Serializable label = value.isEmpty() ? null : columns.convert(columns.labelColumn, value);
+                if (!(label instanceof Number)) {
+                    return;
+                }
+                numericLabel = ((Number) label).doubleValue();
+            }
+            int row = chunk.addRow();
+            if (numericLabels) {
+                chunk.numericLabels[row] = numericLabel;
+            }
+            for (int column = 0; column < columns.names.length; column++) {
+                String value = fields.get(column);
+                if (value.isEmpty()) {
+                    continue;
+                }
+                if (column == columns.labelColumn) {
+                    if (!numericLabels) {
+                        chunk.labelCodes[row] = chunk.labelDictionary.encode(columns.convert(column, value));
+                    }
+                } else if (column == columns.weightColumn) {
+                    chunk.weights[row] = columns.toDouble(column, value);
+                } else if (columns.types[column] == ColumnType.NUMERIC) {
+                    chunk.numericColumns[column][row] = columns.toDouble(column, value);
+                    chunk.hasValues[column] = true;
+                } else if (columns.types[column] == ColumnType.CATEGORICAL) {
+                    chunk.codeColumns[column][row] = chunk.dictionaries[column].encode(columns.convert(column, value));
+                    chunk.hasValues[column] = true;
+                } else if (columns.types[column] == ColumnType.INFERRED) {
+                    chunk.valueColumns[column][row] = columns.convert(column, value);
+                    chunk.hasValues[column] = true;
+                }
+            }
+            if (!numericLabels && chunk.labelCodes[row] == ColumnarDataset.MISSING_CODE) {
+                chunk.labelCodes[row] = chunk.labelDictionary.encode(MISSING_LABEL);
+            }
+        }
+
+        @Override
+        ColumnChunk getResult() {
+            return chunk;
+        }
+    }
+
+    private static class ColumnChunk {
+        final Columns columns;
+        int size;
+        double[] weights = new double[INITIAL_CHUNK_ROWS];
+        int[] labelCodes;
+        Dictionary labelDictionary;
+        double[] numericLabels;
+        //indexed by column; only the arrays of the column's type are set
+        final double[][] numericColumns;
+        final int[][] codeColumns;
+        final Dictionary[] dictionaries;
+        final Serializable[][] valueColumns;
+        final boolean[] hasValues;
+
+        ColumnChunk(Columns columns, boolean numericLabels) {
+            this.columns = columns;
+            int numColumns = columns.names.length;
+            if (numericLabels) {
+                this.numericLabels = new double[INITIAL_CHUNK_ROWS];
+            } else {
+                labelCodes = newCodes(INITIAL_CHUNK_ROWS);
+                labelDictionary = new Dictionary();
+            }
+            numericColumns = new double[numColumns][];
+            codeColumns = new int[numColumns][];
+            dictionaries = new Dictionary[numColumns];
+            valueColumns = new Serializable[numColumns][];
+            hasValues = new boolean[numColumns];
+            for (int column = 0; column < numColumns; column++) {
+                if (!columns.isAttribute(column)) {
+                    continue;
+                }
+                if (columns.types[column] == ColumnType.NUMERIC) {
+                    numericColumns[column] = newValues(INITIAL_CHUNK_ROWS);
+                } else if (columns.types[column] == ColumnType.CATEGORICAL) {
+                    codeColumns[column] = newCodes(INITIAL_CHUNK_ROWS);
+                    dictionaries[column] = new Dictionary();
+                } else {
+                    valueColumns[column] = new Serializable[INITIAL_CHUNK_ROWS];
+                }
+            }
+        }
+
+        /**
+         * @return the index of a new row with missing values, a weight of 1 and a missing label.
+         */
+        int addRow() {
+            if (size == weights.length) {
+                int capacity = 2 * size;
+                weights = Arrays.copyOf(weights, capacity);
+                if (labelCodes != null) {
+                    labelCodes = grow(labelCodes, capacity);
+                } else {
+                    numericLabels = Arrays.copyOf(numericLabels, capacity);
+                }
+                for (int column = 0; column < numericColumns.length; column++) {
+                    if (numericColumns[column] != null) {
+                        numericColumns[column] = grow(numericColumns[column], capacity);
+                    } else if (codeColumns[column] != null) {
+                        codeColumns[column] = grow(codeColumns[column], capacity);
+                    } else if (valueColumns[column] != null) {
+                        valueColumns[column] = Arrays.copyOf(valueColumns[column], capacity);
+                    }
+                }
+            }
+            weights[size] = 1.0;
+            return size++;
+        }
+
+        private static double[] newValues(int capacity) {
+            double[] values = new double[capacity];
+            Arrays.fill(values, Double.NaN);
+            return values;
+        }
+
+        private static int[] newCodes(int capacity) {
+            int[] codes = new int[capacity];
+            Arrays.fill(codes, ColumnarDataset.MISSING_CODE);
+            return codes;
+        }
+
+        private static double[] grow(double[] values, int capacity) {
+            double[] grown = Arrays.copyOf(values, capacity);
+            Arrays.fill(grown, values.length, capacity, Double.NaN);
+            return grown;
+        }
+
+        private static int[] grow(int[] codes, int capacity) {
+            int[] grown = Arrays.copyOf(codes, capacity);
+            Arrays.fill(grown, codes.length, capacity, ColumnarDataset.MISSING_CODE);
+            return grown;
+        }
+    }
+
+    /**
+     * Codes values in the order they are first seen.
+     */
+    private static class Dictionary {
+        final Map<Serializable, Integer> index = Maps.newHashMap();
+        final List<Serializable> values = Lists.newArrayList();
+
+        int encode(Serializable value) {
+            Integer code = index.get(value);
+            if (code == null) {
+                code = values.size();
+                index.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+
+        /**
+         * @return the codes in this dictionary of the values of other, which are added to this dictionary if need be.
+         */
+        int[] encodeAll(Dictionary other) {
+            int[] codes = new int[other.values.size()];
+            for (int code = 0; code < codes.length; code++) {
+                codes[code] = encode(other.values.get(code));
+            }
+            return codes;
+        }
+    }
+
+    /**
+     * Concatenates the chunks' columns, recoding each chunk's categorical values into dictionaries of the whole file.  An
+     * INFERRED column is numeric iff all its values are numbers, as in ColumnarDataset.  Columns without values are left out.
+     */
+    private static ColumnarDataset mergeChunks(Columns columns, List<ColumnChunk> chunks, boolean numericLabels) {
+        int size = 0;
+        for (ColumnChunk chunk : chunks) {
+            size += chunk.size;
+        }
+        double[] weights = new double[size];
+        int[] labelCodes = numericLabels ? null : new int[size];
+        Dictionary labelDictionary = numericLabels ? null : new Dictionary();
+        double[] mergedNumericLabels = numericLabels ? new double[size] : null;
+        int offset = 0;
+        for (ColumnChunk chunk : chunks) {
+            System.arraycopy(chunk.weights, 0, weights, offset, chunk.size);
+            if (numericLabels) {
+                System.arraycopy(chunk.numericLabels, 0, mergedNumericLabels, offset, chunk.size);
+            } else {
+                int[] recoding = labelDictionary.encodeAll(chunk.labelDictionary);
+                for (int row = 0; row < chunk.size; row++) {
+                    labelCodes[offset + row] = recoding[chunk.labelCodes[row]];
+                }
+            }
+            offset += chunk.size;
+        }
+
+        Map<String, double[]> numericColumns = Maps.newHashMap();
+        Map<String, int[]> categoricalColumns = Maps.newHashMap();
+        Map<String, List<Serializable>> dictionaries = Maps.newHashMap();
+        for (int column = 0; column < columns.names.length; column++) {
+            if (!columns.isAttribute(column) || !hasValues(chunks, column)) {
+                continue;
+            }
+            String name = columns.names[column];
+            ColumnType type = columns.types[column];
+            if (type == ColumnType.NUMERIC || (type == ColumnType.INFERRED && allNumbers(chunks, column))) {
+                double[] values = ColumnChunk.newValues(size);
+                offset = 0;
+                for (ColumnChunk chunk : chunks) {
+                    if (type == ColumnType.NUMERIC) {
+                        System.arraycopy(chunk.numericColumns[column], 0, values, offset, chunk.size);
+                    } else {
+                        Serializable[] chunkValues = chunk.valueColumns[column];
+                        for (int row = 0; row < chunk.size; row++) {
+                            if (chunkValues[row] != null) {
+                                values[offset + row] = ((Number) chunkValues[row]).doubleValue();
+                            }
+                        }
+                    }
+                    offset += chunk.size;
+                }
+                numericColumns.put(name, values);
+            } else {
+                int[] codes = ColumnChunk.newCodes(size);
+                Dictionary dictionary = new Dictionary();
+                offset = 0;
+                for (ColumnChunk chunk : chunks) {
+                    if (type == ColumnType.CATEGORICAL) {
+                        int[] recoding = dictionary.encodeAll(chunk.dictionaries[column]);
+                        int[] chunkCodes = chunk.codeColumns[column];
+                        for (int row = 0; row < chunk.size; row++) {
+                            if (chunkCodes[row] != ColumnarDataset.MISSING_CODE) {
+                                codes[offset + row] = recoding[chunkCodes[row]];
+                            }
+                        }
+                    } else {
+                        Serializable[] chunkValues = chunk.valueColumns[column];
+                        for (int row = 0; row < chunk.size; row++) {
+                            if (chunkValues[row] != null) {
+                                codes[offset + row] = dictionary.encode(chunkValues[row]);
+                            }
+                        }
+                    }
+                    offset += chunk.size;
+                }
+                categoricalColumns.put(name, codes);
+                dictionaries.put(name, dictionary.values);
+            }
+            //the chunk's copy of the column is no longer needed
+            for (ColumnChunk chunk : chunks) {
+                chunk.numericColumns[column] = null;
+                chunk.codeColumns[column] = null;
+                chunk.valueColumns[column] = null;
+            }
+        }
+        return new ColumnarDataset(numericColumns, categoricalColumns, dictionaries, weights, labelCodes,
+                labelDictionary == null ? null : labelDictionary.values, mergedNumericLabels);
+    }
+
+    private static boolean hasValues(List<ColumnChunk> chunks, int column) {
+        for (ColumnChunk chunk : chunks) {
+            if (chunk.hasValues[column]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean allNumbers(List<ColumnChunk> chunks, int column) {
+        for (ColumnChunk chunk : chunks) {
+            Serializable[] values = chunk.valueColumns[column];
+            for (int row = 0; row < chunk.size; row++) {
+                if (values[row] != null && !(values[row] instanceof Number)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
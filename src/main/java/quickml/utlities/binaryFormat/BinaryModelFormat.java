@@ -0,0 +1,135 @@
+package quickml.utlities.binaryFormat;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * A compact, versioned binary format for DecisionTree, RandomDecisionForest, RegressionTree, RandomRegressionForest,
+ * LogisticRegression and CalibratedClassifier models, which loads much faster than Java serialization.  A model is
+ * <pre>
+ *   header: magic (int), format version (byte), flags (byte)
+ *   body, deflated if flags has COMPRESSED:
+ *     value table: the attribute names, categorical values and classifications, each written once
+ *     class index table and slim leaf table: the shared parts of slim trees (see DecisionTreeSlimmer)
+ *     model: a model type (byte) and its fields
+ * </pre>
+ * Tree nodes are written in preorder, a kind (byte) followed by the node's fields, with values as indices into the
+ * value table.  Counts and indices are unsigned varints.  Branches are read back without their training counts.
+ * <p/>
+ * Readers reject versions newer than VERSION.  A version adds fields or kinds; it doesn't change older ones.  Version 2
+ * adds each decision tree's leaf depth stats after its nodes, since slim leaves don't keep their depths.
+ */
+public class BinaryModelFormat {
+    static final int MAGIC = 0x514D4C46;
+    public static final int VERSION = 2;
+    static final int COMPRESSED = 1;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    //model types
+    static final int DECISION_TREE = 1;
+    static final int RANDOM_DECISION_FOREST = 2;
+    static final int REGRESSION_TREE = 3;
+    static final int RANDOM_REGRESSION_FOREST = 4;
+    static final int LOGISTIC_REGRESSION = 5;
+    static final int CALIBRATED_CLASSIFIER = 6;
+
+    //node kinds
+    static final int NUM_BRANCH = 1;
+    static final int CAT_BRANCH = 2;
+    static final int DT_LEAF = 3;
+    static final int SLIM_DT_LEAF = 4;
+    static final int RT_LEAF = 5;
+
+    //value types
+    static final int NULL_VALUE = 0;
+    static final int STRING_VALUE = 1;
+    static final int DOUBLE_VALUE = 2;
+    static final int INTEGER_VALUE = 3;
+    static final int LONG_VALUE = 4;
+    static final int BOOLEAN_VALUE = 5;
+    //any other Serializable, with Java serialization
+    static final int SERIALIZED_VALUE = 6;
+
+    private BinaryModelFormat() {
+    }
+
+    /**
+     * Writes model to outputStream, which is flushed but not closed.
+     *
+     * @param compress whether the body is deflated, which typically halves the size of a forest.
+     * @throws IllegalArgumentException if the model, or one of its parts, isn't of a type the format supports.
+     */
+    public static void write(Object model, OutputStream outputStream, boolean compress) throws IOException {
+        DataOutputStream header = new DataOutputStream(outputStream);
+        header.writeInt(MAGIC);
+        header.writeByte(VERSION);
+        header.writeByte(compress ? COMPRESSED : 0);
+        if (compress) {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try {
+                DeflaterOutputStream deflated = new DeflaterOutputStream(outputStream, deflater, BUFFER_SIZE);
+                new BinaryModelWriter().write(model, new DataOutputStream(new BufferedOutputStream(deflated, BUFFER_SIZE)));
+                deflated.finish();
+            } finally {
+                deflater.end();
+            }
+        } else {
+            new BinaryModelWriter().write(model, new DataOutputStream(new BufferedOutputStream(outputStream, BUFFER_SIZE)));
+        }
+        outputStream.flush();
+    }
+
+    /**
+     * Reads a model written by write.  inputStream isn't closed.
+     */
+    public static Object read(InputStream inputStream) throws IOException {
+        DataInputStream header = new DataInputStream(inputStream);
+        if (header.readInt() != MAGIC) {
+            throw new IOException("not a model in the binary model format");
+        }
+        int version = header.readUnsignedByte();
+        if (version > VERSION) {
+            throw new IOException("model format version " + version + " is newer than the supported version " + VERSION);
+        }
+        int flags = header.readUnsignedByte();
+        if ((flags & COMPRESSED) == 0) {
+            return new BinaryModelReader(new DataInputStream(new BufferedInputStream(inputStream, BUFFER_SIZE)), version).read();
+        }
+        Inflater inflater = new Inflater();
+        try {
+            InputStream inflated = new InflaterInputStream(inputStream, inflater, BUFFER_SIZE);
+            return new BinaryModelReader(new DataInputStream(new BufferedInputStream(inflated, BUFFER_SIZE)), version).read();
+        } finally {
+            inflater.end();
+        }
+    }
+
+    static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("malformed varint");
+    }
+}
@@ -0,0 +1,295 @@
+package quickml.utlities.binaryFormat;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import quickml.supervised.calibratedPredictiveModel.CalibratedClassifier;
+import quickml.supervised.classifier.Classifier;
+import quickml.supervised.classifier.logisticRegression.LogisticRegression;
+import quickml.supervised.ensembles.randomForest.randomDecisionForest.RandomDecisionForest;
+import quickml.supervised.ensembles.randomForest.randomRegressionForest.RandomRegressionForest;
+import quickml.supervised.regressionModel.IsotonicRegression.PoolAdjacentViolatorsModel;
+import quickml.supervised.tree.decisionTree.DecisionTree;
+import quickml.supervised.tree.decisionTree.nodes.DTCatBranch;
+import quickml.supervised.tree.decisionTree.nodes.DTLeaf;
+import quickml.supervised.tree.decisionTree.nodes.DTNumBranch;
+import quickml.supervised.tree.decisionTree.valueCounters.ClassIndex;
+import quickml.supervised.tree.decisionTree.valueCounters.ClassificationCounter;
+import quickml.supervised.tree.nodes.Branch;
+import quickml.supervised.tree.nodes.LeafDepthStats;
+import quickml.supervised.tree.nodes.Node;
+import quickml.supervised.tree.decisionTree.nodes.SlimDTLeaf;
+import quickml.supervised.tree.regressionTree.RegressionTree;
+import quickml.supervised.tree.regressionTree.nodes.RTCatBranch;
+import quickml.supervised.tree.regressionTree.nodes.RTLeaf;
+import quickml.supervised.tree.regressionTree.nodes.RTNumBranch;
+import quickml.supervised.tree.regressionTree.valueCounters.MeanValueCounter;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static quickml.utlities.binaryFormat.BinaryModelFormat.*;
+
+/**
+ * Reads the body of the binary model format (see BinaryModelFormat).  Nodes are created as they are read, so apart from
+ * the value table nothing is held but the model itself.  The leaves of a decision tree share one ClassIndex.
+ */
+class BinaryModelReader {
+    private final DataInputStream in;
+    private final int version;
+    private Serializable[] values;
+    private ClassIndex[] classIndices;
+    private SlimDTLeaf[] slimLeaves;
+
+    BinaryModelReader(DataInputStream in, int version) {
+        this.in = in;
+        this.version = version;
+    }
+
+    Object read() throws IOException {
+        values = new Serializable[readVarInt(in)];
+        for (int id = 0; id < values.length; id++) {
+            values[id] = readValue();
+        }
+        classIndices = new ClassIndex[readVarInt(in)];
+        for (int id = 0; id < classIndices.length; id++) {
+            ClassIndex classIndex = new ClassIndex();
+            int numClassifications = readVarInt(in);
+            for (int index = 0; index < numClassifications; index++) {
+                classIndex.getOrAddIndex(readRef());
+            }
+            classIndices[id] = classIndex;
+        }
+        slimLeaves = new SlimDTLeaf[readVarInt(in)];
+        for (int id = 0; id < slimLeaves.length; id++) {
+            slimLeaves[id] = readSlimLeaf();
+        }
+        return readModel();
+    }
+
+    private Object readModel() throws IOException {
+        int modelType = in.readUnsignedByte();
+        switch (modelType) {
+            case DECISION_TREE:
+                return readDecisionTree();
+            case RANDOM_DECISION_FOREST: {
+                Set<Serializable> classifications = readRefSet();
+                int numTrees = readVarInt(in);
+                List<DecisionTree> decisionTrees = Lists.newArrayListWithCapacity(numTrees);
+                for (int tree = 0; tree < numTrees; tree++) {
+                    decisionTrees.add(readDecisionTree());
+                }
+                return new RandomDecisionForest(decisionTrees, classifications);
+            }
+            case REGRESSION_TREE:
+                return new RegressionTree(readRTNode(null));
+            case RANDOM_REGRESSION_FOREST: {
+                int numTrees = readVarInt(in);
+                List<RegressionTree> regressionTrees = Lists.newArrayListWithCapacity(numTrees);
+                for (int tree = 0; tree < numTrees; tree++) {
+                    regressionTrees.add(new RegressionTree(readRTNode(null)));
+                }
+                return new RandomRegressionForest(regressionTrees);
+            }
+            case LOGISTIC_REGRESSION:
+                return readLogisticRegression();
+            case CALIBRATED_CLASSIFIER: {
+                PoolAdjacentViolatorsModel pavFunction = (PoolAdjacentViolatorsModel) readSerialized();
+                return new CalibratedClassifier((Classifier) readModel(), pavFunction);
+            }
+            default:
+                throw new IOException("unknown model type " + modelType);
+        }
+    }
+
+    private DecisionTree readDecisionTree() throws IOException {
+        Set<Serializable> classifications = readRefSet();
+        Node<ClassificationCounter> root = readDTNode(null, new ClassIndex());
+        //version 1 didn't write depth stats, so they are calculated from the leaves, which slim leaves add nothing to
+        return version >= 2 ? new DecisionTree(root, classifications, readLeafDepthStats()) : new DecisionTree(root, classifications);
+    }
+
+    private LeafDepthStats readLeafDepthStats() throws IOException {
+        LeafDepthStats leafDepthStats = new LeafDepthStats();
+        leafDepthStats.ttlDepth = readVarInt(in);
+        leafDepthStats.ttlSamples = readVarInt(in);
+        int numDepths = readVarInt(in);
+        for (int i = 0; i < numDepths; i++) {
+            int depth = readVarInt(in);
+            leafDepthStats.depthDistribution.put(depth, in.readLong());
+        }
+        return leafDepthStats;
+    }
+
+    private LogisticRegression readLogisticRegression() throws IOException {
+        double[] weights = new double[readVarInt(in)];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = in.readDouble();
+        }
+        int numAttributes = readVarInt(in);
+        HashMap<String, Integer> nameToIndexMap = Maps.newHashMapWithExpectedSize(numAttributes);
+        for (int i = 0; i < numAttributes; i++) {
+            nameToIndexMap.put((String) readRef(), readVarInt(in));
+        }
+        Map<Serializable, Double> classificationToClassNameMap = null;
+        if (in.readBoolean()) {
+            int numClassifications = readVarInt(in);
+            classificationToClassNameMap = Maps.newHashMapWithExpectedSize(numClassifications);
+            for (int i = 0; i < numClassifications; i++) {
+                classificationToClassNameMap.put(readRef(), in.readDouble());
+            }
+        }
+        int numClassifications = readVarInt(in);
+        Set<Double> classifications = Sets.newHashSetWithExpectedSize(numClassifications);
+        for (int i = 0; i < numClassifications; i++) {
+            classifications.add(in.readDouble());
+        }
+        LogisticRegression logisticRegression = classificationToClassNameMap != null
+                ? new LogisticRegression(weights, nameToIndexMap, classificationToClassNameMap)
+                : new LogisticRegression(weights, nameToIndexMap, classifications);
+        if (in.readBoolean()) {
+            logisticRegression = new LogisticRegression(logisticRegression, (PoolAdjacentViolatorsModel) readSerialized());
+        }
+        return logisticRegression;
+    }
+
+    private Node<ClassificationCounter> readDTNode(Branch<ClassificationCounter> parent, ClassIndex classIndex) throws IOException {
+        int kind = in.readUnsignedByte();
+        Branch<ClassificationCounter> branch;
+        switch (kind) {
+            case NUM_BRANCH: {
+                String attribute = (String) readRef();
+                double probabilityOfTrueChild = in.readDouble();
+                double score = in.readDouble();
+                branch = new DTNumBranch(parent, attribute, probabilityOfTrueChild, score, null, in.readDouble());
+                break;
+            }
+            case CAT_BRANCH: {
+                String attribute = (String) readRef();
+                double probabilityOfTrueChild = in.readDouble();
+                double score = in.readDouble();
+                branch = new DTCatBranch(parent, attribute, readRefSet(), probabilityOfTrueChild, score, null);
+                break;
+            }
+            case DT_LEAF: {
+                ClassificationCounter classificationCounter = new ClassificationCounter(classIndex);
+                int numClassifications = readVarInt(in);
+                for (int i = 0; i < numClassifications; i++) {
+                    classificationCounter.addClassification(readRef(), in.readDouble());
+                }
+                return new DTLeaf(parent, classificationCounter, parent == null ? 0 : parent.getDepth() + 1);
+            }
+            case SLIM_DT_LEAF:
+                return slimLeaves[readVarInt(in)];
+            default:
+                throw new IOException("unknown decision tree node kind " + kind);
+        }
+        branch.setTrueChild(readDTNode(branch, classIndex));
+        branch.setFalseChild(readDTNode(branch, classIndex));
+        return branch;
+    }
+
+    private Node<MeanValueCounter> readRTNode(Branch<MeanValueCounter> parent) throws IOException {
+        int kind = in.readUnsignedByte();
+        Branch<MeanValueCounter> branch;
+        switch (kind) {
+            case NUM_BRANCH: {
+                String attribute = (String) readRef();
+                double probabilityOfTrueChild = in.readDouble();
+                double score = in.readDouble();
+                branch = new RTNumBranch(parent, attribute, probabilityOfTrueChild, score, null, in.readDouble());
+                break;
+            }
+            case CAT_BRANCH: {
+                String attribute = (String) readRef();
+                double probabilityOfTrueChild = in.readDouble();
+                double score = in.readDouble();
+                branch = new RTCatBranch(parent, attribute, readRefSet(), probabilityOfTrueChild, score, null);
+                break;
+            }
+            case RT_LEAF: {
+                double weight = in.readDouble();
+                double value = in.readDouble();
+                double squares = in.readDouble();
+                return new RTLeaf(parent, new MeanValueCounter(null, weight, value, squares), parent == null ? 0 : parent.getDepth() + 1);
+            }
+            default:
+                throw new IOException("unknown regression tree node kind " + kind);
+        }
+        branch.setTrueChild(readRTNode(branch));
+        branch.setFalseChild(readRTNode(branch));
+        return branch;
+    }
+
+    private SlimDTLeaf readSlimLeaf() throws IOException {
+        ClassIndex classIndex = classIndices[readVarInt(in)];
+        if (in.readBoolean()) {
+            char[] quantizedProbabilities = new char[readVarInt(in)];
+            for (int index = 0; index < quantizedProbabilities.length; index++) {
+                quantizedProbabilities[index] = in.readChar();
+            }
+            return new SlimDTLeaf(classIndex, quantizedProbabilities);
+        }
+        float[] probabilities = new float[readVarInt(in)];
+        for (int index = 0; index < probabilities.length; index++) {
+            probabilities[index] = in.readFloat();
+        }
+        return new SlimDTLeaf(classIndex, probabilities);
+    }
+
+    private Set<Serializable> readRefSet() throws IOException {
+        int size = readVarInt(in);
+        Set<Serializable> set = Sets.newHashSetWithExpectedSize(size);
+        for (int i = 0; i < size; i++) {
+            set.add(readRef());
+        }
+        return set;
+    }
+
+    private Serializable readRef() throws IOException {
+        return values[readVarInt(in)];
+    }
+
+    private Serializable readValue() throws IOException {
+        int valueType = in.readUnsignedByte();
+        switch (valueType) {
+            case NULL_VALUE:
+                return null;
+            case STRING_VALUE: {
+                byte[] bytes = new byte[readVarInt(in)];
+                in.readFully(bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+            case DOUBLE_VALUE:
+                return in.readDouble();
+            case INTEGER_VALUE:
+                return in.readInt();
+            case LONG_VALUE:
+                return in.readLong();
+            case BOOLEAN_VALUE:
+                return in.readBoolean();
+            case SERIALIZED_VALUE:
+                return readSerialized();
+            default:
+                throw new IOException("unknown value type " + valueType);
+        }
+    }
+
+    private Serializable readSerialized() throws IOException {
+        byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        try (ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (Serializable) objectIn.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        }
+    }
+}
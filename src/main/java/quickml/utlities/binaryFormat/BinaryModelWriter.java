@@ -0,0 +1,295 @@
+package quickml.utlities.binaryFormat;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.ByteStreams;
+import quickml.supervised.calibratedPredictiveModel.CalibratedClassifier;
+import quickml.supervised.classifier.logisticRegression.LogisticRegression;
+import quickml.supervised.ensembles.randomForest.randomDecisionForest.RandomDecisionForest;
+import quickml.supervised.ensembles.randomForest.randomRegressionForest.RandomRegressionForest;
+import quickml.supervised.tree.decisionTree.DecisionTree;
+import quickml.supervised.tree.decisionTree.nodes.DTCatBranch;
+import quickml.supervised.tree.decisionTree.nodes.DTLeaf;
+import quickml.supervised.tree.decisionTree.nodes.SlimDTLeaf;
+import quickml.supervised.tree.decisionTree.valueCounters.ClassIndex;
+import quickml.supervised.tree.decisionTree.valueCounters.ClassificationCounter;
+import quickml.supervised.tree.nodes.Branch;
+import quickml.supervised.tree.nodes.LeafDepthStats;
+import quickml.supervised.tree.nodes.NumBranch;
+import quickml.supervised.tree.nodes.Node;
+import quickml.supervised.tree.regressionTree.RegressionTree;
+import quickml.supervised.tree.regressionTree.nodes.RTCatBranch;
+import quickml.supervised.tree.regressionTree.nodes.RTLeaf;
+import quickml.supervised.tree.regressionTree.valueCounters.MeanValueCounter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static quickml.utlities.binaryFormat.BinaryModelFormat.*;
+
+/**
+ * Writes the body of the binary model format (see BinaryModelFormat).  The model is walked twice: first to a null
+ * stream, which collects the value, class index and slim leaf tables, and then for real, after the tables.
+ */
+class BinaryModelWriter {
+    private final Map<Object, Integer> valueIds = Maps.newHashMap();
+    private final List<Object> values = Lists.newArrayList();
+    private final Map<ClassIndex, Integer> classIndexIds = new IdentityHashMap<>();
+    private final List<ClassIndex> classIndices = Lists.newArrayList();
+    private final Map<SlimDTLeaf, Integer> slimLeafIds = new IdentityHashMap<>();
+    private final List<SlimDTLeaf> slimLeaves = Lists.newArrayList();
+    private DataOutputStream out;
+
+    void write(Object model, DataOutputStream body) throws IOException {
+        out = new DataOutputStream(ByteStreams.nullOutputStream());
+        writeModel(model);
+
+        out = body;
+        writeVarInt(out, values.size());
+        for (Object value : values) {
+            writeValue(value);
+        }
+        writeVarInt(out, classIndices.size());
+        for (ClassIndex classIndex : classIndices) {
+            writeVarInt(out, classIndex.size());
+            for (int index = 0; index < classIndex.size(); index++) {
+                writeRef(classIndex.getClassification(index));
+            }
+        }
+        writeVarInt(out, slimLeaves.size());
+        for (SlimDTLeaf slimLeaf : slimLeaves) {
+            writeSlimLeaf(slimLeaf);
+        }
+        writeModel(model);
+        out.flush();
+    }
+
+    private void writeModel(Object model) throws IOException {
+        if (model instanceof DecisionTree) {
+            out.writeByte(DECISION_TREE);
+            writeDecisionTree((DecisionTree) model);
+        } else if (model instanceof RandomDecisionForest) {
+            RandomDecisionForest forest = (RandomDecisionForest) model;
+            out.writeByte(RANDOM_DECISION_FOREST);
+            writeRefs(forest.getClassifications());
+            writeVarInt(out, forest.decisionTrees.size());
+            for (DecisionTree decisionTree : forest.decisionTrees) {
+                writeDecisionTree(decisionTree);
+            }
+        } else if (model instanceof RegressionTree) {
+            out.writeByte(REGRESSION_TREE);
+            writeNode(((RegressionTree) model).root);
+        } else if (model instanceof RandomRegressionForest) {
+            RandomRegressionForest forest = (RandomRegressionForest) model;
+            out.writeByte(RANDOM_REGRESSION_FOREST);
+            writeVarInt(out, forest.regressionTrees.size());
+            for (RegressionTree regressionTree : forest.regressionTrees) {
+                writeNode(regressionTree.root);
+            }
+        } else if (model instanceof LogisticRegression) {
+            out.writeByte(LOGISTIC_REGRESSION);
+            writeLogisticRegression((LogisticRegression) model);
+        } else if (model instanceof CalibratedClassifier) {
+            CalibratedClassifier calibratedClassifier = (CalibratedClassifier) model;
+            out.writeByte(CALIBRATED_CLASSIFIER);
+            writeSerialized(calibratedClassifier.pavFunction);
+            writeModel(calibratedClassifier.wrappedPredictiveModel);
+        } else {
+            throw new IllegalArgumentException("can't write models of type " + (model == null ? null : model.getClass().getName()));
+        }
+    }
+
+    private void writeDecisionTree(DecisionTree decisionTree) throws IOException {
+        writeRefs(decisionTree.getClassifications());
+        writeNode(decisionTree.root);
+        writeLeafDepthStats(decisionTree.getLeafDepthStats());
+    }
+
+    //slim leaves don't keep their depths, so the tree's recorded depth stats are written with it
+    private void writeLeafDepthStats(LeafDepthStats leafDepthStats) throws IOException {
+        writeVarInt(out, leafDepthStats.ttlDepth);
+        writeVarInt(out, leafDepthStats.ttlSamples);
+        writeVarInt(out, leafDepthStats.depthDistribution.size());
+        for (Map.Entry<Integer, Long> entry : leafDepthStats.depthDistribution.entrySet()) {
+            writeVarInt(out, entry.getKey());
+            out.writeLong(entry.getValue());
+        }
+    }
+
+    private void writeLogisticRegression(LogisticRegression logisticRegression) throws IOException {
+        double[] weights = logisticRegression.getWeights();
+        writeVarInt(out, weights.length);
+        for (double weight : weights) {
+            out.writeDouble(weight);
+        }
+        Map<String, Integer> nameToIndexMap = logisticRegression.getNameToIndexMap();
+        writeVarInt(out, nameToIndexMap.size());
+        for (Map.Entry<String, Integer> entry : nameToIndexMap.entrySet()) {
+            writeRef(entry.getKey());
+            writeVarInt(out, entry.getValue());
+        }
+        Map<Serializable, Double> classificationToClassNameMap = logisticRegression.getClassificationToClassNameMap();
+        out.writeBoolean(classificationToClassNameMap != null);
+        if (classificationToClassNameMap != null) {
+            writeVarInt(out, classificationToClassNameMap.size());
+            for (Map.Entry<Serializable, Double> entry : classificationToClassNameMap.entrySet()) {
+                writeRef(entry.getKey());
+                out.writeDouble(entry.getValue());
+            }
+        }
+        writeVarInt(out, logisticRegression.getClassifications().size());
+        for (Double classification : logisticRegression.getClassifications()) {
+            out.writeDouble(classification);
+        }
+        out.writeBoolean(logisticRegression.getPoolAdjacentViolatorsModel() != null);
+        if (logisticRegression.getPoolAdjacentViolatorsModel() != null) {
+            writeSerialized(logisticRegression.getPoolAdjacentViolatorsModel());
+        }
+    }
+
+    private void writeNode(Node<?> node) throws IOException {
+        if (node instanceof Branch) {
+            Branch<?> branch = (Branch<?>) node;
+            if (branch instanceof NumBranch) {
+                out.writeByte(NUM_BRANCH);
+                writeBranchFields(branch);
+                out.writeDouble(((NumBranch<?>) branch).threshold);
+            } else if (branch instanceof DTCatBranch || branch instanceof RTCatBranch) {
+                out.writeByte(CAT_BRANCH);
+                writeBranchFields(branch);
+                writeRefs(branch instanceof DTCatBranch ? ((DTCatBranch) branch).trueSet : ((RTCatBranch) branch).trueSet);
+            } else {
+                throw new IllegalArgumentException("can't write branches of type " + branch.getClass().getName());
+            }
+            writeNode(branch.getTrueChild());
+            writeNode(branch.getFalseChild());
+        } else if (node instanceof SlimDTLeaf) {
+            out.writeByte(SLIM_DT_LEAF);
+            writeVarInt(out, getSlimLeafId((SlimDTLeaf) node));
+        } else if (node instanceof DTLeaf) {
+            out.writeByte(DT_LEAF);
+            ClassificationCounter classificationCounter = ((DTLeaf) node).getValueCounter();
+            Map<Serializable, Double> counts = classificationCounter.getCounts();
+            writeVarInt(out, counts.size());
+            for (Map.Entry<Serializable, Double> entry : counts.entrySet()) {
+                writeRef(entry.getKey());
+                out.writeDouble(entry.getValue());
+            }
+        } else if (node instanceof RTLeaf) {
+            out.writeByte(RT_LEAF);
+            MeanValueCounter meanValueCounter = ((RTLeaf) node).getValueCounter();
+            out.writeDouble(meanValueCounter.getTotal());
+            out.writeDouble(meanValueCounter.getAccumulatedValue());
+            out.writeDouble(meanValueCounter.getAccumulatedSquares());
+        } else {
+            throw new IllegalArgumentException("can't write nodes of type " + (node == null ? null : node.getClass().getName()));
+        }
+    }
+
+    private void writeBranchFields(Branch<?> branch) throws IOException {
+        writeRef(branch.attribute);
+        out.writeDouble(branch.getProbabilityOfTrueChild());
+        out.writeDouble(branch.getScore());
+    }
+
+    private void writeSlimLeaf(SlimDTLeaf slimLeaf) throws IOException {
+        writeVarInt(out, classIndexIds.get(slimLeaf.getClassIndex()));
+        out.writeBoolean(slimLeaf.isQuantized());
+        if (slimLeaf.isQuantized()) {
+            char[] quantizedProbabilities = slimLeaf.getQuantizedProbabilities();
+            writeVarInt(out, quantizedProbabilities.length);
+            for (char quantizedProbability : quantizedProbabilities) {
+                out.writeChar(quantizedProbability);
+            }
+        } else {
+            float[] probabilities = slimLeaf.getProbabilities();
+            writeVarInt(out, probabilities.length);
+            for (float probability : probabilities) {
+                out.writeFloat(probability);
+            }
+        }
+    }
+
+    private int getSlimLeafId(SlimDTLeaf slimLeaf) {
+        Integer id = slimLeafIds.get(slimLeaf);
+        if (id == null) {
+            ClassIndex classIndex = slimLeaf.getClassIndex();
+            if (!classIndexIds.containsKey(classIndex)) {
+                classIndexIds.put(classIndex, classIndices.size());
+                classIndices.add(classIndex);
+                for (int index = 0; index < classIndex.size(); index++) {
+                    getValueId(classIndex.getClassification(index));
+                }
+            }
+            id = slimLeaves.size();
+            slimLeafIds.put(slimLeaf, id);
+            slimLeaves.add(slimLeaf);
+        }
+        return id;
+    }
+
+    private void writeRefs(Collection<? extends Serializable> values) throws IOException {
+        writeVarInt(out, values.size());
+        for (Serializable value : values) {
+            writeRef(value);
+        }
+    }
+
+    private void writeRef(Object value) throws IOException {
+        writeVarInt(out, getValueId(value));
+    }
+
+    private int getValueId(Object value) {
+        Integer id = valueIds.get(value);
+        if (id == null) {
+            id = values.size();
+            valueIds.put(value, id);
+            values.add(value);
+        }
+        return id;
+    }
+
+    private void writeValue(Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL_VALUE);
+        } else if (value instanceof String) {
+            out.writeByte(STRING_VALUE);
+            byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+            writeVarInt(out, bytes.length);
+            out.write(bytes);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE_VALUE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INTEGER_VALUE);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG_VALUE);
+            out.writeLong((Long) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN_VALUE);
+            out.writeBoolean((Boolean) value);
+        } else {
+            out.writeByte(SERIALIZED_VALUE);
+            writeSerialized((Serializable) value);
+        }
+    }
+
+    //for small parts without a binary layout of their own, e.g. calibration functions
+    private void writeSerialized(Serializable object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOut = new ObjectOutputStream(bytes)) {
+            objectOut.writeObject(object);
+        }
+        writeVarInt(out, bytes.size());
+        bytes.writeTo(out);
+    }
+}
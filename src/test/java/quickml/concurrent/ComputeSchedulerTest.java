@@ -0,0 +1,82 @@
+package quickml.concurrent;
+
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+public class ComputeSchedulerTest {
+
+    @Test
+    public void invokeAllReturnsResultsInTaskOrder() {
+        ComputeScheduler scheduler = new ComputeScheduler(3);
+        List<Callable<Integer>> tasks = Lists.newArrayList();
+        for (int i = 0; i < 20; i++) {
+            tasks.add(square(i));
+        }
+        List<Integer> results = scheduler.invokeAll(tasks);
+        for (int i = 0; i < 20; i++) {
+            Assert.assertEquals(i * i, (int) results.get(i));
+        }
+        SchedulerMetrics metrics = scheduler.getMetrics();
+        Assert.assertEquals(3, metrics.getParallelism());
+        Assert.assertEquals(20, metrics.getTasksSubmitted());
+        Assert.assertEquals(20, metrics.getTasksCompleted());
+    }
+
+    @Test
+    public void nestedTasksRunOnTheSameScheduler() {
+        final ComputeScheduler scheduler = new ComputeScheduler(2);
+        List<Callable<Integer>> outerTasks = Lists.newArrayList();
+        for (int i = 0; i < 8; i++) {
+            outerTasks.add(new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    Assert.assertTrue(scheduler.inScheduler());
+                    List<Callable<Integer>> innerTasks = Lists.newArrayList();
+                    for (int j = 0; j < 8; j++) {
+                        innerTasks.add(new Callable<Integer>() {
+                            @Override
+                            public Integer call() throws Exception {
+                                Assert.assertTrue(scheduler.inScheduler());
+                                Assert.assertTrue(Thread.currentThread().getName().startsWith("quickml-compute-"));
+                                return scheduler.submit(square(3)).get();
+                            }
+                        });
+                    }
+                    int sum = 0;
+                    for (int result : scheduler.invokeAll(innerTasks)) {
+                        sum += result;
+                    }
+                    return sum;
+                }
+            });
+        }
+        for (int sum : scheduler.invokeAll(outerTasks)) {
+            Assert.assertEquals(72, sum);
+        }
+        Assert.assertFalse(scheduler.inScheduler());
+        Assert.assertEquals(8 + 64 + 64, scheduler.getMetrics().getTasksCompleted());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void invokeRethrowsTheExceptionOfTheTask() {
+        new ComputeScheduler(1).invoke(new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                throw new IllegalStateException();
+            }
+        });
+    }
+
+    private static Callable<Integer> square(final int i) {
+        return new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                return i * i;
+            }
+        };
+    }
+}
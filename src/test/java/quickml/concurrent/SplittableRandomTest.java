@@ -0,0 +1,66 @@
+package quickml.concurrent;
+
+import org.junit.Assert;
+import org.junit.Test;
+import quickml.data.ColumnarDataset;
+import quickml.data.instances.ClassifierInstance;
+import quickml.supervised.classifier.TreeBuilderTestUtils;
+import quickml.supervised.ensembles.randomForest.randomDecisionForest.RandomDecisionForest;
+import quickml.supervised.ensembles.randomForest.randomDecisionForest.RandomDecisionForestBuilder;
+import quickml.supervised.tree.bagging.PoissonBagging;
+import quickml.supervised.tree.decisionTree.DecisionTreeBuilder;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class SplittableRandomTest {
+
+    @Test
+    public void splitsOnlyDependOnTheSeedAndKey() {
+        SplittableRandom random = new SplittableRandom(5);
+        long[] firstDraws = draw(random.split(3), 10);
+        draw(random, 100);
+        Assert.assertTrue(Arrays.equals(firstDraws, draw(random.split(3), 10)));
+        Assert.assertTrue(Arrays.equals(firstDraws, draw(new SplittableRandom(5).split(3), 10)));
+        Assert.assertFalse(firstDraws[0] == random.split(4).nextLong());
+
+        double sum = 0;
+        for (int i = 0; i < 100000; i++) {
+            double value = random.nextDouble();
+            Assert.assertTrue(value >= 0 && value < 1);
+            sum += value;
+        }
+        Assert.assertEquals(0.5, sum / 100000, 0.01);
+    }
+
+    @Test
+    public void seededForestsAreReproducibleWithAnyNumberOfThreads() {
+        List<ClassifierInstance> instances = TreeBuilderTestUtils.getInstances(2000);
+        RandomDecisionForest sequentialForest = getForestBuilder(1).buildPredictiveModel(instances);
+        RandomDecisionForest parallelForest = getForestBuilder(4).buildPredictiveModel(instances);
+        for (ClassifierInstance instance : instances) {
+            Assert.assertEquals(sequentialForest.predict(instance.getAttributes()), parallelForest.predict(instance.getAttributes()));
+        }
+
+        ColumnarDataset columnarInstances = ColumnarDataset.forClassification(instances);
+        sequentialForest = getForestBuilder(1).bagging(new PoissonBagging(3)).buildPredictiveModel(columnarInstances);
+        parallelForest = getForestBuilder(4).bagging(new PoissonBagging(3)).buildPredictiveModel(columnarInstances);
+        for (ClassifierInstance instance : instances) {
+            Assert.assertEquals(sequentialForest.predict(instance.getAttributes()), parallelForest.predict(instance.getAttributes()));
+        }
+    }
+
+    private static RandomDecisionForestBuilder<ClassifierInstance> getForestBuilder(int threadCount) {
+        DecisionTreeBuilder<ClassifierInstance> treeBuilder = new DecisionTreeBuilder<ClassifierInstance>().ignoreAttributeProbability(0.5)
+                .maxDepth(6).minLeafInstances(10).parallelism(threadCount).minInstancesForParallelSubtrees(200);
+        return new RandomDecisionForestBuilder<>(treeBuilder).numTrees(6).seed(17).executorThreadCount(threadCount);
+    }
+
+    private static long[] draw(SplittableRandom random, int numDraws) {
+        long[] draws = new long[numDraws];
+        for (int i = 0; i < numDraws; i++) {
+            draws[i] = random.nextLong();
+        }
+        return draws;
+    }
+}
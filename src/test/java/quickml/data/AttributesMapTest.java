@@ -0,0 +1,143 @@
+package quickml.data;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class AttributesMapTest {
+
+    @Test
+    public void behavesLikeAHashMap() {
+        AttributesMap attributes = AttributesMap.newHashMap();
+        HashMap<String, Serializable> expected = Maps.newHashMap();
+        for (int i = 0; i < 20; i++) {
+            Assert.assertEquals(expected.put("attribute" + i % 7, (double) i), attributes.put("attribute" + i % 7, (double) i));
+        }
+        expected.put("missing", null);
+        attributes.put("missing", null);
+        assertSameEntries(expected, attributes);
+        Assert.assertTrue(attributes.containsKey("missing"));
+        Assert.assertTrue(attributes.containsValue(19.0));
+        Assert.assertFalse(attributes.containsValue(0.0));
+
+        Assert.assertEquals(expected.remove("attribute3"), attributes.remove("attribute3"));
+        Assert.assertNull(attributes.remove("attribute3"));
+        attributes.keySet().remove("attribute0");
+        expected.keySet().remove("attribute0");
+        for (Iterator<Map.Entry<String, Serializable>> iterator = attributes.entrySet().iterator(); iterator.hasNext(); ) {
+            Map.Entry<String, Serializable> entry = iterator.next();
+            if (entry.getKey().equals("attribute5")) {
+                iterator.remove();
+            } else if (entry.getValue() != null) {
+                entry.setValue((Double) entry.getValue() + 1);
+            }
+        }
+        for (Map.Entry<String, Serializable> entry : expected.entrySet()) {
+            if (entry.getValue() != null) {
+                entry.setValue((Double) entry.getValue() + 1);
+            }
+        }
+        expected.remove("attribute5");
+        assertSameEntries(expected, attributes);
+
+        attributes.clear();
+        Assert.assertTrue(attributes.isEmpty());
+        Assert.assertNull(attributes.get("attribute1"));
+    }
+
+    @Test
+    public void mapsWithTheSameKeysShareASchema() {
+        AttributesMap first = AttributesMap.newHashMap();
+        first.put("height", 180.0);
+        first.put("gender", "female");
+        AttributesMap second = AttributesMap.newHashMap();
+        second.put("height", 150.0);
+        second.put("gender", "male");
+        Assert.assertSame(first.getSchema(), second.getSchema());
+        Assert.assertSame(first.getSchema(), new AttributesMap(first).getSchema());
+        Assert.assertSame(first.getSchema(), AttributesSchema.of("height", "gender"));
+
+        //equality doesn't depend on the order of the keys
+        AttributesMap reordered = AttributesMap.newHashMap();
+        reordered.put("gender", "female");
+        reordered.put("height", 180.0);
+        Assert.assertNotSame(first.getSchema(), reordered.getSchema());
+        Assert.assertEquals(first, reordered);
+        Assert.assertEquals(first.hashCode(), reordered.hashCode());
+        Assert.assertFalse(first.equals(second));
+    }
+
+    @Test
+    public void sparseRowsAreCopiedWithOneSchemaEach() {
+        //one-hot rows, each with its own few keys out of many
+        for (int row = 0; row < 100; row++) {
+            Map<String, Serializable> sparseRow = new LinkedHashMap<>();
+            sparseRow.put("category" + row, 1.0);
+            sparseRow.put("category" + (row + 1) % 100, 1.0);
+            sparseRow.put("weight", (double) row);
+
+            AttributesMap attributes = new AttributesMap(sparseRow);
+            Assert.assertEquals(sparseRow, attributes);
+            Assert.assertSame(AttributesSchema.of("category" + row, "category" + (row + 1) % 100, "weight"), attributes.getSchema());
+        }
+    }
+
+    @Test
+    public void putAllAddsItsNewKeysTogether() {
+        AttributesMap attributes = AttributesMap.newHashMap();
+        attributes.put("height", 180.0);
+        Map<String, Serializable> update = new LinkedHashMap<>();
+        update.put("height", 150.0);
+        update.put("gender", "female");
+        update.put("weight", 70.0);
+        attributes.putAll(update);
+
+        Assert.assertSame(AttributesSchema.of("height", "gender", "weight"), attributes.getSchema());
+        Assert.assertEquals(update, attributes);
+        attributes.putAll(AttributesMap.newHashMap());
+        Assert.assertEquals(update, attributes);
+    }
+
+    @Test
+    public void deserializedMapsShareTheirSchema() throws Exception {
+        AttributesMap attributes = AttributesMap.newHashMap();
+        attributes.put("height", 180.0);
+        attributes.put("gender", "female");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(attributes);
+        }
+        AttributesMap deserialized;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            deserialized = (AttributesMap) in.readObject();
+        }
+
+        Assert.assertEquals(attributes, deserialized);
+        Assert.assertSame(attributes.getSchema(), deserialized.getSchema());
+        deserialized.put("weight", 70.0);
+        Assert.assertEquals(Sets.newHashSet("height", "gender", "weight"), deserialized.keySet());
+    }
+
+    private static void assertSameEntries(Map<String, Serializable> expected, AttributesMap actual) {
+        Assert.assertEquals(expected.size(), actual.size());
+        Assert.assertEquals(expected.keySet(), actual.keySet());
+        Assert.assertEquals(expected.entrySet(), actual.entrySet());
+        Assert.assertEquals(expected, actual);
+        for (String key : expected.keySet()) {
+            Assert.assertEquals(expected.get(key), actual.get(key));
+        }
+        Assert.assertEquals(expected.toString().length(), actual.toString().length());
+    }
+}
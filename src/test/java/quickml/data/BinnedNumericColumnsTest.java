@@ -0,0 +1,52 @@
+package quickml.data;
+
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+import quickml.data.instances.ClassifierInstance;
+
+import java.util.List;
+
+public class BinnedNumericColumnsTest {
+
+    @Test
+    public void fewDistinctValuesGetTheirOwnBins() {
+        double[] thresholds = BinnedNumericColumns.getThresholds(new double[]{3, 1, 2, 2, Double.NaN, 3}, 10);
+        //NaN is binned as 0
+        Assert.assertArrayEquals(new double[]{0.5, 1.5, 2.5}, thresholds, 1E-9);
+    }
+
+    @Test
+    public void manyDistinctValuesAreBinnedByQuantile() {
+        double[] column = new double[1000];
+        for (int i = 0; i < column.length; i++) {
+            column[i] = i;
+        }
+        double[] thresholds = BinnedNumericColumns.getThresholds(column, 4);
+        Assert.assertArrayEquals(new double[]{249.5, 499.5, 749.5}, thresholds, 1E-9);
+        Assert.assertEquals(0, BinnedNumericColumns.getBin(thresholds, 249));
+        Assert.assertEquals(1, BinnedNumericColumns.getBin(thresholds, 250));
+        Assert.assertEquals(3, BinnedNumericColumns.getBin(thresholds, 999));
+    }
+
+    @Test
+    public void binCodesAreUnsignedBytes() {
+        List<ClassifierInstance> instances = Lists.newArrayList();
+        for (int i = 0; i < 600; i++) {
+            AttributesMap attributes = AttributesMap.newHashMap();
+            attributes.put("x", i);
+            instances.add(new ClassifierInstance(attributes, i % 2));
+        }
+        ColumnarDataset data = ColumnarDataset.forClassification(instances);
+        BinnedNumericColumns binned = data.getBinnedNumericColumns(BinnedNumericColumns.MAX_BINS);
+
+        Assert.assertSame(binned, data.getBinnedNumericColumns(BinnedNumericColumns.MAX_BINS));
+        Assert.assertEquals(BinnedNumericColumns.MAX_BINS, binned.getNumBins("x"));
+        byte[] codes = binned.getBinCodes("x");
+        Assert.assertEquals(0, codes[0] & 0xFF);
+        Assert.assertEquals(BinnedNumericColumns.MAX_BINS - 1, codes[599] & 0xFF);
+        for (int i = 1; i < codes.length; i++) {
+            Assert.assertTrue((codes[i] & 0xFF) >= (codes[i - 1] & 0xFF));
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package quickml.data;
+
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+import quickml.data.instances.ClassifierInstance;
+import quickml.data.instances.RegressionInstance;
+
+import java.util.List;
+
+public class ColumnarDatasetTest {
+
+    @Test
+    public void encodesNumericAndCategoricalColumns() {
+        List<ClassifierInstance> instances = Lists.newArrayList();
+        instances.add(new ClassifierInstance(attributes(1.0, "red"), "a", 2.0));
+        instances.add(new ClassifierInstance(attributes(null, "blue"), "b"));
+        instances.add(new ClassifierInstance(attributes(3, null), "a"));
+
+        ColumnarDataset data = ColumnarDataset.forClassification(instances);
+
+        Assert.assertEquals(3, data.size());
+        Assert.assertTrue(data.hasNumericColumn("num"));
+        Assert.assertFalse(data.hasNumericColumn("color"));
+        double[] num = data.getNumericColumn("num");
+        Assert.assertEquals(1.0, num[0], 1E-9);
+        Assert.assertTrue(Double.isNaN(num[1]));
+        Assert.assertEquals(3.0, num[2], 1E-9);
+
+        int[] colors = data.getCategoricalColumn("color");
+        Assert.assertEquals("red", data.getDictionary("color").get(colors[0]));
+        Assert.assertEquals("blue", data.getDictionary("color").get(colors[1]));
+        Assert.assertEquals(ColumnarDataset.MISSING_CODE, colors[2]);
+
+        Assert.assertEquals("a", data.getLabel(0));
+        Assert.assertEquals("b", data.getLabel(1));
+        Assert.assertEquals(2, data.getLabelDictionary().size());
+        Assert.assertEquals(2.0, data.getWeight(0), 1E-9);
+        Assert.assertEquals(1.0, data.getWeight(1), 1E-9);
+    }
+
+    @Test
+    public void holdsRegressionLabelsAsDoubles() {
+        List<RegressionInstance> instances = Lists.newArrayList();
+        instances.add(new RegressionInstance(attributes(1.0, "red"), 4.5));
+        instances.add(new RegressionInstance(attributes(2.0, "red"), -1.0));
+
+        ColumnarDataset data = ColumnarDataset.forRegression(instances);
+
+        Assert.assertFalse(data.hasClassificationLabels());
+        Assert.assertEquals(4.5, data.getNumericLabel(0), 1E-9);
+        Assert.assertEquals(-1.0, data.getNumericLabel(1), 1E-9);
+        Assert.assertEquals(1, data.getDictionary("color").size());
+    }
+
+    private static AttributesMap attributes(Number num, String color) {
+        AttributesMap attributes = AttributesMap.newHashMap();
+        attributes.put("num", num);
+        attributes.put("color", color);
+        return attributes;
+    }
+}
@@ -0,0 +1,85 @@
+package quickml.supervised.classifier.randomForest;
+
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+import quickml.data.AttributesMap;
+import quickml.data.PredictionMap;
+import quickml.data.instances.ClassifierInstance;
+import quickml.data.instances.InstanceWithAttributesMap;
+import quickml.data.instances.RegressionInstance;
+import quickml.supervised.classifier.Classifier;
+import quickml.supervised.classifier.TreeBuilderTestUtils;
+import quickml.supervised.ensembles.randomForest.randomDecisionForest.RandomDecisionForest;
+import quickml.supervised.ensembles.randomForest.randomDecisionForest.RandomDecisionForestBuilder;
+import quickml.supervised.ensembles.randomForest.randomRegressionForest.RandomRegressionForest;
+import quickml.supervised.ensembles.randomForest.randomRegressionForest.RandomRegressionForestBuilder;
+import quickml.supervised.tree.attributeIgnoringStrategies.IgnoreAttributesWithConstantProbability;
+import quickml.supervised.tree.decisionTree.DecisionTreeBuilder;
+import quickml.supervised.tree.decisionTree.compiled.CompiledDecisionForest;
+import quickml.supervised.tree.regressionTree.RegressionTreeBuilder;
+
+import java.util.List;
+
+public class BatchPredictionTest {
+
+    @Test
+    public void multiClassForestBatchPredictionsMatchPredict() {
+        assertBatchPredictionsMatchPredict(TreeBuilderTestUtils.getInstances(1000));
+    }
+
+    @Test
+    public void binaryForestBatchPredictionsMatchPredict() {
+        List<ClassifierInstance> instances = Lists.newArrayList();
+        for (ClassifierInstance instance : TreeBuilderTestUtils.getInstances(1000)) {
+            instances.add(new ClassifierInstance(instance.getAttributes(), instance.getLabel().equals("healthy") ? 1.0 : 0.0));
+        }
+        assertBatchPredictionsMatchPredict(instances);
+    }
+
+    @Test
+    public void regressionForestBatchPredictionsMatchPredict() {
+        List<RegressionInstance> instances = Lists.newArrayList();
+        for (ClassifierInstance instance : TreeBuilderTestUtils.getInstances(1000)) {
+            AttributesMap attributes = instance.getAttributes();
+            instances.add(new RegressionInstance(attributes, TreeBuilderTestUtils.bmi((Double) attributes.get("weight"), (Double) attributes.get("height"))));
+        }
+        RandomRegressionForest forest = new RandomRegressionForestBuilder<>(new RegressionTreeBuilder<>().maxDepth(8)
+                .attributeIgnoringStrategy(new IgnoreAttributesWithConstantProbability(0.3))).numTrees(5).buildPredictiveModel(instances);
+        List<AttributesMap> attributesList = getAttributes(instances);
+
+        for (List<Double> predictions : Lists.newArrayList(forest.predictBatch(attributesList), forest.predictBatch(attributesList, 4))) {
+            Assert.assertEquals(attributesList.size(), predictions.size());
+            for (int i = 0; i < attributesList.size(); i++) {
+                Assert.assertEquals(forest.predict(attributesList.get(i)), predictions.get(i));
+            }
+        }
+    }
+
+    private static void assertBatchPredictionsMatchPredict(List<ClassifierInstance> instances) {
+        RandomDecisionForest forest = new RandomDecisionForestBuilder<>(new DecisionTreeBuilder<>().maxDepth(8)
+                .attributeIgnoringStrategy(new IgnoreAttributesWithConstantProbability(0.3))).numTrees(5).buildPredictiveModel(instances);
+        CompiledDecisionForest compiled = forest.compile();
+        List<AttributesMap> attributesList = getAttributes(instances);
+
+        assertSamePredictions(forest, attributesList, forest.predictBatch(attributesList));
+        assertSamePredictions(forest, attributesList, forest.predictBatch(attributesList, 4));
+        assertSamePredictions(compiled, attributesList, compiled.predictBatch(attributesList));
+        assertSamePredictions(compiled, attributesList, compiled.predictBatch(attributesList, 4));
+    }
+
+    private static void assertSamePredictions(Classifier classifier, List<AttributesMap> attributesList, List<PredictionMap> predictions) {
+        Assert.assertEquals(attributesList.size(), predictions.size());
+        for (int i = 0; i < attributesList.size(); i++) {
+            Assert.assertEquals(classifier.predict(attributesList.get(i)), predictions.get(i));
+        }
+    }
+
+    private static List<AttributesMap> getAttributes(List<? extends InstanceWithAttributesMap<?>> instances) {
+        List<AttributesMap> attributesList = Lists.newArrayList();
+        for (InstanceWithAttributesMap<?> instance : instances) {
+            attributesList.add(instance.getAttributes());
+        }
+        return attributesList;
+    }
+}
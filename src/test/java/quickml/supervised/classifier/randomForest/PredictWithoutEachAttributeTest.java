@@ -0,0 +1,43 @@
+package quickml.supervised.classifier.randomForest;
+
+import com.google.common.collect.Sets;
+import org.junit.Assert;
+import org.junit.Test;
+import quickml.data.PredictionMap;
+import quickml.data.instances.ClassifierInstance;
+import quickml.supervised.classifier.TreeBuilderTestUtils;
+import quickml.supervised.ensembles.randomForest.randomDecisionForest.RandomDecisionForest;
+import quickml.supervised.ensembles.randomForest.randomDecisionForest.RandomDecisionForestBuilder;
+import quickml.supervised.tree.attributeIgnoringStrategies.IgnoreAttributesWithConstantProbability;
+import quickml.supervised.tree.decisionTree.DecisionTreeBuilder;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class PredictWithoutEachAttributeTest {
+
+    @Test
+    public void predictionsMatchPredictWithoutAttributes() {
+        List<ClassifierInstance> instances = TreeBuilderTestUtils.getInstances(1000);
+        RandomDecisionForest forest = new RandomDecisionForestBuilder<>(new DecisionTreeBuilder<>().maxDepth(8)
+                .attributeIgnoringStrategy(new IgnoreAttributesWithConstantProbability(0.3))).numTrees(5).buildPredictiveModel(instances);
+        //includes an attribute that no tree uses
+        Set<String> attributes = Sets.newHashSet("height", "weight", "gender", "unused");
+
+        for (ClassifierInstance instance : instances.subList(0, 200)) {
+            Map<String, PredictionMap> predictions = forest.predictWithoutEachAttribute(instance.getAttributes(), attributes);
+            Assert.assertEquals(attributes, predictions.keySet());
+            for (String attribute : attributes) {
+                PredictionMap expected = forest.predictWithoutAttributes(instance.getAttributes(), Collections.singleton(attribute));
+                PredictionMap actual = predictions.get(attribute);
+                Assert.assertEquals(expected.keySet(), actual.keySet());
+                for (Serializable classification : expected.keySet()) {
+                    Assert.assertEquals(expected.get(classification), actual.get(classification), 1E-9);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package quickml.supervised.crossValidation;
+
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+import quickml.data.ColumnarDataset;
+import quickml.data.instances.ClassifierInstance;
+import quickml.supervised.Utils;
+import quickml.supervised.classifier.TreeBuilderTestUtils;
+import quickml.supervised.crossValidation.lossfunctions.classifierLossFunctions.ClassifierMSELossFunction;
+import quickml.supervised.ensembles.randomForest.randomDecisionForest.RandomDecisionForest;
+import quickml.supervised.ensembles.randomForest.randomDecisionForest.RandomDecisionForestBuilder;
+import quickml.supervised.tree.attributeIgnoringStrategies.IgnoreAttributesWithConstantProbability;
+import quickml.supervised.tree.bagging.PoissonBagging;
+import quickml.supervised.tree.decisionTree.DecisionTreeBuilder;
+
+import java.util.List;
+
+public class OutOfBagCrossValidatorTest {
+
+    @Test
+    public void eachRowIsPredictedByTheTreesItWasOutOfBagFor() {
+        List<ClassifierInstance> instances = TreeBuilderTestUtils.getInstances(1000);
+        PoissonBagging bagging = new PoissonBagging(5);
+        RandomDecisionForestBuilder<ClassifierInstance> forestBuilder = getForestBuilder().bagging(bagging);
+        OutOfBagCrossValidator<ClassifierInstance> crossValidator = new OutOfBagCrossValidator<>(forestBuilder, new ClassifierMSELossFunction(), instances);
+        RandomDecisionForest forest = forestBuilder.buildPredictiveModel(ColumnarDataset.forClassification(instances));
+
+        PredictionMapResults results = crossValidator.getOutOfBagPredictions(forest);
+
+        //the out of bag probability of each row, summed over the trees it was out of bag for
+        double[] probabilitySums = new double[instances.size()];
+        int[] numOutOfBagTrees = new int[instances.size()];
+        for (int treeIndex = 0; treeIndex < forest.decisionTrees.size(); treeIndex++) {
+            for (int row : bagging.getOutOfBagRows(treeIndex, instances.size())) {
+                probabilitySums[row] += forest.decisionTrees.get(treeIndex).getProbability(instances.get(row).getAttributes(), "healthy");
+                numOutOfBagTrees[row]++;
+            }
+        }
+        List<Double> expectedProbabilities = Lists.newArrayList();
+        for (int row = 0; row < instances.size(); row++) {
+            if (numOutOfBagTrees[row] > 0) {
+                expectedProbabilities.add(probabilitySums[row] / numOutOfBagTrees[row]);
+            }
+        }
+
+        int i = 0;
+        for (PredictionMapResult result : results) {
+            Assert.assertEquals(expectedProbabilities.get(i++), result.getPrediction().get("healthy"), 1E-9);
+        }
+        Assert.assertEquals(expectedProbabilities.size(), i);
+    }
+
+    @Test
+    public void outOfBagLossIsCloseToTheLossOnUnseenData() {
+        List<ClassifierInstance> instances = TreeBuilderTestUtils.getInstances(2000);
+        List<ClassifierInstance> unseenInstances = TreeBuilderTestUtils.getInstances(2000);
+        RandomDecisionForestBuilder<ClassifierInstance> forestBuilder = getForestBuilder().bagging(new PoissonBagging(9));
+        ClassifierMSELossFunction lossFunction = new ClassifierMSELossFunction();
+
+        double outOfBagLoss = new OutOfBagCrossValidator<>(forestBuilder, lossFunction, instances).getLossForModel();
+        RandomDecisionForest forest = forestBuilder.buildPredictiveModel(ColumnarDataset.forClassification(instances));
+        double unseenLoss = lossFunction.getLoss(Utils.calcResultPredictions(forest, unseenInstances));
+
+        Assert.assertEquals(unseenLoss, outOfBagLoss, 0.05);
+    }
+
+    @Test
+    public void forestBuilderIsNotGivenABagging() {
+        List<ClassifierInstance> instances = TreeBuilderTestUtils.getInstances(500);
+        RandomDecisionForestBuilder<ClassifierInstance> forestBuilder = getForestBuilder().seed(3);
+
+        new OutOfBagCrossValidator<>(forestBuilder, new ClassifierMSELossFunction(), instances).getLossForModel();
+
+        Assert.assertFalse(forestBuilder.getBagging().isPresent());
+    }
+
+    private static RandomDecisionForestBuilder<ClassifierInstance> getForestBuilder() {
+        return new RandomDecisionForestBuilder<>(new DecisionTreeBuilder<ClassifierInstance>().numHistogramBins(32)
+                .attributeIgnoringStrategy(new IgnoreAttributesWithConstantProbability(0.3)).maxDepth(6).minLeafInstances(10)).numTrees(10);
+    }
+}
@@ -0,0 +1,96 @@
+package quickml.supervised.ensembles.boosting;
+
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+import quickml.data.AttributesMap;
+import quickml.data.instances.ClassifierInstance;
+import quickml.data.instances.RegressionInstance;
+import quickml.supervised.tree.regressionTree.RegressionTreeBuilder;
+
+import java.util.List;
+import java.util.Random;
+
+public class GradientBoostingTest {
+
+    @Test
+    public void boostedClassifierLearnsALinearBoundary() {
+        List<ClassifierInstance> instances = getClassifierInstances(2000, new Random(1));
+        BoostedClassifier classifier = new BoostedClassifierBuilder<>().numTrees(50).columnSampleFraction(0.7).seed(1).buildPredictiveModel(instances);
+
+        Assert.assertEquals(50, classifier.getBoostedTrees().getNumTrees());
+        Assert.assertEquals(1.0, classifier.getPositiveClassification());
+        int numCorrect = 0;
+        for (ClassifierInstance instance : getClassifierInstances(1000, new Random(2))) {
+            AttributesMap attributes = instance.getAttributes();
+            Assert.assertEquals(1.0, classifier.getProbability(attributes, 1.0) + classifier.getProbability(attributes, 0.0), 1E-9);
+            if (classifier.getClassificationByMaxProb(attributes).equals(instance.getLabel())) {
+                numCorrect++;
+            }
+        }
+        Assert.assertTrue("accuracy was " + numCorrect / 1000.0, numCorrect > 900);
+    }
+
+    @Test
+    public void boostedRegressorFitsResiduals() {
+        Random random = new Random(1);
+        List<RegressionInstance> instances = Lists.newArrayList();
+        for (int i = 0; i < 2000; i++) {
+            AttributesMap attributes = AttributesMap.newHashMap();
+            double x = random.nextDouble();
+            attributes.put("x", x);
+            instances.add(new RegressionInstance(attributes, 10 * x * x));
+        }
+        BoostedRegressor regressor = new BoostedRegressorBuilder<>().numTrees(100).rowSampleFraction(0.8).seed(1)
+                .buildPredictiveModel(instances);
+
+        double squaredError = 0;
+        for (RegressionInstance instance : instances) {
+            double error = regressor.predict(instance.getAttributes()) - instance.getLabel();
+            squaredError += error * error;
+        }
+        Assert.assertTrue(squaredError / instances.size() < 0.05);
+    }
+
+    @Test
+    public void earlyStoppingKeepsTheTreesWithTheLowestValidationLoss() {
+        //labels are noise, so the validation loss stops improving almost immediately
+        Random random = new Random(3);
+        List<ClassifierInstance> instances = Lists.newArrayList();
+        for (int i = 0; i < 1000; i++) {
+            AttributesMap attributes = AttributesMap.newHashMap();
+            attributes.put("x", random.nextDouble());
+            instances.add(new ClassifierInstance(attributes, random.nextBoolean() ? 1.0 : 0.0));
+        }
+        BoostedClassifier classifier = new BoostedClassifierBuilder<>().numTrees(200).learningRate(0.5).validationFraction(0.3)
+                .earlyStoppingRounds(5).seed(1).buildPredictiveModel(instances);
+
+        Assert.assertTrue(classifier.getBoostedTrees().getNumTrees() < 200);
+    }
+
+    @Test
+    public void boostingIsSeededByTheTreeBuildersSeed() {
+        List<ClassifierInstance> instances = getClassifierInstances(500, new Random(4));
+        BoostedClassifier first = new BoostedClassifierBuilder<>(new RegressionTreeBuilder<RegressionInstance>().maxDepth(3).seed(7))
+                .numTrees(10).rowSampleFraction(0.7).columnSampleFraction(0.7).buildPredictiveModel(instances);
+        BoostedClassifier second = new BoostedClassifierBuilder<>(new RegressionTreeBuilder<RegressionInstance>().maxDepth(3).seed(7))
+                .numTrees(10).rowSampleFraction(0.7).columnSampleFraction(0.7).buildPredictiveModel(instances);
+
+        for (ClassifierInstance instance : getClassifierInstances(100, new Random(5))) {
+            Assert.assertEquals(first.getProbability(instance.getAttributes(), 1.0), second.getProbability(instance.getAttributes(), 1.0), 0);
+        }
+    }
+
+    private static List<ClassifierInstance> getClassifierInstances(int numInstances, Random random) {
+        List<ClassifierInstance> instances = Lists.newArrayList();
+        for (int i = 0; i < numInstances; i++) {
+            AttributesMap attributes = AttributesMap.newHashMap();
+            double x = random.nextDouble(), y = random.nextDouble();
+            attributes.put("x", x);
+            attributes.put("y", y);
+            attributes.put("noise", random.nextDouble());
+            instances.add(new ClassifierInstance(attributes, x + y > 1 ? 1.0 : 0.0));
+        }
+        return instances;
+    }
+}
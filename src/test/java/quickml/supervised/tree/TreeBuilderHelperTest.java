@@ -0,0 +1,87 @@
+package quickml.supervised.tree;
+
+import org.junit.Assert;
+import org.junit.Test;
+import quickml.data.ColumnarDataset;
+import quickml.data.instances.ClassifierInstance;
+import quickml.supervised.classifier.TreeBuilderTestUtils;
+import quickml.supervised.tree.attributeIgnoringStrategies.IgnoreAttributesWithConstantProbability;
+import quickml.supervised.tree.decisionTree.treeBuildContexts.DTreeContextBuilder;
+import quickml.supervised.tree.decisionTree.valueCounters.ClassificationCounter;
+import quickml.supervised.tree.nodes.Branch;
+import quickml.supervised.tree.nodes.ColumnarDecider;
+import quickml.supervised.tree.nodes.Node;
+
+import java.util.Arrays;
+
+public class TreeBuilderHelperTest {
+
+    @Test
+    public void partitionRowsMovesTrueRowsToTheFrontOfTheRange() {
+        int[] rows = {9, 8, 7, 6, 5, 4, 3, 2, 1, 0};
+        ColumnarDecider isEven = new ColumnarDecider() {
+            @Override
+            public boolean decide(int row) {
+                return row % 2 == 0;
+            }
+        };
+
+        int firstFalseRow = TreeBuilderHelper.partitionRows(rows, 2, 8, isEven);
+
+        Assert.assertEquals(5, firstFalseRow);
+        Assert.assertArrayEquals(new int[]{9, 8}, Arrays.copyOfRange(rows, 0, 2));
+        Assert.assertArrayEquals(new int[]{1, 0}, Arrays.copyOfRange(rows, 8, 10));
+        for (int i = 2; i < firstFalseRow; i++) {
+            Assert.assertTrue(isEven.decide(rows[i]));
+        }
+        for (int i = firstFalseRow; i < 8; i++) {
+            Assert.assertFalse(isEven.decide(rows[i]));
+        }
+        int[] partitionedRange = Arrays.copyOfRange(rows, 2, 8);
+        Arrays.sort(partitionedRange);
+        Assert.assertArrayEquals(new int[]{2, 3, 4, 5, 6, 7}, partitionedRange);
+    }
+
+    @Test
+    public void partitionRowsHandlesEmptyChildren() {
+        int[] rows = {1, 3, 5};
+        ColumnarDecider isEven = new ColumnarDecider() {
+            @Override
+            public boolean decide(int row) {
+                return row % 2 == 0;
+            }
+        };
+
+        Assert.assertEquals(0, TreeBuilderHelper.partitionRows(rows, 0, 3, isEven));
+        Assert.assertEquals(3, TreeBuilderHelper.partitionRows(new int[]{0, 2, 4}, 0, 3, isEven));
+    }
+
+    @Test
+    public void levelWiseGrowthMakesOnePassPerDepth() {
+        DTreeContextBuilder<ClassifierInstance> tcb = new DTreeContextBuilder<>();
+        tcb.numHistogramBins(255);
+        tcb.attributeIgnoringStrategy(new IgnoreAttributesWithConstantProbability(0.0));
+        tcb.maxDepth(6);
+        tcb.minLeafInstances(10);
+        tcb.levelWiseGrowth(true);
+        tcb.initializeConfig();
+        ColumnarDataset data = ColumnarDataset.forClassification(TreeBuilderTestUtils.getInstances(2000));
+
+        TreeBuilderHelper<ClassifierInstance, ClassificationCounter> helper = new TreeBuilderHelper<>(tcb);
+        TreeBuilderHelper<ClassifierInstance, ClassificationCounter>.LevelWiseGrowth growth = helper.new LevelWiseGrowth(data, tcb.buildContext(data));
+        Node<ClassificationCounter> root = growth.grow();
+
+        //the root's pass, and one for each depth below it
+        int depth = getDepth(root);
+        Assert.assertTrue("depth: " + depth, depth > 1);
+        Assert.assertEquals(depth + 1, growth.getNumPasses());
+    }
+
+    private static int getDepth(Node<ClassificationCounter> node) {
+        if (!(node instanceof Branch)) {
+            return 0;
+        }
+        Branch<ClassificationCounter> branch = (Branch<ClassificationCounter>) node;
+        return 1 + Math.max(getDepth(branch.getTrueChild()), getDepth(branch.getFalseChild()));
+    }
+}
@@ -0,0 +1,72 @@
+package quickml.supervised.tree.bagging;
+
+import org.junit.Assert;
+import org.junit.Test;
+import quickml.data.ColumnarDataset;
+import quickml.data.instances.ClassifierInstance;
+import quickml.supervised.classifier.TreeBuilderTestUtils;
+import quickml.supervised.ensembles.randomForest.randomDecisionForest.RandomDecisionForest;
+import quickml.supervised.ensembles.randomForest.randomDecisionForest.RandomDecisionForestBuilder;
+import quickml.supervised.tree.attributeIgnoringStrategies.IgnoreAttributesWithConstantProbability;
+import quickml.supervised.tree.decisionTree.DecisionTreeBuilder;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class PoissonBaggingTest {
+
+    @Test
+    public void countsAreReproducibleAndAverageOne() {
+        PoissonBagging bagging = new PoissonBagging(42);
+        int[] counts = bagging.getCounts(3, 100000);
+        Assert.assertArrayEquals(counts, new PoissonBagging(42).getCounts(3, 100000));
+        Assert.assertFalse(Arrays.equals(counts, bagging.getCounts(4, 100000)));
+
+        long total = 0;
+        int numZeros = 0;
+        for (int count : counts) {
+            total += count;
+            if (count == 0) {
+                numZeros++;
+            }
+        }
+        Assert.assertEquals(1.0, total / 100000.0, 0.02);
+        //P(count = 0) = 1/e
+        Assert.assertEquals(Math.exp(-1), numZeros / 100000.0, 0.01);
+        Assert.assertEquals(numZeros, bagging.getOutOfBagRows(3, 100000).length);
+    }
+
+    @Test
+    public void bootstrapReweightsWithoutCopyingColumns() {
+        ColumnarDataset data = ColumnarDataset.forClassification(TreeBuilderTestUtils.getInstances(1000));
+        PoissonBagging bagging = new PoissonBagging(7);
+        ColumnarDataset bootstrap = bagging.bootstrap(data, 0);
+
+        Assert.assertSame(data.getNumericColumn("height"), bootstrap.getNumericColumn("height"));
+        Assert.assertSame(data.getLabelCodes(), bootstrap.getLabelCodes());
+        int[] counts = bagging.getCounts(0, data.size());
+        for (int row = 0; row < data.size(); row++) {
+            Assert.assertEquals(data.getWeight(row) * counts[row], bootstrap.getWeight(row), 1E-12);
+        }
+        for (int row : bagging.getOutOfBagRows(0, data.size())) {
+            Assert.assertEquals(0, bootstrap.getWeight(row), 0);
+        }
+    }
+
+    @Test
+    public void baggedColumnarForestFitsTrainingData() {
+        List<ClassifierInstance> instances = TreeBuilderTestUtils.getInstances(2000);
+        RandomDecisionForest forest = new RandomDecisionForestBuilder<ClassifierInstance>(new DecisionTreeBuilder<ClassifierInstance>().numHistogramBins(64)
+                .attributeIgnoringStrategy(new IgnoreAttributesWithConstantProbability(0.0)).maxDepth(8).minLeafInstances(5))
+                .numTrees(5).bagging(new PoissonBagging(11)).buildPredictiveModel(ColumnarDataset.forClassification(instances));
+
+        int correct = 0;
+        for (ClassifierInstance instance : instances) {
+            if (forest.getClassificationByMaxProb(instance.getAttributes()).equals(instance.getLabel())) {
+                correct++;
+            }
+        }
+        Assert.assertEquals(5, forest.decisionTrees.size());
+        Assert.assertTrue("accuracy: " + correct / 2000.0, correct > 0.9 * instances.size());
+    }
+}
@@ -0,0 +1,155 @@
+package quickml.supervised.tree.decisionTree;
+
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+import quickml.data.AttributesMap;
+import quickml.data.ColumnarDataset;
+import quickml.data.instances.ClassifierInstance;
+import quickml.data.instances.RegressionInstance;
+import quickml.supervised.classifier.TreeBuilderTestUtils;
+import quickml.supervised.tree.attributeIgnoringStrategies.IgnoreAttributesWithConstantProbability;
+import quickml.supervised.tree.regressionTree.RegressionTree;
+import quickml.supervised.tree.regressionTree.RegressionTreeBuilder;
+
+import java.util.List;
+
+/**
+ * Trees built from a ColumnarDataset should make the same predictions as trees built from the instances themselves.
+ */
+public class ColumnarTreeBuilderTest {
+
+    @Test
+    public void columnarDecisionTreeMatchesInstanceBasedTree() {
+        List<ClassifierInstance> instances = getInstancesWithCategoricalAttribute(2000);
+        DecisionTreeBuilder<ClassifierInstance> builder = new DecisionTreeBuilder<>().numSamplesPerNumericBin(1000).numNumericBins(6)
+                .attributeIgnoringStrategy(new IgnoreAttributesWithConstantProbability(0.0)).maxDepth(6).minLeafInstances(10);
+
+        DecisionTree fromInstances = builder.copy().buildPredictiveModel(instances);
+        DecisionTree fromColumns = builder.copy().buildPredictiveModel(ColumnarDataset.forClassification(instances));
+
+        Assert.assertEquals(fromInstances.getClassifications(), fromColumns.getClassifications());
+        for (ClassifierInstance instance : instances) {
+            Assert.assertEquals(fromInstances.getProbability(instance.getAttributes(), "healthy"),
+                    fromColumns.getProbability(instance.getAttributes(), "healthy"), 1E-9);
+        }
+    }
+
+    @Test
+    public void histogramDecisionTreeFitsTrainingData() {
+        List<ClassifierInstance> instances = getInstancesWithCategoricalAttribute(2000);
+        DecisionTree decisionTree = new DecisionTreeBuilder<>().numHistogramBins(255)
+                .attributeIgnoringStrategy(new IgnoreAttributesWithConstantProbability(0.0)).maxDepth(8).minLeafInstances(5)
+                .buildPredictiveModel(ColumnarDataset.forClassification(instances));
+
+        int correct = 0;
+        for (ClassifierInstance instance : instances) {
+            if (decisionTree.getClassificationByMaxProb(instance.getAttributes()).equals(instance.getLabel())) {
+                correct++;
+            }
+        }
+        Assert.assertTrue("accuracy: " + correct / 2000.0, correct > 0.9 * instances.size());
+    }
+
+    @Test
+    public void levelWiseDecisionTreeMatchesDepthFirstTree() {
+        List<ClassifierInstance> instances = getInstancesWithCategoricalAttribute(2000);
+        DecisionTreeBuilder<ClassifierInstance> builder = new DecisionTreeBuilder<>().numHistogramBins(255)
+                .attributeIgnoringStrategy(new IgnoreAttributesWithConstantProbability(0.0)).maxDepth(6).minLeafInstances(10);
+        ColumnarDataset data = ColumnarDataset.forClassification(instances);
+
+        DecisionTree depthFirst = builder.copy().buildPredictiveModel(data);
+        DecisionTree levelWise = builder.copy().levelWiseGrowth(true).buildPredictiveModel(data);
+
+        for (ClassifierInstance instance : instances) {
+            Assert.assertEquals(depthFirst.getProbability(instance.getAttributes(), "healthy"),
+                    levelWise.getProbability(instance.getAttributes(), "healthy"), 1E-9);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void levelWiseGrowthNeedsHistogramBins() {
+        new DecisionTreeBuilder<>().levelWiseGrowth(true).buildPredictiveModel(ColumnarDataset.forClassification(getInstancesWithCategoricalAttribute(100)));
+    }
+
+    @Test
+    public void columnarRegressionTreeMatchesInstanceBasedTree() {
+        List<RegressionInstance> instances = Lists.newArrayList();
+        for (ClassifierInstance instance : getInstancesWithCategoricalAttribute(2000)) {
+            double bmi = TreeBuilderTestUtils.bmi((Double) instance.getAttributes().get("weight"), (Double) instance.getAttributes().get("height"));
+            instances.add(new RegressionInstance(instance.getAttributes(), bmi));
+        }
+        RegressionTreeBuilder<RegressionInstance> builder = new RegressionTreeBuilder<>().numSamplesPerNumericBin(1000).numNumericBins(6)
+                .attributeIgnoringStrategy(new IgnoreAttributesWithConstantProbability(0.0)).maxDepth(6).minLeafInstances(10);
+
+        RegressionTree fromInstances = builder.copy().buildPredictiveModel(instances);
+        RegressionTree fromColumns = builder.copy().buildPredictiveModel(ColumnarDataset.forRegression(instances));
+
+        for (RegressionInstance instance : instances) {
+            Assert.assertEquals(fromInstances.predict(instance.getAttributes()), fromColumns.predict(instance.getAttributes()), 1E-9);
+        }
+    }
+
+    @Test
+    public void seededParallelRegressionTreesMatchTheSequentialTree() {
+        List<RegressionInstance> instances = Lists.newArrayList();
+        int i = 0;
+        for (ClassifierInstance instance : getInstancesWithCategoricalAttribute(4000)) {
+            double bmi = TreeBuilderTestUtils.bmi((Double) instance.getAttributes().get("weight"), (Double) instance.getAttributes().get("height"));
+            instances.add(new RegressionInstance(instance.getAttributes(), bmi, Math.pow(10, i++ % 7 - 3)));
+        }
+        RegressionTreeBuilder<RegressionInstance> builder = new RegressionTreeBuilder<>().numSamplesPerNumericBin(1000).numNumericBins(6)
+                .ignoreAttributeProbability(0.5).maxDepth(10).minLeafInstances(5).seed(11);
+
+        RegressionTree sequentialTree = builder.copy().buildPredictiveModel(ColumnarDataset.forRegression(instances));
+        for (int build = 0; build < 5; build++) {
+            RegressionTree parallelTree = builder.copy().parallelism(4).minInstancesForParallelSubtrees(20).buildPredictiveModel(ColumnarDataset.forRegression(instances));
+            for (RegressionInstance instance : instances) {
+                Assert.assertEquals(sequentialTree.predict(instance.getAttributes()), parallelTree.predict(instance.getAttributes()), 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void exactNumericSplitsFindTheBestThreshold() {
+        List<RegressionInstance> instances = Lists.newArrayList();
+        for (int i = 0; i < 200; i++) {
+            AttributesMap attributes = AttributesMap.newHashMap();
+            attributes.put("x", (double) ((i * 37) % 200));
+            instances.add(new RegressionInstance(attributes, (i * 37) % 200 > 123 ? 5.0 : 1.0));
+        }
+        RegressionTree regressionTree = new RegressionTreeBuilder<>().exactNumericSplits(true)
+                .attributeIgnoringStrategy(new IgnoreAttributesWithConstantProbability(0.0)).maxDepth(1).minLeafInstances(1)
+                .buildPredictiveModel(ColumnarDataset.forRegression(instances));
+
+        for (RegressionInstance instance : instances) {
+            Assert.assertEquals(instance.getLabel(), regressionTree.predict(instance.getAttributes()), 1E-9);
+        }
+    }
+
+    @Test
+    public void exactDecisionTreeFitsTrainingData() {
+        List<ClassifierInstance> instances = getInstancesWithCategoricalAttribute(2000);
+        DecisionTree decisionTree = new DecisionTreeBuilder<>().exactNumericSplits(true).parallelism(4)
+                .attributeIgnoringStrategy(new IgnoreAttributesWithConstantProbability(0.0)).maxDepth(8).minLeafInstances(5)
+                .buildPredictiveModel(ColumnarDataset.forClassification(instances));
+
+        int correct = 0;
+        for (ClassifierInstance instance : instances) {
+            if (decisionTree.getClassificationByMaxProb(instance.getAttributes()).equals(instance.getLabel())) {
+                correct++;
+            }
+        }
+        Assert.assertTrue("accuracy: " + correct / 2000.0, correct > 0.9 * instances.size());
+    }
+
+    private static List<ClassifierInstance> getInstancesWithCategoricalAttribute(int numInstances) {
+        List<ClassifierInstance> instances = Lists.newArrayList();
+        for (ClassifierInstance instance : TreeBuilderTestUtils.getInstances(numInstances)) {
+            AttributesMap attributes = instance.getAttributes();
+            attributes.put("genderName", ((Integer) attributes.get("gender")) == 0 ? "male" : "female");
+            instances.add(instance);
+        }
+        return instances;
+    }
+}
@@ -0,0 +1,148 @@
+package quickml.supervised.tree.decisionTree;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.junit.Assert;
+import org.junit.Test;
+import quickml.data.AttributesMap;
+import quickml.data.PredictionMap;
+import quickml.data.instances.ClassifierInstance;
+import quickml.supervised.classifier.TreeBuilderTestUtils;
+import quickml.supervised.ensembles.randomForest.randomDecisionForest.RandomDecisionForest;
+import quickml.supervised.ensembles.randomForest.randomDecisionForest.RandomDecisionForestBuilder;
+import quickml.supervised.tree.decisionTree.nodes.SlimDTLeaf;
+import quickml.supervised.tree.decisionTree.valueCounters.ClassificationCounter;
+import quickml.supervised.tree.nodes.Branch;
+import quickml.supervised.tree.nodes.Node;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+public class DecisionTreeSlimmerTest {
+
+    @Test
+    public void slimForestMakesTheSamePredictions() throws IOException {
+        assertSlimForestMakesTheSamePredictions(false, 1E-6);
+    }
+
+    @Test
+    public void quantizedForestMakesTheSamePredictions() throws IOException {
+        assertSlimForestMakesTheSamePredictions(true, 1E-4);
+    }
+
+    @Test
+    public void builtTreesAreSlimmedWhenConfigured() {
+        List<ClassifierInstance> instances = TreeBuilderTestUtils.getInstances(1000);
+        RandomDecisionForest forest = new RandomDecisionForestBuilder<>(getTreeBuilder().slim(true).quantizeLeafProbabilities(true))
+                .numTrees(4).buildPredictiveModel(instances);
+
+        Set<SlimDTLeaf> leaves = Collections.newSetFromMap(new IdentityHashMap<SlimDTLeaf, Boolean>());
+        for (DecisionTree decisionTree : forest.decisionTrees) {
+            assertSlim(decisionTree.root, leaves);
+        }
+        Assert.assertFalse(leaves.isEmpty());
+
+        DecisionTree decisionTree = getTreeBuilder().slim(true).buildPredictiveModel(instances);
+        assertSlim(decisionTree.root, leaves);
+    }
+
+    @Test
+    public void slimTreesKeepTheirDepthStats() {
+        DecisionTree decisionTree = getTreeBuilder().buildPredictiveModel(TreeBuilderTestUtils.getInstances(1000));
+        double meanDepth = decisionTree.calcMeanDepth();
+        double medianDepth = decisionTree.calcMedianDepth();
+
+        decisionTree.slim();
+
+        Assert.assertEquals(meanDepth, decisionTree.calcMeanDepth(), 1E-9);
+        Assert.assertEquals(medianDepth, decisionTree.calcMedianDepth(), 1E-9);
+    }
+
+    @Test
+    public void treesBuiltSlimHaveTheDepthsOfTheirUnslimmedTrees() {
+        List<ClassifierInstance> instances = TreeBuilderTestUtils.getInstances(1000);
+        DecisionTree decisionTree = getTreeBuilder().seed(5).buildPredictiveModel(instances);
+        DecisionTree slimTree = getTreeBuilder().seed(5).slim(true).buildPredictiveModel(instances);
+
+        Assert.assertTrue(decisionTree.calcMeanDepth() > 1);
+        Assert.assertEquals(decisionTree.calcMeanDepth(), slimTree.calcMeanDepth(), 1E-9);
+        Assert.assertEquals(decisionTree.calcMedianDepth(), slimTree.calcMedianDepth(), 1E-9);
+    }
+
+    private void assertSlimForestMakesTheSamePredictions(boolean quantize, double tolerance) throws IOException {
+        List<ClassifierInstance> instances = TreeBuilderTestUtils.getInstances(2000);
+        RandomDecisionForest forest = new RandomDecisionForestBuilder<>(getTreeBuilder()).numTrees(8).seed(3).buildPredictiveModel(instances);
+        Set<String> attributesToIgnore = Sets.newHashSet("weight");
+        List<PredictionMap> predictions = Lists.newArrayList();
+        List<PredictionMap> predictionsWithoutWeight = Lists.newArrayList();
+        for (ClassifierInstance instance : instances) {
+            predictions.add(forest.predict(instance.getAttributes()));
+            predictionsWithoutWeight.add(forest.predictWithoutAttributes(instance.getAttributes(), attributesToIgnore));
+        }
+        int numLeaves = countLeaves(forest);
+        int serializedSize = getSerializedSize(forest);
+
+        forest.slim(quantize);
+
+        Set<SlimDTLeaf> leaves = Collections.newSetFromMap(new IdentityHashMap<SlimDTLeaf, Boolean>());
+        for (DecisionTree decisionTree : forest.decisionTrees) {
+            assertSlim(decisionTree.root, leaves);
+        }
+        //leaves with the same probabilities, e.g. pure ones, are shared
+        Assert.assertTrue(leaves.size() < numLeaves);
+        Assert.assertTrue(getSerializedSize(forest) < serializedSize);
+        for (int i = 0; i < instances.size(); i++) {
+            AttributesMap attributes = instances.get(i).getAttributes();
+            assertSamePrediction(predictions.get(i), forest.predict(attributes), tolerance);
+            assertSamePrediction(predictionsWithoutWeight.get(i), forest.predictWithoutAttributes(attributes, attributesToIgnore), tolerance);
+        }
+        assertSamePrediction(forest.compile().predict(instances.get(0).getAttributes()), forest.predict(instances.get(0).getAttributes()), tolerance);
+    }
+
+    private static DecisionTreeBuilder<ClassifierInstance> getTreeBuilder() {
+        return new DecisionTreeBuilder<>().maxDepth(8).ignoreAttributeProbability(0.3);
+    }
+
+    private static void assertSlim(Node<ClassificationCounter> node, Set<SlimDTLeaf> leaves) {
+        if (node instanceof Branch) {
+            Branch<ClassificationCounter> branch = (Branch<ClassificationCounter>) node;
+            Assert.assertNull(branch.getValueCounter());
+            Assert.assertNull(branch.getParent());
+            assertSlim(branch.getTrueChild(), leaves);
+            assertSlim(branch.getFalseChild(), leaves);
+        } else {
+            Assert.assertTrue(node instanceof SlimDTLeaf);
+            leaves.add((SlimDTLeaf) node);
+        }
+    }
+
+    private static int countLeaves(RandomDecisionForest forest) {
+        int numLeaves = 0;
+        for (DecisionTree decisionTree : forest.decisionTrees) {
+            numLeaves += (decisionTree.root.getSize() + 1) / 2;
+        }
+        return numLeaves;
+    }
+
+    private static int getSerializedSize(Serializable object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.size();
+    }
+
+    private static void assertSamePrediction(PredictionMap expected, PredictionMap actual, double tolerance) {
+        Set<Serializable> classifications = Sets.newHashSet(expected.keySet());
+        classifications.addAll(actual.keySet());
+        for (Serializable classification : classifications) {
+            Assert.assertEquals(expected.get(classification), actual.get(classification), tolerance);
+        }
+    }
+}
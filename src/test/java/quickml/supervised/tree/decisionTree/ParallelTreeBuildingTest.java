@@ -0,0 +1,49 @@
+package quickml.supervised.tree.decisionTree;
+
+import org.junit.Assert;
+import org.junit.Test;
+import quickml.data.ColumnarDataset;
+import quickml.data.instances.ClassifierInstance;
+import quickml.supervised.classifier.TreeBuilderTestUtils;
+import quickml.supervised.tree.attributeIgnoringStrategies.IgnoreAttributesWithConstantProbability;
+
+import java.util.List;
+
+/**
+ * Building a tree in parallel should pick the same splits as building it sequentially.
+ */
+public class ParallelTreeBuildingTest {
+
+    @Test
+    public void parallelTreeMatchesSequentialTree() {
+        List<ClassifierInstance> instances = TreeBuilderTestUtils.getInstances(3000);
+        DecisionTreeBuilder<ClassifierInstance> builder = getBuilder();
+
+        DecisionTree sequentialTree = builder.copy().buildPredictiveModel(instances);
+        DecisionTree parallelTree = builder.copy().parallelism(4).minInstancesForParallelSubtrees(100).buildPredictiveModel(instances);
+
+        assertSamePredictions(instances, sequentialTree, parallelTree);
+    }
+
+    @Test
+    public void parallelColumnarTreeMatchesSequentialTree() {
+        List<ClassifierInstance> instances = TreeBuilderTestUtils.getInstances(3000);
+        DecisionTreeBuilder<ClassifierInstance> builder = getBuilder().numHistogramBins(64);
+
+        DecisionTree sequentialTree = builder.copy().buildPredictiveModel(ColumnarDataset.forClassification(instances));
+        DecisionTree parallelTree = builder.copy().parallelism(4).minInstancesForParallelSubtrees(100).buildPredictiveModel(ColumnarDataset.forClassification(instances));
+
+        assertSamePredictions(instances, sequentialTree, parallelTree);
+    }
+
+    private static DecisionTreeBuilder<ClassifierInstance> getBuilder() {
+        return new DecisionTreeBuilder<>().numSamplesPerNumericBin(1000).numNumericBins(6)
+                .attributeIgnoringStrategy(new IgnoreAttributesWithConstantProbability(0.0)).maxDepth(8).minLeafInstances(10);
+    }
+
+    private static void assertSamePredictions(List<ClassifierInstance> instances, DecisionTree expected, DecisionTree actual) {
+        for (ClassifierInstance instance : instances) {
+            Assert.assertEquals(expected.getProbability(instance.getAttributes(), "healthy"), actual.getProbability(instance.getAttributes(), "healthy"), 1E-9);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package quickml.supervised.tree.decisionTree.attributeIgnoringStrategies;
 import com.google.common.collect.Sets;
 import org.junit.Test;
 import org.testng.Assert;
+import quickml.concurrent.SplittableRandom;
 import quickml.supervised.tree.attributeIgnoringStrategies.AttributeIgnoringStrategy;
 import quickml.supervised.tree.attributeIgnoringStrategies.CompositeAttributeIgnoringStrategy;
 import quickml.supervised.tree.attributeIgnoringStrategies.IgnoreAttributesInSet;
@@ -47,6 +48,20 @@ public class AttributeIgnoringStrategiesTests {
         Assert.assertEquals(numIgnored, 0);
     }
 
+    @Test
+    public void IgnoreAttributesInSetIsReproducibleFromTheNodeGenerator() {
+        Set<String> attributesToIgnore = Sets.newHashSet();
+        for (int i = 0; i < 50; i++) {
+            attributesToIgnore.add("attribute" + i);
+        }
+        IgnoreAttributesInSet first = new IgnoreAttributesInSet(attributesToIgnore, 0.5);
+        IgnoreAttributesInSet second = first.copy();
+        for (String attribute : attributesToIgnore) {
+            Assert.assertEquals(first.ignoreAttribute(attribute, null, new SplittableRandom(42)),
+                    second.ignoreAttribute(attribute, null, new SplittableRandom(42)));
+        }
+    }
+
     @Test
     public void CompositeAttributeIgnoringStrategyTest() {
         int ignoreAttributeProbability = 0;
@@ -0,0 +1,92 @@
+package quickml.supervised.tree.decisionTree.compiled;
+
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+import quickml.data.AttributesMap;
+import quickml.data.PredictionMap;
+import quickml.data.instances.ClassifierInstance;
+import quickml.supervised.ensembles.randomForest.randomDecisionForest.RandomDecisionForest;
+import quickml.supervised.tree.attributeIgnoringStrategies.IgnoreAttributesWithConstantProbability;
+import quickml.supervised.tree.decisionTree.DecisionTree;
+import quickml.supervised.tree.decisionTree.DecisionTreeBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.List;
+
+import static quickml.supervised.tree.decisionTree.compiled.CompiledDecisionForestTest.assertSamePrediction;
+import static quickml.supervised.tree.decisionTree.compiled.CompiledDecisionForestTest.getForestBuilder;
+import static quickml.supervised.tree.decisionTree.compiled.CompiledDecisionForestTest.getInstances;
+
+public class BytecodeDecisionForestTest {
+
+    @Test
+    public void bytecodeForestMakesTheSamePredictions() {
+        List<ClassifierInstance> instances = getInstances(2000, false);
+        RandomDecisionForest forest = getForestBuilder().buildPredictiveModel(instances);
+        CompiledDecisionForest compiled = forest.compile();
+
+        BytecodeDecisionForest bytecode = forest.compileToBytecode();
+
+        assertSamePredictions(compiled, bytecode, instances);
+        List<AttributesMap> attributesList = Lists.newArrayList();
+        for (ClassifierInstance instance : instances) {
+            attributesList.add(instance.getAttributes());
+        }
+        List<PredictionMap> predictions = bytecode.predictBatch(attributesList, 3);
+        for (int i = 0; i < instances.size(); i++) {
+            assertSamePrediction(compiled.predict(attributesList.get(i)), predictions.get(i));
+        }
+    }
+
+    @Test
+    public void subtreesTooLargeToInlineGetTheirOwnMethods() {
+        List<ClassifierInstance> instances = getInstances(2000, false);
+        DecisionTree decisionTree = new DecisionTreeBuilder<>().maxDepth(8).attributeIgnoringStrategy(new IgnoreAttributesWithConstantProbability(0.0))
+                .buildPredictiveModel(instances);
+        CompiledDecisionForest compiled = decisionTree.compile();
+        Assert.assertTrue(compiled.getNumBranches() > 3);
+
+        //with 0, every branch gets its own method
+        for (int maxInlinedSubtreeSize : new int[]{0, 40}) {
+            assertSamePredictions(compiled, new BytecodeDecisionForest(compiled, maxInlinedSubtreeSize), instances);
+        }
+    }
+
+    @Test
+    public void leafFindersAreRegeneratedWhenDeserialized() throws Exception {
+        List<ClassifierInstance> instances = getInstances(1000, true);
+        BytecodeDecisionForest bytecode = getForestBuilder().buildPredictiveModel(instances).compileToBytecode();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(bytecode);
+        }
+        BytecodeDecisionForest deserialized;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            deserialized = (BytecodeDecisionForest) in.readObject();
+        }
+
+        assertSamePredictions(bytecode.getCompiledForest(), deserialized, instances);
+    }
+
+    private static void assertSamePredictions(CompiledDecisionForest compiled, BytecodeDecisionForest bytecode, List<ClassifierInstance> instances) {
+        for (ClassifierInstance instance : instances) {
+            AttributesMap attributes = instance.getAttributes();
+            assertSamePrediction(compiled.predict(attributes), bytecode.predict(attributes));
+            Assert.assertEquals(compiled.getClassificationByMaxProb(attributes), bytecode.getClassificationByMaxProb(attributes));
+            for (Serializable classification : compiled.getClassifications()) {
+                Assert.assertEquals(compiled.getProbability(attributes, classification), bytecode.getProbability(attributes, classification), 1E-9);
+            }
+        }
+        AttributesMap unknownCategory = AttributesMap.newHashMap();
+        unknownCategory.put("weight", 150.0);
+        unknownCategory.put("weightBucket", "never seen");
+        assertSamePrediction(compiled.predict(unknownCategory), bytecode.predict(unknownCategory));
+        assertSamePrediction(compiled.predict(AttributesMap.newHashMap()), bytecode.predict(AttributesMap.newHashMap()));
+    }
+}
@@ -0,0 +1,105 @@
+package quickml.supervised.tree.decisionTree.compiled;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.junit.Assert;
+import org.junit.Test;
+import quickml.data.AttributesMap;
+import quickml.data.PredictionMap;
+import quickml.data.instances.ClassifierInstance;
+import quickml.supervised.classifier.TreeBuilderTestUtils;
+import quickml.supervised.ensembles.randomForest.randomDecisionForest.RandomDecisionForest;
+import quickml.supervised.ensembles.randomForest.randomDecisionForest.RandomDecisionForestBuilder;
+import quickml.supervised.tree.attributeIgnoringStrategies.IgnoreAttributesWithConstantProbability;
+import quickml.supervised.tree.decisionTree.DecisionTree;
+import quickml.supervised.tree.decisionTree.DecisionTreeBuilder;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Set;
+
+public class CompiledDecisionForestTest {
+
+    @Test
+    public void compiledTreeMakesTheSamePredictions() {
+        List<ClassifierInstance> instances = getInstances(2000, false);
+        DecisionTree decisionTree = new DecisionTreeBuilder<>().maxDepth(8).attributeIgnoringStrategy(new IgnoreAttributesWithConstantProbability(0.0))
+                .buildPredictiveModel(instances);
+
+        CompiledDecisionForest compiled = decisionTree.compile();
+
+        Assert.assertEquals(1, compiled.getNumTrees());
+        for (ClassifierInstance instance : instances) {
+            assertSamePrediction(decisionTree.predict(instance.getAttributes()), compiled.predict(instance.getAttributes()));
+            Assert.assertEquals(decisionTree.getClassificationByMaxProb(instance.getAttributes()), compiled.getClassificationByMaxProb(instance.getAttributes()));
+        }
+    }
+
+    @Test
+    public void compiledMultiClassForestMakesTheSamePredictions() {
+        assertCompiledForestMakesTheSamePredictions(getInstances(2000, false));
+    }
+
+    @Test
+    public void compiledBinaryForestMakesTheSamePredictions() {
+        assertCompiledForestMakesTheSamePredictions(getInstances(2000, true));
+    }
+
+    @Test
+    public void featureVectorsTreatMissingAndUnknownValuesLikeTheTree() {
+        List<ClassifierInstance> instances = getInstances(2000, false);
+        RandomDecisionForest forest = getForestBuilder().buildPredictiveModel(instances);
+        CompiledDecisionForest compiled = forest.compile();
+
+        AttributesMap noAttributes = AttributesMap.newHashMap();
+        assertSamePrediction(forest.predict(noAttributes), compiled.predict(noAttributes));
+        AttributesMap unknownCategory = AttributesMap.newHashMap();
+        unknownCategory.put("weight", 150.0);
+        unknownCategory.put("weightBucket", "never seen");
+        assertSamePrediction(forest.predict(unknownCategory), compiled.predict(unknownCategory));
+    }
+
+    private void assertCompiledForestMakesTheSamePredictions(List<ClassifierInstance> instances) {
+        RandomDecisionForest forest = getForestBuilder().buildPredictiveModel(instances);
+
+        CompiledDecisionForest compiled = forest.compile();
+
+        Assert.assertEquals(forest.decisionTrees.size(), compiled.getNumTrees());
+        Set<String> attributesToIgnore = Sets.newHashSet("weightBucket");
+        for (ClassifierInstance instance : instances) {
+            AttributesMap attributes = instance.getAttributes();
+            assertSamePrediction(forest.predict(attributes), compiled.predict(attributes));
+            assertSamePrediction(forest.predictWithoutAttributes(attributes, attributesToIgnore), compiled.predictWithoutAttributes(attributes, attributesToIgnore));
+            for (Serializable classification : compiled.getClassifications()) {
+                Assert.assertEquals(forest.getProbability(attributes, classification), compiled.getProbability(attributes, classification), 1E-9);
+            }
+        }
+    }
+
+    static RandomDecisionForestBuilder<ClassifierInstance> getForestBuilder() {
+        return new RandomDecisionForestBuilder<>(new DecisionTreeBuilder<>().maxDepth(8).attributeIgnoringStrategy(new IgnoreAttributesWithConstantProbability(0.3)))
+                .numTrees(5);
+    }
+
+    static void assertSamePrediction(PredictionMap expected, PredictionMap actual) {
+        Set<Serializable> classifications = Sets.newHashSet(expected.keySet());
+        classifications.addAll(actual.keySet());
+        for (Serializable classification : classifications) {
+            Assert.assertEquals(expected.get(classification), actual.get(classification), 1E-9);
+        }
+    }
+
+    /**
+     * Adds a categorical attribute with more than 64 values, so that categorical true sets span several bit set words.
+     */
+    static List<ClassifierInstance> getInstances(int numInstances, boolean binary) {
+        List<ClassifierInstance> instances = Lists.newArrayList();
+        for (ClassifierInstance instance : TreeBuilderTestUtils.getInstances(numInstances)) {
+            AttributesMap attributes = instance.getAttributes();
+            attributes.put("weightBucket", "bucket" + ((Double) attributes.get("weight")).intValue());
+            Serializable label = binary ? instance.getLabel().equals("healthy") : instance.getLabel();
+            instances.add(new ClassifierInstance(attributes, label));
+        }
+        return instances;
+    }
+}
@@ -0,0 +1,110 @@
+package quickml.supervised.tree.decisionTree.compiled;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.junit.Assert;
+import org.junit.Test;
+import quickml.data.AttributesMap;
+import quickml.data.PredictionMap;
+import quickml.data.instances.ClassifierInstance;
+import quickml.supervised.ensembles.randomForest.randomDecisionForest.RandomDecisionForest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.util.List;
+import java.util.Set;
+
+import static quickml.supervised.tree.decisionTree.compiled.CompiledDecisionForestTest.assertSamePrediction;
+import static quickml.supervised.tree.decisionTree.compiled.CompiledDecisionForestTest.getForestBuilder;
+import static quickml.supervised.tree.decisionTree.compiled.CompiledDecisionForestTest.getInstances;
+
+public class MappedDecisionForestTest {
+
+    @Test
+    public void mappedForestMakesTheSamePredictions() throws IOException {
+        File file = File.createTempFile("forest", ".qmf");
+        try {
+            for (boolean binary : new boolean[]{false, true}) {
+                List<ClassifierInstance> instances = getInstances(2000, binary);
+                RandomDecisionForest forest = getForestBuilder().buildPredictiveModel(instances);
+                MappedDecisionForest.write(forest.compile(), file);
+                MappedDecisionForest mapped = MappedDecisionForest.open(file);
+
+                Assert.assertEquals(forest.decisionTrees.size(), mapped.getNumTrees());
+                assertSamePredictions(forest, mapped, instances);
+                List<AttributesMap> attributesList = Lists.newArrayList();
+                for (ClassifierInstance instance : instances) {
+                    attributesList.add(instance.getAttributes());
+                }
+                List<PredictionMap> predictions = mapped.predictBatch(attributesList, 3);
+                for (int i = 0; i < instances.size(); i++) {
+                    assertSamePrediction(forest.predict(attributesList.get(i)), predictions.get(i));
+                }
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void openForestsKeepTheirFileWhenItIsReplaced() throws Exception {
+        File file = File.createTempFile("forest", ".qmf");
+        try {
+            List<ClassifierInstance> instances = getInstances(1000, true);
+            RandomDecisionForest forest = getForestBuilder().buildPredictiveModel(instances);
+            MappedDecisionForest.write(forest.compile(), file);
+            MappedDecisionForest mapped = MappedDecisionForest.open(file);
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(mapped);
+            }
+            MappedDecisionForest deserialized;
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+                deserialized = (MappedDecisionForest) in.readObject();
+            }
+            assertSamePredictions(forest, deserialized, instances);
+
+            RandomDecisionForest otherForest = getForestBuilder().buildPredictiveModel(getInstances(500, false));
+            MappedDecisionForest.write(otherForest.compile(), file);
+            assertSamePredictions(forest, mapped, instances);
+            assertSamePredictions(otherForest, MappedDecisionForest.open(file), instances);
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void newerVersionsAreRejected() throws IOException {
+        File file = File.createTempFile("forest", ".qmf");
+        try {
+            MappedDecisionForest.write(getForestBuilder().buildPredictiveModel(getInstances(200, true)).compile(), file);
+            try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+                randomAccessFile.seek(4);
+                randomAccessFile.write(2);
+            }
+            MappedDecisionForest.open(file);
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static void assertSamePredictions(RandomDecisionForest forest, MappedDecisionForest mapped, List<ClassifierInstance> instances) {
+        Set<String> attributesToIgnore = Sets.newHashSet("weight");
+        for (ClassifierInstance instance : instances) {
+            AttributesMap attributes = instance.getAttributes();
+            assertSamePrediction(forest.predict(attributes), mapped.predict(attributes));
+            assertSamePrediction(forest.predictWithoutAttributes(attributes, attributesToIgnore), mapped.predictWithoutAttributes(attributes, attributesToIgnore));
+            for (Serializable classification : mapped.getClassifications()) {
+                Assert.assertEquals(forest.getProbability(attributes, classification), mapped.getProbability(attributes, classification), 1E-9);
+            }
+        }
+        assertSamePrediction(forest.predict(AttributesMap.newHashMap()), mapped.predict(AttributesMap.newHashMap()));
+    }
+}
@@ -0,0 +1,112 @@
+package quickml.supervised.tree.decisionTree.valueCounters;
+
+import org.junit.Assert;
+import org.junit.Test;
+import quickml.data.AttributesMap;
+import quickml.supervised.tree.decisionTree.DecisionTree;
+import quickml.supervised.tree.decisionTree.nodes.DTLeaf;
+import quickml.supervised.tree.nodes.Branch;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.zip.GZIPInputStream;
+
+public class ClassificationCounterTest {
+
+    @Test
+    public void inPlaceOperationsOnASharedIndexMutateTheCounter() {
+        ClassIndex classIndex = new ClassIndex();
+        ClassificationCounter a = new ClassificationCounter(classIndex);
+        a.addClassification("dog", 1.0);
+        ClassificationCounter b = new ClassificationCounter(classIndex);
+        b.addClassification("cat", 2.0);
+        b.addClassification("dog", 0.5);
+
+        Assert.assertSame(a, a.addInPlace(b));
+        Assert.assertEquals(1.5, a.getCount("dog"), 1E-9);
+        Assert.assertEquals(2.0, a.getCount("cat"), 1E-9);
+        Assert.assertEquals(3.5, a.getTotal(), 1E-9);
+
+        Assert.assertSame(a, a.subtractInPlace(b));
+        Assert.assertEquals(1.0, a.getCount("dog"), 1E-9);
+        Assert.assertEquals(0.0, a.getCount("cat"), 1E-9);
+        Assert.assertEquals(1.0, a.getTotal(), 1E-9);
+        Assert.assertEquals(1.0, a.getCountsByClassIndex()[classIndex.indexOf("dog")], 1E-9);
+    }
+
+    @Test
+    public void countersOnDifferentIndicesCombineByClassification() {
+        ClassificationCounter a = new ClassificationCounter();
+        a.addClassification("dog", 1.0);
+        a.addClassification("cat", 0.5);
+        ClassificationCounter b = new ClassificationCounter();
+        b.addClassification("cat", 1.0);
+        b.addClassification("bird", 2.0);
+
+        ClassificationCounter sum = a.add(b);
+        Assert.assertEquals(1.0, sum.getCount("dog"), 1E-9);
+        Assert.assertEquals(1.5, sum.getCount("cat"), 1E-9);
+        Assert.assertEquals(2.0, sum.getCount("bird"), 1E-9);
+        Assert.assertEquals(4.5, sum.getTotal(), 1E-9);
+        //add returns a copy
+        Assert.assertEquals(1.5, a.getTotal(), 1E-9);
+
+        ClassificationCounter difference = sum.subtract(b);
+        Assert.assertEquals(1.0, difference.getCount("dog"), 1E-9);
+        Assert.assertEquals(0.5, difference.getCount("cat"), 1E-9);
+        Assert.assertEquals(0.0, difference.getCount("bird"), 1E-9);
+        Assert.assertEquals(1.5, difference.getTotal(), 1E-9);
+    }
+
+    @Test
+    public void classificationsOnlyAppearOnceCounted() {
+        ClassIndex classIndex = new ClassIndex();
+        classIndex.getOrAddIndex("cat");
+        ClassificationCounter counter = new ClassificationCounter(classIndex);
+        counter.addClassification("dog", 0.0);
+
+        Assert.assertEquals(1, counter.allClassifications().size());
+        Assert.assertTrue(counter.allClassifications().contains("dog"));
+        Assert.assertEquals(1, counter.getCounts().size());
+        Assert.assertEquals("dog", counter.mostPopular().getValue0());
+    }
+
+    @Test
+    public void countersRoundTripThroughSerialization() throws IOException, ClassNotFoundException {
+        ClassificationCounter counter = new ClassificationCounter();
+        counter.addClassification("dog", 2.0);
+        counter.addClassification("cat", 0.0);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(counter);
+        }
+        ClassificationCounter loaded = (ClassificationCounter) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+
+        Assert.assertEquals(counter, loaded);
+        Assert.assertEquals(counter.allClassifications(), loaded.allClassifications());
+        Assert.assertEquals(2.0, loaded.getTotal(), 0);
+    }
+
+    @Test
+    public void modelsSerializedWithMapCountsAreLoaded() throws IOException, ClassNotFoundException {
+        //a tree on bmi, serialized with SerializationUtility before counters were indexed by a ClassIndex
+        DecisionTree decisionTree;
+        try (ObjectInputStream in = new ObjectInputStream(new GZIPInputStream(ClassificationCounterTest.class.getResourceAsStream("/quickml/legacyDecisionTree.ser.gz")))) {
+            decisionTree = (DecisionTree) in.readObject();
+        }
+        AttributesMap obese = AttributesMap.newHashMap();
+        obese.put("bmi", 30.0);
+        AttributesMap healthy = AttributesMap.newHashMap();
+        healthy.put("bmi", 20.0);
+
+        Assert.assertEquals(50.0 / 55, decisionTree.getProbability(obese, "unhealthy"), 1E-9);
+        Assert.assertEquals(43.5 / 45, decisionTree.getProbability(healthy, "healthy"), 1E-9);
+        ClassificationCounter counter = ((DTLeaf) ((Branch<ClassificationCounter>) decisionTree.root).getFalseChild()).getValueCounter();
+        Assert.assertEquals(45.0, counter.getTotal(), 1E-9);
+        counter.addClassification("healthy", 1.0);
+        Assert.assertEquals(44.5, counter.getCount("healthy"), 1E-9);
+    }
+}
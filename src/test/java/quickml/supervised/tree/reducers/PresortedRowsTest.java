@@ -0,0 +1,92 @@
+package quickml.supervised.tree.reducers;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Sets;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import quickml.data.ColumnarDataset;
+import quickml.data.instances.ClassifierInstance;
+import quickml.supervised.classifier.TreeBuilderTestUtils;
+import quickml.supervised.tree.decisionTree.valueCounters.ClassificationCounter;
+import quickml.supervised.tree.decisionTree.valueCounters.ClassificationCounterProducer;
+
+import java.util.List;
+import java.util.Set;
+
+public class PresortedRowsTest {
+    private ColumnarDataset data;
+    private PresortedRows presortedRows;
+
+    @Before
+    public void setUp() {
+        List<ClassifierInstance> instances = TreeBuilderTestUtils.getInstances(1000);
+        //missing values sort as 0
+        instances.get(7).getAttributes().remove("height");
+        data = ColumnarDataset.forClassification(instances);
+        presortedRows = new PresortedRows(data, data.getNumericAttributes());
+    }
+
+    @Test
+    public void rowsAreSortedByValue() {
+        for (String attribute : data.getNumericAttributes()) {
+            assertSorted(attribute, 0, data.size());
+        }
+    }
+
+    @Test
+    public void partitionKeepsBothChildrenSorted() {
+        int[] rows = data.allRows();
+        double[] weight = data.getNumericColumn("weight");
+        int firstFalseRow = 0;
+        for (int i = 0; i < rows.length; i++) {
+            if (weight[rows[i]] > 80) {
+                int row = rows[i];
+                rows[i] = rows[firstFalseRow];
+                rows[firstFalseRow++] = row;
+            }
+        }
+        presortedRows.partition(rows, 0, firstFalseRow, rows.length);
+
+        for (String attribute : data.getNumericAttributes()) {
+            assertSorted(attribute, 0, firstFalseRow);
+            assertSorted(attribute, firstFalseRow, rows.length);
+            Assert.assertEquals(rowSet(rows, 0, firstFalseRow), rowSet(presortedRows.getSortedRows(attribute), 0, firstFalseRow));
+        }
+    }
+
+    @Test
+    public void exactReducerHasOneValueCounterPerDistinctValue() {
+        ColumnarExactNumBranchReducer<ClassificationCounter> reducer = new ColumnarExactNumBranchReducer<>(data, data.allRows(), 0, data.size(),
+                new ClassificationCounterProducer<ClassifierInstance>(), presortedRows);
+        Optional<AttributeStats<ClassificationCounter>> stats = reducer.getAttributeStats("height");
+
+        Set<Double> distinctValues = Sets.newHashSet();
+        for (double value : data.getNumericColumn("height")) {
+            distinctValues.add(PresortedRows.getSortKey(value));
+        }
+        Assert.assertEquals(distinctValues.size(), stats.get().getStatsOnEachValue().size());
+        double previousValue = Double.NEGATIVE_INFINITY;
+        for (ClassificationCounter valueCounter : stats.get().getStatsOnEachValue()) {
+            Assert.assertTrue((Double) valueCounter.getAttrVal() > previousValue);
+            previousValue = (Double) valueCounter.getAttrVal();
+        }
+        Assert.assertEquals(data.size(), stats.get().getAggregateStats().getTotal(), 1E-9);
+    }
+
+    private void assertSorted(String attribute, int from, int to) {
+        int[] sorted = presortedRows.getSortedRows(attribute);
+        double[] column = data.getNumericColumn(attribute);
+        for (int i = from + 1; i < to; i++) {
+            Assert.assertTrue(PresortedRows.getSortKey(column[sorted[i - 1]]) <= PresortedRows.getSortKey(column[sorted[i]]));
+        }
+    }
+
+    private static Set<Integer> rowSet(int[] rows, int from, int to) {
+        Set<Integer> rowSet = Sets.newHashSet();
+        for (int i = from; i < to; i++) {
+            rowSet.add(rows[i]);
+        }
+        return rowSet;
+    }
+}
@@ -0,0 +1,101 @@
+package quickml.supervised.tree.reducers;
+
+import com.google.common.base.Optional;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import quickml.data.BinnedNumericColumns;
+import quickml.data.ColumnarDataset;
+import quickml.data.instances.ClassifierInstance;
+import quickml.supervised.classifier.TreeBuilderTestUtils;
+import quickml.supervised.tree.decisionTree.valueCounters.ClassificationCounter;
+import quickml.supervised.tree.decisionTree.valueCounters.ClassificationCounterProducer;
+
+import java.io.Serializable;
+import java.util.List;
+
+public class SiblingSubtractingReducerTest {
+    private ColumnarDataset data;
+    //every third row belongs to the smaller child, and is moved to the front of the parent's range
+    private int[] rows;
+    private int numSmallerRows;
+
+    @Before
+    public void setUp() {
+        List<ClassifierInstance> instances = TreeBuilderTestUtils.getInstances(1000);
+        for (ClassifierInstance instance : instances) {
+            instance.getAttributes().put("genderName", ((Integer) instance.getAttributes().get("gender")) == 0 ? "male" : "female");
+        }
+        data = ColumnarDataset.forClassification(instances);
+        rows = new int[data.size()];
+        for (int row = 0; row < data.size(); row += 3) {
+            rows[numSmallerRows++] = row;
+        }
+        int numRows = numSmallerRows;
+        for (int row = 0; row < data.size(); row++) {
+            if (row % 3 != 0) {
+                rows[numRows++] = row;
+            }
+        }
+    }
+
+    @Test
+    public void derivedHistogramStatsEqualDirectlyReducedStats() {
+        BinnedNumericColumns binnedColumns = data.getBinnedNumericColumns(BinnedNumericColumns.MAX_BINS);
+        ClassificationCounterProducer<ClassifierInstance> producer = new ClassificationCounterProducer<>();
+        assertDerivedStatsEqualDirectStats("height",
+                new ColumnarHistogramReducer<>(data, rows, 0, rows.length, producer, binnedColumns),
+                new ColumnarHistogramReducer<>(data, rows, 0, numSmallerRows, producer, binnedColumns),
+                new ColumnarHistogramReducer<>(data, rows, numSmallerRows, rows.length, producer, binnedColumns));
+    }
+
+    @Test
+    public void derivedCategoricalStatsEqualDirectlyReducedStats() {
+        ClassificationCounterProducer<ClassifierInstance> producer = new ClassificationCounterProducer<>();
+        assertDerivedStatsEqualDirectStats("genderName",
+                new ColumnarCatBranchReducer<>(data, rows, 0, rows.length, producer),
+                new ColumnarCatBranchReducer<>(data, rows, 0, numSmallerRows, producer),
+                new ColumnarCatBranchReducer<>(data, rows, numSmallerRows, rows.length, producer));
+    }
+
+    @Test
+    public void attributesTheParentDidNotReduceAreReducedDirectly() {
+        ClassificationCounterProducer<ClassifierInstance> producer = new ClassificationCounterProducer<>();
+        CachingAttributeStatisticsProducer<ClassificationCounter> parent = new CachingAttributeStatisticsProducer<ClassificationCounter>(new ColumnarCatBranchReducer<>(data, rows, 0, rows.length, producer));
+        ColumnarCatBranchReducer<ClassificationCounter> larger = new ColumnarCatBranchReducer<>(data, rows, numSmallerRows, rows.length, producer);
+        SiblingSubtractingReducer<ClassificationCounter> derived = new SiblingSubtractingReducer<>(parent.getComputedAttributeStats(),
+                new ColumnarCatBranchReducer<>(data, rows, 0, numSmallerRows, producer), larger);
+
+        assertSameStats(larger.getAttributeStats("genderName"), derived.getAttributeStats("genderName"));
+        Assert.assertTrue(parent.getComputedAttributeStats().isEmpty());
+    }
+
+    private void assertDerivedStatsEqualDirectStats(String attribute, ColumnarReducer<ClassificationCounter> parentReducer,
+                                                    ColumnarReducer<ClassificationCounter> smallerReducer, ColumnarReducer<ClassificationCounter> largerReducer) {
+        Assert.assertTrue(parentReducer.supportsSubtraction());
+        CachingAttributeStatisticsProducer<ClassificationCounter> parent = new CachingAttributeStatisticsProducer<>(parentReducer);
+        parent.getAttributeStats(attribute);
+        SiblingSubtractingReducer<ClassificationCounter> derived = new SiblingSubtractingReducer<>(parent.getComputedAttributeStats(), smallerReducer, largerReducer);
+
+        assertSameStats(largerReducer.getAttributeStats(attribute), derived.getAttributeStats(attribute));
+    }
+
+    private void assertSameStats(Optional<AttributeStats<ClassificationCounter>> expected, Optional<AttributeStats<ClassificationCounter>> actual) {
+        Assert.assertTrue(expected.isPresent());
+        Assert.assertTrue(actual.isPresent());
+        assertSameCounts(expected.get().getAggregateStats(), actual.get().getAggregateStats());
+        List<ClassificationCounter> expectedValueStats = expected.get().getStatsOnEachValue();
+        List<ClassificationCounter> actualValueStats = actual.get().getStatsOnEachValue();
+        Assert.assertEquals(expectedValueStats.size(), actualValueStats.size());
+        for (int i = 0; i < expectedValueStats.size(); i++) {
+            Assert.assertEquals(expectedValueStats.get(i).getAttrVal(), actualValueStats.get(i).getAttrVal());
+            assertSameCounts(expectedValueStats.get(i), actualValueStats.get(i));
+        }
+    }
+
+    private void assertSameCounts(ClassificationCounter expected, ClassificationCounter actual) {
+        for (Serializable classification : data.getLabelDictionary()) {
+            Assert.assertEquals(expected.getCount(classification), actual.getCount(classification), 1E-9);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package quickml.supervised.tree.reducers;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+import quickml.data.AttributesMap;
+import quickml.data.instances.ClassifierInstance;
+import quickml.supervised.tree.attributeIgnoringStrategies.IgnoreAttributesWithConstantProbability;
+import quickml.supervised.tree.decisionTree.DecisionTree;
+import quickml.supervised.tree.decisionTree.DecisionTreeBuilder;
+import quickml.supervised.tree.decisionTree.valueCounters.ClassificationCounter;
+import quickml.supervised.tree.decisionTree.valueCounters.ClassificationCounterProducer;
+
+import java.util.List;
+import java.util.Random;
+
+public class SparseNumBranchReducerTest {
+    private static final int NUM_ATTRIBUTES = 200;
+
+    @Test
+    public void absentValuesAreCountedInTheBinOfZero() {
+        List<ClassifierInstance> instances = Lists.newArrayList();
+        instances.add(instance(1.0, "a", 1.0));
+        instances.add(instance(1.0, "a", 2.0));
+        instances.add(instance(1.0, "b", 3.0));
+        instances.add(new ClassifierInstance(AttributesMap.newHashMap(), 0.0));
+        instances.add(new ClassifierInstance(AttributesMap.newHashMap(), 0.0));
+        SparseNumBranchReducer<ClassifierInstance, ClassificationCounter> reducer = new SparseNumBranchReducer<>(instances, new ClassificationCounterProducer<ClassifierInstance>(), 10, 2);
+
+        Optional<AttributeStats<ClassificationCounter>> attributeStats = reducer.getAttributeStats("a");
+        Assert.assertTrue(attributeStats.isPresent());
+        Assert.assertEquals(5.0, attributeStats.get().getAggregateStats().getTotal(), 1E-9);
+        List<ClassificationCounter> bins = attributeStats.get().getStatsOnEachValue();
+        //a has the values 1 and 2, so its bins are <= 0, <= 1.5 and > 1.5
+        Assert.assertEquals(3, bins.size());
+        Assert.assertEquals(0.0, (Double) bins.get(0).getAttrVal(), 1E-9);
+        Assert.assertEquals(3.0, bins.get(0).getTotal(), 1E-9);
+        Assert.assertEquals(2.0, bins.get(0).getCount(0.0), 1E-9);
+        Assert.assertEquals(1.0, bins.get(1).getTotal(), 1E-9);
+        Assert.assertEquals(1.0, bins.get(2).getTotal(), 1E-9);
+
+        Assert.assertFalse(reducer.getAttributeStats("c").isPresent());
+    }
+
+    @Test
+    public void sparseTreeSplitsOnOneHotAttributes() {
+        Random random = new Random(1);
+        List<ClassifierInstance> instances = Lists.newArrayList();
+        for (int i = 0; i < 2000; i++) {
+            AttributesMap attributes = AttributesMap.newHashMap();
+            for (int j = 0; j < 5; j++) {
+                attributes.put("f" + random.nextInt(NUM_ATTRIBUTES), 1.0);
+            }
+            instances.add(new ClassifierInstance(attributes, attributes.containsKey("f0") || attributes.containsKey("f1") ? 1.0 : 0.0));
+        }
+
+        DecisionTree decisionTree = new DecisionTreeBuilder<>().maxDepth(4).minLeafInstances(1).numNumericBins(2)
+                .attributeIgnoringStrategy(new IgnoreAttributesWithConstantProbability(0.0))
+                .sparseNumericAttributes(true).buildPredictiveModel(instances);
+
+        for (ClassifierInstance instance : instances) {
+            Assert.assertEquals(instance.getLabel(), decisionTree.getClassificationByMaxProb(instance.getAttributes()));
+        }
+    }
+
+    private static ClassifierInstance instance(double label, String attribute, double value) {
+        AttributesMap attributes = AttributesMap.newHashMap();
+        attributes.put(attribute, value);
+        return new ClassifierInstance(attributes, label);
+    }
+}
@@ -0,0 +1,66 @@
+package quickml.supervised.tree.treeBuildContexts;
+
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+import quickml.data.AttributesMap;
+import quickml.data.ColumnarDataset;
+import quickml.data.instances.ClassifierInstance;
+import quickml.data.instances.RegressionInstance;
+import quickml.supervised.classifier.TreeBuilderTestUtils;
+import quickml.supervised.tree.attributeIgnoringStrategies.IgnoreAttributesWithConstantProbability;
+import quickml.supervised.tree.decisionTree.DecisionTree;
+import quickml.supervised.tree.decisionTree.DecisionTreeBuilder;
+import quickml.supervised.tree.decisionTree.valueCounters.ClassificationCounter;
+import quickml.supervised.tree.regressionTree.RegressionTree;
+import quickml.supervised.tree.regressionTree.RegressionTreeBuilder;
+import quickml.supervised.tree.regressionTree.valueCounters.MeanValueCounter;
+
+import java.util.List;
+
+public class PreparedTrainingDataTest {
+
+    @Test
+    public void treesBuiltFromPreparedDataMatchTreesThatSurveyTheirOwn() {
+        List<ClassifierInstance> instances = TreeBuilderTestUtils.getInstances(1000);
+        DecisionTreeBuilder<ClassifierInstance> builder = new DecisionTreeBuilder<>().numHistogramBins(64)
+                .attributeIgnoringStrategy(new IgnoreAttributesWithConstantProbability(0.0)).maxDepth(6).minLeafInstances(10);
+        ColumnarDataset data = ColumnarDataset.forClassification(instances);
+
+        PreparedTrainingData<ClassifierInstance, ClassificationCounter> preparedInstances = builder.copy().prepareTrainingData(instances);
+        PreparedTrainingData<ClassifierInstance, ClassificationCounter> preparedColumns = builder.copy().prepareTrainingData(data);
+        Assert.assertEquals(preparedInstances.getCandidateAttributesByType(), preparedColumns.getCandidateAttributesByType());
+
+        DecisionTree fromInstances = builder.copy().buildPredictiveModel(instances);
+        DecisionTree fromPreparedInstances = builder.copy().buildPredictiveModel(instances, preparedInstances);
+        DecisionTree fromColumns = builder.copy().buildPredictiveModel(data);
+        //several trees can be built from one survey
+        DecisionTree fromPreparedColumns = builder.copy().buildPredictiveModel(data, preparedColumns);
+        DecisionTree fromPreparedColumnsAgain = builder.copy().buildPredictiveModel(data, preparedColumns);
+
+        for (ClassifierInstance instance : instances) {
+            AttributesMap attributes = instance.getAttributes();
+            Assert.assertEquals(fromInstances.getProbability(attributes, "healthy"), fromPreparedInstances.getProbability(attributes, "healthy"), 1E-9);
+            Assert.assertEquals(fromColumns.getProbability(attributes, "healthy"), fromPreparedColumns.getProbability(attributes, "healthy"), 1E-9);
+            Assert.assertEquals(fromColumns.getProbability(attributes, "healthy"), fromPreparedColumnsAgain.getProbability(attributes, "healthy"), 1E-9);
+        }
+    }
+
+    @Test
+    public void regressionTreesBuiltFromPreparedDataMatchTreesThatSurveyTheirOwn() {
+        List<RegressionInstance> instances = Lists.newArrayList();
+        for (ClassifierInstance instance : TreeBuilderTestUtils.getInstances(1000)) {
+            AttributesMap attributes = instance.getAttributes();
+            instances.add(new RegressionInstance(attributes, TreeBuilderTestUtils.bmi((Double) attributes.get("weight"), (Double) attributes.get("height"))));
+        }
+        RegressionTreeBuilder<RegressionInstance> builder = new RegressionTreeBuilder<>()
+                .attributeIgnoringStrategy(new IgnoreAttributesWithConstantProbability(0.0)).maxDepth(6).minLeafInstances(10);
+        PreparedTrainingData<RegressionInstance, MeanValueCounter> prepared = builder.copy().prepareTrainingData(instances);
+
+        RegressionTree tree = builder.copy().buildPredictiveModel(instances);
+        RegressionTree fromPrepared = builder.copy().buildPredictiveModel(instances, prepared);
+        for (RegressionInstance instance : instances) {
+            Assert.assertEquals(tree.predict(instance.getAttributes()), fromPrepared.predict(instance.getAttributes()), 1E-9);
+        }
+    }
+}
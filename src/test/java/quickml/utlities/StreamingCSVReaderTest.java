@@ -0,0 +1,167 @@
+package quickml.utlities;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.junit.Assert;
+import org.junit.Test;
+import quickml.concurrent.ComputeScheduler;
+import quickml.data.AttributesMap;
+import quickml.data.ColumnarDataset;
+import quickml.data.instances.ClassifierInstance;
+import quickml.data.instances.RegressionInstance;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+public class StreamingCSVReaderTest {
+
+    @Test
+    public void streamedInstancesMatchTheFile() throws Exception {
+        List<ClassifierInstance> expected = Lists.newArrayList();
+        File file = writeCsv(500, expected);
+        try {
+            for (int chunkSize : new int[]{1, 100, StreamingCSVReader.DEFAULT_CHUNK_SIZE}) {
+                Iterator<ClassifierInstance> streamed = getBuilder().chunkSize(chunkSize).buildStreamingCsvReader().iterateClassifierInstances(file);
+                for (ClassifierInstance instance : expected) {
+                    ClassifierInstance streamedInstance = streamed.next();
+                    Assert.assertEquals(instance.getLabel(), streamedInstance.getLabel());
+                    Assert.assertEquals(instance.getWeight(), streamedInstance.getWeight(), 0);
+                    Assert.assertEquals(instance.getAttributes(), streamedInstance.getAttributes());
+                }
+                Assert.assertFalse(streamed.hasNext());
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void columnsMatchTheColumnsOfTheInstances() throws Exception {
+        List<ClassifierInstance> instances = Lists.newArrayList();
+        File file = writeCsv(500, instances);
+        try {
+            ColumnarDataset expected = ColumnarDataset.forClassification(instances);
+            ColumnarDataset columns = getBuilder().chunkSize(200).scheduler(new ComputeScheduler(3)).buildStreamingCsvReader()
+                    .readColumnarDatasetForClassification(file);
+            assertSameColumns(expected, columns);
+            Assert.assertArrayEquals(expected.getLabelCodes(), columns.getLabelCodes());
+            Assert.assertEquals(expected.getLabelDictionary(), columns.getLabelDictionary());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void schemaDecidesTheColumnTypes() throws Exception {
+        File file = writeCsv(200, Lists.<ClassifierInstance>newArrayList());
+        try {
+            CSVSchema schema = new CSVSchema().numericColumns(Sets.newHashSet("height", "weight"))
+                    .categoricalColumns(Sets.newHashSet("zip")).ignoredColumns(Sets.newHashSet("gender"));
+            StreamingCSVReader reader = getBuilder().schema(schema).chunkSize(300).buildStreamingCsvReader();
+            for (ClassifierInstance instance : reader.readClassifierInstances(file)) {
+                Assert.assertFalse(instance.getAttributes().containsKey("gender"));
+                Assert.assertTrue(instance.getAttributes().get("zip") instanceof String);
+                Assert.assertTrue(instance.getAttributes().get("weight") instanceof Number);
+            }
+            ColumnarDataset columns = reader.readColumnarDatasetForClassification(file);
+            Assert.assertEquals(Sets.newHashSet("height", "weight"), columns.getNumericAttributes());
+            Assert.assertEquals(Sets.newHashSet("zip", "city"), columns.getCategoricalAttributes());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void regressionColumnsSkipRowsWithoutNumericLabels() throws Exception {
+        File file = writeCsv(300, Lists.<ClassifierInstance>newArrayList());
+        try {
+            CSVToInstanceReaderBuilder builder = getBuilder().collumnNameForLabel("height").chunkSize(150);
+            List<RegressionInstance> expected = Lists.newArrayList();
+            for (ClassifierInstance instance : builder.buildStreamingCsvReader().readClassifierInstances(file)) {
+                if (instance.getLabel() instanceof Number) {
+                    expected.add(new RegressionInstance(instance.getAttributes(), ((Number) instance.getLabel()).doubleValue(), instance.getWeight()));
+                }
+            }
+            Assert.assertTrue(expected.size() < 300);
+
+            ColumnarDataset columns = builder.buildStreamingCsvReader().readColumnarDatasetForRegression(file);
+            ColumnarDataset expectedColumns = ColumnarDataset.forRegression(expected);
+            assertSameColumns(expectedColumns, columns);
+            Assert.assertArrayEquals(expectedColumns.getNumericLabels(), columns.getNumericLabels(), 0);
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static CSVToInstanceReaderBuilder getBuilder() {
+        return new CSVToInstanceReaderBuilder().collumnNameForLabel("outcome").collumnNameForWeight("w");
+    }
+
+    private static void assertSameColumns(ColumnarDataset expected, ColumnarDataset actual) {
+        Assert.assertEquals(expected.size(), actual.size());
+        Assert.assertArrayEquals(expected.getWeights(), actual.getWeights(), 0);
+        Assert.assertEquals(expected.getNumericAttributes(), actual.getNumericAttributes());
+        Assert.assertEquals(expected.getCategoricalAttributes(), actual.getCategoricalAttributes());
+        for (String attribute : expected.getNumericAttributes()) {
+            Assert.assertArrayEquals(expected.getNumericColumn(attribute), actual.getNumericColumn(attribute), 0);
+        }
+        for (String attribute : expected.getCategoricalAttributes()) {
+            Assert.assertArrayEquals(expected.getCategoricalColumn(attribute), actual.getCategoricalColumn(attribute));
+            Assert.assertEquals(expected.getDictionary(attribute), actual.getDictionary(attribute));
+        }
+    }
+
+    /**
+     * Writes rows with missing values, numbers that are categories, quoted values with delimiters and windows line breaks,
+     * adding the instances the CSVToInstanceReader would read from them to instances.
+     */
+    private static File writeCsv(int numRows, List<ClassifierInstance> instances) throws IOException {
+        File file = File.createTempFile("instances", ".csv");
+        Random random = new Random(7);
+        String[] cities = {"Austin", "\"Washington, D.C.\"", "\"Quoted \"\"Town\"\"\"", "Z\u00fcrich"};
+        String[] cityValues = {"Austin", "Washington, D.C.", "Quoted \"Town\"", "Z\u00fcrich"};
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write("outcome,height,weight,gender,zip,city,w\n");
+            for (int row = 0; row < numRows; row++) {
+                AttributesMap attributes = AttributesMap.newHashMap();
+                String label = random.nextBoolean() ? "healthy" : "unhealthy";
+                writer.write(label);
+                writer.write(',');
+                if (random.nextInt(10) > 0) {
+                    long height = 150 + random.nextInt(50);
+                    writer.write(String.valueOf(height));
+                    attributes.put("height", height);
+                }
+                writer.write(',');
+                double weight = 50 + 50 * random.nextDouble();
+                writer.write(String.valueOf(weight));
+                attributes.put("weight", weight);
+                writer.write(',');
+                String gender = random.nextBoolean() ? "male" : "female";
+                writer.write(gender);
+                attributes.put("gender", gender);
+                writer.write(',');
+                long zip = 78700 + random.nextInt(5);
+                writer.write(String.valueOf(zip));
+                attributes.put("zip", zip);
+                writer.write(',');
+                int city = random.nextInt(cities.length);
+                writer.write(cities[city]);
+                attributes.put("city", cityValues[city]);
+                writer.write(',');
+                double instanceWeight = 1.0 + random.nextInt(3);
+                writer.write(String.valueOf(instanceWeight));
+                writer.write(row % 2 == 0 ? "\r\n" : "\n");
+                instances.add(new ClassifierInstance(attributes, label, instanceWeight));
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,180 @@
+package quickml.utlities.binaryFormat;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.junit.Assert;
+import org.junit.Test;
+import quickml.data.AttributesMap;
+import quickml.data.PredictionMap;
+import quickml.data.instances.ClassifierInstance;
+import quickml.data.instances.RegressionInstance;
+import quickml.supervised.calibratedPredictiveModel.CalibratedClassifier;
+import quickml.supervised.classifier.Classifier;
+import quickml.supervised.classifier.TreeBuilderTestUtils;
+import quickml.supervised.classifier.logisticRegression.LogisticRegression;
+import quickml.supervised.ensembles.randomForest.randomDecisionForest.RandomDecisionForest;
+import quickml.supervised.ensembles.randomForest.randomDecisionForest.RandomDecisionForestBuilder;
+import quickml.supervised.ensembles.randomForest.randomRegressionForest.RandomRegressionForest;
+import quickml.supervised.ensembles.randomForest.randomRegressionForest.RandomRegressionForestBuilder;
+import quickml.supervised.regressionModel.IsotonicRegression.PoolAdjacentViolatorsModel;
+import quickml.supervised.tree.decisionTree.DecisionTree;
+import quickml.supervised.tree.decisionTree.DecisionTreeBuilder;
+import quickml.supervised.tree.regressionTree.RegressionTree;
+import quickml.supervised.tree.regressionTree.RegressionTreeBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class BinaryModelFormatTest {
+
+    @Test
+    public void forestRoundTrips() throws IOException {
+        List<ClassifierInstance> instances = TreeBuilderTestUtils.getInstances(2000);
+        RandomDecisionForest forest = new RandomDecisionForestBuilder<>(new DecisionTreeBuilder<>().maxDepth(8)
+                .ignoreAttributeProbability(0.3)).numTrees(6).seed(5).buildPredictiveModel(instances);
+
+        for (boolean compress : new boolean[]{false, true}) {
+            byte[] bytes = write(forest, compress);
+            RandomDecisionForest loaded = (RandomDecisionForest) read(bytes);
+            Assert.assertEquals(forest.getClassifications(), loaded.getClassifications());
+            assertSamePredictions(forest, loaded, instances);
+            //branches are written without their training counts, and values once
+            Assert.assertTrue(bytes.length < getSerializedSize(forest));
+        }
+        Assert.assertTrue(write(forest, true).length < write(forest, false).length);
+    }
+
+    @Test
+    public void slimForestsRoundTrip() throws IOException {
+        List<ClassifierInstance> instances = TreeBuilderTestUtils.getInstances(2000);
+        for (boolean quantize : new boolean[]{false, true}) {
+            RandomDecisionForest forest = new RandomDecisionForestBuilder<>(new DecisionTreeBuilder<>().maxDepth(8)
+                    .ignoreAttributeProbability(0.3).slim(true).quantizeLeafProbabilities(quantize))
+                    .numTrees(6).seed(5).buildPredictiveModel(instances);
+            RandomDecisionForest loaded = (RandomDecisionForest) read(write(forest, true));
+            assertSamePredictions(forest, loaded, instances);
+            for (int tree = 0; tree < forest.decisionTrees.size(); tree++) {
+                assertSameDepths(forest.decisionTrees.get(tree), loaded.decisionTrees.get(tree));
+            }
+        }
+
+        DecisionTree decisionTree = new DecisionTreeBuilder<>().maxDepth(8).buildPredictiveModel(instances);
+        DecisionTree loadedTree = (DecisionTree) read(write(decisionTree, false));
+        assertSamePredictions(decisionTree, loadedTree, instances);
+        assertSameDepths(decisionTree, loadedTree);
+    }
+
+    @Test
+    public void regressionModelsRoundTrip() throws IOException {
+        List<RegressionInstance> instances = Lists.newArrayList();
+        for (ClassifierInstance instance : TreeBuilderTestUtils.getInstances(1000)) {
+            AttributesMap attributes = instance.getAttributes();
+            instances.add(new RegressionInstance(attributes, TreeBuilderTestUtils.bmi((Double) attributes.get("weight"), (Double) attributes.get("height"))));
+        }
+        RegressionTree regressionTree = new RegressionTreeBuilder<>().maxDepth(8).buildPredictiveModel(instances);
+        RandomRegressionForest forest = new RandomRegressionForestBuilder<>(new RegressionTreeBuilder<>().maxDepth(8)
+                .ignoreAttributeProbability(0.3)).numTrees(4).buildPredictiveModel(instances);
+
+        RegressionTree loadedTree = (RegressionTree) read(write(regressionTree, true));
+        RandomRegressionForest loadedForest = (RandomRegressionForest) read(write(forest, false));
+        for (RegressionInstance instance : instances) {
+            Assert.assertEquals(regressionTree.predict(instance.getAttributes()), loadedTree.predict(instance.getAttributes()), 1E-12);
+            Assert.assertEquals(forest.predict(instance.getAttributes()), loadedForest.predict(instance.getAttributes()), 1E-12);
+        }
+    }
+
+    @Test
+    public void logisticRegressionsRoundTrip() throws IOException {
+        HashMap<String, Integer> nameToIndexMap = Maps.newHashMap();
+        nameToIndexMap.put("height", 1);
+        nameToIndexMap.put("weight", 2);
+        Map<Serializable, Double> classificationToClassNameMap = Maps.newHashMap();
+        classificationToClassNameMap.put("healthy", 1.0);
+        classificationToClassNameMap.put("unhealthy", 0.0);
+        LogisticRegression logisticRegression = new LogisticRegression(new double[]{0.5, -0.01, 0.02}, nameToIndexMap, classificationToClassNameMap);
+        PoolAdjacentViolatorsModel pav = new PoolAdjacentViolatorsModel(Lists.newArrayList(new PoolAdjacentViolatorsModel.Observation(0.1, 0.2),
+                new PoolAdjacentViolatorsModel.Observation(0.5, 0.4), new PoolAdjacentViolatorsModel.Observation(0.9, 0.8)));
+        LogisticRegression calibrated = new LogisticRegression(logisticRegression, pav);
+        CalibratedClassifier calibratedClassifier = new CalibratedClassifier(logisticRegression, pav);
+
+        List<ClassifierInstance> instances = Lists.newArrayList();
+        for (ClassifierInstance instance : TreeBuilderTestUtils.getInstances(200)) {
+            AttributesMap attributes = AttributesMap.newHashMap();
+            attributes.put("height", instance.getAttributes().get("height"));
+            attributes.put("weight", instance.getAttributes().get("weight"));
+            instances.add(new ClassifierInstance(attributes, instance.getLabel()));
+        }
+        LogisticRegression loaded = (LogisticRegression) read(write(logisticRegression, true));
+        Assert.assertArrayEquals(logisticRegression.getWeights(), loaded.getWeights(), 0);
+        Assert.assertEquals(nameToIndexMap, loaded.getNameToIndexMap());
+        Assert.assertEquals(classificationToClassNameMap, loaded.getClassificationToClassNameMap());
+        assertSamePredictions(logisticRegression, loaded, instances);
+        assertSamePredictions(calibrated, (LogisticRegression) read(write(calibrated, false)), instances);
+        assertSamePredictions(calibratedClassifier, (CalibratedClassifier) read(write(calibratedClassifier, true)), instances);
+    }
+
+    @Test(expected = IOException.class)
+    public void newerVersionsAreRejected() throws IOException {
+        byte[] bytes = write(new DecisionTreeBuilder<>().maxDepth(2).buildPredictiveModel(TreeBuilderTestUtils.getInstances(100)), false);
+        bytes[4] = (byte) (BinaryModelFormat.VERSION + 1);
+        read(bytes);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unsupportedModelsAreRejected() throws IOException {
+        write("not a model", false);
+    }
+
+    private static byte[] write(Object model, boolean compress) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinaryModelFormat.write(model, bytes, compress);
+        return bytes.toByteArray();
+    }
+
+    private static Object read(byte[] bytes) throws IOException {
+        return BinaryModelFormat.read(new ByteArrayInputStream(bytes));
+    }
+
+    private static int getSerializedSize(Serializable object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.size();
+    }
+
+    private static void assertSamePredictions(Classifier expected, Classifier actual, List<ClassifierInstance> instances) {
+        Set<String> attributesToIgnore = Sets.newHashSet("weight");
+        for (ClassifierInstance instance : instances) {
+            assertSamePrediction(expected.predict(instance.getAttributes()), actual.predict(instance.getAttributes()));
+            //logistic regressions don't support predictWithoutAttributes
+            if (!(expected instanceof LogisticRegression || expected instanceof CalibratedClassifier)) {
+                assertSamePrediction(expected.predictWithoutAttributes(instance.getAttributes(), attributesToIgnore),
+                        actual.predictWithoutAttributes(instance.getAttributes(), attributesToIgnore));
+            }
+        }
+    }
+
+    private static void assertSameDepths(DecisionTree expected, DecisionTree actual) {
+        Assert.assertTrue(expected.calcMeanDepth() > 0);
+        Assert.assertEquals(expected.calcMeanDepth(), actual.calcMeanDepth(), 0);
+        Assert.assertEquals(expected.calcMedianDepth(), actual.calcMedianDepth(), 0);
+        Assert.assertEquals(expected.getLeafDepthStats().depthDistribution, actual.getLeafDepthStats().depthDistribution);
+    }
+
+    private static void assertSamePrediction(PredictionMap expected, PredictionMap actual) {
+        Set<Serializable> classifications = Sets.newHashSet(expected.keySet());
+        classifications.addAll(actual.keySet());
+        for (Serializable classification : classifications) {
+            Assert.assertEquals(expected.get(classification), actual.get(classification), 1E-12);
+        }
+    }
+}